@@ -2,11 +2,35 @@ package ro.dragos.geornoiu;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ro.dragos.geornoiu.constants.ACMEConstants;
+import ro.dragos.geornoiu.constants.FactoryTiming;
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.conveyor.RecycleBuffer;
 import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.enums.WaitStrategyType;
+import ro.dragos.geornoiu.eventloop.EventLoopGroup;
 import ro.dragos.geornoiu.exception.InvalidRobotTypeException;
+import ro.dragos.geornoiu.line.FactoryLine;
+import ro.dragos.geornoiu.line.LineRegistry;
+import ro.dragos.geornoiu.planning.OrderBook;
+import ro.dragos.geornoiu.planning.ProductionPlanner;
+import ro.dragos.geornoiu.producer.FactorySupplier;
+import ro.dragos.geornoiu.recipe.RecipeCatalog;
+import ro.dragos.geornoiu.reporting.DashboardReporter;
+import ro.dragos.geornoiu.scaling.WorkerAutoscaler;
 import ro.dragos.geornoiu.service.ComponentGeneratorService;
 import ro.dragos.geornoiu.service.factory.ACMEFactory;
+import ro.dragos.geornoiu.service.factory.QueueStorage;
 import ro.dragos.geornoiu.service.impl.DefaultComponentGeneratorService;
+import ro.dragos.geornoiu.service.impl.DemandWeightedComponentGeneratorService;
+import ro.dragos.geornoiu.service.impl.RecordingComponentGeneratorService;
+import ro.dragos.geornoiu.service.impl.ReplayComponentGeneratorService;
+import ro.dragos.geornoiu.warehouse.RobotRecordLog;
+import ro.dragos.geornoiu.warehouse.RobotWarehouse;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
 
 public class Main {
     private static final Logger LOG = LoggerFactory.getLogger(Main.class);
@@ -17,12 +41,80 @@ public class Main {
         int noOfWet2000Workers = Integer.valueOf(args[1]);
         int numberOfSeconds = Integer.valueOf(args[2]);
 
-        ComponentGeneratorService componentGeneratorService = new DefaultComponentGeneratorService();
-        ACMEFactory objectFactory = new ACMEFactory(componentGeneratorService);
+        int noOfLines = Integer.getInteger(ACMEConstants.LINES_PROPERTY, 0);
+        if (noOfLines > 0) {
+            runLines(noOfLines, noOfDry2000Workers, noOfWet2000Workers, numberOfSeconds);
+            System.exit(0);
+        }
+
+        // the orders weight the supplied components by what they still need
+        String orders = System.getProperty(ACMEConstants.ORDERS_PROPERTY);
+        OrderBook orderBook = orders == null ? null : OrderBook.parse(orders);
+        ComponentGeneratorService componentGeneratorService = orderBook == null ? getComponentGeneratorService() :
+                new DemandWeightedComponentGeneratorService(orderBook);
+
+        // the processes sharing a conveyor belt cannot notify each other, so they poll it by default
+        boolean sharedConveyorBelt = System.getProperty(ACMEConstants.SHARED_CONVEYOR_BELT_PROPERTY) != null;
+        String defaultWaitStrategyType = sharedConveyorBelt ? WaitStrategyType.SPIN_THEN_PARK.name() :
+                WaitStrategyType.BLOCKING.name();
+        WaitStrategyType workerWaitStrategyType = WaitStrategyType.valueOf(
+                System.getProperty(ACMEConstants.WORKER_WAIT_STRATEGY_PROPERTY, defaultWaitStrategyType));
+        WaitStrategyType supplierWaitStrategyType = WaitStrategyType.valueOf(
+                System.getProperty(ACMEConstants.SUPPLIER_WAIT_STRATEGY_PROPERTY, defaultWaitStrategyType));
+        String recipesFile = System.getProperty(ACMEConstants.RECIPES_PROPERTY);
+        RecipeCatalog recipeCatalog = recipesFile == null ? RecipeCatalog.getDefault() :
+                RecipeCatalog.load(Paths.get(recipesFile));
+        ACMEFactory objectFactory = new ACMEFactory(componentGeneratorService, workerWaitStrategyType,
+                supplierWaitStrategyType, FactoryTiming.DEFAULT, QueueStorage.getConveyorBelt(), recipeCatalog);
+
+        int recycleCapacity = Integer.getInteger(ACMEConstants.RECYCLE_CAPACITY_PROPERTY, 0);
+        RecycleBuffer recycleBuffer = recycleCapacity <= 0 ? null : objectFactory.enableRecycleBuffer(recycleCapacity,
+                Long.getLong(ACMEConstants.RECYCLE_MAX_AGE_PROPERTY, ACMEConstants.DEFAULT_RECYCLE_MAX_AGE_MILLIS));
+
+        String warehouseFile = System.getProperty(ACMEConstants.WAREHOUSE_FILE_PROPERTY);
+        RobotRecordLog robotRecordLog = null;
+        RobotWarehouse robotWarehouse = null;
+        Thread warehouseThread = null;
+        if (warehouseFile != null) {
+            robotRecordLog = new RobotRecordLog(Paths.get(warehouseFile));
+            robotWarehouse = new RobotWarehouse(robotRecordLog, ACMEConstants.WAREHOUSE_CAPACITY,
+                    ACMEConstants.WAREHOUSE_BATCH_SIZE);
+            objectFactory.getEventListener().addListener(robotWarehouse);
+            warehouseThread = new Thread(robotWarehouse);
+            warehouseThread.start();
+        }
+
+        // the actors on event loops are woken up by each other's signals, which other processes do not send, and the
+        // production planner starts its workers on threads of their own
+        int noOfEventLoops = sharedConveyorBelt || orderBook != null ? 0 :
+                Integer.getInteger(ACMEConstants.EVENT_LOOPS_PROPERTY, 0);
+        EventLoopGroup eventLoopGroup = noOfEventLoops > 0 ? new EventLoopGroup(noOfEventLoops, "acme-loop") : null;
+        if (eventLoopGroup != null) {
+            eventLoopGroup.start();
+        }
+
+        // the sorting station and the dispatcher wait on the monitor of the conveyor belt, which other processes do not
+        // notify, and do not signal the event loops
+        boolean useSortingStation = !sharedConveyorBelt && eventLoopGroup == null &&
+                Boolean.getBoolean(ACMEConstants.SORTING_STATION_PROPERTY);
+        boolean useDispatcher = !sharedConveyorBelt && eventLoopGroup == null && !useSortingStation &&
+                Boolean.getBoolean(ACMEConstants.DISPATCHER_PROPERTY);
+        if (useSortingStation) {
+            new Thread(objectFactory.getSortingStation()).start();
+        } else if (useDispatcher) {
+            new Thread(objectFactory.getDispatcher()).start();
+        }
+
+        boolean startSupplier = Boolean.parseBoolean(System.getProperty(ACMEConstants.SUPPLIER_PROPERTY, "true"));
+        if (orderBook != null) {
+            objectFactory.getEventListener().addListener(orderBook);
+            orderBook.start(objectFactory, noOfDry2000Workers + noOfWet2000Workers, startSupplier ? 1 : 0);
+        }
 
         for (int i = 0; i < noOfDry2000Workers; i++) {
             try {
-                new Thread(objectFactory.getWorker(RobotType.DRY2000, String.valueOf(i))).start();
+                startWorker(getWorker(objectFactory, RobotType.DRY2000, String.valueOf(i), useSortingStation,
+                        useDispatcher), objectFactory, eventLoopGroup);
             } catch (InvalidRobotTypeException irte) {
                 LOG.error("Invalid robot type given as parameter for Worker");
             }
@@ -30,18 +122,153 @@ public class Main {
 
         for (int i = 0; i < noOfWet2000Workers; i++) {
             try {
-                new Thread(objectFactory.getWorker(RobotType.WET2000, String.valueOf(i))).start();
+                startWorker(getWorker(objectFactory, RobotType.WET2000, String.valueOf(i), useSortingStation,
+                        useDispatcher), objectFactory, eventLoopGroup);
             } catch (InvalidRobotTypeException irte) {
                 LOG.error("Invalid robot type given as parameter for Worker");
             }
         }
 
-        new Thread(objectFactory.getFactorySupplier("Producer")).start();
+        if (startSupplier) {
+            FactorySupplier factorySupplier = getFactorySupplier(objectFactory, "Producer");
+
+            if (eventLoopGroup == null) {
+                new Thread(factorySupplier).start();
+            } else {
+                factorySupplier.start(eventLoopGroup.next(), objectFactory.getConveyorBeltSignal());
+            }
+        }
+
+        if (orderBook != null) {
+            ProductionPlanner productionPlanner = new ProductionPlanner(objectFactory, orderBook,
+                    (robotType, name) -> getWorker(objectFactory, robotType, name, useSortingStation, useDispatcher),
+                    Long.getLong(ACMEConstants.PLANNER_INTERVAL_PROPERTY,
+                            ACMEConstants.DEFAULT_PLANNER_INTERVAL_MILLIS));
+            new Thread(productionPlanner).start();
+        }
+
+        // the autoscaler starts its workers on threads of their own, and would fight the production planner
+        if (eventLoopGroup == null && orderBook == null && Boolean.getBoolean(ACMEConstants.AUTOSCALER_PROPERTY)) {
+            WorkerAutoscaler workerAutoscaler = new WorkerAutoscaler(objectFactory,
+                    (robotType, name) -> getWorker(objectFactory, robotType, name, useSortingStation, useDispatcher),
+                    Integer.getInteger(ACMEConstants.AUTOSCALER_MIN_WORKERS_PROPERTY,
+                            ACMEConstants.DEFAULT_AUTOSCALER_MIN_WORKERS),
+                    Integer.getInteger(ACMEConstants.AUTOSCALER_MAX_WORKERS_PROPERTY,
+                            ACMEConstants.DEFAULT_AUTOSCALER_MAX_WORKERS),
+                    Long.getLong(ACMEConstants.AUTOSCALER_INTERVAL_PROPERTY,
+                            ACMEConstants.DEFAULT_AUTOSCALER_INTERVAL_MILLIS));
+            new Thread(workerAutoscaler).start();
+        }
+
+        long dashboardIntervalInMillis = Long.getLong(ACMEConstants.DASHBOARD_INTERVAL_PROPERTY,
+                ACMEConstants.DEFAULT_DASHBOARD_INTERVAL_MILLIS);
+        if (dashboardIntervalInMillis > 0) {
+            new Thread(new DashboardReporter(objectFactory, dashboardIntervalInMillis)).start();
+        }
+
+        // Let the simulation run, at most until every order is complete
+        if (orderBook == null) {
+            Thread.sleep(numberOfSeconds * 1000);
+        } else if (!orderBook.awaitCompletion(numberOfSeconds, TimeUnit.SECONDS)) {
+            LOG.info("Orders are not complete after {} seconds", numberOfSeconds);
+        }
+
+        LOG.info("{}", objectFactory.getDwellTimeMetrics().report());
+
+        if (orderBook != null) {
+            LOG.info("{}", orderBook.report());
+        }
+
+        if (recycleBuffer != null) {
+            LOG.info("{}", recycleBuffer.report());
+        }
+
+        if (componentGeneratorService instanceof RecordingComponentGeneratorService) {
+            ((RecordingComponentGeneratorService) componentGeneratorService).close();
+        }
 
-        // Let the simulation run
-        Thread.sleep(numberOfSeconds * 1000);
+        if (robotWarehouse != null) {
+            robotWarehouse.stop();
+            warehouseThread.join();
+            robotRecordLog.close();
+            LOG.info("Warehouse stored {} robots in {}", robotWarehouse.getNoOfStoredRobots(), warehouseFile);
+        }
 
         // End of simulation
         System.exit(0);
     }
+
+    /**
+     * Host the given number of independent lines in a {@link LineRegistry} and report the robots assembled by each of
+     * them at the end.
+     */
+    private static void runLines(int noOfLines, int noOfDry2000Workers, int noOfWet2000Workers, int numberOfSeconds)
+            throws InterruptedException {
+        int noOfEventLoops = Integer.getInteger(ACMEConstants.LINE_EVENT_LOOPS_PROPERTY,
+                Runtime.getRuntime().availableProcessors());
+
+        try (LineRegistry lineRegistry = new LineRegistry(noOfEventLoops, FactoryTiming.DEFAULT)) {
+            for (int i = 0; i < noOfLines; i++) {
+                lineRegistry.addLine("line-" + i, noOfDry2000Workers, noOfWet2000Workers,
+                        new DefaultComponentGeneratorService());
+            }
+
+            // Let the simulation run
+            Thread.sleep(numberOfSeconds * 1000);
+
+            for (FactoryLine line : lineRegistry.getLines()) {
+                LOG.info("{} assembled {} DRY2000 and {} WET2000 robots", line.getName(),
+                        line.getThroughputMetrics().getNoOfAssembledRobots(RobotType.DRY2000),
+                        line.getThroughputMetrics().getNoOfAssembledRobots(RobotType.WET2000));
+            }
+        }
+    }
+
+    private static ComponentGeneratorService getComponentGeneratorService() throws IOException {
+        String replayTrace = System.getProperty(ACMEConstants.REPLAY_TRACE_PROPERTY);
+        ComponentGeneratorService componentGeneratorService = replayTrace == null ?
+                new DefaultComponentGeneratorService() : new ReplayComponentGeneratorService(Paths.get(replayTrace));
+
+        String recordTrace = System.getProperty(ACMEConstants.RECORD_TRACE_PROPERTY);
+        if (recordTrace != null) {
+            componentGeneratorService = new RecordingComponentGeneratorService(componentGeneratorService,
+                    Paths.get(recordTrace));
+        }
+
+        return componentGeneratorService;
+    }
+
+    private static FactorySupplier getFactorySupplier(ACMEFactory objectFactory, String name) {
+        if (!Boolean.getBoolean(ACMEConstants.ADAPTIVE_SUPPLY_PROPERTY)) {
+            return objectFactory.getFactorySupplier(name);
+        }
+
+        return objectFactory.getAdaptiveFactorySupplier(name,
+                getDoubleProperty(ACMEConstants.SUPPLY_MIN_RATE_PROPERTY, ACMEConstants.DEFAULT_SUPPLY_MIN_RATE),
+                getDoubleProperty(ACMEConstants.SUPPLY_MAX_RATE_PROPERTY, ACMEConstants.DEFAULT_SUPPLY_MAX_RATE),
+                getDoubleProperty(ACMEConstants.SUPPLY_TARGET_FILL_PROPERTY, ACMEConstants.DEFAULT_SUPPLY_TARGET_FILL));
+    }
+
+    private static double getDoubleProperty(String property, double defaultValue) {
+        String value = System.getProperty(property);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    private static void startWorker(Worker worker, ACMEFactory objectFactory, EventLoopGroup eventLoopGroup) {
+        if (eventLoopGroup == null) {
+            new Thread(worker).start();
+        } else {
+            worker.start(eventLoopGroup.next(), objectFactory.getConveyorBeltSignal());
+        }
+    }
+
+    private static Worker getWorker(ACMEFactory objectFactory, RobotType robotType, String name,
+                                    boolean useSortingStation, boolean useDispatcher) {
+        if (useSortingStation) {
+            return objectFactory.getSortedWorker(robotType, name);
+        }
+
+        return useDispatcher ? objectFactory.getDispatchedWorker(robotType, name) :
+                objectFactory.getWorker(robotType, name);
+    }
 }
@@ -3,4 +3,135 @@ package ro.dragos.geornoiu.constants;
 public interface ACMEConstants {
 
     public static final int QUEUE_CAPACITY_LIMIT = 10;
+
+    public static final int ENVELOPE_POOL_CAPACITY = 256;
+
+    public static final int LANE_CAPACITY_LIMIT = 10;
+
+    /**
+     * System property holding the memory mapped file of a conveyor belt shared by the processes of the same host.
+     */
+    public static final String SHARED_CONVEYOR_BELT_PROPERTY = "acme.belt.file";
+
+    /**
+     * System property which, when set to false, starts no supplier in this process, so that it only runs workers.
+     */
+    public static final String SUPPLIER_PROPERTY = "acme.supplier";
+
+    /**
+     * System property which, when set to true, makes a single dispatcher thread hand the components to the workers.
+     */
+    public static final String DISPATCHER_PROPERTY = "acme.dispatcher";
+
+    /**
+     * System property which, when set to true, makes a sorting station split the conveyor belt into one lane for each
+     * type of component.
+     */
+    public static final String SORTING_STATION_PROPERTY = "acme.sorting";
+
+    /**
+     * System properties holding the {@link ro.dragos.geornoiu.enums.WaitStrategyType} used by the workers and by the
+     * suppliers.
+     */
+    public static final String WORKER_WAIT_STRATEGY_PROPERTY = "acme.wait.worker";
+    public static final String SUPPLIER_WAIT_STRATEGY_PROPERTY = "acme.wait.supplier";
+
+    /**
+     * System property holding the interval, in milliseconds, at which the dashboard is printed. 0 disables it.
+     */
+    public static final String DASHBOARD_INTERVAL_PROPERTY = "acme.dashboard.intervalMillis";
+
+    public static final long DEFAULT_DASHBOARD_INTERVAL_MILLIS = 1000;
+
+    /**
+     * System property which, when set to true, starts an autoscaler adding and retiring workers of each robot type
+     * within the bounds given by the min and max properties, sampling the factory at the given interval.
+     */
+    public static final String AUTOSCALER_PROPERTY = "acme.autoscale";
+    public static final String AUTOSCALER_MIN_WORKERS_PROPERTY = "acme.autoscale.min";
+    public static final String AUTOSCALER_MAX_WORKERS_PROPERTY = "acme.autoscale.max";
+    public static final String AUTOSCALER_INTERVAL_PROPERTY = "acme.autoscale.intervalMillis";
+
+    public static final int DEFAULT_AUTOSCALER_MIN_WORKERS = 1;
+    public static final int DEFAULT_AUTOSCALER_MAX_WORKERS = 5;
+    public static final long DEFAULT_AUTOSCALER_INTERVAL_MILLIS = 5000;
+
+    /**
+     * System properties holding the file to which the supplied components are recorded, and the file of recorded
+     * components to supply instead of random ones.
+     */
+    public static final String RECORD_TRACE_PROPERTY = "acme.trace.record";
+    public static final String REPLAY_TRACE_PROPERTY = "acme.trace.replay";
+
+    /**
+     * System property holding the file in which the assembled robots are stored by the warehouse.
+     */
+    public static final String WAREHOUSE_FILE_PROPERTY = "acme.warehouse.file";
+
+    public static final int WAREHOUSE_CAPACITY = 1024;
+
+    public static final int WAREHOUSE_BATCH_SIZE = 64;
+
+    /**
+     * System properties which, when adaptive supply is set to true, make the supplier adapt its rate to the workers
+     * between the min and max number of components per second, keeping the conveyor belt filled around the target
+     * share of its capacity.
+     */
+    public static final String ADAPTIVE_SUPPLY_PROPERTY = "acme.supply.adaptive";
+    public static final String SUPPLY_MIN_RATE_PROPERTY = "acme.supply.minPerSecond";
+    public static final String SUPPLY_MAX_RATE_PROPERTY = "acme.supply.maxPerSecond";
+    public static final String SUPPLY_TARGET_FILL_PROPERTY = "acme.supply.targetFill";
+
+    public static final double DEFAULT_SUPPLY_MIN_RATE = 0.25;
+    public static final double DEFAULT_SUPPLY_MAX_RATE = 4;
+    public static final double DEFAULT_SUPPLY_TARGET_FILL = 0.5;
+
+    public static final int SUPPLY_CONTROL_INTERVAL_IN_SUPPLY_INTERVALS = 2;
+
+    /**
+     * System properties holding the number of independent lines hosted in the same process, each with the workers
+     * given as arguments and its own supplier, and the number of event loops shared by the lines (by default one per
+     * core). 0 lines runs a single factory.
+     */
+    public static final String LINES_PROPERTY = "acme.lines";
+    public static final String LINE_EVENT_LOOPS_PROPERTY = "acme.lines.eventLoops";
+
+    /**
+     * System property holding the number of event loops running the workers and the supplier as non-blocking state
+     * machines instead of a thread each. 0 runs them on threads of their own.
+     */
+    public static final String EVENT_LOOPS_PROPERTY = "acme.eventLoops";
+
+    /**
+     * System property which, when set to true, keeps the whole conveyor belt in a single word updated with compare and
+     * swap, if its capacity fits. The belt dwell of the components is then not measured.
+     */
+    public static final String PACKED_CONVEYOR_BELT_PROPERTY = "acme.belt.packed";
+
+    /**
+     * System properties holding the orders the factory works on, separated by semicolons, for example
+     * {@code WET2000:300,DRY2000:500;WET2000:100}, and the interval, in milliseconds, at which the production planner
+     * switches the workers to the robot types still needed. The factory stops once every order is complete.
+     */
+    public static final String ORDERS_PROPERTY = "acme.orders";
+    public static final String PLANNER_INTERVAL_PROPERTY = "acme.orders.intervalMillis";
+
+    public static final long DEFAULT_PLANNER_INTERVAL_MILLIS = 1000;
+
+    /**
+     * System property holding the file of the recipes of the robots, one on each line, for example
+     * {@code DRY2000=MAIN_UNIT:1,BROOM:2}. The recipes of {@link ro.dragos.geornoiu.recipe.RecipeCatalog#getDefault()}
+     * are used when it is not set.
+     */
+    public static final String RECIPES_PROPERTY = "acme.recipes";
+
+    /**
+     * System properties holding the number of components removed from the head of the full conveyor belt which are
+     * kept, to be put back once a worker needs them, and the time, in milliseconds, after which a kept component is
+     * destroyed. 0 components destroys them right away.
+     */
+    public static final String RECYCLE_CAPACITY_PROPERTY = "acme.recycle.capacity";
+    public static final String RECYCLE_MAX_AGE_PROPERTY = "acme.recycle.maxAgeMillis";
+
+    public static final long DEFAULT_RECYCLE_MAX_AGE_MILLIS = 30000;
 }
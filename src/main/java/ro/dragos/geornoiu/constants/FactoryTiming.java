@@ -0,0 +1,42 @@
+package ro.dragos.geornoiu.constants;
+
+/**
+ * The durations of the actions in the factory. The {@link #DEFAULT default} timing is the one of the ACME factory:
+ * a component is supplied every second, a supplier waits at most 10 seconds for room on a full conveyor belt and a
+ * robot is assembled in 3 seconds. Faster timings keep the same proportions and are used to replay long runs quickly.
+ */
+public final class FactoryTiming {
+    public static final FactoryTiming DEFAULT = new FactoryTiming(1000, 10000, 3000);
+
+    private final long supplyIntervalInMillis;
+    private final long maxWaitWhenConveyorBeltIsFullInMillis;
+    private final long robotAssemblyInMillis;
+
+    public FactoryTiming(long supplyIntervalInMillis, long maxWaitWhenConveyorBeltIsFullInMillis,
+                         long robotAssemblyInMillis) {
+        this.supplyIntervalInMillis = supplyIntervalInMillis;
+        this.maxWaitWhenConveyorBeltIsFullInMillis = maxWaitWhenConveyorBeltIsFullInMillis;
+        this.robotAssemblyInMillis = robotAssemblyInMillis;
+    }
+
+    /**
+     * Retrieve a timing in which every action is the given number of times faster than in this one.
+     */
+    public FactoryTiming speedUp(int factor) {
+        return new FactoryTiming(Math.max(1, this.supplyIntervalInMillis / factor),
+                Math.max(1, this.maxWaitWhenConveyorBeltIsFullInMillis / factor),
+                Math.max(1, this.robotAssemblyInMillis / factor));
+    }
+
+    public long getSupplyIntervalInMillis() {
+        return supplyIntervalInMillis;
+    }
+
+    public long getMaxWaitWhenConveyorBeltIsFullInMillis() {
+        return maxWaitWhenConveyorBeltIsFullInMillis;
+    }
+
+    public long getRobotAssemblyInMillis() {
+        return robotAssemblyInMillis;
+    }
+}
@@ -0,0 +1,53 @@
+package ro.dragos.geornoiu.consumer;
+
+import ro.dragos.geornoiu.conveyor.ComponentEnvelope;
+import ro.dragos.geornoiu.conveyor.SpareComponentPool;
+
+/**
+ * The place a {@link Worker} takes the components it needs from.
+ */
+public interface ComponentSource {
+
+    /**
+     * Wait until a component needed by the worker is available and take it.
+     *
+     * @param worker the worker taking the component.
+     * @return the envelope of the taken component, with its take time set, or null if the worker was stopped while
+     * waiting.
+     * @throws InterruptedException if the thread of the worker was interrupted while waiting.
+     */
+    ComponentEnvelope take(Worker worker) throws InterruptedException;
+
+    /**
+     * Take a component needed by the worker if one is available right now, without waiting. Used by workers running on
+     * an event loop, which must never block.
+     *
+     * @param worker the worker taking the component.
+     * @return the envelope of the taken component, with its take time set, or null if none is available or the worker
+     * was stopped.
+     */
+    ComponentEnvelope poll(Worker worker);
+
+    /**
+     * Called by the worker each time it starts collecting the components for a new robot.
+     *
+     * @param worker the worker which needs a new kit.
+     */
+    void kitStarted(Worker worker);
+
+    /**
+     * Called from the thread stopping the worker, so that a worker waiting for a component notices it was stopped.
+     *
+     * @param worker the stopped worker.
+     */
+    void wakeUp(Worker worker);
+
+    /**
+     * Called by the worker, from its own thread, once it stopped, to hand back the components which were already
+     * meant for it but which it did not take.
+     *
+     * @param worker             the stopped worker.
+     * @param spareComponentPool the pool the components are handed back to.
+     */
+    void returnUntakenComponents(Worker worker, SpareComponentPool spareComponentPool);
+}
@@ -0,0 +1,159 @@
+package ro.dragos.geornoiu.consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelope;
+import ro.dragos.geornoiu.conveyor.ConveyorBelt;
+import ro.dragos.geornoiu.conveyor.SpareComponentPool;
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.wait.WaitStrategy;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * {@link ComponentSource} where every worker looks at the head of the conveyor belt itself and takes the component
+ * if it needs it. The workers wait, using their {@link WaitStrategy}, until the head is a component they need.
+ */
+public class ConveyorBeltComponentSource implements ComponentSource {
+    private static final Logger LOG = LoggerFactory.getLogger(ConveyorBeltComponentSource.class);
+
+    private final ConveyorBelt conveyorBelt;
+    private final WaitStrategy waitStrategy;
+
+    //created once per worker, so waiting does not allocate
+    private BooleanSupplier headNeededCondition;
+
+    public ConveyorBeltComponentSource(ConveyorBelt conveyorBelt, WaitStrategy waitStrategy) {
+        this.conveyorBelt = conveyorBelt;
+        this.waitStrategy = waitStrategy;
+    }
+
+    @Override
+    public ComponentEnvelope take(Worker worker) throws InterruptedException {
+        if (this.headNeededCondition == null) {
+            this.headNeededCondition = () -> !worker.isRunning() || isComponentNeeded(worker,
+                    this.conveyorBelt.peek());
+        }
+
+        while (true) {
+            // Wait until the queue is not empty and the first component on the queue is one needed by the
+            // current worker.
+            if (worker.isRunning() && !isComponentFromConveyorBeltNeeded(worker, this.conveyorBelt.peek())) {
+                this.waitStrategy.await(this.conveyorBelt, this.headNeededCondition, Long.MAX_VALUE);
+            }
+
+            synchronized (this.conveyorBelt) {
+                //do not remove component from queue if current thread is stopped
+                if (!worker.isRunning()) {
+                    return null;
+                }
+
+                // another worker might have taken the component in the meantime
+                Component head = this.conveyorBelt.peek();
+                if (!isComponentNeeded(worker, head)) {
+                    continue;
+                }
+
+                // a worker of another process sharing the conveyor belt might take it first
+                ComponentEnvelope envelope = this.conveyorBelt.pollEnvelope(head);
+                if (envelope == null) {
+                    continue;
+                }
+                envelope.markTaken(System.nanoTime());
+
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Worker {} has taken component {} from the conveyor belt. Queue size is now {}.",
+                            worker.getName(), envelope.getComponent().name(), this.conveyorBelt.size());
+                }
+
+                // Notify that the lock on the conveyor belt will be released in order to awaken the threads
+                // which are in waiting state.
+                this.conveyorBelt.notifyAll();
+
+                return envelope;
+            }
+        }
+    }
+
+    @Override
+    public ComponentEnvelope poll(Worker worker) {
+        synchronized (this.conveyorBelt) {
+            Component head = this.conveyorBelt.peek();
+            if (!worker.isRunning() || !isComponentNeeded(worker, head)) {
+                return null;
+            }
+
+            ComponentEnvelope envelope = this.conveyorBelt.pollEnvelope(head);
+            if (envelope == null) {
+                return null;
+            }
+            envelope.markTaken(System.nanoTime());
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Worker {} has taken component {} from the conveyor belt. Queue size is now {}.",
+                        worker.getName(), envelope.getComponent().name(), this.conveyorBelt.size());
+            }
+
+            this.conveyorBelt.notifyAll();
+
+            return envelope;
+        }
+    }
+
+    @Override
+    public void kitStarted(Worker worker) {
+        // nothing to prepare, the worker checks the head of the conveyor belt itself
+    }
+
+    @Override
+    public void wakeUp(Worker worker) {
+        synchronized (this.conveyorBelt) {
+            this.conveyorBelt.notifyAll();
+        }
+    }
+
+    @Override
+    public void returnUntakenComponents(Worker worker, SpareComponentPool spareComponentPool) {
+        // components stay on the conveyor belt until a worker takes them
+    }
+
+    private boolean isComponentFromConveyorBeltNeeded(Worker worker, Component component) {
+        if (component == null) {
+            //on debug to not pollute the console
+            LOG.debug("Worker {} found queue empty.", worker.getName());
+            return false;
+        }
+
+        RobotComponentsPair robotComponentsPair = worker.getRobotComponentsPair(component);
+
+        if (robotComponentsPair == null) {
+            LOG.debug("Worker {} does not need component {} since it has no need for that type of component.",
+                    worker.getName(), component);
+            return false;
+        }
+
+        if (!robotComponentsPair.isComponentNeeded()) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Worker {} does not need component {} since it already has {} of {}.", worker.getName(),
+                        component.name(), robotComponentsPair.getNumberOfComponentsCurrentlyPossessed(),
+                        robotComponentsPair.getNumberOfComponentsNeeded());
+            }
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Same check as {@link #isComponentFromConveyorBeltNeeded(Worker, Component)}, without logging, since polling
+     * wait strategies evaluate it in a loop.
+     */
+    private static boolean isComponentNeeded(Worker worker, Component component) {
+        if (component == null) {
+            return false;
+        }
+
+        RobotComponentsPair robotComponentsPair = worker.getRobotComponentsPair(component);
+        return robotComponentsPair != null && robotComponentsPair.isComponentNeeded();
+    }
+}
@@ -1,12 +1,15 @@
 package ro.dragos.geornoiu.consumer;
 
+import java.util.Collection;
+
 /**
  * Class which is responsible for managing what components are needed for constructing a robot and what components
  * a worker currently has.
  */
 public class RobotComponentsPair {
     private final int numberOfComponentsNeeded;
-    private int numberOfComponentsCurrentlyPossessed;
+    //volatile so the reads of a snapshot are ordered with the version of the worker
+    private volatile int numberOfComponentsCurrentlyPossessed;
 
     public RobotComponentsPair(int numberOfComponentsNeeded) {
         this.numberOfComponentsNeeded = numberOfComponentsNeeded;
@@ -31,4 +34,17 @@ public class RobotComponentsPair {
     public int getNumberOfComponentsCurrentlyPossessed() {
         return numberOfComponentsCurrentlyPossessed;
     }
+
+    /**
+     * Retrieve the total number of components needed to construct a robot.
+     */
+    public static int getNumberOfComponentsNeeded(Collection<RobotComponentsPair> robotComponentsPairs) {
+        int numberOfComponentsNeeded = 0;
+
+        for (RobotComponentsPair robotComponentsPair : robotComponentsPairs) {
+            numberOfComponentsNeeded += robotComponentsPair.getNumberOfComponentsNeeded();
+        }
+
+        return numberOfComponentsNeeded;
+    }
 }
@@ -2,110 +2,247 @@ package ro.dragos.geornoiu.consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ro.dragos.geornoiu.constants.FactoryTiming;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelope;
+import ro.dragos.geornoiu.conveyor.SpareComponentPool;
 import ro.dragos.geornoiu.enums.Component;
 import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.enums.WorkerState;
+import ro.dragos.geornoiu.event.FactoryEventListener;
+import ro.dragos.geornoiu.eventloop.ConveyorBeltSignal;
+import ro.dragos.geornoiu.eventloop.EventLoop;
+import ro.dragos.geornoiu.jfr.ComponentTakenEvent;
+import ro.dragos.geornoiu.jfr.EventGate;
+import ro.dragos.geornoiu.jfr.RobotAssembledEvent;
+import ro.dragos.geornoiu.jfr.WorkerWaitEvent;
+import ro.dragos.geornoiu.snapshot.WorkerSnapshot;
 
 import java.util.Map;
-import java.util.Queue;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The worker is responsible of taking components from the conveyor belt and assembling robots when he has all the
- * needed components, which are specific for each {@link RobotType}. Assembling the robot takes 3 seconds.
+ * needed components, which are specific for each {@link RobotType}. Assembling the robot takes 3 seconds. How the
+ * components reach the worker is decided by its {@link ComponentSource}. When the worker is stopped, the components
+ * of the robot it did not assemble are handed back to the {@link SpareComponentPool}.
+ * <p>
+ * The worker either runs on a thread of its own or, after {@link #start(EventLoop, ConveyorBeltSignal)}, as a state
+ * machine on an {@link EventLoop}, collecting and then assembling, without ever blocking.
+ * <p>
+ * The state, the number of assembled robots and the collected components are only changed by the thread of the
+ * worker, between two increments of a version counter, so {@link #snapshot()} can read them consistently from any
+ * thread without a lock.
  */
 public class Worker implements Runnable {
     private static final Logger LOG = LoggerFactory.getLogger(Worker.class);
 
+    private static final Component[] COMPONENTS = Component.values();
+
+    private static final EventGate WAIT_EVENTS = new EventGate(WorkerWaitEvent.class);
+    private static final EventGate TAKEN_EVENTS = new EventGate(ComponentTakenEvent.class);
+    private static final EventGate ASSEMBLED_EVENTS = new EventGate(RobotAssembledEvent.class);
+
     //volatile in order to not be cached and any modification from an external thread to be seen in current thread.
     private volatile boolean isRunning;
 
     private volatile int noOfAssembledRobots;
+    private volatile WorkerState state;
+    //odd while the worker is changing its state
+    private volatile long version;
+    private final int id;
     private final String name;
-    private final Queue<Component> conveyorBelt;
+    private final RobotType robotType;
+    private final ComponentSource componentSource;
     private final Map<Component, RobotComponentsPair> robotComponentsMap;
+    //the pairs of the robot components map by component ordinal, null for the components the robot does not need, so
+    //collecting and assembling do not create iterators
+    private final RobotComponentsPair[] robotComponentsPairs = new RobotComponentsPair[COMPONENTS.length];
+    private final FactoryEventListener eventListener;
+    private final SpareComponentPool spareComponentPool;
+    private final FactoryTiming timing;
 
-    private static final int NO_OF_MILLIS_NEEDED_TO_BUILD_A_ROBOT = 3000;
+    //envelopes of the components collected for the robot currently being built
+    private final ComponentEnvelope[] kit;
+    private int kitSize;
+    private long kitStartedNanos;
+    private long kitCompletedNanos;
 
-    public Worker(String name, Queue<Component> conveyorBelt,
-                  Map<Component, RobotComponentsPair> robotComponentsMap) {
+    //set when the worker runs on an event loop instead of a thread of its own
+    private volatile EventLoop eventLoop;
+    private ConveyorBeltSignal signal;
+    private ConveyorBeltSignal.Waiter waiter;
+    //the components still needed for the robot being collected, filled before waiting so waiting does not allocate
+    private Component[] componentsNeeded;
+    private Runnable assembledStep;
+    private RobotAssembledEvent assembledEvent;
+
+    public Worker(int id, String name, RobotType robotType, ComponentSource componentSource,
+                  Map<Component, RobotComponentsPair> robotComponentsMap, FactoryEventListener eventListener,
+                  SpareComponentPool spareComponentPool, FactoryTiming timing) {
         this.isRunning = true;
+        this.state = WorkerState.COLLECTING;
+        this.id = id;
         this.name = name;
-        this.conveyorBelt = conveyorBelt;
+        this.robotType = robotType;
+        this.componentSource = componentSource;
         this.robotComponentsMap = robotComponentsMap;
+        this.eventListener = eventListener;
+        this.spareComponentPool = spareComponentPool;
+        this.timing = timing;
+
+        for (Map.Entry<Component, RobotComponentsPair> entry : robotComponentsMap.entrySet()) {
+            this.robotComponentsPairs[entry.getKey().ordinal()] = entry.getValue();
+        }
+
+        this.kit = new ComponentEnvelope[RobotComponentsPair.getNumberOfComponentsNeeded(robotComponentsMap.values())];
     }
 
     @Override
     public void run() {
         try {
+            startKit();
+
             while (isRunning) {
-                synchronized (this.conveyorBelt) {
-                    // Wait until the queue is not empty and the first component on the queue is one needed by the
-                    // current worker.
-                    while (!isComponentFromConveyorBeltNeeded(this.conveyorBelt.peek())) {
-                        this.conveyorBelt.wait();
-                    }
-
-                    //do not remove component from queue if current thread is stopped
-                    if (!isRunning) {
-                        break;
-                    }
-
-                    Component component = this.conveyorBelt.poll();
-
-                    this.robotComponentsMap.get(component).addComponent();
-                    LOG.info("Worker {} has taken component {} from the conveyor belt. Queue size is now {}.",
-                            this.name, component.name(), this.conveyorBelt.size());
-
-                    // Notify that the lock on the conveyor belt will be released in order to awaken the threads
-                    // which are in waiting state.
-                    this.conveyorBelt.notifyAll();
+                WorkerWaitEvent waitEvent = WAIT_EVENTS.isEnabled() ? new WorkerWaitEvent() : null;
+                if (waitEvent != null) {
+                    waitEvent.begin();
+                }
+
+                ComponentEnvelope envelope = this.componentSource.take(this);
+
+                //the worker was stopped while waiting for a component
+                if (envelope == null) {
+                    break;
                 }
 
-                if (areAllComponentsCollected()) {
+                commitWaitEvent(waitEvent, envelope);
+
+                if (collectComponent(envelope)) {
                     //thread sleep is outside synchronized block
                     assembleRobot();
+                    startKit();
                 }
             }
         } catch (InterruptedException ie) {
             LOG.error("{} was interrupted and is being shut down", this.name);
             stop();
+        } finally {
+            finish();
         }
     }
 
-    public void stop() {
-        isRunning = false;
+    /**
+     * Run the worker on an event loop instead of a thread of its own. The worker then never blocks: it takes the
+     * components which are available, registers with the signal when there is none it needs, and schedules a timer for
+     * the assembly of the robot. Every actor using the same conveyor belt has to run on an event loop and signal its
+     * changes.
+     *
+     * @param eventLoop the event loop running the steps of the worker.
+     * @param signal    the signal of the changes of the conveyor belt.
+     */
+    public void start(EventLoop eventLoop, ConveyorBeltSignal signal) {
+        this.eventLoop = eventLoop;
+        this.signal = signal;
+        this.waiter = new ConveyorBeltSignal.Waiter(eventLoop, this::collectStep);
+        this.componentsNeeded = new Component[COMPONENTS.length];
+        this.assembledStep = this::assembledStep;
+
+        eventLoop.execute(() -> {
+            startKit();
+            collectStep();
+        });
     }
 
-    private boolean isComponentFromConveyorBeltNeeded(Component component) {
-        if (component == null) {
-            //on debug to not pollute the console
-            LOG.debug("Worker {} found queue empty.", this.name);
-            return false;
+    /**
+     * Take every component available while collecting, on the event loop.
+     */
+    private void collectStep() {
+        // woken up while assembling or after stopping
+        if (this.state != WorkerState.COLLECTING) {
+            return;
         }
 
-        RobotComponentsPair robotComponentsPair = this.robotComponentsMap.get(component);
+        while (this.isRunning) {
+            long seenSequence = this.signal.sequence();
+            ComponentEnvelope envelope = this.componentSource.poll(this);
+
+            if (envelope == null) {
+                this.signal.awaitComponents(seenSequence, this.waiter, this.componentsNeeded,
+                        fillComponentsNeeded());
+                return;
+            }
+
+            // a supplier might be waiting for room, and another worker might need the new head
+            this.signal.signalTaken();
 
-        if (robotComponentsPair == null) {
-            LOG.info("Worker {} does not need component {} since it has no need for that type of component.",
-                    this.name, component.name());
-            return false;
+            if (collectComponent(envelope)) {
+                this.assembledEvent = startAssembly();
+                this.eventLoop.schedule(this.assembledStep,
+                        TimeUnit.MILLISECONDS.toNanos(this.timing.getRobotAssemblyInMillis()));
+                return;
+            }
         }
 
-        if (!robotComponentsPair.isComponentNeeded()) {
-            LOG.info("Worker {} does not need component {} since it already has {} of {}.", this.name, component.name(),
-                    robotComponentsPair.getNumberOfComponentsCurrentlyPossessed(),
-                    robotComponentsPair.getNumberOfComponentsNeeded());
-            return false;
+        finish();
+    }
+
+    private void assembledStep() {
+        RobotAssembledEvent currentAssembledEvent = this.assembledEvent;
+        this.assembledEvent = null;
+        finishAssembly(currentAssembledEvent);
+
+        if (!this.isRunning) {
+            finish();
+            return;
         }
 
-        return true;
+        startKit();
+        collectStep();
+    }
+
+    /**
+     * Stop the worker. A robot being assembled is finished, while the components collected for the next robot are
+     * handed back once the thread of the worker ends.
+     */
+    public void stop() {
+        isRunning = false;
+        this.componentSource.wakeUp(this);
+
+        EventLoop currentEventLoop = this.eventLoop;
+        if (currentEventLoop != null) {
+            currentEventLoop.execute(this::collectStep);
+        }
+    }
+
+    public boolean isRunning() {
+        return isRunning;
+    }
+
+    /**
+     * Fill the components still needed for the robot being collected.
+     *
+     * @return the number of components needed.
+     */
+    private int fillComponentsNeeded() {
+        int noOfComponentsNeeded = 0;
+
+        for (int ordinal = 0; ordinal < COMPONENTS.length; ordinal++) {
+            RobotComponentsPair robotComponentsPair = this.robotComponentsPairs[ordinal];
+
+            if (robotComponentsPair != null && robotComponentsPair.isComponentNeeded()) {
+                this.componentsNeeded[noOfComponentsNeeded++] = COMPONENTS[ordinal];
+            }
+        }
+
+        return noOfComponentsNeeded;
     }
 
     /**
      * Check if the worker has all the necessary components to build the robot.
      */
     private boolean areAllComponentsCollected() {
-        for (RobotComponentsPair robotComponentsPair : robotComponentsMap.values()) {
-            if (robotComponentsPair.isComponentNeeded()) {
+        for (RobotComponentsPair robotComponentsPair : this.robotComponentsPairs) {
+            if (robotComponentsPair != null && robotComponentsPair.isComponentNeeded()) {
                 return false;
             }
         }
@@ -113,16 +250,185 @@ public class Worker implements Runnable {
         return true;
     }
 
+    /**
+     * Hand back the components of the robot which will not be assembled. The robot components map is left as it is,
+     * so it still shows what the worker had collected when it stopped.
+     */
+    private void returnKit() {
+        this.componentSource.returnUntakenComponents(this, this.spareComponentPool);
+
+        for (int index = 0; index < this.kitSize; index++) {
+            this.spareComponentPool.add(this.kit[index]);
+            this.kit[index] = null;
+        }
+
+        if (this.kitSize > 0) {
+            LOG.debug("Worker {} handed back {} components.", this.name, this.kitSize);
+        }
+        this.kitSize = 0;
+    }
+
+    private void startKit() {
+        this.kitStartedNanos = System.nanoTime();
+        this.componentSource.kitStarted(this);
+    }
+
+    private void commitWaitEvent(WorkerWaitEvent waitEvent, ComponentEnvelope envelope) {
+        if (waitEvent == null) {
+            return;
+        }
+
+        waitEvent.end();
+
+        if (waitEvent.shouldCommit()) {
+            waitEvent.worker = this.name;
+            waitEvent.awaitedComponent = envelope.getComponent().name();
+            waitEvent.commit();
+        }
+    }
+
+    private void commitTakenEvent(ComponentEnvelope envelope) {
+        if (!TAKEN_EVENTS.isEnabled()) {
+            return;
+        }
+
+        ComponentTakenEvent takenEvent = new ComponentTakenEvent();
+
+        if (takenEvent.shouldCommit()) {
+            takenEvent.worker = this.name;
+            takenEvent.component = envelope.getComponent().name();
+            takenEvent.beltDwell = envelope.getSupplierId() == ComponentEnvelope.UNKNOWN_SUPPLIER ? 0 :
+                    envelope.getTakeTimeNanos() - envelope.getSupplyTimeNanos();
+            takenEvent.commit();
+        }
+    }
+
+    /**
+     * Add the taken component to the kit.
+     *
+     * @return true if all the components of the robot are collected and the worker starts assembling it.
+     */
+    private boolean collectComponent(ComponentEnvelope envelope) {
+        this.version++;
+        this.robotComponentsPairs[envelope.getComponent().ordinal()].addComponent();
+        this.kit[this.kitSize++] = envelope;
+        boolean allComponentsCollected = areAllComponentsCollected();
+        if (allComponentsCollected) {
+            this.state = WorkerState.ASSEMBLING;
+        }
+        this.version++;
+
+        this.eventListener.componentTaken(this, envelope);
+        commitTakenEvent(envelope);
+
+        return allComponentsCollected;
+    }
+
     private void assembleRobot() throws InterruptedException {
-        Thread.sleep(NO_OF_MILLIS_NEEDED_TO_BUILD_A_ROBOT);
+        RobotAssembledEvent assembledEvent = startAssembly();
 
+        Thread.sleep(this.timing.getRobotAssemblyInMillis());
+
+        finishAssembly(assembledEvent);
+    }
+
+    /**
+     * Start assembling the collected kit.
+     *
+     * @return the event recording the assembly, or null if no recording is interested in it.
+     */
+    private RobotAssembledEvent startAssembly() {
+        this.kitCompletedNanos = System.nanoTime();
+
+        if (!ASSEMBLED_EVENTS.isEnabled()) {
+            return null;
+        }
+
+        RobotAssembledEvent assembledEvent = new RobotAssembledEvent();
+        assembledEvent.begin();
+
+        return assembledEvent;
+    }
+
+    private void finishAssembly(RobotAssembledEvent assembledEvent) {
+        this.version++;
         noOfAssembledRobots++;
+        for (RobotComponentsPair robotComponentsPair : this.robotComponentsPairs) {
+            if (robotComponentsPair != null) {
+                robotComponentsPair.clearPossesedComponents();
+            }
+        }
+        this.state = WorkerState.COLLECTING;
+        this.version++;
+
+        if (assembledEvent != null) {
+            commitAssembledEvent(assembledEvent);
+        }
+
+        this.eventListener.robotAssembled(this, this.kit, this.kitSize, this.kitStartedNanos, this.kitCompletedNanos,
+                System.nanoTime());
+
+        for (int index = 0; index < this.kitSize; index++) {
+            this.kit[index].release();
+            this.kit[index] = null;
+        }
+        this.kitSize = 0;
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Worker {} has assembled {} robots in his lifetime.", this.name, this.noOfAssembledRobots);
+        }
+    }
 
-        for (RobotComponentsPair robotComponentsPair : robotComponentsMap.values()) {
-            robotComponentsPair.clearPossesedComponents();
+    private void commitAssembledEvent(RobotAssembledEvent assembledEvent) {
+        assembledEvent.end();
+
+        if (assembledEvent.shouldCommit()) {
+            assembledEvent.worker = this.name;
+            assembledEvent.robotType = this.robotType.name();
+            assembledEvent.kitCollectionTime = this.kitCompletedNanos - this.kitStartedNanos;
+            assembledEvent.noOfAssembledRobots = this.noOfAssembledRobots;
+            assembledEvent.commit();
         }
+    }
 
-        LOG.info("Worker {} has assembled {} robots in his lifetime.", this.name, this.noOfAssembledRobots);
+    /**
+     * Hand back the kit and mark the worker stopped.
+     */
+    private void finish() {
+        returnKit();
+        this.version++;
+        this.state = WorkerState.STOPPED;
+        this.version++;
+    }
+
+    /**
+     * Read the state of the worker without blocking it. The read is retried while the worker is changing its state.
+     */
+    public WorkerSnapshot snapshot() {
+        int[] noOfCollectedComponents = new int[COMPONENTS.length];
+        int[] noOfNeededComponents = new int[COMPONENTS.length];
+
+        while (true) {
+            long startVersion = this.version;
+
+            if ((startVersion & 1) == 0) {
+                WorkerState currentState = this.state;
+                int currentNoOfAssembledRobots = this.noOfAssembledRobots;
+
+                for (Map.Entry<Component, RobotComponentsPair> entry : this.robotComponentsMap.entrySet()) {
+                    int ordinal = entry.getKey().ordinal();
+                    noOfCollectedComponents[ordinal] = entry.getValue().getNumberOfComponentsCurrentlyPossessed();
+                    noOfNeededComponents[ordinal] = entry.getValue().getNumberOfComponentsNeeded();
+                }
+
+                if (this.version == startVersion) {
+                    return new WorkerSnapshot(this.id, this.name, this.robotType, currentState,
+                            currentNoOfAssembledRobots, noOfCollectedComponents, noOfNeededComponents);
+                }
+            }
+
+            Thread.yield();
+        }
     }
 
     public int getNoOfAssembledRobots() {
@@ -132,4 +438,30 @@ public class Worker implements Runnable {
     public Map<Component, RobotComponentsPair> getRobotComponentsMap() {
         return robotComponentsMap;
     }
+
+    /**
+     * Retrieve the pair of the given component without looking it up in the robot components map, since it is read
+     * every time a worker checks the head of the conveyor belt.
+     *
+     * @return the pair of the component, null if the robot does not need it.
+     */
+    public RobotComponentsPair getRobotComponentsPair(Component component) {
+        return robotComponentsPairs[component.ordinal()];
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RobotType getRobotType() {
+        return robotType;
+    }
+
+    public WorkerState getState() {
+        return state;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,179 @@
+package ro.dragos.geornoiu.conveyor;
+
+import ro.dragos.geornoiu.enums.Component;
+
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * {@link ConveyorBelt} backed by a fixed size ring of envelopes. All the changes are synchronized on the conveyor
+ * belt itself, which is also the monitor the suppliers and workers use to wait for each other. The head component and
+ * the size are also published in volatile fields, so {@link #peek()} and {@link #size()} can be polled without taking
+ * the monitor. The components on the conveyor belt are mirrored as ordinals guarded by a sequence lock, so
+ * {@link #copyComponents(Component[])} never takes the monitor either: the version is odd while a change is in
+ * progress and readers retry if it changed while they were copying.
+ */
+public class ArrayConveyorBelt extends AbstractQueue<Component> implements ConveyorBelt {
+    private static final Component[] COMPONENTS = Component.values();
+
+    private final ComponentEnvelope[] envelopes;
+    private final AtomicIntegerArray componentOrdinals;
+    private final ComponentEnvelopePool envelopePool;
+
+    private volatile int head;
+    private volatile int size;
+    private volatile Component headComponent;
+    private volatile long version;
+
+    public ArrayConveyorBelt(int capacity, ComponentEnvelopePool envelopePool) {
+        this.envelopes = new ComponentEnvelope[capacity];
+        this.componentOrdinals = new AtomicIntegerArray(capacity);
+        this.envelopePool = envelopePool;
+    }
+
+    @Override
+    public synchronized boolean offer(ComponentEnvelope envelope) {
+        if (this.size == this.envelopes.length) {
+            return false;
+        }
+
+        int tail = (this.head + this.size) % this.envelopes.length;
+
+        this.version++;
+        this.envelopes[tail] = envelope;
+        this.componentOrdinals.set(tail, envelope.getComponent().ordinal());
+
+        if (this.size == 0) {
+            this.headComponent = envelope.getComponent();
+        }
+
+        this.size++;
+        this.version++;
+
+        return true;
+    }
+
+    @Override
+    public synchronized boolean offer(Component component) {
+        if (component == null) {
+            throw new NullPointerException();
+        }
+
+        if (this.size == this.envelopes.length) {
+            return false;
+        }
+
+        return offer(this.envelopePool.acquire(component, ComponentEnvelope.UNKNOWN_SUPPLIER, System.nanoTime()));
+    }
+
+    @Override
+    public synchronized ComponentEnvelope pollEnvelope() {
+        if (this.size == 0) {
+            return null;
+        }
+
+        this.version++;
+        ComponentEnvelope envelope = this.envelopes[this.head];
+        this.envelopes[this.head] = null;
+        this.head = (this.head + 1) % this.envelopes.length;
+        this.size--;
+        this.headComponent = this.size == 0 ? null : this.envelopes[this.head].getComponent();
+        this.version++;
+
+        return envelope;
+    }
+
+    @Override
+    public synchronized ComponentEnvelope pollEnvelope(Component component) {
+        return this.headComponent == component ? pollEnvelope() : null;
+    }
+
+    @Override
+    public synchronized Component poll() {
+        ComponentEnvelope envelope = pollEnvelope();
+
+        if (envelope == null) {
+            return null;
+        }
+
+        Component component = envelope.getComponent();
+        envelope.release();
+
+        return component;
+    }
+
+    @Override
+    public Component peek() {
+        return this.headComponent;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public synchronized void clear() {
+        while (this.size > 0) {
+            pollEnvelope().release();
+        }
+    }
+
+    /**
+     * Returns an iterator over a copy of the components currently on the conveyor belt, from head to tail.
+     */
+    @Override
+    public Iterator<Component> iterator() {
+        Component[] components;
+
+        synchronized (this) {
+            components = new Component[this.size];
+
+            for (int index = 0; index < this.size; index++) {
+                components[index] = this.envelopes[(this.head + index) % this.envelopes.length].getComponent();
+            }
+        }
+
+        return Arrays.asList(components).iterator();
+    }
+
+    @Override
+    public int copyComponents(Component[] destination) {
+        while (true) {
+            long startVersion = this.version;
+
+            if ((startVersion & 1) == 0) {
+                int currentHead = this.head;
+                int noOfComponents = Math.min(this.size, destination.length);
+
+                for (int index = 0; index < noOfComponents; index++) {
+                    destination[index] = COMPONENTS[this.componentOrdinals.get(
+                            (currentHead + index) % this.envelopes.length)];
+                }
+
+                if (this.version == startVersion) {
+                    return noOfComponents;
+                }
+            }
+
+            Thread.yield();
+        }
+    }
+
+    @Override
+    public int getCapacity() {
+        return this.envelopes.length;
+    }
+
+    @Override
+    public boolean keepsEnvelopes() {
+        return true;
+    }
+
+    @Override
+    public ComponentEnvelopePool getEnvelopePool() {
+        return envelopePool;
+    }
+}
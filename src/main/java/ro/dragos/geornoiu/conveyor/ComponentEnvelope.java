@@ -0,0 +1,63 @@
+package ro.dragos.geornoiu.conveyor;
+
+import ro.dragos.geornoiu.enums.Component;
+
+/**
+ * Carrier of a {@link Component} while it travels on the conveyor belt and waits in a worker's partial kit. It records
+ * who supplied the component and when, so the time spent on the belt and in the kit can be measured.
+ * <p>
+ * Envelopes are reused: they are acquired from a {@link ComponentEnvelopePool} when a component is supplied and must be
+ * released back once the component is consumed or destroyed.
+ */
+public class ComponentEnvelope {
+    public static final int UNKNOWN_SUPPLIER = -1;
+
+    private final ComponentEnvelopePool pool;
+
+    private Component component;
+    private int supplierId;
+    private long supplyTimeNanos;
+    private long takeTimeNanos;
+
+    ComponentEnvelope(ComponentEnvelopePool pool) {
+        this.pool = pool;
+    }
+
+    void fill(Component component, int supplierId, long supplyTimeNanos) {
+        this.component = component;
+        this.supplierId = supplierId;
+        this.supplyTimeNanos = supplyTimeNanos;
+        this.takeTimeNanos = 0;
+    }
+
+    /**
+     * Mark the moment the component was taken from the conveyor belt by a worker.
+     */
+    public void markTaken(long takeTimeNanos) {
+        this.takeTimeNanos = takeTimeNanos;
+    }
+
+    /**
+     * Give the envelope back to the pool it was acquired from. The envelope must not be used after this call.
+     */
+    public void release() {
+        this.component = null;
+        this.pool.release(this);
+    }
+
+    public Component getComponent() {
+        return component;
+    }
+
+    public int getSupplierId() {
+        return supplierId;
+    }
+
+    public long getSupplyTimeNanos() {
+        return supplyTimeNanos;
+    }
+
+    public long getTakeTimeNanos() {
+        return takeTimeNanos;
+    }
+}
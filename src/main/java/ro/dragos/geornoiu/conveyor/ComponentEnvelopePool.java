@@ -0,0 +1,53 @@
+package ro.dragos.geornoiu.conveyor;
+
+import ro.dragos.geornoiu.enums.Component;
+
+/**
+ * Bounded pool of {@link ComponentEnvelope} instances, so that supplying a component does not allocate once the
+ * factory reached its steady state. If the pool is empty a new envelope is created, if it is full a released
+ * envelope is left to the garbage collector.
+ */
+public class ComponentEnvelopePool {
+    private final ComponentEnvelope[] freeEnvelopes;
+    private int noOfFreeEnvelopes;
+
+    public ComponentEnvelopePool(int capacity) {
+        this.freeEnvelopes = new ComponentEnvelope[capacity];
+    }
+
+    /**
+     * Retrieve an envelope for a freshly supplied component.
+     *
+     * @param component       the component carried by the envelope.
+     * @param supplierId      the id of the supplier which delivered the component.
+     * @param supplyTimeNanos the {@link System#nanoTime()} at which the component was supplied.
+     * @return an envelope holding the given values.
+     */
+    public ComponentEnvelope acquire(Component component, int supplierId, long supplyTimeNanos) {
+        ComponentEnvelope envelope = null;
+
+        synchronized (this) {
+            if (this.noOfFreeEnvelopes > 0) {
+                envelope = this.freeEnvelopes[--this.noOfFreeEnvelopes];
+                this.freeEnvelopes[this.noOfFreeEnvelopes] = null;
+            }
+        }
+
+        if (envelope == null) {
+            envelope = new ComponentEnvelope(this);
+        }
+
+        envelope.fill(component, supplierId, supplyTimeNanos);
+        return envelope;
+    }
+
+    synchronized void release(ComponentEnvelope envelope) {
+        if (this.noOfFreeEnvelopes < this.freeEnvelopes.length) {
+            this.freeEnvelopes[this.noOfFreeEnvelopes++] = envelope;
+        }
+    }
+
+    public synchronized int getNoOfFreeEnvelopes() {
+        return noOfFreeEnvelopes;
+    }
+}
@@ -0,0 +1,68 @@
+package ro.dragos.geornoiu.conveyor;
+
+import ro.dragos.geornoiu.enums.Component;
+
+import java.util.Queue;
+
+/**
+ * The conveyor belt, a bounded queue of {@link Component} elements. Besides the plain {@link Queue} view, the belt
+ * carries every component in a {@link ComponentEnvelope} which remembers who supplied it and when.
+ * <p>
+ * Components offered through the plain {@link Queue} methods are wrapped in an envelope with an
+ * {@link ComponentEnvelope#UNKNOWN_SUPPLIER unknown supplier}, and envelopes of components retrieved through them are
+ * released automatically.
+ */
+public interface ConveyorBelt extends Queue<Component> {
+
+    /**
+     * Put an envelope at the tail of the conveyor belt. If the conveyor belt does not {@link #keepsEnvelopes() keep
+     * the envelopes}, only the component is added and the caller stays responsible of releasing the envelope.
+     *
+     * @param envelope the envelope to add.
+     * @return true if the envelope was added, false if the conveyor belt is full.
+     */
+    boolean offer(ComponentEnvelope envelope);
+
+    /**
+     * Check if the conveyor belt keeps the offered envelopes until they are taken, or only their components.
+     *
+     * @return true if an offered envelope belongs to the conveyor belt, false if the caller of
+     * {@link #offer(ComponentEnvelope)} has to release it once done with it.
+     */
+    boolean keepsEnvelopes();
+
+    /**
+     * Take the envelope at the head of the conveyor belt. The caller becomes responsible of releasing the envelope.
+     *
+     * @return the envelope at the head of the conveyor belt or null if the conveyor belt is empty.
+     */
+    ComponentEnvelope pollEnvelope();
+
+    /**
+     * Take the envelope at the head of the conveyor belt only if it carries the given component. Checking the head
+     * and taking it is a single step, even for conveyor belts shared with other processes. The caller becomes
+     * responsible of releasing the envelope.
+     *
+     * @return the envelope at the head of the conveyor belt or null if the conveyor belt is empty or its head is
+     * another component.
+     */
+    ComponentEnvelope pollEnvelope(Component component);
+
+    /**
+     * Copy the components currently on the conveyor belt, head first, without blocking the suppliers and workers.
+     *
+     * @param destination the array to copy into, components which do not fit are left out.
+     * @return the number of components copied.
+     */
+    int copyComponents(Component[] destination);
+
+    /**
+     * Retrieve the maximum number of components which fit on the conveyor belt.
+     */
+    int getCapacity();
+
+    /**
+     * Retrieve the pool of envelopes used for the components of this conveyor belt.
+     */
+    ComponentEnvelopePool getEnvelopePool();
+}
@@ -0,0 +1,348 @@
+package ro.dragos.geornoiu.conveyor;
+
+import ro.dragos.geornoiu.enums.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * {@link ConveyorBelt} kept in a memory mapped file, so suppliers and workers running in different processes on the
+ * same host share one conveyor belt. The file holds a header, the head and tail cursors, each on its own cache line,
+ * and a ring of slots of 8 bytes. A slot holds the position on the belt it belongs to, whether it is full and the
+ * ordinal of its component.
+ * <p>
+ * Every change is a single compare and swap of one slot: a supplier fills the empty slot of the tail position and a
+ * worker empties the full slot of the head position, marking it as the empty slot of the position one lap later. The
+ * cursors are only advanced afterwards, and any process which finds a cursor behind its slot advances it. A process
+ * dying at any moment therefore leaves a valid conveyor belt behind, at worst with a cursor the next operation moves
+ * forward, and no lock is ever held. The slots and cursors are accessed through {@link MappedMemory}, the header
+ * through the mapped buffer while holding a lock on the file.
+ * <p>
+ * Only the components cross the processes. The envelopes of the taken components are acquired from the local pool
+ * with an {@link ComponentEnvelope#UNKNOWN_SUPPLIER unknown supplier}, and the envelopes of the offered components stay
+ * with the caller, which releases them once done with them. The threads of other processes cannot be notified, so the
+ * suppliers and workers of a shared conveyor belt must use a polling {@link ro.dragos.geornoiu.wait.WaitStrategy}.
+ */
+public class MappedConveyorBelt extends AbstractQueue<Component> implements ConveyorBelt, Closeable {
+    private static final Component[] COMPONENTS = Component.values();
+
+    private static final int MAGIC = 0x41434D42; // "ACMB"
+    private static final int VERSION = 1;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int HEAD_OFFSET = 64;
+    private static final int TAIL_OFFSET = 128;
+    private static final int SLOTS_OFFSET = 192;
+    private static final int SLOT_SIZE = 8;
+
+    private static final int POSITION_SHIFT = 9;
+    private static final long FULL = 1L << 8;
+    private static final long ORDINAL_MASK = 0xFF;
+
+    private final FileChannel channel;
+    private final MappedMemory memory;
+    private final int capacity;
+    private final ComponentEnvelopePool envelopePool;
+
+    /**
+     * Map the conveyor belt kept in the given file, creating it if it does not exist. A conveyor belt left by other
+     * processes, including ones which died, is used as it is.
+     *
+     * @throws IOException                   if the file cannot be mapped, is not a conveyor belt or has another
+     *                                       capacity.
+     * @throws UnsupportedOperationException if the runtime does not allow atomic access to mapped memory, see
+     *                                       {@link #isSupported()}.
+     */
+    public MappedConveyorBelt(Path file, int capacity, ComponentEnvelopePool envelopePool) throws IOException {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("A conveyor belt cannot be shared on this runtime.");
+        }
+
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.capacity = capacity;
+        this.envelopePool = envelopePool;
+
+        try {
+            MappedByteBuffer mapping = this.channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    SLOTS_OFFSET + (long) capacity * SLOT_SIZE);
+            // the slots are accessed in the native order, so the header is too
+            mapping.order(ByteOrder.nativeOrder());
+            this.memory = new MappedMemory(mapping);
+
+            // the processes opening the conveyor belt at the same time take turns to check the header
+            FileLock lock = this.channel.lock();
+            try {
+                if (mapping.getInt(MAGIC_OFFSET) != MAGIC) {
+                    format(mapping);
+                } else {
+                    checkHeader(mapping);
+                }
+            } finally {
+                lock.release();
+            }
+        } catch (IOException | RuntimeException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Check if the runtime allows the atomic access to mapped memory the conveyor belt needs. Fall back to the
+     * {@link ArrayConveyorBelt} otherwise.
+     */
+    public static boolean isSupported() {
+        return MappedMemory.isAvailable();
+    }
+
+    private void format(MappedByteBuffer mapping) {
+        for (int index = 0; index < this.capacity; index++) {
+            this.memory.putLongVolatile(slotOffset(index), (long) index << POSITION_SHIFT);
+        }
+
+        this.memory.putLongVolatile(HEAD_OFFSET, 0);
+        this.memory.putLongVolatile(TAIL_OFFSET, 0);
+        mapping.putLong(CAPACITY_OFFSET, this.capacity);
+        mapping.putInt(VERSION_OFFSET, VERSION);
+        mapping.putInt(MAGIC_OFFSET, MAGIC);
+    }
+
+    private void checkHeader(MappedByteBuffer mapping) throws IOException {
+        int version = mapping.getInt(VERSION_OFFSET);
+        if (version != VERSION) {
+            throw new IOException("Unsupported conveyor belt version " + version + ".");
+        }
+
+        long fileCapacity = mapping.getLong(CAPACITY_OFFSET);
+        if (fileCapacity != this.capacity) {
+            throw new IOException("Conveyor belt has a capacity of " + fileCapacity + " instead of " +
+                    this.capacity + ".");
+        }
+    }
+
+    /**
+     * Put a component at the tail of the conveyor belt.
+     *
+     * @return false if the conveyor belt is full.
+     */
+    private boolean offerOrdinal(int ordinal) {
+        while (true) {
+            long tail = getTail();
+            int slotOffset = slotOffset(tail);
+            long slot = this.memory.getLongVolatile(slotOffset);
+            long position = slot >>> POSITION_SHIFT;
+            boolean full = (slot & FULL) != 0;
+
+            if (position == tail && !full) {
+                if (this.memory.compareAndSwapLong(slotOffset, slot, tail << POSITION_SHIFT | FULL | ordinal)) {
+                    advanceTail(tail);
+                    return true;
+                }
+            } else if (position >= tail) {
+                // filled by a supplier which did not move the tail yet, and maybe already emptied by a worker
+                advanceTail(tail);
+            } else if (position == tail - this.capacity && full) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Take the component at the head of the conveyor belt.
+     *
+     * @param expectedOrdinal the ordinal the head must have to be taken, or -1 to take any component.
+     * @return the ordinal of the taken component, or -1 if the conveyor belt is empty or the head is another
+     * component.
+     */
+    private int pollOrdinal(int expectedOrdinal) {
+        while (true) {
+            long head = getHead();
+            int slotOffset = slotOffset(head);
+            long slot = this.memory.getLongVolatile(slotOffset);
+            long position = slot >>> POSITION_SHIFT;
+            boolean full = (slot & FULL) != 0;
+
+            if (position == head && full) {
+                int ordinal = (int) (slot & ORDINAL_MASK);
+
+                if (expectedOrdinal >= 0 && ordinal != expectedOrdinal) {
+                    return -1;
+                }
+
+                if (this.memory.compareAndSwapLong(slotOffset, slot, (head + this.capacity) << POSITION_SHIFT)) {
+                    advanceHead(head);
+                    return ordinal;
+                }
+            } else if (position == head) {
+                return -1;
+            } else if (position == head + this.capacity) {
+                // emptied by a worker which did not move the head yet
+                advanceHead(head);
+            }
+        }
+    }
+
+    @Override
+    public boolean offer(ComponentEnvelope envelope) {
+        return offerOrdinal(envelope.getComponent().ordinal());
+    }
+
+    @Override
+    public boolean offer(Component component) {
+        if (component == null) {
+            throw new NullPointerException();
+        }
+
+        return offerOrdinal(component.ordinal());
+    }
+
+    @Override
+    public ComponentEnvelope pollEnvelope() {
+        return toEnvelope(pollOrdinal(-1));
+    }
+
+    @Override
+    public ComponentEnvelope pollEnvelope(Component component) {
+        return toEnvelope(pollOrdinal(component.ordinal()));
+    }
+
+    @Override
+    public Component poll() {
+        int ordinal = pollOrdinal(-1);
+        return ordinal < 0 ? null : COMPONENTS[ordinal];
+    }
+
+    @Override
+    public Component peek() {
+        while (true) {
+            long head = getHead();
+            long slot = this.memory.getLongVolatile(slotOffset(head));
+            long position = slot >>> POSITION_SHIFT;
+
+            if (position == head) {
+                return (slot & FULL) == 0 ? null : COMPONENTS[(int) (slot & ORDINAL_MASK)];
+            }
+
+            if (position == head + this.capacity) {
+                advanceHead(head);
+            }
+        }
+    }
+
+    /**
+     * Retrieve the number of components on the conveyor belt. A supplier or worker of another process might be
+     * changing it at the same time, so it is only an estimate while they run.
+     */
+    @Override
+    public int size() {
+        long head = getHead();
+        long tail = getTail();
+
+        return (int) Math.max(0, Math.min(this.capacity, tail - head));
+    }
+
+    @Override
+    public void clear() {
+        while (pollOrdinal(-1) >= 0) {
+            // destroy every component
+        }
+    }
+
+    /**
+     * Returns an iterator over a copy of the components currently on the conveyor belt, from head to tail.
+     */
+    @Override
+    public Iterator<Component> iterator() {
+        Component[] components = new Component[this.capacity];
+        int noOfComponents = copyComponents(components);
+
+        return Arrays.asList(components).subList(0, noOfComponents).iterator();
+    }
+
+    @Override
+    public int copyComponents(Component[] destination) {
+        while (true) {
+            long head = getHead();
+            int noOfComponents = 0;
+
+            while (noOfComponents < destination.length) {
+                long position = head + noOfComponents;
+                long slot = this.memory.getLongVolatile(slotOffset(position));
+
+                if (slot >>> POSITION_SHIFT != position || (slot & FULL) == 0) {
+                    break;
+                }
+
+                destination[noOfComponents++] = COMPONENTS[(int) (slot & ORDINAL_MASK)];
+            }
+
+            // retry if a worker took the head while the components were copied
+            if (getHead() == head) {
+                return noOfComponents;
+            }
+
+            Thread.yield();
+        }
+    }
+
+    @Override
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    @Override
+    public boolean keepsEnvelopes() {
+        return false;
+    }
+
+    @Override
+    public ComponentEnvelopePool getEnvelopePool() {
+        return envelopePool;
+    }
+
+    /**
+     * Close the file. The conveyor belt stays in the file for the other processes.
+     */
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    private ComponentEnvelope toEnvelope(int ordinal) {
+        if (ordinal < 0) {
+            return null;
+        }
+
+        return this.envelopePool.acquire(COMPONENTS[ordinal], ComponentEnvelope.UNKNOWN_SUPPLIER, System.nanoTime());
+    }
+
+    private long getHead() {
+        return this.memory.getLongVolatile(HEAD_OFFSET);
+    }
+
+    private long getTail() {
+        return this.memory.getLongVolatile(TAIL_OFFSET);
+    }
+
+    private void advanceHead(long head) {
+        this.memory.compareAndSwapLong(HEAD_OFFSET, head, head + 1);
+    }
+
+    private void advanceTail(long tail) {
+        this.memory.compareAndSwapLong(TAIL_OFFSET, tail, tail + 1);
+    }
+
+    private int slotOffset(long position) {
+        return SLOTS_OFFSET + (int) (position % this.capacity) * SLOT_SIZE;
+    }
+}
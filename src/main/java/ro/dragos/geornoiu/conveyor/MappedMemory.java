@@ -0,0 +1,74 @@
+package ro.dragos.geornoiu.conveyor;
+
+import sun.misc.Unsafe;
+
+import java.lang.reflect.Field;
+import java.nio.Buffer;
+import java.nio.MappedByteBuffer;
+
+/**
+ * Volatile reads and writes and compare and swap of the longs of a memory mapped file, shared by several processes.
+ * <p>
+ * Java 8 has no public API for atomic access to memory outside the heap: {@link MappedByteBuffer#getLong(int)} and
+ * {@link MappedByteBuffer#putLong(int, long)} are plain accesses, the atomic classes only work on the heap and the
+ * VarHandles viewing a byte buffer need Java 9. This class is therefore the only place using {@link Unsafe}, called
+ * directly so the JIT compiles every access to the plain instruction. The build ignores the warnings of the internal
+ * API, and on a runtime without it {@link #isAvailable()} is false instead of the class failing to load.
+ */
+final class MappedMemory {
+    private static final Unsafe UNSAFE;
+    //offset of the address of a direct buffer, a field of Buffer
+    private static final long ADDRESS_OFFSET;
+
+    static {
+        Unsafe unsafe = null;
+        long addressOffset = -1;
+
+        try {
+            Field unsafeField = Unsafe.class.getDeclaredField("theUnsafe");
+            unsafeField.setAccessible(true);
+            unsafe = (Unsafe) unsafeField.get(null);
+            addressOffset = unsafe.objectFieldOffset(Buffer.class.getDeclaredField("address"));
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            unsafe = null;
+        }
+
+        UNSAFE = unsafe;
+        ADDRESS_OFFSET = addressOffset;
+    }
+
+    private final MappedByteBuffer mapping;
+    private final long address;
+
+    /**
+     * @param mapping the mapped file, kept so that it stays mapped as long as this memory is used.
+     * @throws UnsupportedOperationException if the memory cannot be accessed atomically on this runtime.
+     */
+    MappedMemory(MappedByteBuffer mapping) {
+        if (!isAvailable()) {
+            throw new UnsupportedOperationException("Atomic access to mapped memory is not available.");
+        }
+
+        this.mapping = mapping;
+        this.address = UNSAFE.getLong(mapping, ADDRESS_OFFSET);
+    }
+
+    /**
+     * Check if the runtime allows the atomic access to mapped memory.
+     */
+    static boolean isAvailable() {
+        return UNSAFE != null;
+    }
+
+    long getLongVolatile(int offset) {
+        return UNSAFE.getLongVolatile(null, this.address + offset);
+    }
+
+    void putLongVolatile(int offset, long value) {
+        UNSAFE.putLongVolatile(null, this.address + offset, value);
+    }
+
+    boolean compareAndSwapLong(int offset, long expected, long value) {
+        return UNSAFE.compareAndSwapLong(null, this.address + offset, expected, value);
+    }
+}
@@ -0,0 +1,205 @@
+package ro.dragos.geornoiu.conveyor;
+
+import ro.dragos.geornoiu.enums.Component;
+
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ConveyorBelt} whose whole state is a single 64 bit word: the number of components in the lowest bits,
+ * followed by the ordinals of the components, head first, with just enough bits for each ordinal. With three
+ * components and a capacity of 10, the conveyor belt takes 24 bits.
+ * <p>
+ * Offering a component, taking the head, taking the head only if it is a given component and discarding the head are
+ * each a single compare and swap of the word, so they take no lock and allocate nothing, and a reader always sees a
+ * consistent conveyor belt. Use {@link #fits(int)} to check that a capacity fits in the word, and fall back to the
+ * {@link ArrayConveyorBelt} otherwise.
+ * <p>
+ * Only the components are kept on the conveyor belt. The envelopes of the offered components stay with the caller,
+ * which releases them once done with them, and the envelopes of the taken components are acquired from the pool with
+ * an {@link ComponentEnvelope#UNKNOWN_SUPPLIER unknown supplier}, so the belt dwell of the components is not measured.
+ */
+public class PackedConveyorBelt extends AbstractQueue<Component> implements ConveyorBelt {
+    private static final Component[] COMPONENTS = Component.values();
+
+    private static final int SIZE_BITS = 6;
+    private static final long SIZE_MASK = (1L << SIZE_BITS) - 1;
+    private static final int BITS_PER_COMPONENT = Math.max(1, 32 - Integer.numberOfLeadingZeros(COMPONENTS.length - 1));
+    private static final long COMPONENT_MASK = (1L << BITS_PER_COMPONENT) - 1;
+
+    /**
+     * The largest capacity which fits in the word.
+     */
+    public static final int MAX_CAPACITY = (int) Math.min(SIZE_MASK, (Long.SIZE - SIZE_BITS) / BITS_PER_COMPONENT);
+
+    private final AtomicLong word = new AtomicLong();
+    private final int capacity;
+    private final ComponentEnvelopePool envelopePool;
+
+    /**
+     * @throws IllegalArgumentException if the capacity does not fit in the word.
+     */
+    public PackedConveyorBelt(int capacity, ComponentEnvelopePool envelopePool) {
+        if (!fits(capacity)) {
+            throw new IllegalArgumentException("A conveyor belt of " + capacity + " components does not fit in a " +
+                    "word, at most " + MAX_CAPACITY + " do.");
+        }
+
+        this.capacity = capacity;
+        this.envelopePool = envelopePool;
+    }
+
+    /**
+     * Check if a conveyor belt of the given capacity fits in a single word.
+     */
+    public static boolean fits(int capacity) {
+        return capacity > 0 && capacity <= MAX_CAPACITY;
+    }
+
+    @Override
+    public boolean offer(ComponentEnvelope envelope) {
+        return offerOrdinal(envelope.getComponent().ordinal());
+    }
+
+    @Override
+    public boolean offer(Component component) {
+        if (component == null) {
+            throw new NullPointerException();
+        }
+
+        return offerOrdinal(component.ordinal());
+    }
+
+    @Override
+    public ComponentEnvelope pollEnvelope() {
+        return toEnvelope(pollOrdinal(-1));
+    }
+
+    @Override
+    public ComponentEnvelope pollEnvelope(Component component) {
+        return toEnvelope(pollOrdinal(component.ordinal()));
+    }
+
+    @Override
+    public Component poll() {
+        int ordinal = pollOrdinal(-1);
+        return ordinal < 0 ? null : COMPONENTS[ordinal];
+    }
+
+    @Override
+    public Component peek() {
+        long current = this.word.get();
+        return size(current) == 0 ? null : COMPONENTS[ordinalAt(current, 0)];
+    }
+
+    @Override
+    public int size() {
+        return size(this.word.get());
+    }
+
+    @Override
+    public void clear() {
+        this.word.set(0);
+    }
+
+    @Override
+    public Iterator<Component> iterator() {
+        Component[] components = new Component[this.capacity];
+        int noOfComponents = copyComponents(components);
+        return Arrays.asList(components).subList(0, noOfComponents).iterator();
+    }
+
+    @Override
+    public int copyComponents(Component[] destination) {
+        long current = this.word.get();
+        int noOfComponents = Math.min(size(current), destination.length);
+
+        for (int index = 0; index < noOfComponents; index++) {
+            destination[index] = COMPONENTS[ordinalAt(current, index)];
+        }
+
+        return noOfComponents;
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public boolean keepsEnvelopes() {
+        return false;
+    }
+
+    @Override
+    public ComponentEnvelopePool getEnvelopePool() {
+        return envelopePool;
+    }
+
+    private boolean offerOrdinal(int ordinal) {
+        while (true) {
+            long current = this.word.get();
+            int size = size(current);
+
+            if (size == this.capacity) {
+                return false;
+            }
+
+            long updated = (current + 1) | ((long) ordinal << shift(size));
+            if (this.word.compareAndSet(current, updated)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Take the head of the conveyor belt.
+     *
+     * @param expectedOrdinal the ordinal the head must have, negative to take any head.
+     * @return the ordinal of the taken component, or -1 if the conveyor belt is empty or the head is another component.
+     */
+    private int pollOrdinal(int expectedOrdinal) {
+        while (true) {
+            long current = this.word.get();
+            int size = size(current);
+
+            if (size == 0) {
+                return -1;
+            }
+
+            int ordinal = ordinalAt(current, 0);
+            if (expectedOrdinal >= 0 && ordinal != expectedOrdinal) {
+                return -1;
+            }
+
+            // the components after the head move one place forward
+            long components = current >>> (SIZE_BITS + BITS_PER_COMPONENT);
+            long updated = (components << SIZE_BITS) | (size - 1);
+            if (this.word.compareAndSet(current, updated)) {
+                return ordinal;
+            }
+        }
+    }
+
+    private ComponentEnvelope toEnvelope(int ordinal) {
+        if (ordinal < 0) {
+            return null;
+        }
+
+        return this.envelopePool.acquire(COMPONENTS[ordinal], ComponentEnvelope.UNKNOWN_SUPPLIER, System.nanoTime());
+    }
+
+    private static int size(long word) {
+        return (int) (word & SIZE_MASK);
+    }
+
+    private static int ordinalAt(long word, int index) {
+        return (int) ((word >>> shift(index)) & COMPONENT_MASK);
+    }
+
+    private static int shift(int index) {
+        return SIZE_BITS + index * BITS_PER_COMPONENT;
+    }
+}
@@ -0,0 +1,155 @@
+package ro.dragos.geornoiu.conveyor;
+
+import ro.dragos.geornoiu.enums.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Components removed from the head of a full conveyor belt because no worker needed them, kept instead of being
+ * destroyed. The suppliers put a recycled component back on the conveyor belt, instead of a new one, as soon as a
+ * worker needs a component of its type. The buffer holds a bounded number of components, and a component which waited
+ * longer than the age limit, or was pushed out of a full buffer, is destroyed after all.
+ * <p>
+ * The components are kept in an array in the order they were recycled, so the buffer does not allocate once created.
+ */
+public class RecycleBuffer {
+    private final ComponentEnvelope[] envelopes;
+    private final long[] recycleTimesNanos;
+    private final long maxAgeNanos;
+    private final Predicate<Component> componentInDemand;
+    private int size;
+
+    private long noOfRecycledComponents;
+    private long noOfReinjectedComponents;
+    private long noOfExpiredComponents;
+
+    /**
+     * @param capacity          the number of components kept, the oldest is destroyed to make room for a new one.
+     * @param maxAgeMillis      the time a component is kept before it is destroyed.
+     * @param componentInDemand tells if a worker needs a component of the given type which is not already on the
+     *                          conveyor belt, called while holding the monitor of the conveyor belt.
+     */
+    public RecycleBuffer(int capacity, long maxAgeMillis, Predicate<Component> componentInDemand) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The recycle buffer must hold at least one component.");
+        }
+
+        this.envelopes = new ComponentEnvelope[capacity];
+        this.recycleTimesNanos = new long[capacity];
+        this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMillis);
+        this.componentInDemand = componentInDemand;
+    }
+
+    /**
+     * Keep a component removed from the conveyor belt. The buffer becomes responsible of its envelope.
+     *
+     * @return the envelope of the oldest component, pushed out because the buffer was full, which has to be destroyed,
+     * or null.
+     */
+    public synchronized ComponentEnvelope add(ComponentEnvelope envelope, long nowNanos) {
+        ComponentEnvelope pushedOut = null;
+        if (this.size == this.envelopes.length) {
+            pushedOut = remove(0);
+            this.noOfExpiredComponents++;
+        }
+
+        this.envelopes[this.size] = envelope;
+        this.recycleTimesNanos[this.size] = nowNanos;
+        this.size++;
+        this.noOfRecycledComponents++;
+
+        return pushedOut;
+    }
+
+    /**
+     * Take the oldest component kept for longer than the age limit.
+     *
+     * @return the envelope of the component, which has to be destroyed, or null if no component is too old.
+     */
+    public synchronized ComponentEnvelope pollExpired(long nowNanos) {
+        if (this.size == 0 || nowNanos - this.recycleTimesNanos[0] <= this.maxAgeNanos) {
+            return null;
+        }
+
+        this.noOfExpiredComponents++;
+        return remove(0);
+    }
+
+    /**
+     * Take the oldest component a worker needs, to be put back on the conveyor belt by a supplier. Its belt dwell is
+     * measured again from now.
+     *
+     * @param supplierId the id of the supplier putting the component back on the conveyor belt.
+     * @return the envelope of the component or null if no worker needs any of the components kept.
+     */
+    public synchronized ComponentEnvelope pollInDemand(int supplierId, long nowNanos) {
+        for (int index = 0; index < this.size; index++) {
+            Component component = this.envelopes[index].getComponent();
+
+            if (this.componentInDemand.test(component)) {
+                ComponentEnvelope envelope = remove(index);
+                envelope.fill(component, supplierId, nowNanos);
+                this.noOfReinjectedComponents++;
+
+                return envelope;
+            }
+        }
+
+        return null;
+    }
+
+    private ComponentEnvelope remove(int index) {
+        ComponentEnvelope envelope = this.envelopes[index];
+
+        System.arraycopy(this.envelopes, index + 1, this.envelopes, index, this.size - index - 1);
+        System.arraycopy(this.recycleTimesNanos, index + 1, this.recycleTimesNanos, index, this.size - index - 1);
+        this.envelopes[--this.size] = null;
+
+        return envelope;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Retrieve the number of components removed from the conveyor belt and kept by the buffer.
+     */
+    public synchronized long getNoOfRecycledComponents() {
+        return noOfRecycledComponents;
+    }
+
+    /**
+     * Retrieve the number of components put back on the conveyor belt, each of them a new component the suppliers
+     * did not have to supply.
+     */
+    public synchronized long getNoOfReinjectedComponents() {
+        return noOfReinjectedComponents;
+    }
+
+    /**
+     * Retrieve the number of components destroyed because they were too old or pushed out of the full buffer.
+     */
+    public synchronized long getNoOfExpiredComponents() {
+        return noOfExpiredComponents;
+    }
+
+    /**
+     * Retrieve the share of the recycled components which were put back on the conveyor belt, between 0 and 1.
+     */
+    public synchronized double getRecycledFraction() {
+        return noOfRecycledComponents == 0 ? 0 : (double) noOfReinjectedComponents / noOfRecycledComponents;
+    }
+
+    /**
+     * Format the recycled fraction and the supply it saved.
+     */
+    public synchronized String report() {
+        return String.format(Locale.ROOT, "Recycle buffer: %d of %d components removed from the conveyor belt " +
+                        "were put back (%.1f%%), saving %d supplied components; %d destroyed, %d kept",
+                this.noOfReinjectedComponents, this.noOfRecycledComponents, getRecycledFraction() * 100,
+                this.noOfReinjectedComponents, this.noOfExpiredComponents, this.size);
+    }
+}
@@ -0,0 +1,33 @@
+package ro.dragos.geornoiu.conveyor;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Components which already left the conveyor belt but were not used for a robot, like the partial kit of a worker
+ * which was retired. The suppliers put these components back on the conveyor belt before supplying new ones, oldest
+ * first, so no component is lost when the number of workers changes.
+ */
+public class SpareComponentPool {
+    private final Deque<ComponentEnvelope> spareEnvelopes = new ArrayDeque<>();
+
+    /**
+     * Hand back a component. The pool becomes responsible of its envelope.
+     */
+    public synchronized void add(ComponentEnvelope envelope) {
+        this.spareEnvelopes.addLast(envelope);
+    }
+
+    /**
+     * Take the oldest spare component.
+     *
+     * @return the envelope of the oldest spare component or null if there are no spare components.
+     */
+    public synchronized ComponentEnvelope poll() {
+        return this.spareEnvelopes.pollFirst();
+    }
+
+    public synchronized int size() {
+        return this.spareEnvelopes.size();
+    }
+}
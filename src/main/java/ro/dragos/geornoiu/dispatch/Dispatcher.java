@@ -0,0 +1,159 @@
+package ro.dragos.geornoiu.dispatch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ro.dragos.geornoiu.consumer.RobotComponentsPair;
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelope;
+import ro.dragos.geornoiu.conveyor.ConveyorBelt;
+import ro.dragos.geornoiu.enums.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Single owner of the head of the conveyor belt. Instead of every worker peeking at the head under the conveyor belt
+ * monitor, the dispatcher keeps, for each {@link Component}, the workers currently needing it in the order they asked
+ * for it, and hands the head directly into the mailbox of the first one. Workers served by the dispatcher only wait on
+ * their own mailbox.
+ * <p>
+ * The dispatcher uses the conveyor belt monitor like any other consumer, so the {@link
+ * ro.dragos.geornoiu.producer.FactorySupplier} is unchanged.
+ */
+public class Dispatcher implements Runnable {
+    private static final Logger LOG = LoggerFactory.getLogger(Dispatcher.class);
+
+    //volatile in order to not be cached and any modification from an external thread to be seen in current thread.
+    private volatile boolean isRunning;
+
+    private final String name;
+    private final ConveyorBelt conveyorBelt;
+
+    //workers needing each type of component, first come first served, guarded by the conveyor belt monitor
+    private final Map<Component, Deque<MailboxComponentSource>> waitingWorkers = new EnumMap<>(Component.class);
+
+    public Dispatcher(String name, ConveyorBelt conveyorBelt) {
+        this.isRunning = true;
+        this.name = name;
+        this.conveyorBelt = conveyorBelt;
+
+        for (Component component : Component.values()) {
+            this.waitingWorkers.put(component, new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Create the source of components for a worker served by this dispatcher.
+     *
+     * @param kitCapacity the number of components the worker needs for one robot.
+     */
+    public MailboxComponentSource createComponentSource(int kitCapacity) {
+        return new MailboxComponentSource(this, kitCapacity);
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (this.isRunning) {
+                synchronized (this.conveyorBelt) {
+                    // Wait until the first component on the queue is needed by one of the workers.
+                    MailboxComponentSource recipient;
+                    while ((recipient = findRecipient(this.conveyorBelt.peek())) == null && this.isRunning) {
+                        this.conveyorBelt.wait();
+                    }
+
+                    //do not remove component from queue if current thread is stopped
+                    if (!this.isRunning) {
+                        break;
+                    }
+
+                    ComponentEnvelope envelope = this.conveyorBelt.pollEnvelope();
+                    envelope.markTaken(System.nanoTime());
+                    deliver(recipient, envelope);
+
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("{} handed component {} to worker {}. Queue size is now {}.", this.name,
+                                envelope.getComponent().name(), recipient.getWorkerName(), this.conveyorBelt.size());
+                    }
+
+                    // Notify that the lock on the conveyor belt will be released in order to awaken the threads
+                    // which are in waiting state.
+                    this.conveyorBelt.notifyAll();
+                }
+            }
+        } catch (InterruptedException ie) {
+            LOG.error("{} was interrupted and is being shut down", this.name);
+            stop();
+        }
+    }
+
+    /**
+     * Stop execution of thread by setting isRunningFlag to false and wake it up if it is waiting for a component a
+     * worker needs.
+     */
+    public void stop() {
+        this.isRunning = false;
+
+        synchronized (this.conveyorBelt) {
+            this.conveyorBelt.notifyAll();
+        }
+    }
+
+    /**
+     * Register all the components a worker needs for its next robot. Called from the thread of the worker.
+     */
+    void requestKit(MailboxComponentSource componentSource, Worker worker) {
+        synchronized (this.conveyorBelt) {
+            for (Map.Entry<Component, RobotComponentsPair> entry : worker.getRobotComponentsMap().entrySet()) {
+                RobotComponentsPair robotComponentsPair = entry.getValue();
+                int noOfComponentsRemaining = robotComponentsPair.getNumberOfComponentsNeeded() -
+                        robotComponentsPair.getNumberOfComponentsCurrentlyPossessed();
+
+                componentSource.setNoOfComponentsRemaining(entry.getKey(), noOfComponentsRemaining);
+
+                if (noOfComponentsRemaining > 0) {
+                    this.waitingWorkers.get(entry.getKey()).addLast(componentSource);
+                }
+            }
+
+            // the head of the conveyor belt might be needed by the worker which just asked for components
+            this.conveyorBelt.notifyAll();
+        }
+    }
+
+    ConveyorBelt getConveyorBelt() {
+        return conveyorBelt;
+    }
+
+    private MailboxComponentSource findRecipient(Component component) {
+        if (component == null) {
+            return null;
+        }
+
+        Deque<MailboxComponentSource> workers = this.waitingWorkers.get(component);
+
+        // workers which were stopped will never take their components
+        while (!workers.isEmpty() && !workers.peekFirst().isWorkerRunning()) {
+            workers.pollFirst();
+        }
+
+        return workers.peekFirst();
+    }
+
+    private void deliver(MailboxComponentSource recipient, ComponentEnvelope envelope) {
+        Component component = envelope.getComponent();
+        int noOfComponentsRemaining = recipient.getNoOfComponentsRemaining(component) - 1;
+
+        // the mailbox holds a full kit and the dispatcher never hands out more than the worker still needs
+        if (!recipient.getMailbox().offer(envelope)) {
+            throw new IllegalStateException("The mailbox of worker " + recipient.getWorkerName() + " is full.");
+        }
+        recipient.setNoOfComponentsRemaining(component, noOfComponentsRemaining);
+
+        if (noOfComponentsRemaining == 0) {
+            this.waitingWorkers.get(component).pollFirst();
+        }
+    }
+}
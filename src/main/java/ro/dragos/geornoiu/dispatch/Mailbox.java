@@ -0,0 +1,117 @@
+package ro.dragos.geornoiu.dispatch;
+
+import ro.dragos.geornoiu.conveyor.ComponentEnvelope;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded single producer, single consumer queue of envelopes. The {@link Dispatcher} is the only producer and the
+ * worker owning the mailbox the only consumer, so no locks are needed: each side only writes its own cursor. An idle
+ * consumer parks its thread and is unparked by the producer on the next delivery.
+ */
+public class Mailbox {
+    //bounds the time a parked consumer needs to notice it was asked to stop
+    private static final long MAX_PARK_NANOS = 100_000_000L;
+
+    private final ComponentEnvelope[] envelopes;
+    private final int mask;
+
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    private volatile Thread consumer;
+
+    public Mailbox(int capacity) {
+        int powerOfTwoCapacity = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+
+        this.envelopes = new ComponentEnvelope[powerOfTwoCapacity];
+        this.mask = powerOfTwoCapacity - 1;
+    }
+
+    /**
+     * Deliver an envelope to the mailbox. Must only be called by the producer.
+     *
+     * @return true if the envelope was delivered, false if the mailbox is full.
+     */
+    public boolean offer(ComponentEnvelope envelope) {
+        long currentTail = this.tail.get();
+
+        if (currentTail - this.head.get() == this.envelopes.length) {
+            return false;
+        }
+
+        this.envelopes[(int) currentTail & this.mask] = envelope;
+        // a full volatile write, so either the consumer sees the new envelope or we see the parked consumer
+        this.tail.set(currentTail + 1);
+
+        Thread currentConsumer = this.consumer;
+        if (currentConsumer != null) {
+            LockSupport.unpark(currentConsumer);
+        }
+
+        return true;
+    }
+
+    /**
+     * Take the oldest envelope from the mailbox. Must only be called by the consumer.
+     *
+     * @return the oldest envelope or null if the mailbox is empty.
+     */
+    public ComponentEnvelope poll() {
+        long currentHead = this.head.get();
+
+        if (currentHead == this.tail.get()) {
+            return null;
+        }
+
+        int index = (int) currentHead & this.mask;
+        ComponentEnvelope envelope = this.envelopes[index];
+        this.envelopes[index] = null;
+        this.head.lazySet(currentHead + 1);
+
+        return envelope;
+    }
+
+    /**
+     * Park the consumer thread until an envelope is delivered or at most {@link #MAX_PARK_NANOS}, then take the
+     * oldest envelope. Must only be called by the consumer.
+     *
+     * @return the oldest envelope or null if nothing was delivered in the meantime.
+     * @throws InterruptedException if the consumer thread was interrupted.
+     */
+    public ComponentEnvelope awaitAndPoll() throws InterruptedException {
+        if (this.consumer == null) {
+            this.consumer = Thread.currentThread();
+        }
+
+        ComponentEnvelope envelope = poll();
+
+        if (envelope != null) {
+            return envelope;
+        }
+
+        LockSupport.parkNanos(this, MAX_PARK_NANOS);
+
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+
+        return poll();
+    }
+
+    /**
+     * Wake up the consumer if it is parked waiting for a delivery.
+     */
+    public void wakeUp() {
+        Thread currentConsumer = this.consumer;
+
+        if (currentConsumer != null) {
+            LockSupport.unpark(currentConsumer);
+        }
+    }
+
+    public int size() {
+        return (int) (this.tail.get() - this.head.get());
+    }
+}
@@ -0,0 +1,88 @@
+package ro.dragos.geornoiu.dispatch;
+
+import ro.dragos.geornoiu.consumer.ComponentSource;
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelope;
+import ro.dragos.geornoiu.conveyor.SpareComponentPool;
+import ro.dragos.geornoiu.enums.Component;
+
+/**
+ * {@link ComponentSource} of a worker served by a {@link Dispatcher}: the worker only waits on its own mailbox, in
+ * which the dispatcher puts the components the worker asked for.
+ */
+public class MailboxComponentSource implements ComponentSource {
+    private final Dispatcher dispatcher;
+    private final Mailbox mailbox;
+
+    //number of components of each type the dispatcher still has to deliver, guarded by the conveyor belt monitor
+    private final int[] noOfComponentsRemaining = new int[Component.values().length];
+
+    private volatile Worker worker;
+
+    MailboxComponentSource(Dispatcher dispatcher, int kitCapacity) {
+        this.dispatcher = dispatcher;
+        this.mailbox = new Mailbox(kitCapacity);
+    }
+
+    @Override
+    public ComponentEnvelope take(Worker worker) throws InterruptedException {
+        while (worker.isRunning()) {
+            ComponentEnvelope envelope = this.mailbox.awaitAndPoll();
+
+            if (envelope != null) {
+                return envelope;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public ComponentEnvelope poll(Worker worker) {
+        return worker.isRunning() ? this.mailbox.poll() : null;
+    }
+
+    @Override
+    public void kitStarted(Worker worker) {
+        this.worker = worker;
+        this.dispatcher.requestKit(this, worker);
+    }
+
+    @Override
+    public void wakeUp(Worker worker) {
+        this.mailbox.wakeUp();
+    }
+
+    @Override
+    public void returnUntakenComponents(Worker worker, SpareComponentPool spareComponentPool) {
+        // the dispatcher delivers while holding the conveyor belt monitor and checks first that the worker is running,
+        // so nothing is delivered to the mailbox once it was emptied here
+        synchronized (this.dispatcher.getConveyorBelt()) {
+            ComponentEnvelope envelope;
+            while ((envelope = this.mailbox.poll()) != null) {
+                spareComponentPool.add(envelope);
+            }
+        }
+    }
+
+    boolean isWorkerRunning() {
+        Worker currentWorker = this.worker;
+        return currentWorker != null && currentWorker.isRunning();
+    }
+
+    String getWorkerName() {
+        return this.worker.getName();
+    }
+
+    Mailbox getMailbox() {
+        return mailbox;
+    }
+
+    int getNoOfComponentsRemaining(Component component) {
+        return this.noOfComponentsRemaining[component.ordinal()];
+    }
+
+    void setNoOfComponentsRemaining(Component component, int noOfComponents) {
+        this.noOfComponentsRemaining[component.ordinal()] = noOfComponents;
+    }
+}
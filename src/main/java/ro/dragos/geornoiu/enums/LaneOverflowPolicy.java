@@ -0,0 +1,19 @@
+package ro.dragos.geornoiu.enums;
+
+/**
+ * What the sorting station does with a component whose lane is full.
+ */
+public enum LaneOverflowPolicy {
+    /**
+     * Destroy the oldest component of the lane to make room for the new one.
+     */
+    DISCARD_OLDEST,
+    /**
+     * Destroy the new component and keep the lane as it is.
+     */
+    DISCARD_NEWEST,
+    /**
+     * Wait until a worker takes a component from the lane. The main conveyor belt fills up in the meantime.
+     */
+    BLOCK
+}
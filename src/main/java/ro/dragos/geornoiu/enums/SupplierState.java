@@ -0,0 +1,11 @@
+package ro.dragos.geornoiu.enums;
+
+/**
+ * What a supplier is currently doing.
+ */
+public enum SupplierState {
+    SUPPLYING,
+    BLOCKED,
+    IDLE,
+    STOPPED
+}
@@ -0,0 +1,36 @@
+package ro.dragos.geornoiu.enums;
+
+import ro.dragos.geornoiu.wait.BlockingWaitStrategy;
+import ro.dragos.geornoiu.wait.BusySpinWaitStrategy;
+import ro.dragos.geornoiu.wait.SpinThenParkWaitStrategy;
+import ro.dragos.geornoiu.wait.WaitStrategy;
+import ro.dragos.geornoiu.wait.YieldingWaitStrategy;
+
+/**
+ * The ways suppliers and workers can wait for the conveyor belt.
+ */
+public enum WaitStrategyType {
+    BLOCKING,
+    SPIN_THEN_PARK,
+    YIELD,
+    BUSY_SPIN;
+
+    private static final int NO_OF_SPINS_BEFORE_PARKING = 10_000;
+    private static final long PARK_NANOS = 50_000L;
+
+    /**
+     * Create a new wait strategy of this type.
+     */
+    public WaitStrategy createWaitStrategy() {
+        switch (this) {
+            case SPIN_THEN_PARK:
+                return new SpinThenParkWaitStrategy(NO_OF_SPINS_BEFORE_PARKING, PARK_NANOS);
+            case YIELD:
+                return new YieldingWaitStrategy();
+            case BUSY_SPIN:
+                return new BusySpinWaitStrategy();
+            default:
+                return new BlockingWaitStrategy();
+        }
+    }
+}
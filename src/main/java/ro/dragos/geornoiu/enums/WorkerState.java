@@ -0,0 +1,10 @@
+package ro.dragos.geornoiu.enums;
+
+/**
+ * What a worker is currently doing.
+ */
+public enum WorkerState {
+    COLLECTING,
+    ASSEMBLING,
+    STOPPED
+}
@@ -0,0 +1,70 @@
+package ro.dragos.geornoiu.event;
+
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelope;
+import ro.dragos.geornoiu.producer.FactorySupplier;
+import ro.dragos.geornoiu.sorting.ComponentLane;
+import ro.dragos.geornoiu.sorting.SortingStation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link FactoryEventListener} forwarding every event to a list of listeners, in the order they were added.
+ * Listeners can be added while the factory is running. The listeners are kept in an array which is copied on every
+ * change, so forwarding an event neither locks nor allocates an iterator.
+ */
+public class CompositeFactoryEventListener implements FactoryEventListener {
+    //volatile in order to not be cached and any modification from an external thread to be seen in current thread.
+    private volatile FactoryEventListener[] listeners = new FactoryEventListener[0];
+
+    public synchronized void addListener(FactoryEventListener listener) {
+        FactoryEventListener[] updatedListeners = Arrays.copyOf(this.listeners, this.listeners.length + 1);
+        updatedListeners[updatedListeners.length - 1] = listener;
+        this.listeners = updatedListeners;
+    }
+
+    public synchronized void removeListener(FactoryEventListener listener) {
+        List<FactoryEventListener> updatedListeners = new ArrayList<>(Arrays.asList(this.listeners));
+        if (updatedListeners.remove(listener)) {
+            this.listeners = updatedListeners.toArray(new FactoryEventListener[0]);
+        }
+    }
+
+    @Override
+    public void componentSupplied(FactorySupplier supplier, ComponentEnvelope envelope) {
+        for (FactoryEventListener listener : this.listeners) {
+            listener.componentSupplied(supplier, envelope);
+        }
+    }
+
+    @Override
+    public void componentDiscarded(FactorySupplier supplier, ComponentEnvelope envelope) {
+        for (FactoryEventListener listener : this.listeners) {
+            listener.componentDiscarded(supplier, envelope);
+        }
+    }
+
+    @Override
+    public void laneOverflowed(SortingStation sortingStation, ComponentLane lane, ComponentEnvelope envelope) {
+        for (FactoryEventListener listener : this.listeners) {
+            listener.laneOverflowed(sortingStation, lane, envelope);
+        }
+    }
+
+    @Override
+    public void componentTaken(Worker worker, ComponentEnvelope envelope) {
+        for (FactoryEventListener listener : this.listeners) {
+            listener.componentTaken(worker, envelope);
+        }
+    }
+
+    @Override
+    public void robotAssembled(Worker worker, ComponentEnvelope[] kit, int kitSize, long kitStartedNanos,
+                               long kitCompletedNanos, long robotAssembledNanos) {
+        for (FactoryEventListener listener : this.listeners) {
+            listener.robotAssembled(worker, kit, kitSize, kitStartedNanos, kitCompletedNanos, robotAssembledNanos);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package ro.dragos.geornoiu.event;
+
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelope;
+import ro.dragos.geornoiu.producer.FactorySupplier;
+import ro.dragos.geornoiu.sorting.ComponentLane;
+import ro.dragos.geornoiu.sorting.SortingStation;
+
+/**
+ * Listener notified of the actions taken in the factory. Methods are called from the thread performing the action,
+ * so implementations must be thread safe and should return quickly. All methods do nothing by default, so
+ * implementations only override the events they are interested in.
+ */
+public interface FactoryEventListener {
+
+    /**
+     * Called after a supplier put a component on the conveyor belt.
+     *
+     * @param supplier the supplier which added the component.
+     * @param envelope the envelope of the added component.
+     */
+    default void componentSupplied(FactorySupplier supplier, ComponentEnvelope envelope) {
+    }
+
+    /**
+     * Called after a supplier destroyed the component at the head of a full conveyor belt, before its envelope is
+     * released.
+     *
+     * @param supplier the supplier which destroyed the component.
+     * @param envelope the envelope of the destroyed component.
+     */
+    default void componentDiscarded(FactorySupplier supplier, ComponentEnvelope envelope) {
+    }
+
+    /**
+     * Called after a sorting station destroyed a component because its lane was full, before its envelope is released.
+     *
+     * @param sortingStation the sorting station which destroyed the component.
+     * @param lane           the full lane.
+     * @param envelope       the envelope of the destroyed component.
+     */
+    default void laneOverflowed(SortingStation sortingStation, ComponentLane lane, ComponentEnvelope envelope) {
+    }
+
+    /**
+     * Called after a worker took a component from the conveyor belt.
+     *
+     * @param worker   the worker which took the component.
+     * @param envelope the envelope of the taken component, its take time is already set.
+     */
+    default void componentTaken(Worker worker, ComponentEnvelope envelope) {
+    }
+
+    /**
+     * Called after a worker assembled a robot, before the envelopes of the kit are released.
+     *
+     * @param worker              the worker which assembled the robot.
+     * @param kit                 the envelopes of the components used, only the first {@code kitSize} are valid.
+     * @param kitSize             the number of components used.
+     * @param kitStartedNanos     the {@link System#nanoTime()} at which the worker started collecting the components.
+     * @param kitCompletedNanos   the {@link System#nanoTime()} at which the last component was collected.
+     * @param robotAssembledNanos the {@link System#nanoTime()} at which the robot was assembled.
+     */
+    default void robotAssembled(Worker worker, ComponentEnvelope[] kit, int kitSize, long kitStartedNanos,
+                                long kitCompletedNanos, long robotAssembledNanos) {
+    }
+}
@@ -0,0 +1,164 @@
+package ro.dragos.geornoiu.eventloop;
+
+import ro.dragos.geornoiu.conveyor.ConveyorBelt;
+import ro.dragos.geornoiu.enums.Component;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replaces wait and notify on the conveyor belt for the actors running on {@link EventLoop event loops}. An actor
+ * which cannot act on the conveyor belt registers a {@link Waiter} instead of blocking, and every actor changing the
+ * conveyor belt signals, which submits the step of the waiters the change concerns to their event loops: a taken
+ * component wakes up the suppliers waiting for room, and a new component at the head of the conveyor belt only wakes
+ * up the workers needing that component. A change therefore costs the waiters which can act on it, not every waiter.
+ * <p>
+ * To not miss a change made between looking at the conveyor belt and registering, the actor reads the
+ * {@link #sequence()} before looking, and registering with a sequence which already moved submits the step of that
+ * actor right away.
+ */
+public class ConveyorBeltSignal {
+    private static final int ROOM = 0;
+
+    private final ConveyorBelt conveyorBelt;
+    private final AtomicLong sequence = new AtomicLong();
+    //suppliers waiting for room, then the workers waiting for each component at the head, by ordinal plus one
+    private final Queue<Waiter>[] waiters;
+
+    @SuppressWarnings("unchecked")
+    public ConveyorBeltSignal(ConveyorBelt conveyorBelt) {
+        this.conveyorBelt = conveyorBelt;
+        this.waiters = new Queue[Component.values().length + 1];
+
+        for (int index = 0; index < this.waiters.length; index++) {
+            this.waiters[index] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Retrieve the number of signals so far, to be read before looking at the conveyor belt.
+     */
+    public long sequence() {
+        return this.sequence.get();
+    }
+
+    /**
+     * Register a supplier for the next component taken from the conveyor belt.
+     *
+     * @param seenSequence the {@link #sequence()} read before looking at the conveyor belt.
+     * @param waiter       the waiter to wake up.
+     */
+    public void awaitRoom(long seenSequence, Waiter waiter) {
+        register(ROOM, waiter);
+        resumeIfChanged(seenSequence, waiter);
+    }
+
+    /**
+     * Register a worker for the next time one of the given components is at the head of the conveyor belt.
+     *
+     * @param seenSequence the {@link #sequence()} read before looking at the conveyor belt.
+     * @param waiter       the waiter to wake up.
+     * @param components   the components the worker needs, only the first {@code noOfComponents} are used.
+     */
+    public void awaitComponents(long seenSequence, Waiter waiter, Component[] components, int noOfComponents) {
+        for (int index = 0; index < noOfComponents; index++) {
+            register(components[index].ordinal() + 1, waiter);
+        }
+
+        resumeIfChanged(seenSequence, waiter);
+    }
+
+    /**
+     * Wake up the suppliers waiting for room and the workers needing the new head. Called after a component was taken
+     * from the conveyor belt.
+     */
+    public void signalTaken() {
+        this.sequence.incrementAndGet();
+
+        wakeUp(ROOM);
+        wakeUpHeadWaiters();
+    }
+
+    /**
+     * Wake up the workers needing the head. Called after a component was put on the conveyor belt, with the head
+     * destroyed before to make room or not.
+     */
+    public void signalSupplied() {
+        this.sequence.incrementAndGet();
+
+        wakeUpHeadWaiters();
+    }
+
+    private void wakeUpHeadWaiters() {
+        Component head = this.conveyorBelt.peek();
+
+        if (head != null) {
+            wakeUp(head.ordinal() + 1);
+        }
+    }
+
+    private void register(int queue, Waiter waiter) {
+        int bit = 1 << queue;
+
+        while (true) {
+            int registeredQueues = waiter.registeredQueues.get();
+
+            if ((registeredQueues & bit) != 0) {
+                // a waiter already registered is not registered twice
+                return;
+            }
+
+            if (waiter.registeredQueues.compareAndSet(registeredQueues, registeredQueues | bit)) {
+                this.waiters[queue].offer(waiter);
+                return;
+            }
+        }
+    }
+
+    private void wakeUp(int queue) {
+        int bit = 1 << queue;
+
+        Waiter waiter;
+        while ((waiter = this.waiters[queue].poll()) != null) {
+            clear(waiter, bit);
+            waiter.eventLoop.execute(waiter.step);
+        }
+    }
+
+    private static void clear(Waiter waiter, int bit) {
+        while (true) {
+            int registeredQueues = waiter.registeredQueues.get();
+
+            if (waiter.registeredQueues.compareAndSet(registeredQueues, registeredQueues & ~bit)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Submit the step of the waiter alone if the conveyor belt changed since it looked. The waiter stays registered,
+     * so at worst its step runs once more than needed.
+     */
+    private void resumeIfChanged(long seenSequence, Waiter waiter) {
+        if (this.sequence.get() != seenSequence) {
+            waiter.eventLoop.execute(waiter.step);
+        }
+    }
+
+    /**
+     * The step an actor resumes with, on its event loop. Created once per actor, so waiting does not allocate.
+     */
+    public static final class Waiter {
+        private final EventLoop eventLoop;
+        private final Runnable step;
+        //one bit for each queue of the signal the waiter is in
+        private final AtomicInteger registeredQueues = new AtomicInteger();
+
+        public Waiter(EventLoop eventLoop, Runnable step) {
+            this.eventLoop = eventLoop;
+            this.step = step;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package ro.dragos.geornoiu.eventloop;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A single thread running the steps of many workers and suppliers. Steps are submitted from any thread with
+ * {@link #execute(Runnable)} or delayed with {@link #schedule(Runnable, long)}, which replaces the sleeps of the
+ * threaded actors. Steps must never block: while there is nothing to run, the thread parks until the next timer is due
+ * or a new step is submitted.
+ * <p>
+ * The thread of an event loop can also carry {@link #newLane(String) lanes}, event loops without a thread of their
+ * own. The carrier takes its ready lanes in turn and runs at most {@link #LANE_QUOTA} steps of each before moving to
+ * the next one, so a lane always having steps to run cannot delay the steps of the other lanes for long.
+ */
+public class EventLoop implements Runnable {
+    private static final Logger LOG = LoggerFactory.getLogger(EventLoop.class);
+
+    /**
+     * Maximum number of steps of a lane run in a row, before the carrier moves to its next ready lane.
+     */
+    public static final int LANE_QUOTA = 16;
+
+    //volatile in order to not be cached and any modification from an external thread to be seen in current thread.
+    private volatile boolean isRunning;
+    private volatile Thread thread;
+
+    private final String name;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    //only used by the thread of the event loop
+    private final PriorityQueue<Timer> timers = new PriorityQueue<>();
+    private long nextTimerSequence;
+
+    //the event loop whose thread runs the steps of this lane, null if the event loop has a thread of its own
+    private final EventLoop carrier;
+    //true while the lane is in the ready lanes of its carrier
+    private final AtomicBoolean isReady = new AtomicBoolean();
+    //the lanes carried by this event loop which have steps to run
+    private final Queue<EventLoop> readyLanes = new ConcurrentLinkedQueue<>();
+
+    public EventLoop(String name) {
+        this(name, null);
+    }
+
+    private EventLoop(String name, EventLoop carrier) {
+        this.isRunning = true;
+        this.name = name;
+        this.carrier = carrier;
+    }
+
+    /**
+     * Create a lane carried by the thread of this event loop. Steps and timers of the lane run on this thread, in
+     * turn with the steps of the other lanes.
+     *
+     * @param name the name of the lane.
+     * @return the lane, which must not be run or stopped on its own: it stops with this event loop.
+     */
+    public EventLoop newLane(String name) {
+        if (this.carrier != null) {
+            throw new IllegalStateException("Lane " + this.name + " cannot carry other lanes.");
+        }
+
+        return new EventLoop(name, this);
+    }
+
+    @Override
+    public void run() {
+        if (this.carrier != null) {
+            throw new IllegalStateException("Lane " + this.name + " runs on the thread of " + this.carrier.name);
+        }
+
+        this.thread = Thread.currentThread();
+
+        while (this.isRunning) {
+            runTasks();
+            runLanes();
+            long nanosToNextTimer = runTimers();
+
+            if (!this.tasks.isEmpty() || !this.readyLanes.isEmpty() || !this.isRunning) {
+                continue;
+            }
+
+            // a step submitted after the check above unparks the thread, so it is not missed
+            if (nanosToNextTimer == Long.MAX_VALUE) {
+                LockSupport.park(this);
+            } else {
+                LockSupport.parkNanos(this, nanosToNextTimer);
+            }
+        }
+
+        LOG.debug("{} stopped with {} timers pending.", this.name, this.timers.size());
+    }
+
+    /**
+     * Run the step on the thread of the event loop as soon as possible. Can be called from any thread.
+     */
+    public void execute(Runnable task) {
+        this.tasks.offer(task);
+
+        if (this.carrier != null) {
+            // only the first step makes the lane ready, the carrier keeps it ready while it has steps
+            if (this.isReady.compareAndSet(false, true)) {
+                this.carrier.readyLanes.offer(this);
+                this.carrier.wakeUp();
+            }
+            return;
+        }
+
+        wakeUp();
+    }
+
+    private void wakeUp() {
+        Thread loopThread = this.thread;
+        if (loopThread != null && loopThread != Thread.currentThread()) {
+            LockSupport.unpark(loopThread);
+        }
+    }
+
+    /**
+     * Run the step on the thread of the event loop once the delay elapsed. Can be called from any thread.
+     *
+     * @param task       the step to run.
+     * @param delayNanos the delay in nanoseconds.
+     */
+    public void schedule(Runnable task, long delayNanos) {
+        if (this.carrier != null) {
+            this.carrier.schedule(() -> execute(task), delayNanos);
+            return;
+        }
+
+        long deadlineNanos = System.nanoTime() + delayNanos;
+
+        if (Thread.currentThread() == this.thread) {
+            this.timers.add(new Timer(deadlineNanos, this.nextTimerSequence++, task));
+        } else {
+            execute(() -> this.timers.add(new Timer(deadlineNanos, this.nextTimerSequence++, task)));
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+
+        while ((task = this.tasks.poll()) != null) {
+            runStep(task);
+        }
+    }
+
+    /**
+     * Run at most {@link #LANE_QUOTA} steps of every lane which was ready when the round started. Lanes still having
+     * steps go back at the end of the ready lanes.
+     */
+    private void runLanes() {
+        for (int noOfLanes = this.readyLanes.size(); noOfLanes > 0; noOfLanes--) {
+            EventLoop lane = this.readyLanes.poll();
+
+            if (lane == null) {
+                return;
+            }
+
+            // cleared before taking the steps, so a step submitted meanwhile makes the lane ready again
+            lane.isReady.set(false);
+
+            for (int i = 0; i < LANE_QUOTA; i++) {
+                Runnable task = lane.tasks.poll();
+
+                if (task == null) {
+                    break;
+                }
+
+                lane.runStep(task);
+            }
+
+            if (!lane.tasks.isEmpty() && lane.isReady.compareAndSet(false, true)) {
+                this.readyLanes.offer(lane);
+            }
+        }
+    }
+
+    /**
+     * Run the due timers.
+     *
+     * @return the nanoseconds until the next timer is due, {@link Long#MAX_VALUE} if there is none.
+     */
+    private long runTimers() {
+        while (true) {
+            Timer timer = this.timers.peek();
+
+            if (timer == null) {
+                return Long.MAX_VALUE;
+            }
+
+            long nanosToDeadline = timer.deadlineNanos - System.nanoTime();
+            if (nanosToDeadline > 0) {
+                return nanosToDeadline;
+            }
+
+            this.timers.poll();
+            runStep(timer.task);
+        }
+    }
+
+    private void runStep(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException re) {
+            LOG.error("A step failed on {}", this.name, re);
+        }
+    }
+
+    /**
+     * Stop execution of thread by setting isRunningFlag to false. The lanes carried by the event loop stop with it.
+     */
+    public void stop() {
+        if (this.carrier != null) {
+            throw new IllegalStateException("Lane " + this.name + " stops with " + this.carrier.name);
+        }
+
+        this.isRunning = false;
+
+        Thread loopThread = this.thread;
+        if (loopThread != null) {
+            LockSupport.unpark(loopThread);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private static final class Timer implements Comparable<Timer> {
+        private final long deadlineNanos;
+        //keeps timers with the same deadline in the order they were scheduled
+        private final long sequence;
+        private final Runnable task;
+
+        private Timer(long deadlineNanos, long sequence, Runnable task) {
+            this.deadlineNanos = deadlineNanos;
+            this.sequence = sequence;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(Timer other) {
+            long difference = this.deadlineNanos - other.deadlineNanos;
+
+            if (difference != 0) {
+                return difference < 0 ? -1 : 1;
+            }
+
+            return Long.compare(this.sequence, other.sequence);
+        }
+    }
+}
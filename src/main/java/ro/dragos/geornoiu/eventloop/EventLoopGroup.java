@@ -0,0 +1,67 @@
+package ro.dragos.geornoiu.eventloop;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fixed number of {@link EventLoop event loops}, usually one per core, among which the workers and suppliers are
+ * spread in turn.
+ */
+public class EventLoopGroup {
+    private final List<EventLoop> eventLoops;
+    private final List<Thread> threads;
+    private final AtomicInteger nextEventLoop = new AtomicInteger();
+
+    /**
+     * @param noOfEventLoops the number of event loops, each with a thread of its own.
+     * @param name           the prefix of the names of the event loops.
+     */
+    public EventLoopGroup(int noOfEventLoops, String name) {
+        List<EventLoop> loops = new ArrayList<>(noOfEventLoops);
+        List<Thread> loopThreads = new ArrayList<>(noOfEventLoops);
+
+        for (int i = 0; i < noOfEventLoops; i++) {
+            EventLoop eventLoop = new EventLoop(name + "-" + i);
+            Thread thread = new Thread(eventLoop, eventLoop.getName());
+            thread.setDaemon(true);
+
+            loops.add(eventLoop);
+            loopThreads.add(thread);
+        }
+
+        this.eventLoops = Collections.unmodifiableList(loops);
+        this.threads = Collections.unmodifiableList(loopThreads);
+    }
+
+    public void start() {
+        for (Thread thread : this.threads) {
+            thread.start();
+        }
+    }
+
+    /**
+     * Retrieve the event loop the next actor should run on.
+     */
+    public EventLoop next() {
+        return this.eventLoops.get(Math.floorMod(this.nextEventLoop.getAndIncrement(), this.eventLoops.size()));
+    }
+
+    /**
+     * Stop every event loop and wait for their threads to end.
+     */
+    public void stop() throws InterruptedException {
+        for (EventLoop eventLoop : this.eventLoops) {
+            eventLoop.stop();
+        }
+
+        for (Thread thread : this.threads) {
+            thread.join();
+        }
+    }
+
+    public List<EventLoop> getEventLoops() {
+        return eventLoops;
+    }
+}
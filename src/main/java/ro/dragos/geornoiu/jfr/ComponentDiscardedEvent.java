@@ -0,0 +1,30 @@
+package ro.dragos.geornoiu.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Recorded when a supplier destroys the component at the head of a full conveyor belt.
+ */
+@Name("ro.dragos.geornoiu.ComponentDiscarded")
+@Label("Component Discarded")
+@Category({"ACME Factory", "Conveyor Belt"})
+@StackTrace(false)
+public class ComponentDiscardedEvent extends Event {
+
+    @Label("Supplier")
+    public String supplier;
+
+    @Label("Component")
+    public String component;
+
+    @Label("Belt Dwell")
+    @Description("Time the destroyed component spent on the conveyor belt")
+    @Timespan(Timespan.NANOSECONDS)
+    public long beltDwell;
+}
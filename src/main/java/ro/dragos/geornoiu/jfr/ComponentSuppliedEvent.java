@@ -0,0 +1,28 @@
+package ro.dragos.geornoiu.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded when a supplier puts a component on the conveyor belt.
+ */
+@Name("ro.dragos.geornoiu.ComponentSupplied")
+@Label("Component Supplied")
+@Category({"ACME Factory", "Conveyor Belt"})
+@StackTrace(false)
+public class ComponentSuppliedEvent extends Event {
+
+    @Label("Supplier")
+    public String supplier;
+
+    @Label("Component")
+    public String component;
+
+    @Label("Conveyor Belt Size")
+    @Description("Number of components on the conveyor belt after the component was added")
+    public int conveyorBeltSize;
+}
@@ -0,0 +1,30 @@
+package ro.dragos.geornoiu.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Recorded when a worker takes a component from the conveyor belt.
+ */
+@Name("ro.dragos.geornoiu.ComponentTaken")
+@Label("Component Taken")
+@Category({"ACME Factory", "Worker"})
+@StackTrace(false)
+public class ComponentTakenEvent extends Event {
+
+    @Label("Worker")
+    public String worker;
+
+    @Label("Component")
+    public String component;
+
+    @Label("Belt Dwell")
+    @Description("Time the component spent on the conveyor belt, 0 if it was not put there by a supplier")
+    @Timespan(Timespan.NANOSECONDS)
+    public long beltDwell;
+}
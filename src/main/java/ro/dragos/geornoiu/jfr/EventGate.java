@@ -0,0 +1,35 @@
+package ro.dragos.geornoiu.jfr;
+
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Tells if a type of event is enabled in a running recording before an event is created, so the hot path of the
+ * workers and suppliers does not allocate an event which would not be committed. Until the flight recorder is
+ * initialized no type of event is enabled, and the type of event is only looked up once it is.
+ */
+public class EventGate {
+    private final Class<? extends Event> eventClass;
+
+    //looked up once the flight recorder is initialized
+    private volatile EventType eventType;
+
+    public EventGate(Class<? extends Event> eventClass) {
+        this.eventClass = eventClass;
+    }
+
+    public boolean isEnabled() {
+        if (!FlightRecorder.isInitialized()) {
+            return false;
+        }
+
+        EventType currentEventType = this.eventType;
+        if (currentEventType == null) {
+            currentEventType = EventType.getEventType(this.eventClass);
+            this.eventType = currentEventType;
+        }
+
+        return currentEventType.isEnabled();
+    }
+}
@@ -0,0 +1,34 @@
+package ro.dragos.geornoiu.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Recorded when a worker assembled a robot. The duration of the event is the time spent in the assembly room.
+ */
+@Name("ro.dragos.geornoiu.RobotAssembled")
+@Label("Robot Assembled")
+@Category({"ACME Factory", "Worker"})
+@StackTrace(false)
+public class RobotAssembledEvent extends Event {
+
+    @Label("Worker")
+    public String worker;
+
+    @Label("Robot Type")
+    public String robotType;
+
+    @Label("Kit Collection Time")
+    @Description("Time from starting to collect the components of the robot until the last one was taken")
+    @Timespan(Timespan.NANOSECONDS)
+    public long kitCollectionTime;
+
+    @Label("Assembled Robots")
+    @Description("Number of robots the worker has assembled in his lifetime")
+    public int noOfAssembledRobots;
+}
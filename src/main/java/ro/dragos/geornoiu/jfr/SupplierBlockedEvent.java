@@ -0,0 +1,29 @@
+package ro.dragos.geornoiu.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Recorded when a supplier had to wait for room on a full conveyor belt. The duration of the event is the time the
+ * supplier was blocked.
+ */
+@Name("ro.dragos.geornoiu.SupplierBlocked")
+@Label("Supplier Blocked")
+@Description("A supplier waited for room on a full conveyor belt")
+@Category({"ACME Factory", "Conveyor Belt"})
+@Threshold("10 ms")
+@StackTrace(false)
+public class SupplierBlockedEvent extends Event {
+
+    @Label("Supplier")
+    public String supplier;
+
+    @Label("Head Discarded")
+    @Description("True if no worker took a component in time and the supplier destroyed the head of the conveyor belt")
+    public boolean headDiscarded;
+}
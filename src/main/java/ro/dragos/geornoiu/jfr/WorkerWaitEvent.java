@@ -0,0 +1,28 @@
+package ro.dragos.geornoiu.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Recorded when a worker waited for a component it needs. The duration of the event is the time the worker waited.
+ */
+@Name("ro.dragos.geornoiu.WorkerWait")
+@Label("Worker Wait")
+@Description("A worker waited for a component it needs")
+@Category({"ACME Factory", "Worker"})
+@Threshold("10 ms")
+@StackTrace(false)
+public class WorkerWaitEvent extends Event {
+
+    @Label("Worker")
+    public String worker;
+
+    @Label("Awaited Component")
+    @Description("The component which ended the wait")
+    public String awaitedComponent;
+}
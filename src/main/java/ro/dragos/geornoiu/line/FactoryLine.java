@@ -0,0 +1,78 @@
+package ro.dragos.geornoiu.line;
+
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.metrics.ThroughputMetrics;
+import ro.dragos.geornoiu.producer.FactorySupplier;
+import ro.dragos.geornoiu.service.factory.ACMEFactory;
+import ro.dragos.geornoiu.snapshot.FactorySnapshot;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An independent ACME line hosted by a {@link LineRegistry}: its own {@link ACMEFactory} with its own conveyor belt,
+ * workers, suppliers and metrics. Lines do not share any component with each other.
+ */
+public class FactoryLine {
+    private final String name;
+    private final ACMEFactory acmeFactory;
+    private final List<Worker> workers;
+    private final List<FactorySupplier> factorySuppliers;
+
+    FactoryLine(String name, ACMEFactory acmeFactory, List<Worker> workers, List<FactorySupplier> factorySuppliers) {
+        this.name = name;
+        this.acmeFactory = acmeFactory;
+        this.workers = Collections.unmodifiableList(workers);
+        this.factorySuppliers = Collections.unmodifiableList(factorySuppliers);
+    }
+
+    /**
+     * Stop every worker and supplier of the line. They stop on their event loop once it runs their next step.
+     */
+    void stop() {
+        for (FactorySupplier factorySupplier : this.factorySuppliers) {
+            factorySupplier.stop();
+        }
+
+        for (Worker worker : this.workers) {
+            worker.stop();
+        }
+    }
+
+    /**
+     * Retrieve the number of workers and suppliers of the line, all running on the same lane of an event loop.
+     */
+    public int getNoOfActors() {
+        return this.workers.size() + this.factorySuppliers.size();
+    }
+
+    /**
+     * Retrieve the number of components supplied, destroyed and taken and of robots assembled on this line only.
+     */
+    public ThroughputMetrics getThroughputMetrics() {
+        return this.acmeFactory.getThroughputMetrics();
+    }
+
+    /**
+     * Read the conveyor belt and the state of every worker and supplier of this line without taking any lock.
+     */
+    public FactorySnapshot snapshot() {
+        return this.acmeFactory.snapshot();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ACMEFactory getAcmeFactory() {
+        return acmeFactory;
+    }
+
+    public List<Worker> getWorkers() {
+        return workers;
+    }
+
+    public List<FactorySupplier> getFactorySuppliers() {
+        return factorySuppliers;
+    }
+}
@@ -0,0 +1,141 @@
+package ro.dragos.geornoiu.line;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ro.dragos.geornoiu.constants.ACMEConstants;
+import ro.dragos.geornoiu.constants.FactoryTiming;
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.conveyor.ArrayConveyorBelt;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelopePool;
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.enums.WaitStrategyType;
+import ro.dragos.geornoiu.eventloop.EventLoop;
+import ro.dragos.geornoiu.eventloop.EventLoopGroup;
+import ro.dragos.geornoiu.producer.FactorySupplier;
+import ro.dragos.geornoiu.service.ComponentGeneratorService;
+import ro.dragos.geornoiu.service.factory.ACMEFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hosts many independent {@link FactoryLine factory lines} in the same JVM, each with its own conveyor belt, workers,
+ * suppliers and metrics, on a shared and bounded {@link EventLoopGroup}. Lines can be added and removed at runtime.
+ * <p>
+ * The workers and suppliers of the lines run as non-blocking state machines, so the number of threads does not grow
+ * with the number of lines. Each line gets a lane of one of the event loops, taken in turn, and all of its actors run
+ * on that lane. An event loop runs at most {@link EventLoop#LANE_QUOTA} steps of a lane before moving to the next one,
+ * which keeps the lines sharing an event loop fair to each other: a busy line only delays the others by a few steps.
+ */
+public class LineRegistry implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(LineRegistry.class);
+
+    private final FactoryTiming timing;
+    private final EventLoopGroup eventLoopGroup;
+    private final Map<String, FactoryLine> lines = new LinkedHashMap<>();
+
+    /**
+     * @param noOfEventLoops the number of event loops shared by all the lines, usually one per core.
+     * @param timing         the durations of the actions of the suppliers and workers of every line.
+     */
+    public LineRegistry(int noOfEventLoops, FactoryTiming timing) {
+        this.timing = timing;
+        this.eventLoopGroup = new EventLoopGroup(noOfEventLoops, "acme-line");
+        this.eventLoopGroup.start();
+    }
+
+    /**
+     * Add a line and start its workers and its supplier on a lane of the next event loop.
+     *
+     * @param name                the unique name of the line.
+     * @param noOfDry2000Workers  the number of workers assembling DRY2000 robots.
+     * @param noOfWet2000Workers  the number of workers assembling WET2000 robots.
+     * @param componentGenerator  the service generating the components supplied to the line.
+     * @return the started line.
+     * @throws IllegalArgumentException if a line with the same name is already hosted.
+     */
+    public synchronized FactoryLine addLine(String name, int noOfDry2000Workers, int noOfWet2000Workers,
+                                            ComponentGeneratorService componentGenerator) {
+        if (this.lines.containsKey(name)) {
+            throw new IllegalArgumentException("Line " + name + " is already hosted.");
+        }
+
+        ACMEFactory acmeFactory = new ACMEFactory(componentGenerator, WaitStrategyType.BLOCKING,
+                WaitStrategyType.BLOCKING, this.timing, new ArrayConveyorBelt(ACMEConstants.QUEUE_CAPACITY_LIMIT,
+                new ComponentEnvelopePool(ACMEConstants.ENVELOPE_POOL_CAPACITY)));
+
+        List<Worker> workers = new ArrayList<>(noOfDry2000Workers + noOfWet2000Workers);
+        for (int i = 0; i < noOfDry2000Workers; i++) {
+            workers.add(acmeFactory.getWorker(RobotType.DRY2000, String.valueOf(i)));
+        }
+        for (int i = 0; i < noOfWet2000Workers; i++) {
+            workers.add(acmeFactory.getWorker(RobotType.WET2000, String.valueOf(i)));
+        }
+
+        List<FactorySupplier> factorySuppliers = Collections.singletonList(acmeFactory.getFactorySupplier("Producer"));
+        EventLoop lane = this.eventLoopGroup.next().newLane(name);
+        FactoryLine line = new FactoryLine(name, acmeFactory, workers, factorySuppliers);
+
+        this.lines.put(name, line);
+
+        for (Worker worker : workers) {
+            worker.start(lane, acmeFactory.getConveyorBeltSignal());
+        }
+        for (FactorySupplier factorySupplier : factorySuppliers) {
+            factorySupplier.start(lane, acmeFactory.getConveyorBeltSignal());
+        }
+
+        LOG.info("Line {} added with {} DRY2000 and {} WET2000 workers on {}", name, noOfDry2000Workers,
+                noOfWet2000Workers, lane.getName());
+
+        return line;
+    }
+
+    /**
+     * Remove a line and stop its workers and suppliers. They stop on their event loop as soon as it runs their next
+     * step.
+     *
+     * @param name the name of the line.
+     * @return true if the line was hosted.
+     */
+    public synchronized boolean removeLine(String name) {
+        FactoryLine line = this.lines.remove(name);
+
+        if (line == null) {
+            return false;
+        }
+
+        line.stop();
+        LOG.info("Line {} removed", name);
+
+        return true;
+    }
+
+    public synchronized FactoryLine getLine(String name) {
+        return this.lines.get(name);
+    }
+
+    public synchronized Collection<FactoryLine> getLines() {
+        return new ArrayList<>(this.lines.values());
+    }
+
+    public int getNoOfEventLoops() {
+        return this.eventLoopGroup.getEventLoops().size();
+    }
+
+    /**
+     * Remove every line, then stop the event loops and wait for their threads to end.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        for (FactoryLine line : getLines()) {
+            removeLine(line.getName());
+        }
+
+        this.eventLoopGroup.stop();
+    }
+}
@@ -0,0 +1,97 @@
+package ro.dragos.geornoiu.metrics;
+
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelope;
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.event.FactoryEventListener;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per {@link Component} latency histograms of the time a component spends on the conveyor belt (belt dwell), in the
+ * partial kit of a worker until the kit is complete (kit wait) and from supply until the robot is assembled
+ * (supply to robot). All values are recorded in nanoseconds.
+ */
+public class DwellTimeMetrics implements FactoryEventListener {
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.HOURS.toNanos(1);
+    private static final int PRECISION_BITS = 7;
+
+    private final Map<Component, LatencyHistogram> beltDwellHistograms = createHistograms();
+    private final Map<Component, LatencyHistogram> kitWaitHistograms = createHistograms();
+    private final Map<Component, LatencyHistogram> supplyToRobotHistograms = createHistograms();
+
+    @Override
+    public void componentTaken(Worker worker, ComponentEnvelope envelope) {
+        // components put on the belt without a supply time cannot be measured
+        if (envelope.getSupplierId() == ComponentEnvelope.UNKNOWN_SUPPLIER) {
+            return;
+        }
+
+        this.beltDwellHistograms.get(envelope.getComponent())
+                .recordValue(envelope.getTakeTimeNanos() - envelope.getSupplyTimeNanos());
+    }
+
+    @Override
+    public void robotAssembled(Worker worker, ComponentEnvelope[] kit, int kitSize, long kitStartedNanos,
+                               long kitCompletedNanos, long robotAssembledNanos) {
+        for (int index = 0; index < kitSize; index++) {
+            ComponentEnvelope envelope = kit[index];
+
+            this.kitWaitHistograms.get(envelope.getComponent())
+                    .recordValue(kitCompletedNanos - envelope.getTakeTimeNanos());
+
+            if (envelope.getSupplierId() != ComponentEnvelope.UNKNOWN_SUPPLIER) {
+                this.supplyToRobotHistograms.get(envelope.getComponent())
+                        .recordValue(robotAssembledNanos - envelope.getSupplyTimeNanos());
+            }
+        }
+    }
+
+    public LatencyHistogram getBeltDwellHistogram(Component component) {
+        return beltDwellHistograms.get(component);
+    }
+
+    public LatencyHistogram getKitWaitHistogram(Component component) {
+        return kitWaitHistograms.get(component);
+    }
+
+    public LatencyHistogram getSupplyToRobotHistogram(Component component) {
+        return supplyToRobotHistograms.get(component);
+    }
+
+    /**
+     * Render the median, 99th percentile and maximum of every histogram, in milliseconds.
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder("Latencies in ms (count / p50 / p99 / max):");
+
+        for (Component component : Component.values()) {
+            report.append(System.lineSeparator()).append(component.name()).append(':');
+            appendHistogram(report, "belt dwell", this.beltDwellHistograms.get(component));
+            appendHistogram(report, "kit wait", this.kitWaitHistograms.get(component));
+            appendHistogram(report, "supply to robot", this.supplyToRobotHistograms.get(component));
+        }
+
+        return report.toString();
+    }
+
+    private static void appendHistogram(StringBuilder report, String name, LatencyHistogram histogram) {
+        report.append(' ').append(name).append(' ')
+                .append(histogram.getTotalCount()).append(" / ")
+                .append(TimeUnit.NANOSECONDS.toMillis(histogram.getValueAtPercentile(50))).append(" / ")
+                .append(TimeUnit.NANOSECONDS.toMillis(histogram.getValueAtPercentile(99))).append(" / ")
+                .append(TimeUnit.NANOSECONDS.toMillis(histogram.getMaxValue())).append(';');
+    }
+
+    private static Map<Component, LatencyHistogram> createHistograms() {
+        Map<Component, LatencyHistogram> histograms = new EnumMap<>(Component.class);
+
+        for (Component component : Component.values()) {
+            histograms.put(component, new LatencyHistogram(HIGHEST_TRACKABLE_NANOS, PRECISION_BITS));
+        }
+
+        return histograms;
+    }
+}
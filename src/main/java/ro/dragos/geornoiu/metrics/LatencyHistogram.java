@@ -0,0 +1,117 @@
+package ro.dragos.geornoiu.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed memory histogram of latencies, in the spirit of HdrHistogram. Values below {@code 2^precisionBits} are counted
+ * exactly, larger values are counted in logarithmic buckets each split in {@code 2^(precisionBits - 1)} linear
+ * sub-buckets, so the relative error of any reported value is at most {@code 2^-(precisionBits - 1)}.
+ * <p>
+ * Recording is lock free and can be done from any number of threads. Values larger than the highest trackable value
+ * are counted as the highest trackable value.
+ */
+public class LatencyHistogram {
+    private final int precisionBits;
+    private final long highestTrackableValue;
+    private final AtomicLongArray counts;
+
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalValue = new AtomicLong();
+    private final AtomicLong maxValue = new AtomicLong();
+
+    public LatencyHistogram(long highestTrackableValue, int precisionBits) {
+        if (precisionBits < 1 || precisionBits > 16) {
+            throw new IllegalArgumentException("precisionBits must be between 1 and 16.");
+        }
+
+        if (highestTrackableValue < 1) {
+            throw new IllegalArgumentException("highestTrackableValue must be positive.");
+        }
+
+        this.precisionBits = precisionBits;
+        this.highestTrackableValue = highestTrackableValue;
+        this.counts = new AtomicLongArray(bucketIndex(highestTrackableValue) + 1);
+    }
+
+    /**
+     * Record a value, negative values are counted as 0.
+     */
+    public void recordValue(long value) {
+        long trackedValue = Math.min(Math.max(value, 0), this.highestTrackableValue);
+
+        this.counts.incrementAndGet(bucketIndex(trackedValue));
+        this.totalCount.incrementAndGet();
+        this.totalValue.addAndGet(trackedValue);
+
+        long currentMax = this.maxValue.get();
+        while (trackedValue > currentMax && !this.maxValue.compareAndSet(currentMax, trackedValue)) {
+            currentMax = this.maxValue.get();
+        }
+    }
+
+    /**
+     * Retrieve the value below which the given percentage of the recorded values fall.
+     *
+     * @param percentile a value between 0 and 100.
+     * @return the highest value equivalent to the bucket holding the percentile, or 0 if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = this.totalCount.get();
+
+        if (count == 0) {
+            return 0;
+        }
+
+        long countAtPercentile = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * count));
+        long runningCount = 0;
+
+        for (int index = 0; index < this.counts.length(); index++) {
+            runningCount += this.counts.get(index);
+
+            if (runningCount >= countAtPercentile) {
+                return Math.min(highestEquivalentValue(index), this.maxValue.get());
+            }
+        }
+
+        return this.maxValue.get();
+    }
+
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+    public long getMaxValue() {
+        return maxValue.get();
+    }
+
+    public double getMean() {
+        long count = this.totalCount.get();
+        return count == 0 ? 0 : (double) this.totalValue.get() / count;
+    }
+
+    private int bucketIndex(long value) {
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+
+        if (magnitude < this.precisionBits) {
+            return (int) value;
+        }
+
+        int shift = magnitude - (this.precisionBits - 1);
+        return (shift << (this.precisionBits - 1)) + (int) (value >>> shift);
+    }
+
+    private long highestEquivalentValue(int index) {
+        int linearBuckets = 1 << this.precisionBits;
+
+        if (index < linearBuckets) {
+            return index;
+        }
+
+        int halfBuckets = linearBuckets >>> 1;
+        int shift = (index - halfBuckets) / halfBuckets;
+        long subBucket = index - ((long) shift << (this.precisionBits - 1));
+
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,70 @@
+package ro.dragos.geornoiu.metrics;
+
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelope;
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.event.FactoryEventListener;
+import ro.dragos.geornoiu.producer.FactorySupplier;
+import ro.dragos.geornoiu.sorting.ComponentLane;
+import ro.dragos.geornoiu.sorting.SortingStation;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running totals of the supplied, destroyed and taken components and of the robots assembled per {@link RobotType}.
+ * The counters are striped, so the threads of the factory do not contend on them.
+ */
+public class ThroughputMetrics implements FactoryEventListener {
+    private final LongAdder noOfSuppliedComponents = new LongAdder();
+    private final LongAdder noOfDiscardedComponents = new LongAdder();
+    private final LongAdder noOfTakenComponents = new LongAdder();
+    private final LongAdder[] noOfAssembledRobots = new LongAdder[RobotType.values().length];
+
+    public ThroughputMetrics() {
+        for (int index = 0; index < this.noOfAssembledRobots.length; index++) {
+            this.noOfAssembledRobots[index] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void componentSupplied(FactorySupplier supplier, ComponentEnvelope envelope) {
+        this.noOfSuppliedComponents.increment();
+    }
+
+    @Override
+    public void componentDiscarded(FactorySupplier supplier, ComponentEnvelope envelope) {
+        this.noOfDiscardedComponents.increment();
+    }
+
+    @Override
+    public void laneOverflowed(SortingStation sortingStation, ComponentLane lane, ComponentEnvelope envelope) {
+        this.noOfDiscardedComponents.increment();
+    }
+
+    @Override
+    public void componentTaken(Worker worker, ComponentEnvelope envelope) {
+        this.noOfTakenComponents.increment();
+    }
+
+    @Override
+    public void robotAssembled(Worker worker, ComponentEnvelope[] kit, int kitSize, long kitStartedNanos,
+                               long kitCompletedNanos, long robotAssembledNanos) {
+        this.noOfAssembledRobots[worker.getRobotType().ordinal()].increment();
+    }
+
+    public long getNoOfSuppliedComponents() {
+        return noOfSuppliedComponents.sum();
+    }
+
+    public long getNoOfDiscardedComponents() {
+        return noOfDiscardedComponents.sum();
+    }
+
+    public long getNoOfTakenComponents() {
+        return noOfTakenComponents.sum();
+    }
+
+    public long getNoOfAssembledRobots(RobotType robotType) {
+        return noOfAssembledRobots[robotType.ordinal()].sum();
+    }
+}
@@ -0,0 +1,113 @@
+package ro.dragos.geornoiu.model;
+
+import ro.dragos.geornoiu.constants.FactoryTiming;
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.service.factory.ACMEFactory;
+
+import java.util.Arrays;
+
+/**
+ * The configuration of a factory solved by the {@link MarkovThroughputSolver}: the capacity of the conveyor belt, the
+ * number of workers of each {@link RobotType}, the components each robot needs, the probability of the supplier
+ * generating each {@link Component} and the {@link FactoryTiming}.
+ */
+public class FactoryModel {
+    private static final RobotType[] ROBOT_TYPES = RobotType.values();
+    private static final Component[] COMPONENTS = Component.values();
+
+    private final int conveyorBeltCapacity;
+    private final int[] noOfWorkers;
+    private final int[][] noOfComponentsNeeded;
+    private final double[] componentProbabilities;
+    private final FactoryTiming timing;
+
+    /**
+     * @param conveyorBeltCapacity   the number of components the conveyor belt holds.
+     * @param noOfWorkers            the number of workers of each robot type, by ordinal.
+     * @param noOfComponentsNeeded   the number of components of each type needed by a robot of each type, by ordinals.
+     * @param componentProbabilities the probability of each component being generated, by ordinal, normalized to 1.
+     * @param timing                 the supply interval, the maximum wait for room and the assembly time.
+     */
+    public FactoryModel(int conveyorBeltCapacity, int[] noOfWorkers, int[][] noOfComponentsNeeded,
+                        double[] componentProbabilities, FactoryTiming timing) {
+        if (conveyorBeltCapacity < 1) {
+            throw new IllegalArgumentException("The conveyor belt must hold at least one component.");
+        }
+        if (noOfWorkers.length != ROBOT_TYPES.length || noOfComponentsNeeded.length != ROBOT_TYPES.length ||
+                componentProbabilities.length != COMPONENTS.length) {
+            throw new IllegalArgumentException("Expected a value for every robot type and every component.");
+        }
+        if (timing.getSupplyIntervalInMillis() <= 0) {
+            throw new IllegalArgumentException("The supply interval must be positive.");
+        }
+
+        double totalProbability = 0;
+        for (double componentProbability : componentProbabilities) {
+            if (componentProbability < 0) {
+                throw new IllegalArgumentException("Component probabilities cannot be negative.");
+            }
+            totalProbability += componentProbability;
+        }
+        if (totalProbability <= 0) {
+            throw new IllegalArgumentException("At least one component must be generated.");
+        }
+
+        this.conveyorBeltCapacity = conveyorBeltCapacity;
+        this.noOfWorkers = noOfWorkers.clone();
+        this.noOfComponentsNeeded = new int[ROBOT_TYPES.length][];
+        this.componentProbabilities = new double[COMPONENTS.length];
+        this.timing = timing;
+
+        for (RobotType robotType : ROBOT_TYPES) {
+            this.noOfComponentsNeeded[robotType.ordinal()] = noOfComponentsNeeded[robotType.ordinal()].clone();
+        }
+        for (int index = 0; index < COMPONENTS.length; index++) {
+            this.componentProbabilities[index] = componentProbabilities[index] / totalProbability;
+        }
+    }
+
+    /**
+     * Model of the given factory, with the given workers and a supplier generating every component with the same
+     * probability, as the {@link ro.dragos.geornoiu.service.impl.DefaultComponentGeneratorService} does.
+     */
+    public static FactoryModel of(ACMEFactory acmeFactory, int noOfDry2000Workers, int noOfWet2000Workers) {
+        int[] noOfWorkers = new int[ROBOT_TYPES.length];
+        noOfWorkers[RobotType.DRY2000.ordinal()] = noOfDry2000Workers;
+        noOfWorkers[RobotType.WET2000.ordinal()] = noOfWet2000Workers;
+
+        int[][] noOfComponentsNeeded = new int[ROBOT_TYPES.length][COMPONENTS.length];
+        for (RobotType robotType : ROBOT_TYPES) {
+            for (Component component : COMPONENTS) {
+                noOfComponentsNeeded[robotType.ordinal()][component.ordinal()] =
+                        acmeFactory.getNoOfComponentsNeeded(robotType, component);
+            }
+        }
+
+        double[] componentProbabilities = new double[COMPONENTS.length];
+        Arrays.fill(componentProbabilities, 1.0 / COMPONENTS.length);
+
+        return new FactoryModel(acmeFactory.getConveyorBelt().getCapacity(), noOfWorkers, noOfComponentsNeeded,
+                componentProbabilities, acmeFactory.getTiming());
+    }
+
+    public int getConveyorBeltCapacity() {
+        return conveyorBeltCapacity;
+    }
+
+    public int getNoOfWorkers(RobotType robotType) {
+        return noOfWorkers[robotType.ordinal()];
+    }
+
+    public int getNoOfComponentsNeeded(RobotType robotType, Component component) {
+        return noOfComponentsNeeded[robotType.ordinal()][component.ordinal()];
+    }
+
+    public double getComponentProbability(Component component) {
+        return componentProbabilities[component.ordinal()];
+    }
+
+    public FactoryTiming getTiming() {
+        return timing;
+    }
+}
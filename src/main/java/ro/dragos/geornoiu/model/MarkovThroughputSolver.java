@@ -0,0 +1,555 @@
+package ro.dragos.geornoiu.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.service.factory.ACMEFactory;
+import ro.dragos.geornoiu.service.impl.DefaultComponentGeneratorService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Computes the steady state throughput of a {@link FactoryModel} without running the factory, by modelling it as a
+ * discrete time Markov chain with one step per supply interval.
+ * <p>
+ * A worker waiting for components takes the first component on the conveyor belt as soon as it needs it, so only the
+ * first component is ever looked at: the components behind it were generated independently and nothing was learned
+ * about them. The state of the chain is therefore the number of components on the conveyor belt, the first of them,
+ * how long the supplier has been waiting for room, and how many workers of each type are in each state, either
+ * collecting a given kit or assembling with a given number of steps left. In every step the robots whose assembly
+ * ends are finished, the workers take the first component as long as one of them needs it, each of them as likely as
+ * the others, the supplier puts a component on the conveyor belt, or waits for room and removes the first component
+ * once it waited long enough, and the workers take the first components again. The assembly time and the maximum wait
+ * for room are rounded up to whole supply intervals.
+ * <p>
+ * The states reachable from an empty factory are enumerated and the transitions kept as a sparse matrix. The steady
+ * state is found by power iteration of the lazy chain, which has the same steady state and never oscillates, with every
+ * iteration spread over the cores.
+ */
+public class MarkovThroughputSolver {
+    private static final Logger LOG = LoggerFactory.getLogger(MarkovThroughputSolver.class);
+
+    private static final RobotType[] ROBOT_TYPES = RobotType.values();
+    private static final Component[] COMPONENTS = Component.values();
+
+    private static final double LAZINESS = 0.5;
+
+    //number of states of an iteration computed by the same thread, smaller chains are not worth spreading over cores
+    private static final int BLOCK_SIZE = 4096;
+
+    public static final int DEFAULT_MAX_NO_OF_STATES = 2_000_000;
+    public static final double DEFAULT_TOLERANCE = 1e-10;
+    public static final int DEFAULT_MAX_NO_OF_ITERATIONS = 100_000;
+
+    private final int maxNoOfStates;
+    private final double tolerance;
+    private final int maxNoOfIterations;
+
+    public MarkovThroughputSolver() {
+        this(DEFAULT_MAX_NO_OF_STATES, DEFAULT_TOLERANCE, DEFAULT_MAX_NO_OF_ITERATIONS);
+    }
+
+    /**
+     * @param maxNoOfStates     the largest chain solved, larger ones are rejected.
+     * @param tolerance         the change of the distribution over the states, summed over all states, below which the
+     *                          iterations stop.
+     * @param maxNoOfIterations the number of iterations after which the solver gives up converging.
+     */
+    public MarkovThroughputSolver(int maxNoOfStates, double tolerance, int maxNoOfIterations) {
+        this.maxNoOfStates = maxNoOfStates;
+        this.tolerance = tolerance;
+        this.maxNoOfIterations = maxNoOfIterations;
+    }
+
+    /**
+     * Compute the steady state of the factory.
+     *
+     * @throws IllegalArgumentException if the chain has more states than the solver accepts.
+     */
+    public ThroughputEstimate solve(FactoryModel model) {
+        StateSpace stateSpace = new StateSpace(model);
+
+        Map<Long, Integer> indices = new HashMap<>();
+        List<Long> keys = new ArrayList<>();
+        List<int[]> targets = new ArrayList<>();
+        List<double[]> probabilities = new ArrayList<>();
+        List<double[]> rewards = new ArrayList<>();
+
+        long initialKey = stateSpace.getInitialKey();
+        indices.put(initialKey, 0);
+        keys.add(initialKey);
+
+        for (int index = 0; index < keys.size(); index++) {
+            Transitions transitions = new Transitions();
+            stateSpace.expand(keys.get(index), transitions);
+
+            int[] stateTargets = new int[transitions.probabilities.size()];
+            double[] stateProbabilities = new double[stateTargets.length];
+            int transition = 0;
+
+            for (Map.Entry<Long, Double> entry : transitions.probabilities.entrySet()) {
+                Integer target = indices.get(entry.getKey());
+                if (target == null) {
+                    if (keys.size() == this.maxNoOfStates) {
+                        throw new IllegalArgumentException("The factory has more than " + this.maxNoOfStates +
+                                " states.");
+                    }
+
+                    target = keys.size();
+                    indices.put(entry.getKey(), target);
+                    keys.add(entry.getKey());
+                }
+
+                stateTargets[transition] = target;
+                stateProbabilities[transition++] = entry.getValue();
+            }
+
+            targets.add(stateTargets);
+            probabilities.add(stateProbabilities);
+            rewards.add(new double[]{transitions.noOfSuppliedComponents, transitions.noOfDiscardedComponents});
+        }
+
+        int noOfStates = keys.size();
+
+        // incoming transitions of every state, so each state of the next iteration is computed on its own
+        int[] incomingStart = new int[noOfStates + 1];
+        for (int[] stateTargets : targets) {
+            for (int target : stateTargets) {
+                incomingStart[target + 1]++;
+            }
+        }
+        for (int index = 0; index < noOfStates; index++) {
+            incomingStart[index + 1] += incomingStart[index];
+        }
+
+        int[] incomingSource = new int[incomingStart[noOfStates]];
+        double[] incomingProbability = new double[incomingSource.length];
+        int[] cursor = Arrays.copyOf(incomingStart, noOfStates);
+        for (int source = 0; source < noOfStates; source++) {
+            int[] stateTargets = targets.get(source);
+            double[] stateProbabilities = probabilities.get(source);
+
+            for (int transition = 0; transition < stateTargets.length; transition++) {
+                int position = cursor[stateTargets[transition]]++;
+                incomingSource[position] = source;
+                incomingProbability[position] = stateProbabilities[transition];
+            }
+        }
+
+        double[] distribution = new double[noOfStates];
+        double[] nextDistribution = new double[noOfStates];
+        Arrays.fill(distribution, 1.0 / noOfStates);
+        boolean converged = false;
+        int iteration = 0;
+
+        while (!converged && iteration < this.maxNoOfIterations) {
+            double[] current = distribution;
+            double[] next = nextDistribution;
+
+            // every block computes its states of the next iteration and how much they changed
+            IntStream blocks = IntStream.range(0, (noOfStates + BLOCK_SIZE - 1) / BLOCK_SIZE);
+            if (noOfStates > BLOCK_SIZE) {
+                blocks = blocks.parallel();
+            }
+
+            double change = blocks.mapToDouble(block -> {
+                double blockChange = 0;
+
+                for (int state = block * BLOCK_SIZE; state < Math.min(noOfStates, (block + 1) * BLOCK_SIZE); state++) {
+                    double incoming = 0;
+                    for (int position = incomingStart[state]; position < incomingStart[state + 1]; position++) {
+                        incoming += current[incomingSource[position]] * incomingProbability[position];
+                    }
+
+                    next[state] = LAZINESS * current[state] + (1 - LAZINESS) * incoming;
+                    blockChange += Math.abs(next[state] - current[state]);
+                }
+
+                return blockChange;
+            }).sum();
+
+            distribution = next;
+            nextDistribution = current;
+            converged = change < this.tolerance;
+            iteration++;
+        }
+
+        return estimate(model, stateSpace, keys, rewards, distribution, iteration, converged);
+    }
+
+    private ThroughputEstimate estimate(FactoryModel model, StateSpace stateSpace, List<Long> keys,
+                                        List<double[]> rewards, double[] distribution, int noOfIterations,
+                                        boolean converged) {
+        double total = Arrays.stream(distribution).sum();
+        double[] robotsPerStep = new double[ROBOT_TYPES.length];
+        double[] assemblingWorkers = new double[ROBOT_TYPES.length];
+        double suppliedPerStep = 0;
+        double discardedPerStep = 0;
+        double meanConveyorBeltSize = 0;
+        int[] state = stateSpace.newState();
+
+        for (int index = 0; index < keys.size(); index++) {
+            double probability = distribution[index] / total;
+            stateSpace.decode(keys.get(index), state);
+
+            for (RobotType robotType : ROBOT_TYPES) {
+                robotsPerStep[robotType.ordinal()] +=
+                        probability * stateSpace.getNoOfFinishingWorkers(state, robotType);
+                assemblingWorkers[robotType.ordinal()] +=
+                        probability * stateSpace.getNoOfAssemblingWorkers(state, robotType);
+            }
+
+            suppliedPerStep += probability * rewards.get(index)[0];
+            discardedPerStep += probability * rewards.get(index)[1];
+            meanConveyorBeltSize += probability * state[StateSpace.SIZE];
+        }
+
+        double stepsPerSecond = TimeUnit.SECONDS.toMillis(1) / (double) model.getTiming().getSupplyIntervalInMillis();
+        double[] robotsPerSecond = new double[ROBOT_TYPES.length];
+        double[] workerUtilization = new double[ROBOT_TYPES.length];
+
+        for (RobotType robotType : ROBOT_TYPES) {
+            int index = robotType.ordinal();
+            robotsPerSecond[index] = robotsPerStep[index] * stepsPerSecond;
+            workerUtilization[index] = model.getNoOfWorkers(robotType) == 0 ? 0 :
+                    assemblingWorkers[index] / model.getNoOfWorkers(robotType);
+        }
+
+        return new ThroughputEstimate(robotsPerSecond, workerUtilization, suppliedPerStep * stepsPerSecond,
+                discardedPerStep * stepsPerSecond, meanConveyorBeltSize, keys.size(), noOfIterations, converged);
+    }
+
+    /**
+     * Print the steady state of the factory with the given workers.
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            LOG.error("Usage: <DRY2000 workers> <WET2000 workers>");
+            return;
+        }
+
+        ACMEFactory acmeFactory = new ACMEFactory(new DefaultComponentGeneratorService());
+        FactoryModel model = FactoryModel.of(acmeFactory, Integer.parseInt(args[0]), Integer.parseInt(args[1]));
+
+        long startNanos = System.nanoTime();
+        ThroughputEstimate estimate = new MarkovThroughputSolver().solve(model);
+
+        LOG.info("Solved in {} ms: {}", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), estimate);
+    }
+
+    /**
+     * The transitions out of a state, merged by target, and the expected rewards of a step.
+     */
+    private static class Transitions {
+        private final Map<Long, Double> probabilities = new HashMap<>();
+        private double noOfSuppliedComponents;
+        private double noOfDiscardedComponents;
+
+        private void add(long key, double probability) {
+            this.probabilities.merge(key, probability, Double::sum);
+        }
+
+        private void addRewards(double probability, int noOfSupplied, int noOfDiscarded) {
+            this.noOfSuppliedComponents += probability * noOfSupplied;
+            this.noOfDiscardedComponents += probability * noOfDiscarded;
+        }
+    }
+
+    /**
+     * Layout of a state as an array of small numbers, its encoding as a single long and the transitions of a step.
+     * The array holds the number of components on the conveyor belt, the ordinal of the first one or -1, the number of
+     * steps the supplier waited for room or -1, and then, for each robot type, the number of workers collecting each
+     * kit followed by the number of workers assembling with 1 to {@code assemblySteps} steps left. A kit is encoded
+     * with one digit for each component, in the base of the number of such components needed.
+     */
+    private static class StateSpace {
+        private static final int SIZE = 0;
+        private static final int HEAD = 1;
+        private static final int WAITED = 2;
+        private static final int FIRST_WORKER_COUNT = 3;
+
+        private final int capacity;
+        private final int maxWaitSteps;
+        private final int assemblySteps;
+        private final double[] componentProbabilities = new double[COMPONENTS.length];
+        private final int[] noOfWorkers = new int[ROBOT_TYPES.length];
+        private final int[][] noOfComponentsNeeded = new int[ROBOT_TYPES.length][COMPONENTS.length];
+        private final int[][] kitDigitWeights = new int[ROBOT_TYPES.length][COMPONENTS.length];
+        private final int[] fullKit = new int[ROBOT_TYPES.length];
+        private final int[] kitOffsets = new int[ROBOT_TYPES.length];
+        private final int[] assemblyOffsets = new int[ROBOT_TYPES.length];
+        private final int stateLength;
+
+        //value of one unit of each position of the state in its encoding
+        private final long[] weights;
+        private final long[] radixes;
+
+        private StateSpace(FactoryModel model) {
+            long supplyIntervalInMillis = model.getTiming().getSupplyIntervalInMillis();
+
+            this.capacity = model.getConveyorBeltCapacity();
+            this.maxWaitSteps = (int) ceilDiv(model.getTiming().getMaxWaitWhenConveyorBeltIsFullInMillis(),
+                    supplyIntervalInMillis);
+            this.assemblySteps = (int) Math.max(1, ceilDiv(model.getTiming().getRobotAssemblyInMillis(),
+                    supplyIntervalInMillis));
+
+            for (Component component : COMPONENTS) {
+                this.componentProbabilities[component.ordinal()] = model.getComponentProbability(component);
+            }
+
+            int offset = FIRST_WORKER_COUNT;
+            for (RobotType robotType : ROBOT_TYPES) {
+                int type = robotType.ordinal();
+                int noOfKits = 1;
+
+                this.noOfWorkers[type] = model.getNoOfWorkers(robotType);
+                for (Component component : COMPONENTS) {
+                    int needed = model.getNoOfComponentsNeeded(robotType, component);
+                    this.noOfComponentsNeeded[type][component.ordinal()] = needed;
+                    this.kitDigitWeights[type][component.ordinal()] = noOfKits;
+                    this.fullKit[type] += needed * noOfKits;
+                    noOfKits *= needed + 1;
+                }
+
+                if (this.noOfWorkers[type] > 0 && this.fullKit[type] == 0) {
+                    throw new IllegalArgumentException("A " + robotType + " robot needs no component.");
+                }
+
+                this.kitOffsets[type] = offset;
+                this.assemblyOffsets[type] = offset + noOfKits;
+                offset += noOfKits + this.assemblySteps;
+            }
+
+            this.stateLength = offset;
+            this.radixes = new long[this.stateLength];
+            this.weights = new long[this.stateLength];
+
+            this.radixes[SIZE] = this.capacity + 1;
+            this.radixes[HEAD] = COMPONENTS.length + 1;
+            this.radixes[WAITED] = this.maxWaitSteps + 1;
+            for (RobotType robotType : ROBOT_TYPES) {
+                int type = robotType.ordinal();
+                int end = type + 1 < ROBOT_TYPES.length ? this.kitOffsets[type + 1] : this.stateLength;
+                Arrays.fill(this.radixes, this.kitOffsets[type], end, this.noOfWorkers[type] + 1);
+            }
+
+            long weight = 1;
+            try {
+                for (int position = 0; position < this.stateLength; position++) {
+                    this.weights[position] = weight;
+                    weight = Math.multiplyExact(weight, this.radixes[position]);
+                }
+            } catch (ArithmeticException ae) {
+                throw new IllegalArgumentException("The factory has too many states to be encoded.", ae);
+            }
+        }
+
+        private static long ceilDiv(long dividend, long divisor) {
+            return (dividend + divisor - 1) / divisor;
+        }
+
+        private int[] newState() {
+            return new int[this.stateLength];
+        }
+
+        private long getInitialKey() {
+            int[] state = newState();
+            state[HEAD] = -1;
+            state[WAITED] = -1;
+
+            for (RobotType robotType : ROBOT_TYPES) {
+                state[this.kitOffsets[robotType.ordinal()]] = this.noOfWorkers[robotType.ordinal()];
+            }
+
+            return encode(state);
+        }
+
+        private long encode(int[] state) {
+            // the head and the wait are stored shifted by one, so -1 fits
+            long key = state[SIZE] * this.weights[SIZE] + (state[HEAD] + 1) * this.weights[HEAD] +
+                    (state[WAITED] + 1) * this.weights[WAITED];
+
+            for (int position = FIRST_WORKER_COUNT; position < this.stateLength; position++) {
+                key += state[position] * this.weights[position];
+            }
+
+            return key;
+        }
+
+        private void decode(long key, int[] state) {
+            for (int position = 0; position < this.stateLength; position++) {
+                state[position] = (int) (key / this.weights[position] % this.radixes[position]);
+            }
+
+            state[HEAD]--;
+            state[WAITED]--;
+        }
+
+        private int getNoOfFinishingWorkers(int[] state, RobotType robotType) {
+            return state[this.assemblyOffsets[robotType.ordinal()]];
+        }
+
+        private int getNoOfAssemblingWorkers(int[] state, RobotType robotType) {
+            int noOfAssemblingWorkers = 0;
+
+            for (int step = 0; step < this.assemblySteps; step++) {
+                noOfAssemblingWorkers += state[this.assemblyOffsets[robotType.ordinal()] + step];
+            }
+
+            return noOfAssemblingWorkers;
+        }
+
+        /**
+         * Add the states reached from the given state in one step. The states in between are merged, so the ways the
+         * workers take components are not enumerated one by one.
+         */
+        private void expand(long key, Transitions transitions) {
+            int[] state = newState();
+            decode(key, state);
+
+            // the robots whose last step of assembly passed are finished and their workers collect again
+            for (RobotType robotType : ROBOT_TYPES) {
+                int assemblyOffset = this.assemblyOffsets[robotType.ordinal()];
+                int noOfFinishingWorkers = state[assemblyOffset];
+
+                System.arraycopy(state, assemblyOffset + 1, state, assemblyOffset, this.assemblySteps - 1);
+                state[assemblyOffset + this.assemblySteps - 1] = 0;
+                state[this.kitOffsets[robotType.ordinal()]] += noOfFinishingWorkers;
+            }
+
+            Map<Long, Double> beforeSupply = new HashMap<>();
+            beforeSupply.put(encode(state), 1.0);
+
+            Map<Long, Double> afterSupply = new HashMap<>();
+            for (Map.Entry<Long, Double> entry : take(beforeSupply).entrySet()) {
+                decode(entry.getKey(), state);
+                supply(state, entry.getValue(), afterSupply, transitions);
+            }
+
+            for (Map.Entry<Long, Double> entry : take(afterSupply).entrySet()) {
+                transitions.add(entry.getKey(), entry.getValue());
+            }
+        }
+
+        /**
+         * Let the workers take the first component as long as one of them needs it. Every take removes a component,
+         * so the states are processed by the number of components on the conveyor belt, decreasing.
+         */
+        private Map<Long, Double> take(Map<Long, Double> states) {
+            Map<Long, Double> settledStates = new HashMap<>();
+            int[] state = newState();
+
+            while (!states.isEmpty()) {
+                Map<Long, Double> nextStates = new HashMap<>();
+
+                for (Map.Entry<Long, Double> entry : states.entrySet()) {
+                    decode(entry.getKey(), state);
+                    int head = state[HEAD];
+
+                    int noOfTakingWorkers = 0;
+                    if (state[SIZE] > 0) {
+                        for (RobotType robotType : ROBOT_TYPES) {
+                            for (int kit = 0; kit < this.fullKit[robotType.ordinal()]; kit++) {
+                                if (needs(robotType.ordinal(), kit, head)) {
+                                    noOfTakingWorkers += state[this.kitOffsets[robotType.ordinal()] + kit];
+                                }
+                            }
+                        }
+                    }
+
+                    if (noOfTakingWorkers == 0) {
+                        settledStates.merge(entry.getKey(), entry.getValue(), Double::sum);
+                        continue;
+                    }
+
+                    for (RobotType robotType : ROBOT_TYPES) {
+                        int type = robotType.ordinal();
+
+                        for (int kit = 0; kit < this.fullKit[type]; kit++) {
+                            int noOfWorkersWithKit = state[this.kitOffsets[type] + kit];
+                            if (noOfWorkersWithKit == 0 || !needs(type, kit, head)) {
+                                continue;
+                            }
+
+                            int[] nextState = state.clone();
+                            int nextKit = kit + this.kitDigitWeights[type][head];
+                            nextState[this.kitOffsets[type] + kit]--;
+                            if (nextKit == this.fullKit[type]) {
+                                nextState[this.assemblyOffsets[type] + this.assemblySteps - 1]++;
+                            } else {
+                                nextState[this.kitOffsets[type] + nextKit]++;
+                            }
+                            nextState[SIZE]--;
+
+                            revealHead(nextState, entry.getValue() * noOfWorkersWithKit / noOfTakingWorkers,
+                                    nextStates);
+                        }
+                    }
+                }
+
+                states = nextStates;
+            }
+
+            return settledStates;
+        }
+
+        /**
+         * The first component was removed, the next one, if any, was generated independently of everything seen.
+         */
+        private void revealHead(int[] state, double probability, Map<Long, Double> states) {
+            if (state[SIZE] == 0) {
+                state[HEAD] = -1;
+                states.merge(encode(state), probability, Double::sum);
+                return;
+            }
+
+            for (Component component : COMPONENTS) {
+                double componentProbability = this.componentProbabilities[component.ordinal()];
+                if (componentProbability > 0) {
+                    state[HEAD] = component.ordinal();
+                    states.merge(encode(state), probability * componentProbability, Double::sum);
+                }
+            }
+        }
+
+        private void supply(int[] state, double probability, Map<Long, Double> states, Transitions transitions) {
+            if (state[SIZE] < this.capacity) {
+                state[WAITED] = -1;
+                state[SIZE]++;
+                transitions.addRewards(probability, 1, 0);
+
+                if (state[SIZE] == 1) {
+                    revealHead(state, probability, states);
+                } else {
+                    // the component goes behind a first component nobody needs
+                    states.merge(encode(state), probability, Double::sum);
+                }
+                return;
+            }
+
+            int waited = state[WAITED] + 1;
+            if (waited < this.maxWaitSteps) {
+                state[WAITED] = waited;
+                states.merge(encode(state), probability, Double::sum);
+                return;
+            }
+
+            // the first component is removed and the new one goes at the end, so the next one becomes the first
+            state[WAITED] = -1;
+            transitions.addRewards(probability, 1, 1);
+            revealHead(state, probability, states);
+        }
+
+        private boolean needs(int type, int kit, int component) {
+            int needed = this.noOfComponentsNeeded[type][component];
+            return needed > 0 && kit / this.kitDigitWeights[type][component] % (needed + 1) < needed;
+        }
+    }
+}
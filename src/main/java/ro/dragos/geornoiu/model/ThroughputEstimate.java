@@ -0,0 +1,94 @@
+package ro.dragos.geornoiu.model;
+
+import ro.dragos.geornoiu.enums.RobotType;
+
+import java.util.Locale;
+
+/**
+ * The steady state of a {@link FactoryModel}, as computed by the {@link MarkovThroughputSolver}.
+ */
+public class ThroughputEstimate {
+    private final double[] robotsPerSecond;
+    private final double[] workerUtilization;
+    private final double suppliedComponentsPerSecond;
+    private final double discardedComponentsPerSecond;
+    private final double meanConveyorBeltSize;
+    private final int noOfStates;
+    private final int noOfIterations;
+    private final boolean converged;
+
+    ThroughputEstimate(double[] robotsPerSecond, double[] workerUtilization, double suppliedComponentsPerSecond,
+                       double discardedComponentsPerSecond, double meanConveyorBeltSize, int noOfStates,
+                       int noOfIterations, boolean converged) {
+        this.robotsPerSecond = robotsPerSecond;
+        this.workerUtilization = workerUtilization;
+        this.suppliedComponentsPerSecond = suppliedComponentsPerSecond;
+        this.discardedComponentsPerSecond = discardedComponentsPerSecond;
+        this.meanConveyorBeltSize = meanConveyorBeltSize;
+        this.noOfStates = noOfStates;
+        this.noOfIterations = noOfIterations;
+        this.converged = converged;
+    }
+
+    public double getRobotsPerSecond(RobotType robotType) {
+        return robotsPerSecond[robotType.ordinal()];
+    }
+
+    /**
+     * Retrieve the share of the time the workers of the type spend assembling robots, between 0 and 1, or 0 if there
+     * is no worker of the type.
+     */
+    public double getWorkerUtilization(RobotType robotType) {
+        return workerUtilization[robotType.ordinal()];
+    }
+
+    /**
+     * Retrieve the number of components put on the conveyor belt per second, including those which replaced a
+     * discarded one.
+     */
+    public double getSuppliedComponentsPerSecond() {
+        return suppliedComponentsPerSecond;
+    }
+
+    public double getDiscardedComponentsPerSecond() {
+        return discardedComponentsPerSecond;
+    }
+
+    public double getMeanConveyorBeltSize() {
+        return meanConveyorBeltSize;
+    }
+
+    /**
+     * Retrieve the number of states of the chain reachable from an empty factory.
+     */
+    public int getNoOfStates() {
+        return noOfStates;
+    }
+
+    public int getNoOfIterations() {
+        return noOfIterations;
+    }
+
+    /**
+     * Check if the iterations converged within the tolerance of the solver, otherwise the estimate is the last
+     * iteration.
+     */
+    public boolean isConverged() {
+        return converged;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+
+        for (RobotType robotType : RobotType.values()) {
+            report.append(String.format(Locale.ROOT, "%s %.4f robots/s (%.0f%% utilization); ", robotType.name(),
+                    getRobotsPerSecond(robotType), getWorkerUtilization(robotType) * 100));
+        }
+
+        return report.append(String.format(Locale.ROOT, "supplied %.4f/s, discarded %.4f/s, mean belt size %.2f; " +
+                        "%d states, %d iterations%s", this.suppliedComponentsPerSecond,
+                this.discardedComponentsPerSecond, this.meanConveyorBeltSize, this.noOfStates, this.noOfIterations,
+                this.converged ? "" : ", not converged")).toString();
+    }
+}
@@ -0,0 +1,284 @@
+package ro.dragos.geornoiu.planning;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelope;
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.event.FactoryEventListener;
+import ro.dragos.geornoiu.producer.FactorySupplier;
+import ro.dragos.geornoiu.service.factory.ACMEFactory;
+import ro.dragos.geornoiu.sorting.ComponentLane;
+import ro.dragos.geornoiu.sorting.SortingStation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link ProductionOrder orders} the factory works on, filled in the order they were given: every assembled robot
+ * goes to the oldest open order which still needs a robot of its type, and every destroyed component is counted as
+ * wasted by the oldest open order. Robots assembled once every order is complete are surplus.
+ * <p>
+ * The order book has to be added to the listeners of the factory and {@link #start(ACMEFactory, int, int) started}
+ * when production starts; the makespans of the orders are measured from then on.
+ */
+public class OrderBook implements FactoryEventListener {
+    private static final Logger LOG = LoggerFactory.getLogger(OrderBook.class);
+
+    private static final RobotType[] ROBOT_TYPES = RobotType.values();
+    private static final Component[] COMPONENTS = Component.values();
+
+    private final List<ProductionOrder> orders;
+    private final CountDownLatch completion = new CountDownLatch(1);
+
+    //guarded by this
+    private final int[][] noOfAssembledRobots;
+    private final long[] noOfWastedComponents;
+    private final long[] completedNanos;
+    private final long[] projectedMakespanMillis;
+    private final int[][] noOfComponentsNeeded = new int[ROBOT_TYPES.length][COMPONENTS.length];
+    //robot types needing each component, by ordinal, null before the order book is started
+    private final RobotType[][] robotTypesNeeding = new RobotType[COMPONENTS.length][];
+    private long startNanos;
+    private int noOfOpenOrders;
+    private long noOfSurplusRobots;
+
+    public OrderBook(List<ProductionOrder> orders) {
+        this.orders = Collections.unmodifiableList(new ArrayList<>(orders));
+        this.noOfAssembledRobots = new int[orders.size()][ROBOT_TYPES.length];
+        this.noOfWastedComponents = new long[orders.size()];
+        this.completedNanos = new long[orders.size()];
+        this.projectedMakespanMillis = new long[orders.size()];
+        this.noOfOpenOrders = orders.size();
+    }
+
+    /**
+     * Parse orders separated by semicolons, each written as described in
+     * {@link ProductionOrder#parse(String, String)}, for example {@code WET2000:300,DRY2000:500;WET2000:100}. The
+     * orders are named order-1, order-2 and so on.
+     */
+    public static OrderBook parse(String orders) {
+        List<ProductionOrder> productionOrders = new ArrayList<>();
+
+        for (String order : orders.split(";")) {
+            if (!order.trim().isEmpty()) {
+                productionOrders.add(ProductionOrder.parse("order-" + (productionOrders.size() + 1), order));
+            }
+        }
+
+        return new OrderBook(productionOrders);
+    }
+
+    /**
+     * Start measuring the makespans and project them. The projection of an order is a lower bound on the time needed
+     * to complete it and every order before it: the suppliers have to supply every component, and the workers, which
+     * switch to the robot types still needed, have to assemble every robot.
+     *
+     * @param acmeFactory   the factory filling the orders.
+     * @param noOfWorkers   the number of workers assembling robots for the orders.
+     * @param noOfSuppliers the number of suppliers supplying components for the orders.
+     */
+    public synchronized void start(ACMEFactory acmeFactory, int noOfWorkers, int noOfSuppliers) {
+        this.startNanos = System.nanoTime();
+
+        for (RobotType robotType : ROBOT_TYPES) {
+            for (Component component : COMPONENTS) {
+                this.noOfComponentsNeeded[robotType.ordinal()][component.ordinal()] =
+                        acmeFactory.getNoOfComponentsNeeded(robotType, component);
+            }
+        }
+
+        for (Component component : COMPONENTS) {
+            RobotType[] robotTypes = new RobotType[acmeFactory.getNoOfRobotTypesNeeding(component)];
+            for (int i = 0; i < robotTypes.length; i++) {
+                robotTypes[i] = acmeFactory.getRobotTypeNeeding(component, i);
+            }
+            this.robotTypesNeeding[component.ordinal()] = robotTypes;
+        }
+
+        long supplyIntervalInMillis = acmeFactory.getTiming().getSupplyIntervalInMillis();
+        long robotAssemblyInMillis = acmeFactory.getTiming().getRobotAssemblyInMillis();
+        long noOfComponents = 0;
+        long noOfRobots = 0;
+
+        for (int index = 0; index < this.orders.size(); index++) {
+            ProductionOrder order = this.orders.get(index);
+
+            for (RobotType robotType : ROBOT_TYPES) {
+                noOfRobots += order.getQuantity(robotType);
+                noOfComponents += (long) order.getQuantity(robotType) * getNoOfComponentsPerRobot(robotType);
+            }
+
+            long supplyBound = noOfComponents * supplyIntervalInMillis / Math.max(1, noOfSuppliers) +
+                    robotAssemblyInMillis;
+            long assemblyBound = (noOfRobots + noOfWorkers - 1) / Math.max(1, noOfWorkers) * robotAssemblyInMillis;
+            this.projectedMakespanMillis[index] = noOfRobots == 0 ? 0 : Math.max(supplyBound, assemblyBound);
+
+            if (order.getTotalQuantity() == 0) {
+                completeOrder(index, this.startNanos);
+            }
+        }
+
+        LOG.info("Order book started with {} orders, projected makespan {} ms", this.orders.size(),
+                this.orders.isEmpty() ? 0 : this.projectedMakespanMillis[this.orders.size() - 1]);
+    }
+
+    @Override
+    public synchronized void robotAssembled(Worker worker, ComponentEnvelope[] kit, int kitSize, long kitStartedNanos,
+                                            long kitCompletedNanos, long robotAssembledNanos) {
+        int robotTypeIndex = worker.getRobotType().ordinal();
+
+        for (int index = 0; index < this.orders.size(); index++) {
+            if (this.completedNanos[index] == 0 &&
+                    this.noOfAssembledRobots[index][robotTypeIndex] <
+                            this.orders.get(index).getQuantity(worker.getRobotType())) {
+                this.noOfAssembledRobots[index][robotTypeIndex]++;
+
+                if (isFilled(index)) {
+                    completeOrder(index, robotAssembledNanos);
+                }
+                return;
+            }
+        }
+
+        this.noOfSurplusRobots++;
+    }
+
+    @Override
+    public void componentDiscarded(FactorySupplier supplier, ComponentEnvelope envelope) {
+        componentWasted();
+    }
+
+    @Override
+    public void laneOverflowed(SortingStation sortingStation, ComponentLane lane, ComponentEnvelope envelope) {
+        componentWasted();
+    }
+
+    private synchronized void componentWasted() {
+        for (int index = 0; index < this.orders.size(); index++) {
+            if (this.completedNanos[index] == 0) {
+                this.noOfWastedComponents[index]++;
+                return;
+            }
+        }
+    }
+
+    private boolean isFilled(int index) {
+        for (RobotType robotType : ROBOT_TYPES) {
+            if (this.noOfAssembledRobots[index][robotType.ordinal()] < this.orders.get(index).getQuantity(robotType)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void completeOrder(int index, long nowNanos) {
+        // never 0, which marks an open order
+        this.completedNanos[index] = nowNanos == 0 ? 1 : nowNanos;
+        this.noOfOpenOrders--;
+
+        LOG.info("Order {} completed in {} ms", this.orders.get(index).getName(),
+                TimeUnit.NANOSECONDS.toMillis(nowNanos - this.startNanos));
+
+        if (this.noOfOpenOrders == 0) {
+            this.completion.countDown();
+        }
+    }
+
+    /**
+     * Retrieve the number of robots of the type the open orders still need.
+     */
+    public synchronized int getNoOfRemainingRobots(RobotType robotType) {
+        int noOfRemainingRobots = 0;
+
+        for (int index = 0; index < this.orders.size(); index++) {
+            if (this.completedNanos[index] == 0) {
+                noOfRemainingRobots += this.orders.get(index).getQuantity(robotType) -
+                        this.noOfAssembledRobots[index][robotType.ordinal()];
+            }
+        }
+
+        return noOfRemainingRobots;
+    }
+
+    /**
+     * Retrieve the number of components of the type needed by the robots the open orders still need. Always 0 before
+     * the order book is started.
+     */
+    public synchronized long getNoOfRemainingComponents(Component component) {
+        RobotType[] robotTypes = this.robotTypesNeeding[component.ordinal()];
+        if (robotTypes == null) {
+            return 0;
+        }
+
+        long noOfRemainingComponents = 0;
+
+        // only the robot types needing the component add to its demand
+        for (RobotType robotType : robotTypes) {
+            noOfRemainingComponents += (long) getNoOfRemainingRobots(robotType) *
+                    this.noOfComponentsNeeded[robotType.ordinal()][component.ordinal()];
+        }
+
+        return noOfRemainingComponents;
+    }
+
+    private int getNoOfComponentsPerRobot(RobotType robotType) {
+        int noOfComponents = 0;
+
+        for (Component component : COMPONENTS) {
+            noOfComponents += this.noOfComponentsNeeded[robotType.ordinal()][component.ordinal()];
+        }
+
+        return noOfComponents;
+    }
+
+    public boolean isComplete() {
+        return this.completion.getCount() == 0;
+    }
+
+    /**
+     * Wait until every order is complete.
+     *
+     * @return true if every order is complete, false if the timeout elapsed first.
+     */
+    public boolean awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException {
+        return this.completion.await(timeout, unit);
+    }
+
+    public synchronized long getNoOfSurplusRobots() {
+        return noOfSurplusRobots;
+    }
+
+    /**
+     * Retrieve the progress of every order, in the order they were given.
+     */
+    public synchronized List<OrderReport> getOrderReports() {
+        List<OrderReport> reports = new ArrayList<>(this.orders.size());
+
+        for (int index = 0; index < this.orders.size(); index++) {
+            long actualMakespanMillis = this.completedNanos[index] == 0 ? -1 :
+                    Math.max(0, TimeUnit.NANOSECONDS.toMillis(this.completedNanos[index] - this.startNanos));
+
+            reports.add(new OrderReport(this.orders.get(index), this.noOfAssembledRobots[index].clone(),
+                    this.noOfWastedComponents[index], this.projectedMakespanMillis[index], actualMakespanMillis));
+        }
+
+        return reports;
+    }
+
+    public String report() {
+        StringBuilder report = new StringBuilder("Orders:");
+
+        for (OrderReport orderReport : getOrderReports()) {
+            report.append(System.lineSeparator()).append(orderReport);
+        }
+
+        return report.append(System.lineSeparator()).append("Surplus robots: ").append(getNoOfSurplusRobots())
+                .toString();
+    }
+}
@@ -0,0 +1,73 @@
+package ro.dragos.geornoiu.planning;
+
+import ro.dragos.geornoiu.enums.RobotType;
+
+/**
+ * The progress of a {@link ProductionOrder}: the robots assembled for it, the components destroyed while it was the
+ * oldest open order and its projected and actual makespan, measured from the start of the order book.
+ */
+public class OrderReport {
+    private final ProductionOrder order;
+    private final int[] noOfAssembledRobots;
+    private final long noOfWastedComponents;
+    private final long projectedMakespanMillis;
+    private final long actualMakespanMillis;
+
+    OrderReport(ProductionOrder order, int[] noOfAssembledRobots, long noOfWastedComponents,
+                long projectedMakespanMillis, long actualMakespanMillis) {
+        this.order = order;
+        this.noOfAssembledRobots = noOfAssembledRobots;
+        this.noOfWastedComponents = noOfWastedComponents;
+        this.projectedMakespanMillis = projectedMakespanMillis;
+        this.actualMakespanMillis = actualMakespanMillis;
+    }
+
+    public ProductionOrder getOrder() {
+        return order;
+    }
+
+    public int getNoOfAssembledRobots(RobotType robotType) {
+        return noOfAssembledRobots[robotType.ordinal()];
+    }
+
+    public long getNoOfWastedComponents() {
+        return noOfWastedComponents;
+    }
+
+    /**
+     * Retrieve the makespan the order was projected to have when the order book started. It is a lower bound, which
+     * assumes no component is destroyed.
+     */
+    public long getProjectedMakespanMillis() {
+        return projectedMakespanMillis;
+    }
+
+    /**
+     * Retrieve the time from the start of the order book until the last robot of the order was assembled, -1 while the
+     * order is open.
+     */
+    public long getActualMakespanMillis() {
+        return actualMakespanMillis;
+    }
+
+    public boolean isComplete() {
+        return actualMakespanMillis >= 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder(order.getName()).append(':');
+
+        for (RobotType robotType : RobotType.values()) {
+            if (order.getQuantity(robotType) > 0) {
+                report.append(' ').append(robotType.name()).append(' ')
+                        .append(getNoOfAssembledRobots(robotType)).append('/').append(order.getQuantity(robotType))
+                        .append(';');
+            }
+        }
+
+        return report.append(" makespan projected ").append(projectedMakespanMillis).append(" ms, actual ")
+                .append(isComplete() ? actualMakespanMillis + " ms" : "open").append("; wasted components ")
+                .append(noOfWastedComponents).toString();
+    }
+}
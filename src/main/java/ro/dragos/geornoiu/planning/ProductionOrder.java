@@ -0,0 +1,77 @@
+package ro.dragos.geornoiu.planning;
+
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.exception.InvalidRobotTypeException;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * An order for a number of robots of each {@link RobotType}, for example 300 WET2000 and 500 DRY2000 robots.
+ */
+public class ProductionOrder {
+    private final String name;
+    private final int[] quantities = new int[RobotType.values().length];
+
+    /**
+     * @param name       the name of the order, used in the reports.
+     * @param quantities the number of robots ordered for each robot type, missing types are not ordered.
+     */
+    public ProductionOrder(String name, Map<RobotType, Integer> quantities) {
+        this.name = name;
+
+        for (Map.Entry<RobotType, Integer> entry : quantities.entrySet()) {
+            if (entry.getValue() < 0) {
+                throw new IllegalArgumentException("Order " + name + " has a negative quantity of " + entry.getKey() +
+                        ".");
+            }
+
+            this.quantities[entry.getKey().ordinal()] = entry.getValue();
+        }
+    }
+
+    /**
+     * Parse an order written as robot types and quantities separated by commas, for example
+     * {@code WET2000:300,DRY2000:500}.
+     *
+     * @throws InvalidRobotTypeException if a robot type does not exist.
+     * @throws IllegalArgumentException  if the order is not well formed.
+     */
+    public static ProductionOrder parse(String name, String order) {
+        Map<RobotType, Integer> quantities = new EnumMap<>(RobotType.class);
+
+        for (String line : order.split(",")) {
+            String[] robotTypeAndQuantity = line.trim().split(":");
+            if (robotTypeAndQuantity.length != 2) {
+                throw new IllegalArgumentException("Invalid order line " + line + ", expected ROBOT_TYPE:QUANTITY.");
+            }
+
+            RobotType robotType;
+            try {
+                robotType = RobotType.valueOf(robotTypeAndQuantity[0].trim());
+            } catch (IllegalArgumentException iae) {
+                throw new InvalidRobotTypeException("Unknown robot type " + robotTypeAndQuantity[0] + ".", iae);
+            }
+
+            quantities.merge(robotType, Integer.parseInt(robotTypeAndQuantity[1].trim()), Integer::sum);
+        }
+
+        return new ProductionOrder(name, quantities);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getQuantity(RobotType robotType) {
+        return quantities[robotType.ordinal()];
+    }
+
+    /**
+     * Retrieve the number of robots ordered, of all types.
+     */
+    public int getTotalQuantity() {
+        return Arrays.stream(quantities).sum();
+    }
+}
@@ -0,0 +1,168 @@
+package ro.dragos.geornoiu.planning;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.enums.WorkerState;
+import ro.dragos.geornoiu.producer.FactorySupplier;
+import ro.dragos.geornoiu.service.factory.ACMEFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Ties production to the {@link OrderBook}: at every interval the planner retires the workers of each robot type whose
+ * quota is met and, for each retired worker, starts a worker of the robot type with the most remaining robots per
+ * running worker, so the workers switch focus instead of building robots nobody ordered. Only the workers collecting
+ * components are retired, handing their partial kits back to the
+ * {@link ro.dragos.geornoiu.conveyor.SpareComponentPool}; a worker assembling is retired by a later plan, once its
+ * robot is done. Once every order is complete the planner stops the suppliers and the workers, and then itself.
+ */
+public class ProductionPlanner implements Runnable {
+    private static final Logger LOG = LoggerFactory.getLogger(ProductionPlanner.class);
+
+    //volatile in order to not be cached and any modification from an external thread to be seen in current thread.
+    private volatile boolean isRunning;
+
+    private final ACMEFactory acmeFactory;
+    private final OrderBook orderBook;
+    private final BiFunction<RobotType, String, Worker> workerProvider;
+    private final long intervalInMillis;
+
+    private int noOfStartedWorkers;
+
+    /**
+     * Planner starting new workers with {@link ACMEFactory#getWorker(RobotType, String)}.
+     */
+    public ProductionPlanner(ACMEFactory acmeFactory, OrderBook orderBook, long intervalInMillis) {
+        this(acmeFactory, orderBook, acmeFactory::getWorker, intervalInMillis);
+    }
+
+    /**
+     * @param acmeFactory      the factory filling the orders.
+     * @param orderBook        the orders, which must be among the listeners of the factory.
+     * @param workerProvider   builds a new worker from its robot type and name.
+     * @param intervalInMillis the interval between two plans.
+     */
+    public ProductionPlanner(ACMEFactory acmeFactory, OrderBook orderBook,
+                             BiFunction<RobotType, String, Worker> workerProvider, long intervalInMillis) {
+        this.isRunning = true;
+        this.acmeFactory = acmeFactory;
+        this.orderBook = orderBook;
+        this.workerProvider = workerProvider;
+        this.intervalInMillis = intervalInMillis;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (this.isRunning) {
+                plan();
+                Thread.sleep(this.intervalInMillis);
+            }
+        } catch (InterruptedException ie) {
+            LOG.error("Production planner was interrupted and is being shut down");
+            stop();
+        }
+    }
+
+    /**
+     * Stop execution of thread by setting isRunningFlag to false.
+     */
+    public void stop() {
+        this.isRunning = false;
+    }
+
+    public boolean isRunning() {
+        return isRunning;
+    }
+
+    /**
+     * Retire the workers whose quota is met and start workers of the robot types still needed, or stop the factory if
+     * every order is complete.
+     */
+    public void plan() {
+        if (this.orderBook.isComplete()) {
+            stopFactory();
+            return;
+        }
+
+        // drop the workers retired by the previous plans which finished their robot since
+        this.acmeFactory.removeStoppedWorkers();
+
+        RobotType[] robotTypes = RobotType.values();
+        int[] noOfRemainingRobots = new int[robotTypes.length];
+        int[] noOfRunningWorkers = new int[robotTypes.length];
+        List<Worker> retiredWorkers = new ArrayList<>();
+
+        for (RobotType robotType : robotTypes) {
+            noOfRemainingRobots[robotType.ordinal()] = this.orderBook.getNoOfRemainingRobots(robotType);
+        }
+
+        for (Worker worker : this.acmeFactory.getWorkers()) {
+            if (!worker.isRunning()) {
+                continue;
+            }
+
+            int index = worker.getRobotType().ordinal();
+            if (noOfRemainingRobots[index] > 0) {
+                noOfRunningWorkers[index]++;
+            } else if (worker.getState() == WorkerState.COLLECTING) {
+                // like the autoscaler, a worker assembling is left to finish and retired by a later plan
+                retiredWorkers.add(worker);
+            }
+        }
+
+        for (Worker retiredWorker : retiredWorkers) {
+            retiredWorker.stop();
+
+            RobotType neededRobotType = getMostNeededRobotType(noOfRemainingRobots, noOfRunningWorkers);
+            if (neededRobotType == null) {
+                LOG.info("Planner retired worker {}: the {} quota is met.", retiredWorker.getName(),
+                        retiredWorker.getRobotType());
+                continue;
+            }
+
+            Worker worker = this.workerProvider.apply(neededRobotType, "planned-" + ++this.noOfStartedWorkers);
+            noOfRunningWorkers[neededRobotType.ordinal()]++;
+            new Thread(worker).start();
+
+            LOG.info("Planner switched worker {} to {} as worker {}: the {} quota is met, {} {} robots remain.",
+                    retiredWorker.getName(), neededRobotType, worker.getName(), retiredWorker.getRobotType(),
+                    noOfRemainingRobots[neededRobotType.ordinal()], neededRobotType);
+        }
+    }
+
+    private RobotType getMostNeededRobotType(int[] noOfRemainingRobots, int[] noOfRunningWorkers) {
+        RobotType mostNeededRobotType = null;
+        double highestDemand = 0;
+
+        for (RobotType robotType : RobotType.values()) {
+            int index = robotType.ordinal();
+            double demand = noOfRemainingRobots[index] / (double) (noOfRunningWorkers[index] + 1);
+
+            if (demand > highestDemand) {
+                highestDemand = demand;
+                mostNeededRobotType = robotType;
+            }
+        }
+
+        return mostNeededRobotType;
+    }
+
+    private void stopFactory() {
+        for (FactorySupplier factorySupplier : this.acmeFactory.getFactorySuppliers()) {
+            factorySupplier.stop();
+        }
+
+        for (Worker worker : this.acmeFactory.getWorkers()) {
+            worker.stop();
+        }
+
+        LOG.info("Every order is complete, planner stopped the factory.{}{}", System.lineSeparator(),
+                this.orderBook.report());
+        stop();
+    }
+}
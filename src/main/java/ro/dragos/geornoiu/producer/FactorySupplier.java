@@ -2,95 +2,478 @@ package ro.dragos.geornoiu.producer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import ro.dragos.geornoiu.constants.ACMEConstants;
+import ro.dragos.geornoiu.constants.FactoryTiming;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelope;
+import ro.dragos.geornoiu.conveyor.ConveyorBelt;
+import ro.dragos.geornoiu.conveyor.RecycleBuffer;
+import ro.dragos.geornoiu.conveyor.SpareComponentPool;
 import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.SupplierState;
+import ro.dragos.geornoiu.event.FactoryEventListener;
+import ro.dragos.geornoiu.eventloop.ConveyorBeltSignal;
+import ro.dragos.geornoiu.eventloop.EventLoop;
+import ro.dragos.geornoiu.jfr.ComponentDiscardedEvent;
+import ro.dragos.geornoiu.jfr.ComponentSuppliedEvent;
+import ro.dragos.geornoiu.jfr.EventGate;
+import ro.dragos.geornoiu.jfr.SupplierBlockedEvent;
 import ro.dragos.geornoiu.service.ComponentGeneratorService;
+import ro.dragos.geornoiu.snapshot.SupplierSnapshot;
+import ro.dragos.geornoiu.supply.SupplyRateController;
+import ro.dragos.geornoiu.wait.WaitStrategy;
 
-import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 /**
- * Factory supplier which puts components on the conveyor belt at an interval of one second. If the supplier is unable
- * to put an item on the conveyor belt for 10 seconds, he will remove the first element on the queue.
+ * Factory supplier which puts components on the conveyor belt at an interval decided by its
+ * {@link SupplyRateController}, one second by default. If the supplier is unable
+ * to put an item on the conveyor belt for 10 seconds, he will remove the first element on the queue. Spare components
+ * handed back by retired workers are put on the conveyor belt before new ones. With a {@link RecycleBuffer}, the
+ * removed components are kept instead of being destroyed, and put back before new ones once a worker needs them.
+ * <p>
+ * The supplier either runs on a thread of its own or, after {@link #start(EventLoop, ConveyorBeltSignal)}, as a
+ * state machine on an {@link EventLoop}, supplying, blocked and discarding, without ever blocking.
+ * <p>
+ * The state and the counters of the supplier are only changed by its own thread, between two increments of a version
+ * counter, so {@link #snapshot()} can read them consistently from any thread without a lock.
  */
 public class FactorySupplier implements Runnable {
     private static final Logger LOG = LoggerFactory.getLogger(FactorySupplier.class);
 
+    private static final EventGate SUPPLIED_EVENTS = new EventGate(ComponentSuppliedEvent.class);
+    private static final EventGate DISCARDED_EVENTS = new EventGate(ComponentDiscardedEvent.class);
+    private static final EventGate BLOCKED_EVENTS = new EventGate(SupplierBlockedEvent.class);
+
     //volatile in order to not be cached and any modification from an external thread to be seen in current thread.
     private volatile boolean isRunning;
 
+    private volatile SupplierState state;
+    private volatile long noOfSuppliedComponents;
+    private volatile long noOfDiscardedComponents;
+    //odd while the supplier is changing its state
+    private volatile long version;
+
+    private final int id;
     private final String name;
     private final ComponentGeneratorService componentGenerator;
-    private final Queue<Component> conveyorBelt;
+    private final ConveyorBelt conveyorBelt;
+
+    private final WaitStrategy waitStrategy;
+    private final FactoryEventListener eventListener;
+    private final SpareComponentPool spareComponentPool;
+    //null when the removed components are destroyed
+    private final RecycleBuffer recycleBuffer;
+    private final FactoryTiming timing;
+    private final SupplyRateController supplyRateController;
+    private final BooleanSupplier conveyorBeltNotFullCondition;
 
-    //used to measure the reamining wait time if thread was awakend by a spurious wakeup
-    private long timeToWait;
+    //component which did not fit on the conveyor belt, supplied before any other
+    private ComponentEnvelope pendingEnvelope;
+    //whether the last supplied component had to wait for room on the conveyor belt
+    private boolean waitedForRoom;
 
-    private static final int TIME_IN_MILLIS_TO_WAIT_BEFORE_ADDING_NEXT_COMPONENT = 1000;
-    private static final int MAX_TIME_IN_MILLIS_TO_WAIT_WHEN_QUEUE_IS_FULL = 10000;
+    //set when the supplier runs on an event loop instead of a thread of its own
+    private volatile EventLoop eventLoop;
+    private ConveyorBeltSignal signal;
+    private ConveyorBeltSignal.Waiter waiter;
+    private Runnable supplyStep;
+    private Runnable blockedStep;
+    private long blockedDeadlineNanos;
+    private boolean blocked;
+    private SupplierBlockedEvent blockedEvent;
 
-    public FactorySupplier(String name, Queue<Component> conveyorBelt,
-                           ComponentGeneratorService componentGenerator) {
+    public FactorySupplier(int id, String name, ConveyorBelt conveyorBelt,
+                           ComponentGeneratorService componentGenerator, WaitStrategy waitStrategy,
+                           FactoryEventListener eventListener, SpareComponentPool spareComponentPool,
+                           RecycleBuffer recycleBuffer, FactoryTiming timing,
+                           SupplyRateController supplyRateController) {
         this.isRunning = true;
+        this.state = SupplierState.IDLE;
+        this.id = id;
         this.name = name;
         this.conveyorBelt = conveyorBelt;
         this.componentGenerator = componentGenerator;
+        this.waitStrategy = waitStrategy;
+        this.eventListener = eventListener;
+        this.spareComponentPool = spareComponentPool;
+        this.recycleBuffer = recycleBuffer;
+        this.timing = timing;
+        this.supplyRateController = supplyRateController;
+        this.conveyorBeltNotFullCondition = () -> !isConveyorBeltFull();
     }
 
     @Override
     public void run() {
         try {
             while (this.isRunning) {
-                synchronized (this.conveyorBelt) {
-                    this.timeToWait = MAX_TIME_IN_MILLIS_TO_WAIT_WHEN_QUEUE_IS_FULL;
-                    long startTime = System.currentTimeMillis();
+                //do not add another component if current thread is stopped
+                if (!supplyComponent()) {
+                    break;
+                }
 
-                    // if queue is full, wait for 10 seconds
-                    while (doWaitCondition()) {
-                        LOG.info("Queue is full. {} is waiting.", this.name);
+                setState(SupplierState.IDLE);
 
-                        this.conveyorBelt.wait(timeToWait);
-                        this.timeToWait = MAX_TIME_IN_MILLIS_TO_WAIT_WHEN_QUEUE_IS_FULL -
-                                (System.currentTimeMillis() - startTime);
-                    }
+                //sleep is outside synchronized block
+                TimeUnit.NANOSECONDS.sleep(this.supplyRateController.supplied(this.waitedForRoom));
+            }
+        } catch (InterruptedException e) {
+            LOG.error("{} was interrupted and is being shut down", this.name);
+            stop();
+        } finally {
+            setState(SupplierState.STOPPED);
+        }
+    }
 
-                    // Check again the capacity in case the FactorySupplier did wait for the entire duration of
-                    // MAX_TIME_IN_MILLIS_TO_WAIT_WHEN_QUEUE_IS_FULL and it has to remove the first component
-                    // form the queue.
-                    if (this.conveyorBelt.size() == ACMEConstants.QUEUE_CAPACITY_LIMIT) {
-                        Component component = this.conveyorBelt.remove();
-                        LOG.info("{} removed component {} from conveyor belt.", this.name,
-                                component.name());
-                    }
+    /**
+     * Put a new component on the conveyor belt. If the conveyor belt is full, wait for 10 seconds for a worker to take
+     * a component and if none does, remove the first component on the queue.
+     *
+     * @return true if a component was added, false if the supplier was stopped.
+     */
+    private boolean supplyComponent() throws InterruptedException {
+        long deadline = System.nanoTime() +
+                TimeUnit.MILLISECONDS.toNanos(this.timing.getMaxWaitWhenConveyorBeltIsFullInMillis());
+        boolean blocked = false;
+        SupplierBlockedEvent blockedEvent = null;
+        setState(SupplierState.SUPPLYING);
+
+        while (true) {
+            long timeToWait = deadline - System.nanoTime();
+
+            // if queue is full, wait for 10 seconds
+            if (isConveyorBeltFull() && timeToWait > 0) {
+                LOG.debug("Queue is full. {} is waiting.", this.name);
+
+                if (!blocked) {
+                    blocked = true;
+                    blockedEvent = beginBlockedEvent();
+                    setState(SupplierState.BLOCKED);
+                }
 
-                    //do not add another component if current thread is stopped
-                    if (!isRunning) {
-                        break;
+                timeToWait = this.waitStrategy.await(this.conveyorBelt, this.conveyorBeltNotFullCondition,
+                        timeToWait);
+            }
+
+            synchronized (this.conveyorBelt) {
+                // Check again the capacity in case the FactorySupplier did wait for the entire duration of
+                // the maximum wait time when the queue is full and it has to remove the first component
+                // form the queue.
+                boolean headDiscarded = false;
+                if (isConveyorBeltFull()) {
+                    // another supplier filled the queue after the wait ended, keep waiting for the remaining time
+                    if (timeToWait > 0) {
+                        continue;
                     }
 
-                    Component component = this.componentGenerator.retrieveComponent();
+                    discardHead();
+                    headDiscarded = true;
+                }
 
-                    this.conveyorBelt.offer(component);
+                commitBlockedEvent(blockedEvent, headDiscarded);
 
-                    LOG.info("{} added component {} to conveyor belt", this.name, component.name());
-                    this.printQueue();
+                if (!isRunning) {
+                    return false;
+                }
 
-                    // Notify that the lock on the conveyor belt will be released in order to awaken the threads
-                    // which are in waiting state.
-                    this.conveyorBelt.notifyAll();
+                // a supplier of another process sharing the conveyor belt might have filled it in the meantime
+                if (offerComponent(blocked)) {
+                    return true;
                 }
+            }
+        }
+    }
 
-                //sleep is outside synchronized block
-                Thread.sleep(TIME_IN_MILLIS_TO_WAIT_BEFORE_ADDING_NEXT_COMPONENT);
+    /**
+     * Run the supplier on an event loop instead of a thread of its own. The supplier then never blocks: a timer
+     * replaces the sleep between two components, and while the conveyor belt is full the supplier registers with the
+     * signal, with a timer for the maximum wait after which it removes the first component. Every actor using the same
+     * conveyor belt has to run on an event loop and signal its changes.
+     *
+     * @param eventLoop the event loop running the steps of the supplier.
+     * @param signal    the signal of the changes of the conveyor belt.
+     */
+    public void start(EventLoop eventLoop, ConveyorBeltSignal signal) {
+        this.eventLoop = eventLoop;
+        this.signal = signal;
+        this.supplyStep = this::supplyStep;
+        this.blockedStep = this::blockedStep;
+        this.waiter = new ConveyorBeltSignal.Waiter(eventLoop, this.blockedStep);
+
+        eventLoop.execute(this.supplyStep);
+    }
+
+    /**
+     * Start supplying the next component, on the event loop.
+     */
+    private void supplyStep() {
+        if (this.state == SupplierState.STOPPED) {
+            return;
+        }
+
+        setState(SupplierState.SUPPLYING);
+        this.blockedDeadlineNanos = System.nanoTime() +
+                TimeUnit.MILLISECONDS.toNanos(this.timing.getMaxWaitWhenConveyorBeltIsFullInMillis());
+        this.blocked = false;
+        this.blockedEvent = null;
+
+        attemptSupply();
+    }
+
+    /**
+     * Try again after the conveyor belt changed or the maximum wait elapsed, on the event loop.
+     */
+    private void blockedStep() {
+        // woken up after the component was supplied or after stopping
+        if (this.state == SupplierState.BLOCKED) {
+            attemptSupply();
+        }
+    }
+
+    private void attemptSupply() {
+        if (!this.isRunning) {
+            setState(SupplierState.STOPPED);
+            return;
+        }
+
+        long seenSequence = this.signal.sequence();
+        boolean supplied;
+
+        synchronized (this.conveyorBelt) {
+            boolean headDiscarded = false;
+
+            if (isConveyorBeltFull()) {
+                long timeToWait = this.blockedDeadlineNanos - System.nanoTime();
+
+                if (timeToWait > 0) {
+                    if (!this.blocked) {
+                        LOG.debug("Queue is full. {} is waiting.", this.name);
+
+                        this.blocked = true;
+                        this.blockedEvent = beginBlockedEvent();
+                        setState(SupplierState.BLOCKED);
+                        this.eventLoop.schedule(this.blockedStep, timeToWait);
+                    }
+
+                    this.signal.awaitRoom(seenSequence, this.waiter);
+                    return;
+                }
+
+                discardHead();
+                headDiscarded = true;
             }
-        } catch (InterruptedException e) {
-            LOG.error("{} was interrupted and is being shut down", this.name);
-            stop();
+
+            commitBlockedEvent(this.blockedEvent, headDiscarded);
+            supplied = offerComponent(this.blocked);
+        }
+
+        if (!supplied) {
+            // filled by another supplier in the meantime, try again once the conveyor belt changes
+            setState(SupplierState.BLOCKED);
+            this.signal.awaitRoom(seenSequence, this.waiter);
+            return;
+        }
+
+        this.signal.signalSupplied();
+        setState(SupplierState.IDLE);
+        this.eventLoop.schedule(this.supplyStep, this.supplyRateController.supplied(this.waitedForRoom));
+    }
+
+    /**
+     * Remove the first component on the conveyor belt to make room, into the recycle buffer if there is one, otherwise
+     * destroy it. Called while holding the monitor of the conveyor belt.
+     */
+    private void discardHead() {
+        ComponentEnvelope removed = this.conveyorBelt.pollEnvelope();
+
+        if (this.recycleBuffer == null) {
+            destroy(removed);
+            return;
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("{} moved component {} from conveyor belt to the recycle buffer.", this.name,
+                    removed.getComponent());
+        }
+
+        ComponentEnvelope pushedOut = this.recycleBuffer.add(removed, System.nanoTime());
+        if (pushedOut != null) {
+            destroy(pushedOut);
+        }
+    }
+
+    private void destroy(ComponentEnvelope discarded) {
+        LOG.debug("{} destroyed component {}.", this.name, discarded.getComponent());
+        this.eventListener.componentDiscarded(this, discarded);
+        commitDiscardedEvent(discarded);
+        discarded.release();
+
+        this.version++;
+        this.noOfDiscardedComponents++;
+        this.version++;
+    }
+
+    /**
+     * Take a recycled component a worker needs, after destroying the ones kept too long.
+     *
+     * @return the envelope of the recycled component or null if there is none or no worker needs them.
+     */
+    private ComponentEnvelope pollRecycledComponent() {
+        long nowNanos = System.nanoTime();
+
+        ComponentEnvelope expired;
+        while ((expired = this.recycleBuffer.pollExpired(nowNanos)) != null) {
+            destroy(expired);
         }
+
+        return this.recycleBuffer.pollInDemand(this.id, nowNanos);
     }
 
-    private boolean doWaitCondition() {
-        return this.conveyorBelt.size() == ACMEConstants.QUEUE_CAPACITY_LIMIT &&
-                this.timeToWait > 0;
+    /**
+     * Put the pending component, a spare one, a recycled one or a new one on the conveyor belt. Called while holding
+     * the monitor of the conveyor belt.
+     *
+     * @param waitedForRoom true if the supplier had to wait for room before supplying.
+     * @return true if the component was added, false if the conveyor belt was full and the component is kept pending.
+     */
+    private boolean offerComponent(boolean waitedForRoom) {
+        ComponentEnvelope envelope = this.pendingEnvelope;
+        if (envelope == null) {
+            envelope = this.spareComponentPool.poll();
+        }
+        if (envelope == null && this.recycleBuffer != null) {
+            envelope = pollRecycledComponent();
+        }
+        if (envelope == null) {
+            envelope = this.conveyorBelt.getEnvelopePool()
+                    .acquire(this.componentGenerator.retrieveComponent(), this.id, System.nanoTime());
+        }
+
+        Component component = envelope.getComponent();
+
+        if (!this.conveyorBelt.offer(envelope)) {
+            this.pendingEnvelope = envelope;
+            return false;
+        }
+
+        this.pendingEnvelope = null;
+        this.waitedForRoom = waitedForRoom;
+
+        this.version++;
+        this.noOfSuppliedComponents++;
+        this.state = SupplierState.SUPPLYING;
+        this.version++;
+
+        this.eventListener.componentSupplied(this, envelope);
+        commitSuppliedEvent(component);
+
+        if (!this.conveyorBelt.keepsEnvelopes()) {
+            // only the component went on the conveyor belt, the envelope is not needed past the listeners
+            envelope.release();
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("{} added component {} to conveyor belt", this.name, component.name());
+            this.printQueue();
+        }
+
+        // Notify that the lock on the conveyor belt will be released in order to awaken the threads
+        // which are in waiting state.
+        this.conveyorBelt.notifyAll();
+
+        return true;
+    }
+
+    /**
+     * Start recording the time the supplier is blocked.
+     *
+     * @return the started event, or null if no recording is interested in it.
+     */
+    private static SupplierBlockedEvent beginBlockedEvent() {
+        if (!BLOCKED_EVENTS.isEnabled()) {
+            return null;
+        }
+
+        SupplierBlockedEvent blockedEvent = new SupplierBlockedEvent();
+        blockedEvent.begin();
+
+        return blockedEvent;
+    }
+
+    private void commitBlockedEvent(SupplierBlockedEvent blockedEvent, boolean headDiscarded) {
+        if (blockedEvent == null) {
+            return;
+        }
+
+        blockedEvent.end();
+
+        if (blockedEvent.shouldCommit()) {
+            blockedEvent.supplier = this.name;
+            blockedEvent.headDiscarded = headDiscarded;
+            blockedEvent.commit();
+        }
+    }
+
+    private void commitDiscardedEvent(ComponentEnvelope discarded) {
+        if (!DISCARDED_EVENTS.isEnabled()) {
+            return;
+        }
+
+        ComponentDiscardedEvent discardedEvent = new ComponentDiscardedEvent();
+
+        if (discardedEvent.shouldCommit()) {
+            discardedEvent.supplier = this.name;
+            discardedEvent.component = discarded.getComponent().name();
+            discardedEvent.beltDwell = System.nanoTime() - discarded.getSupplyTimeNanos();
+            discardedEvent.commit();
+        }
+    }
+
+    private void commitSuppliedEvent(Component component) {
+        if (!SUPPLIED_EVENTS.isEnabled()) {
+            return;
+        }
+
+        ComponentSuppliedEvent suppliedEvent = new ComponentSuppliedEvent();
+
+        if (suppliedEvent.shouldCommit()) {
+            suppliedEvent.supplier = this.name;
+            suppliedEvent.component = component.name();
+            suppliedEvent.conveyorBeltSize = this.conveyorBelt.size();
+            suppliedEvent.commit();
+        }
+    }
+
+    private void setState(SupplierState state) {
+        this.version++;
+        this.state = state;
+        this.version++;
+    }
+
+    /**
+     * Read the state of the supplier without blocking it. The read is retried while the supplier is changing its
+     * state.
+     */
+    public SupplierSnapshot snapshot() {
+        while (true) {
+            long startVersion = this.version;
+
+            if ((startVersion & 1) == 0) {
+                SupplierState currentState = this.state;
+                long currentNoOfSuppliedComponents = this.noOfSuppliedComponents;
+                long currentNoOfDiscardedComponents = this.noOfDiscardedComponents;
+
+                if (this.version == startVersion) {
+                    return new SupplierSnapshot(this.id, this.name, currentState, currentNoOfSuppliedComponents,
+                            currentNoOfDiscardedComponents);
+                }
+            }
+
+            Thread.yield();
+        }
+    }
+
+    private boolean isConveyorBeltFull() {
+        return this.conveyorBelt.size() == this.conveyorBelt.getCapacity();
     }
 
     /**
@@ -98,6 +481,32 @@ public class FactorySupplier implements Runnable {
      */
     public void stop() {
         this.isRunning = false;
+
+        EventLoop currentEventLoop = this.eventLoop;
+        if (currentEventLoop != null) {
+            currentEventLoop.execute(this::stopStep);
+        }
+    }
+
+    /**
+     * Stop the supplier between two components or while it waits for room, on the event loop.
+     */
+    private void stopStep() {
+        if (this.state == SupplierState.IDLE || this.state == SupplierState.BLOCKED) {
+            setState(SupplierState.STOPPED);
+        }
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public SupplyRateController getSupplyRateController() {
+        return supplyRateController;
     }
 
     private void printQueue() {
@@ -109,6 +518,6 @@ public class FactorySupplier implements Runnable {
 
         String finalQueue = queue.substring(0, queue.length() - 1);
 
-        LOG.info("Queue: {}", finalQueue);
+        LOG.debug("Queue: {}", finalQueue);
     }
 }
\ No newline at end of file
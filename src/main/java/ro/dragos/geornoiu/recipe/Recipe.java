@@ -0,0 +1,74 @@
+package ro.dragos.geornoiu.recipe;
+
+import java.util.Arrays;
+
+/**
+ * The components needed to assemble one robot model of a {@link RecipeCatalog}, compiled to the indices of the
+ * components in the catalog. Only the components needed are kept, sorted by index, so a recipe stays small however
+ * many component types the catalog has.
+ */
+public class Recipe {
+    private final int robotModelIndex;
+    private final String robotModelName;
+    private final int[] componentIndices;
+    private final int[] quantities;
+    private final int totalQuantity;
+
+    /**
+     * @param robotModelIndex  the index of the robot model in its catalog.
+     * @param robotModelName   the name of the robot model.
+     * @param componentIndices the indices of the components needed, sorted.
+     * @param quantities       the number of components of each of them needed.
+     */
+    Recipe(int robotModelIndex, String robotModelName, int[] componentIndices, int[] quantities) {
+        this.robotModelIndex = robotModelIndex;
+        this.robotModelName = robotModelName;
+        this.componentIndices = componentIndices;
+        this.quantities = quantities;
+        this.totalQuantity = Arrays.stream(quantities).sum();
+    }
+
+    public int getRobotModelIndex() {
+        return robotModelIndex;
+    }
+
+    public String getRobotModelName() {
+        return robotModelName;
+    }
+
+    /**
+     * Retrieve the number of different components needed.
+     */
+    public int getNoOfComponentTypes() {
+        return componentIndices.length;
+    }
+
+    /**
+     * Retrieve the catalog index of the i-th component needed, in increasing order of the indices.
+     */
+    public int getComponentIndex(int i) {
+        return componentIndices[i];
+    }
+
+    /**
+     * Retrieve the number of components of the i-th component needed.
+     */
+    public int getQuantity(int i) {
+        return quantities[i];
+    }
+
+    /**
+     * Retrieve how many components with the given catalog index are needed, 0 if the robot does not need it.
+     */
+    public int getNoOfComponentsNeeded(int componentIndex) {
+        int i = Arrays.binarySearch(componentIndices, componentIndex);
+        return i < 0 ? 0 : quantities[i];
+    }
+
+    /**
+     * Retrieve the number of components needed, of all types.
+     */
+    public int getTotalQuantity() {
+        return totalQuantity;
+    }
+}
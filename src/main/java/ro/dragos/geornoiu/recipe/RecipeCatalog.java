@@ -0,0 +1,291 @@
+package ro.dragos.geornoiu.recipe;
+
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.exception.InvalidRobotTypeException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The recipes of the robot models a factory can assemble, loaded from a file with one recipe on each line, for example
+ * {@code DRY2000=MAIN_UNIT:1,BROOM:2}. Everything after a {@code #} is a comment.
+ * <p>
+ * The components and robot models are numbered in the order they first appear, every recipe is compiled to the
+ * indices of its components, and an inverted index lists the robot models needing each component, so finding who
+ * needs a component does not go through every recipe.
+ * <p>
+ * The catalog holds any number of names, but the factory only builds the robots of {@link RobotType} out of the
+ * components of {@link ro.dragos.geornoiu.enums.Component}, since the conveyor belts, traces and events carry their
+ * ordinals. The catalog makes the recipes of those robots data instead of code; a new component type or robot model
+ * still needs its enum value before a factory can use it, and the factory rejects a catalog missing one of its robot
+ * types or whose recipes for them need an unknown component.
+ */
+public class RecipeCatalog {
+    /**
+     * Resource holding the recipes of the ACME robots.
+     */
+    public static final String DEFAULT_RESOURCE = "/recipes/acme.recipes";
+
+    private final List<String> componentNames = new ArrayList<>();
+    private final Map<String, Integer> componentIndices = new HashMap<>();
+    private final List<String> robotModelNames = new ArrayList<>();
+    private final Map<String, Integer> robotModelIndices = new HashMap<>();
+    private final Recipe[] recipes;
+
+    //the robot models needing component c are neededBy[neededByStart[c]] to neededBy[neededByStart[c + 1] - 1]
+    private final int[] neededByStart;
+    private final int[] neededBy;
+
+    /**
+     * @param recipes the number of components of each type needed by each robot model, by name, in the order in
+     *                which the components and robot models are numbered.
+     * @throws IllegalArgumentException if a recipe is empty or has a quantity which is not positive.
+     */
+    public RecipeCatalog(Map<String, Map<String, Integer>> recipes) {
+        this.recipes = new Recipe[recipes.size()];
+
+        for (Map.Entry<String, Map<String, Integer>> recipe : recipes.entrySet()) {
+            if (recipe.getValue().isEmpty()) {
+                throw new IllegalArgumentException("The recipe of " + recipe.getKey() + " needs no component.");
+            }
+
+            int robotModelIndex = this.robotModelNames.size();
+            this.robotModelNames.add(recipe.getKey());
+            this.robotModelIndices.put(recipe.getKey(), robotModelIndex);
+
+            int[] componentIndices = new int[recipe.getValue().size()];
+            int[] quantities = new int[componentIndices.length];
+            int noOfComponents = 0;
+
+            for (Map.Entry<String, Integer> component : recipe.getValue().entrySet()) {
+                if (component.getValue() <= 0) {
+                    throw new IllegalArgumentException("The recipe of " + recipe.getKey() + " needs " +
+                            component.getValue() + " " + component.getKey() + ".");
+                }
+
+                int componentIndex = this.componentIndices.computeIfAbsent(component.getKey(), name -> {
+                    this.componentNames.add(name);
+                    return this.componentNames.size() - 1;
+                });
+
+                // insert the component so that the components stay sorted by index
+                int i = noOfComponents++;
+                while (i > 0 && componentIndices[i - 1] > componentIndex) {
+                    componentIndices[i] = componentIndices[i - 1];
+                    quantities[i] = quantities[i - 1];
+                    i--;
+                }
+                componentIndices[i] = componentIndex;
+                quantities[i] = component.getValue();
+            }
+
+            this.recipes[robotModelIndex] = new Recipe(robotModelIndex, recipe.getKey(), componentIndices, quantities);
+        }
+
+        this.neededByStart = new int[this.componentNames.size() + 1];
+        for (Recipe recipe : this.recipes) {
+            for (int i = 0; i < recipe.getNoOfComponentTypes(); i++) {
+                this.neededByStart[recipe.getComponentIndex(i) + 1]++;
+            }
+        }
+        for (int componentIndex = 0; componentIndex < this.componentNames.size(); componentIndex++) {
+            this.neededByStart[componentIndex + 1] += this.neededByStart[componentIndex];
+        }
+
+        this.neededBy = new int[this.neededByStart[this.componentNames.size()]];
+        int[] cursor = Arrays.copyOf(this.neededByStart, this.componentNames.size());
+        for (Recipe recipe : this.recipes) {
+            for (int i = 0; i < recipe.getNoOfComponentTypes(); i++) {
+                this.neededBy[cursor[recipe.getComponentIndex(i)]++] = recipe.getRobotModelIndex();
+            }
+        }
+    }
+
+    /**
+     * Retrieve the recipes of the ACME robots, loaded once from {@link #DEFAULT_RESOURCE}.
+     */
+    public static RecipeCatalog getDefault() {
+        return DefaultCatalogHolder.DEFAULT;
+    }
+
+    /**
+     * Load the recipes from a file.
+     *
+     * @throws IllegalArgumentException if a line is not well formed or a robot model has two recipes.
+     */
+    public static RecipeCatalog load(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return read(reader);
+        }
+    }
+
+    /**
+     * Read the recipes, one on each line.
+     *
+     * @throws IllegalArgumentException if a line is not well formed or a robot model has two recipes.
+     */
+    public static RecipeCatalog read(BufferedReader reader) throws IOException {
+        Map<String, Map<String, Integer>> recipes = new LinkedHashMap<>();
+        int lineNumber = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+
+            int commentStart = line.indexOf('#');
+            String recipe = (commentStart < 0 ? line : line.substring(0, commentStart)).trim();
+            if (recipe.isEmpty()) {
+                continue;
+            }
+
+            String[] robotModelAndComponents = recipe.split("=");
+            if (robotModelAndComponents.length != 2 || robotModelAndComponents[0].trim().isEmpty()) {
+                throw new IllegalArgumentException("Invalid recipe on line " + lineNumber + ": " + line +
+                        ", expected ROBOT_MODEL=COMPONENT:QUANTITY,...");
+            }
+
+            String robotModelName = robotModelAndComponents[0].trim();
+            if (recipes.containsKey(robotModelName)) {
+                throw new IllegalArgumentException("Second recipe of " + robotModelName + " on line " + lineNumber +
+                        ".");
+            }
+
+            Map<String, Integer> quantities = new LinkedHashMap<>();
+            for (String component : robotModelAndComponents[1].split(",")) {
+                String[] componentAndQuantity = component.trim().split(":");
+                if (componentAndQuantity.length != 2 || componentAndQuantity[0].trim().isEmpty()) {
+                    throw new IllegalArgumentException("Invalid component " + component + " on line " + lineNumber +
+                            ", expected COMPONENT:QUANTITY.");
+                }
+
+                try {
+                    quantities.merge(componentAndQuantity[0].trim(), Integer.parseInt(componentAndQuantity[1].trim()),
+                            Integer::sum);
+                } catch (NumberFormatException nfe) {
+                    throw new IllegalArgumentException("Invalid quantity " + componentAndQuantity[1] + " on line " +
+                            lineNumber + ".", nfe);
+                }
+            }
+
+            recipes.put(robotModelName, quantities);
+        }
+
+        return new RecipeCatalog(recipes);
+    }
+
+    public int getNoOfComponentTypes() {
+        return componentNames.size();
+    }
+
+    public int getNoOfRobotModels() {
+        return recipes.length;
+    }
+
+    /**
+     * Retrieve the index of a component, or -1 if no recipe needs it.
+     */
+    public int getComponentIndex(String componentName) {
+        Integer componentIndex = componentIndices.get(componentName);
+        return componentIndex == null ? -1 : componentIndex;
+    }
+
+    public String getComponentName(int componentIndex) {
+        return componentNames.get(componentIndex);
+    }
+
+    /**
+     * Retrieve the names of the components, by index.
+     */
+    public List<String> getComponentNames() {
+        return Collections.unmodifiableList(componentNames);
+    }
+
+    /**
+     * Retrieve the index of a robot model, or -1 if the catalog has no recipe for it.
+     */
+    public int getRobotModelIndex(String robotModelName) {
+        Integer robotModelIndex = robotModelIndices.get(robotModelName);
+        return robotModelIndex == null ? -1 : robotModelIndex;
+    }
+
+    /**
+     * Retrieve the names of the robot models, by index.
+     */
+    public List<String> getRobotModelNames() {
+        return Collections.unmodifiableList(robotModelNames);
+    }
+
+    public Recipe getRecipe(int robotModelIndex) {
+        return recipes[robotModelIndex];
+    }
+
+    /**
+     * Retrieve the recipe of a robot model.
+     *
+     * @throws InvalidRobotTypeException if the catalog has no recipe for it.
+     */
+    public Recipe getRecipe(String robotModelName) {
+        int robotModelIndex = getRobotModelIndex(robotModelName);
+        if (robotModelIndex < 0) {
+            throw new InvalidRobotTypeException("No recipe for robot model " + robotModelName + ".");
+        }
+
+        return recipes[robotModelIndex];
+    }
+
+    /**
+     * Retrieve the recipe of a robot type.
+     *
+     * @throws InvalidRobotTypeException if the robot type is null or the catalog has no recipe for it.
+     */
+    public Recipe getRecipe(RobotType robotType) {
+        if (robotType == null) {
+            throw new InvalidRobotTypeException("RobotType cannot be null.");
+        }
+
+        return getRecipe(robotType.name());
+    }
+
+    /**
+     * Retrieve the number of robot models needing the component.
+     */
+    public int getNoOfRobotModelsNeeding(int componentIndex) {
+        return neededByStart[componentIndex + 1] - neededByStart[componentIndex];
+    }
+
+    /**
+     * Retrieve the index of the i-th robot model needing the component, in increasing order of the indices.
+     */
+    public int getRobotModelNeeding(int componentIndex, int i) {
+        return neededBy[neededByStart[componentIndex] + i];
+    }
+
+    private static class DefaultCatalogHolder {
+        private static final RecipeCatalog DEFAULT = loadDefault();
+
+        private static RecipeCatalog loadDefault() {
+            try (InputStream input = RecipeCatalog.class.getResourceAsStream(DEFAULT_RESOURCE)) {
+                if (input == null) {
+                    throw new IllegalStateException("Missing resource " + DEFAULT_RESOURCE + ".");
+                }
+
+                return read(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+            } catch (IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package ro.dragos.geornoiu.reporting;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.enums.WorkerState;
+import ro.dragos.geornoiu.metrics.ThroughputMetrics;
+import ro.dragos.geornoiu.service.factory.ACMEFactory;
+import ro.dragos.geornoiu.snapshot.FactorySnapshot;
+import ro.dragos.geornoiu.snapshot.WorkerSnapshot;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prints, at a fixed interval, one compact view of the factory: the components on the conveyor belt, how many workers
+ * of each {@link RobotType} are collecting components, the robots assembled per second for each {@link RobotType} and
+ * the components destroyed per second. The state is sampled through a {@link FactorySnapshot}, without taking the
+ * conveyor belt lock, so the suppliers and workers are not slowed down by the reporting.
+ */
+public class DashboardReporter implements Runnable {
+    private static final Logger LOG = LoggerFactory.getLogger(DashboardReporter.class);
+
+    //volatile in order to not be cached and any modification from an external thread to be seen in current thread.
+    private volatile boolean isRunning;
+
+    private final ACMEFactory acmeFactory;
+    private final long intervalInMillis;
+
+    private long lastSampleNanos;
+    private final long[] lastNoOfAssembledRobots = new long[RobotType.values().length];
+    private long lastNoOfDiscardedComponents;
+
+    public DashboardReporter(ACMEFactory acmeFactory, long intervalInMillis) {
+        this.isRunning = true;
+        this.acmeFactory = acmeFactory;
+        this.intervalInMillis = intervalInMillis;
+    }
+
+    @Override
+    public void run() {
+        try {
+            render();
+
+            while (this.isRunning) {
+                Thread.sleep(this.intervalInMillis);
+                LOG.info("{}", render());
+            }
+        } catch (InterruptedException ie) {
+            LOG.error("Dashboard was interrupted and is being shut down");
+            stop();
+        }
+    }
+
+    /**
+     * Stop execution of thread by setting isRunningFlag to false.
+     */
+    public void stop() {
+        this.isRunning = false;
+    }
+
+    /**
+     * Sample the factory and render its view. The rates are computed since the previous call.
+     */
+    public String render() {
+        long sampleNanos = System.nanoTime();
+        double elapsedSeconds = Math.max(1, sampleNanos - this.lastSampleNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        boolean firstSample = this.lastSampleNanos == 0;
+        this.lastSampleNanos = sampleNanos;
+
+        FactorySnapshot snapshot = this.acmeFactory.snapshot();
+        StringBuilder view = new StringBuilder();
+        appendConveyorBelt(view, snapshot);
+        appendCollectingWorkers(view, snapshot);
+
+        ThroughputMetrics throughputMetrics = this.acmeFactory.getThroughputMetrics();
+        view.append(" | robots/s");
+
+        for (RobotType robotType : RobotType.values()) {
+            long noOfAssembledRobots = throughputMetrics.getNoOfAssembledRobots(robotType);
+            double robotsPerSecond = firstSample ? 0 :
+                    (noOfAssembledRobots - this.lastNoOfAssembledRobots[robotType.ordinal()]) / elapsedSeconds;
+            this.lastNoOfAssembledRobots[robotType.ordinal()] = noOfAssembledRobots;
+
+            view.append(' ').append(robotType.name()).append(' ').append(format(robotsPerSecond));
+        }
+
+        long noOfDiscardedComponents = throughputMetrics.getNoOfDiscardedComponents();
+        double discardsPerSecond = firstSample ? 0 :
+                (noOfDiscardedComponents - this.lastNoOfDiscardedComponents) / elapsedSeconds;
+        this.lastNoOfDiscardedComponents = noOfDiscardedComponents;
+
+        view.append(" | discards/s ").append(format(discardsPerSecond));
+
+        return view.toString();
+    }
+
+    private void appendConveyorBelt(StringBuilder view, FactorySnapshot snapshot) {
+        view.append("Belt ").append(snapshot.getConveyorBelt().size()).append('/')
+                .append(snapshot.getConveyorBeltCapacity()).append(" [");
+
+        boolean first = true;
+        for (Component component : snapshot.getConveyorBelt()) {
+            if (!first) {
+                view.append('-');
+            }
+
+            view.append(component.name());
+            first = false;
+        }
+
+        view.append(']');
+    }
+
+    private void appendCollectingWorkers(StringBuilder view, FactorySnapshot snapshot) {
+        int[] noOfCollectingWorkers = new int[RobotType.values().length];
+        int[] noOfActiveWorkers = new int[RobotType.values().length];
+
+        for (WorkerSnapshot worker : snapshot.getWorkers()) {
+            WorkerState state = worker.getState();
+
+            if (state != WorkerState.STOPPED) {
+                noOfActiveWorkers[worker.getRobotType().ordinal()]++;
+            }
+
+            if (state == WorkerState.COLLECTING) {
+                noOfCollectingWorkers[worker.getRobotType().ordinal()]++;
+            }
+        }
+
+        view.append(" | collecting");
+
+        for (RobotType robotType : RobotType.values()) {
+            view.append(' ').append(robotType.name()).append(' ')
+                    .append(noOfCollectingWorkers[robotType.ordinal()]).append('/')
+                    .append(noOfActiveWorkers[robotType.ordinal()]);
+        }
+    }
+
+    private static String format(double rate) {
+        return String.format(Locale.ROOT, "%.2f", rate);
+    }
+}
@@ -0,0 +1,236 @@
+package ro.dragos.geornoiu.scaling;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.conveyor.ConveyorBelt;
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.enums.WorkerState;
+import ro.dragos.geornoiu.metrics.ThroughputMetrics;
+import ro.dragos.geornoiu.service.factory.ACMEFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Adds and retires workers of each {@link RobotType}, within fixed bounds, based on what the factory needs. At every
+ * interval the autoscaler looks at:
+ * <ul>
+ * <li>the number of components on the conveyor belt needed by the workers of the type,</li>
+ * <li>the share of the workers of the type waiting for components instead of assembling,</li>
+ * <li>the robots assembled per second, compared to what the workers could assemble.</li>
+ * </ul>
+ * A new worker is started when many of the components on the conveyor belt are needed by the type while its workers
+ * are busy assembling, and an idle worker is retired when most workers of the type wait for components while few
+ * robots are assembled. A decision is only taken after the same signal was seen for a few consecutive samples.
+ * Retired workers hand their partial kits back to the {@link ro.dragos.geornoiu.conveyor.SpareComponentPool}.
+ */
+public class WorkerAutoscaler implements Runnable {
+    private static final Logger LOG = LoggerFactory.getLogger(WorkerAutoscaler.class);
+
+    //volatile in order to not be cached and any modification from an external thread to be seen in current thread.
+    private volatile boolean isRunning;
+
+    private final ACMEFactory acmeFactory;
+    private final BiFunction<RobotType, String, Worker> workerProvider;
+    private final int minNoOfWorkers;
+    private final int maxNoOfWorkers;
+    private final long intervalInMillis;
+
+    private final Component[] conveyorBeltSample;
+    private final long[] lastNoOfAssembledRobots = new long[RobotType.values().length];
+    private final int[] noOfScaleUpSamples = new int[RobotType.values().length];
+    private final int[] noOfScaleDownSamples = new int[RobotType.values().length];
+    private long lastSampleNanos;
+    private int noOfStartedWorkers;
+
+    private static final int NO_OF_SAMPLES_BEFORE_SCALING = 3;
+    private static final double LOW_COLLECTING_RATIO = 0.5;
+    private static final double HIGH_COLLECTING_RATIO = 0.5;
+    private static final double LOW_UTILIZATION = 0.5;
+
+    /**
+     * Autoscaler starting new workers with {@link ACMEFactory#getWorker(RobotType, String)}.
+     */
+    public WorkerAutoscaler(ACMEFactory acmeFactory, int minNoOfWorkers, int maxNoOfWorkers, long intervalInMillis) {
+        this(acmeFactory, acmeFactory::getWorker, minNoOfWorkers, maxNoOfWorkers, intervalInMillis);
+    }
+
+    /**
+     * @param acmeFactory      the factory whose workers are scaled.
+     * @param workerProvider   builds a new worker from its robot type and name.
+     * @param minNoOfWorkers   the minimum number of running workers of each robot type.
+     * @param maxNoOfWorkers   the maximum number of running workers of each robot type.
+     * @param intervalInMillis the interval between two samples.
+     */
+    public WorkerAutoscaler(ACMEFactory acmeFactory, BiFunction<RobotType, String, Worker> workerProvider,
+                            int minNoOfWorkers, int maxNoOfWorkers, long intervalInMillis) {
+        if (minNoOfWorkers < 0 || maxNoOfWorkers < minNoOfWorkers) {
+            throw new IllegalArgumentException("Invalid bounds for the number of workers: " + minNoOfWorkers + " - " +
+                    maxNoOfWorkers + ".");
+        }
+
+        this.isRunning = true;
+        this.acmeFactory = acmeFactory;
+        this.workerProvider = workerProvider;
+        this.minNoOfWorkers = minNoOfWorkers;
+        this.maxNoOfWorkers = maxNoOfWorkers;
+        this.intervalInMillis = intervalInMillis;
+        this.conveyorBeltSample = new Component[acmeFactory.getConveyorBelt().getCapacity()];
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (this.isRunning) {
+                scale();
+                Thread.sleep(this.intervalInMillis);
+            }
+        } catch (InterruptedException ie) {
+            LOG.error("Autoscaler was interrupted and is being shut down");
+            stop();
+        }
+    }
+
+    /**
+     * Stop execution of thread by setting isRunningFlag to false.
+     */
+    public void stop() {
+        this.isRunning = false;
+    }
+
+    /**
+     * Sample the factory once and start or retire at most one worker of each robot type.
+     */
+    public void scale() {
+        long sampleNanos = System.nanoTime();
+        double elapsedSeconds = Math.max(1, sampleNanos - this.lastSampleNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        boolean firstSample = this.lastSampleNanos == 0;
+        this.lastSampleNanos = sampleNanos;
+
+        // drop the workers retired by the previous samples which finished their robot since
+        this.acmeFactory.removeStoppedWorkers();
+
+        ConveyorBelt conveyorBelt = this.acmeFactory.getConveyorBelt();
+        int noOfComponents = conveyorBelt.copyComponents(this.conveyorBeltSample);
+        int highConveyorBeltDemand = conveyorBelt.getCapacity() / 2;
+        ThroughputMetrics throughputMetrics = this.acmeFactory.getThroughputMetrics();
+        double secondsNeededToBuildARobot = this.acmeFactory.getTiming().getRobotAssemblyInMillis() /
+                (double) TimeUnit.SECONDS.toMillis(1);
+
+        for (RobotType robotType : RobotType.values()) {
+            int index = robotType.ordinal();
+            List<Worker> runningWorkers = getRunningWorkers(robotType);
+            int noOfRunningWorkers = runningWorkers.size();
+
+            long noOfAssembledRobots = throughputMetrics.getNoOfAssembledRobots(robotType);
+            double robotsPerSecond = firstSample ? 0 :
+                    (noOfAssembledRobots - this.lastNoOfAssembledRobots[index]) / elapsedSeconds;
+            this.lastNoOfAssembledRobots[index] = noOfAssembledRobots;
+
+            if (noOfRunningWorkers < this.minNoOfWorkers) {
+                startWorker(robotType, "below the minimum of " + this.minNoOfWorkers + " workers");
+                continue;
+            }
+
+            if (noOfRunningWorkers > this.maxNoOfWorkers) {
+                retireWorker(runningWorkers, "above the maximum of " + this.maxNoOfWorkers + " workers");
+                continue;
+            }
+
+            int noOfNeededComponents = countNeededComponents(robotType, noOfComponents);
+            double collectingRatio = noOfRunningWorkers == 0 ? 1 :
+                    countCollectingWorkers(runningWorkers) / (double) noOfRunningWorkers;
+            double utilization = noOfRunningWorkers == 0 ? 0 :
+                    robotsPerSecond * secondsNeededToBuildARobot / noOfRunningWorkers;
+
+            boolean scaleUp = noOfNeededComponents >= highConveyorBeltDemand && collectingRatio < LOW_COLLECTING_RATIO;
+            boolean scaleDown = !scaleUp && collectingRatio >= HIGH_COLLECTING_RATIO && utilization < LOW_UTILIZATION;
+
+            this.noOfScaleUpSamples[index] = scaleUp ? this.noOfScaleUpSamples[index] + 1 : 0;
+            this.noOfScaleDownSamples[index] = scaleDown ? this.noOfScaleDownSamples[index] + 1 : 0;
+
+            String reason = String.format(Locale.ROOT, "%d needed components on the conveyor belt, %.0f%% of %d " +
+                            "workers collecting, %.2f robots/s", noOfNeededComponents, collectingRatio * 100,
+                    noOfRunningWorkers, robotsPerSecond);
+
+            if (this.noOfScaleUpSamples[index] >= NO_OF_SAMPLES_BEFORE_SCALING &&
+                    noOfRunningWorkers < this.maxNoOfWorkers) {
+                startWorker(robotType, reason);
+                this.noOfScaleUpSamples[index] = 0;
+            } else if (this.noOfScaleDownSamples[index] >= NO_OF_SAMPLES_BEFORE_SCALING &&
+                    noOfRunningWorkers > this.minNoOfWorkers) {
+                retireWorker(runningWorkers, reason);
+                this.noOfScaleDownSamples[index] = 0;
+            }
+        }
+    }
+
+    private List<Worker> getRunningWorkers(RobotType robotType) {
+        List<Worker> runningWorkers = new ArrayList<>();
+
+        for (Worker worker : this.acmeFactory.getWorkers()) {
+            if (worker.getRobotType() == robotType && worker.isRunning()) {
+                runningWorkers.add(worker);
+            }
+        }
+
+        return runningWorkers;
+    }
+
+    private int countNeededComponents(RobotType robotType, int noOfComponents) {
+        Set<Component> neededComponents = this.acmeFactory.getNeededComponents(robotType);
+        int noOfNeededComponents = 0;
+
+        for (int index = 0; index < noOfComponents; index++) {
+            if (neededComponents.contains(this.conveyorBeltSample[index])) {
+                noOfNeededComponents++;
+            }
+        }
+
+        return noOfNeededComponents;
+    }
+
+    private int countCollectingWorkers(List<Worker> workers) {
+        int noOfCollectingWorkers = 0;
+
+        for (Worker worker : workers) {
+            if (worker.getState() == WorkerState.COLLECTING) {
+                noOfCollectingWorkers++;
+            }
+        }
+
+        return noOfCollectingWorkers;
+    }
+
+    private void startWorker(RobotType robotType, String reason) {
+        Worker worker = this.workerProvider.apply(robotType, "auto-" + ++this.noOfStartedWorkers);
+        new Thread(worker).start();
+
+        LOG.info("Autoscaler started worker {}: {}.", worker.getName(), reason);
+    }
+
+    /**
+     * Retire the most recently started worker which waits for components, or the most recently started worker if all
+     * of them are assembling, in which case it finishes its robot first.
+     */
+    private void retireWorker(List<Worker> runningWorkers, String reason) {
+        Worker retiredWorker = runningWorkers.get(runningWorkers.size() - 1);
+
+        for (int index = runningWorkers.size() - 1; index >= 0; index--) {
+            if (runningWorkers.get(index).getState() == WorkerState.COLLECTING) {
+                retiredWorker = runningWorkers.get(index);
+                break;
+            }
+        }
+
+        retiredWorker.stop();
+
+        LOG.info("Autoscaler retired worker {}: {}.", retiredWorker.getName(), reason);
+    }
+}
@@ -1,29 +1,194 @@
 package ro.dragos.geornoiu.service.factory;
 
+import ro.dragos.geornoiu.constants.ACMEConstants;
+import ro.dragos.geornoiu.constants.FactoryTiming;
+import ro.dragos.geornoiu.consumer.ComponentSource;
+import ro.dragos.geornoiu.consumer.ConveyorBeltComponentSource;
 import ro.dragos.geornoiu.consumer.RobotComponentsPair;
 import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.conveyor.ConveyorBelt;
+import ro.dragos.geornoiu.conveyor.RecycleBuffer;
+import ro.dragos.geornoiu.conveyor.SpareComponentPool;
+import ro.dragos.geornoiu.dispatch.Dispatcher;
 import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.LaneOverflowPolicy;
 import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.enums.WaitStrategyType;
+import ro.dragos.geornoiu.enums.WorkerState;
+import ro.dragos.geornoiu.event.CompositeFactoryEventListener;
+import ro.dragos.geornoiu.eventloop.ConveyorBeltSignal;
 import ro.dragos.geornoiu.exception.InvalidRobotTypeException;
+import ro.dragos.geornoiu.metrics.DwellTimeMetrics;
+import ro.dragos.geornoiu.metrics.ThroughputMetrics;
 import ro.dragos.geornoiu.producer.FactorySupplier;
+import ro.dragos.geornoiu.recipe.Recipe;
+import ro.dragos.geornoiu.recipe.RecipeCatalog;
 import ro.dragos.geornoiu.service.ComponentGeneratorService;
+import ro.dragos.geornoiu.snapshot.FactorySnapshot;
+import ro.dragos.geornoiu.snapshot.SupplierSnapshot;
+import ro.dragos.geornoiu.snapshot.WorkerSnapshot;
+import ro.dragos.geornoiu.sorting.ComponentLane;
+import ro.dragos.geornoiu.sorting.SortingStation;
+import ro.dragos.geornoiu.supply.AimdSupplyRateController;
+import ro.dragos.geornoiu.supply.FixedSupplyRateController;
+import ro.dragos.geornoiu.supply.SupplyRateController;
+import ro.dragos.geornoiu.wait.WaitStrategy;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * Factory responsible of building the objects of the application.
  */
 public class ACMEFactory {
     private final ComponentGeneratorService componentGenerator;
+    private final DwellTimeMetrics dwellTimeMetrics;
+    private final ThroughputMetrics throughputMetrics;
+    private final CompositeFactoryEventListener eventListener;
+    private final WaitStrategy workerWaitStrategy;
+    private final WaitStrategy supplierWaitStrategy;
+    private final FactoryTiming timing;
+    private final ConveyorBelt conveyorBelt;
+    private final RecipeCatalog recipeCatalog;
+    //number of components of each type needed by each robot type, by ordinals, compiled from the recipe catalog
+    private final int[][] noOfComponentsNeeded = new int[RobotType.values().length][Component.values().length];
+    //robot types needing each component, by ordinal, taken from the inverted index of the recipe catalog
+    private final RobotType[][] robotTypesNeeding = new RobotType[Component.values().length][];
+    private final ConveyorBeltSignal conveyorBeltSignal;
+    private final SpareComponentPool spareComponentPool = new SpareComponentPool();
+    private final AtomicInteger nextSupplierId = new AtomicInteger();
+    private final AtomicInteger nextWorkerId = new AtomicInteger();
+    private Dispatcher dispatcher;
+    private SortingStation sortingStation;
+    //null while the suppliers destroy the components they remove from the conveyor belt
+    private volatile RecycleBuffer recycleBuffer;
+    //components on the conveyor belt, copied while holding its monitor to compute the demand
+    private Component[] conveyorBeltComponents;
 
-    private static final int NUMBER_OF_MAIN_UNITS_FOR_ROBOTS = 1;
-    private static final int NUMBER_OF_BROOMS_FOR_DRY2000_ROBOT = 2;
-    private static final int NUMBER_OF_MOPS_FOR_WET2000_ROBOT = 2;
+    //every worker and supplier built by the factory, so that their state can be reported. The stopped workers are
+    //removed when a new worker is built, and the robots they assembled are kept by robot type ordinal
+    private final List<Worker> workers = new CopyOnWriteArrayList<>();
+    private final AtomicLongArray noOfRobotsAssembledByRemovedWorkers = new AtomicLongArray(RobotType.values().length);
+    private final List<FactorySupplier> factorySuppliers = new CopyOnWriteArrayList<>();
 
     public ACMEFactory(ComponentGeneratorService componentGeneratorService) {
+        this(componentGeneratorService, WaitStrategyType.BLOCKING, WaitStrategyType.BLOCKING);
+    }
+
+    /**
+     * @param componentGeneratorService the service generating the components supplied.
+     * @param workerWaitStrategyType    how the workers wait for a component they need.
+     * @param supplierWaitStrategyType  how the suppliers wait for room on a full conveyor belt.
+     */
+    public ACMEFactory(ComponentGeneratorService componentGeneratorService, WaitStrategyType workerWaitStrategyType,
+                       WaitStrategyType supplierWaitStrategyType) {
+        this(componentGeneratorService, workerWaitStrategyType, supplierWaitStrategyType, FactoryTiming.DEFAULT);
+    }
+
+    /**
+     * @param componentGeneratorService the service generating the components supplied.
+     * @param workerWaitStrategyType    how the workers wait for a component they need.
+     * @param supplierWaitStrategyType  how the suppliers wait for room on a full conveyor belt.
+     * @param timing                    the durations of the actions of the suppliers and workers.
+     */
+    public ACMEFactory(ComponentGeneratorService componentGeneratorService, WaitStrategyType workerWaitStrategyType,
+                       WaitStrategyType supplierWaitStrategyType, FactoryTiming timing) {
+        this(componentGeneratorService, workerWaitStrategyType, supplierWaitStrategyType, timing,
+                QueueStorage.getConveyorBelt());
+    }
+
+    /**
+     * @param componentGeneratorService the service generating the components supplied.
+     * @param workerWaitStrategyType    how the workers wait for a component they need.
+     * @param supplierWaitStrategyType  how the suppliers wait for room on a full conveyor belt.
+     * @param timing                    the durations of the actions of the suppliers and workers.
+     * @param conveyorBelt              the conveyor belt of this factory, instead of the one of the
+     *                                  {@link QueueStorage}.
+     */
+    public ACMEFactory(ComponentGeneratorService componentGeneratorService, WaitStrategyType workerWaitStrategyType,
+                       WaitStrategyType supplierWaitStrategyType, FactoryTiming timing, ConveyorBelt conveyorBelt) {
+        this(componentGeneratorService, workerWaitStrategyType, supplierWaitStrategyType, timing, conveyorBelt,
+                RecipeCatalog.getDefault());
+    }
+
+    /**
+     * @param componentGeneratorService the service generating the components supplied.
+     * @param workerWaitStrategyType    how the workers wait for a component they need.
+     * @param supplierWaitStrategyType  how the suppliers wait for room on a full conveyor belt.
+     * @param timing                    the durations of the actions of the suppliers and workers.
+     * @param conveyorBelt              the conveyor belt of this factory, instead of the one of the
+     *                                  {@link QueueStorage}.
+     * @param recipeCatalog             the recipes of the robots, instead of the default ones.
+     * @throws InvalidRobotTypeException if the catalog has no recipe for a robot type.
+     * @throws IllegalArgumentException  if a recipe of a robot type needs a component which is not a {@link Component}.
+     */
+    public ACMEFactory(ComponentGeneratorService componentGeneratorService, WaitStrategyType workerWaitStrategyType,
+                       WaitStrategyType supplierWaitStrategyType, FactoryTiming timing, ConveyorBelt conveyorBelt,
+                       RecipeCatalog recipeCatalog) {
         this.componentGenerator = componentGeneratorService;
+        this.dwellTimeMetrics = new DwellTimeMetrics();
+        this.throughputMetrics = new ThroughputMetrics();
+        this.eventListener = new CompositeFactoryEventListener();
+        this.eventListener.addListener(this.dwellTimeMetrics);
+        this.eventListener.addListener(this.throughputMetrics);
+        this.workerWaitStrategy = workerWaitStrategyType.createWaitStrategy();
+        this.supplierWaitStrategy = supplierWaitStrategyType.createWaitStrategy();
+        this.timing = timing;
+        this.conveyorBelt = conveyorBelt;
+        this.conveyorBeltSignal = new ConveyorBeltSignal(conveyorBelt);
+        this.recipeCatalog = recipeCatalog;
+
+        // the catalog numbers the components and robot models in its own order, its indices are mapped once
+        Component[] componentsByIndex = new Component[recipeCatalog.getNoOfComponentTypes()];
+        for (Component component : Component.values()) {
+            int componentIndex = recipeCatalog.getComponentIndex(component.name());
+            if (componentIndex >= 0) {
+                componentsByIndex[componentIndex] = component;
+            }
+        }
+
+        RobotType[] robotTypesByIndex = new RobotType[recipeCatalog.getNoOfRobotModels()];
+        for (RobotType robotType : RobotType.values()) {
+            Recipe recipe = recipeCatalog.getRecipe(robotType);
+            robotTypesByIndex[recipe.getRobotModelIndex()] = robotType;
+
+            for (int i = 0; i < recipe.getNoOfComponentTypes(); i++) {
+                Component component = componentsByIndex[recipe.getComponentIndex(i)];
+                if (component == null) {
+                    throw new IllegalArgumentException("The recipe of " + robotType + " needs unknown component " +
+                            recipeCatalog.getComponentName(recipe.getComponentIndex(i)) + ".");
+                }
+
+                this.noOfComponentsNeeded[robotType.ordinal()][component.ordinal()] = recipe.getQuantity(i);
+            }
+        }
+
+        for (Component component : Component.values()) {
+            int componentIndex = recipeCatalog.getComponentIndex(component.name());
+            int noOfRobotModels = componentIndex < 0 ? 0 : recipeCatalog.getNoOfRobotModelsNeeding(componentIndex);
+            RobotType[] robotTypes = new RobotType[noOfRobotModels];
+            int noOfRobotTypes = 0;
+
+            for (int i = 0; i < noOfRobotModels; i++) {
+                // the robot models of the catalog this factory does not build are left out
+                RobotType robotType = robotTypesByIndex[recipeCatalog.getRobotModelNeeding(componentIndex, i)];
+                if (robotType != null) {
+                    robotTypes[noOfRobotTypes++] = robotType;
+                }
+            }
+
+            this.robotTypesNeeding[component.ordinal()] = Arrays.copyOf(robotTypes, noOfRobotTypes);
+        }
     }
 
     /**
@@ -33,75 +198,394 @@ public class ACMEFactory {
      * @return the factory supplier.
      */
     public FactorySupplier getFactorySupplier(String name) {
-        Queue<Component> conveyorBelt = QueueStorage.getConveyorBelt();
-        return new FactorySupplier(name, conveyorBelt, this.componentGenerator);
+        return createFactorySupplier(name, new FixedSupplyRateController(this.timing));
     }
 
     /**
-     * Retrieve worker based on the robot it will construct.
+     * Retrieve factory supplier which adapts its supply rate to the rate at which the workers take components,
+     * keeping the conveyor belt filled around the target share of its capacity. The rate is adjusted every
+     * {@link ACMEConstants#SUPPLY_CONTROL_INTERVAL_IN_SUPPLY_INTERVALS} supply intervals.
+     *
+     * @param name             representing the name of the factory supplier.
+     * @param minRatePerSecond the lowest number of components supplied per second, also the starting one.
+     * @param maxRatePerSecond the highest number of components supplied per second.
+     * @param targetFill       the share of the conveyor belt capacity to keep filled, between 0 and 1.
+     * @return the factory supplier.
+     */
+    public FactorySupplier getAdaptiveFactorySupplier(String name, double minRatePerSecond, double maxRatePerSecond,
+                                                      double targetFill) {
+        long controlIntervalNanos = Math.max(1, TimeUnit.MILLISECONDS.toNanos(
+                this.timing.getSupplyIntervalInMillis() * ACMEConstants.SUPPLY_CONTROL_INTERVAL_IN_SUPPLY_INTERVALS));
+
+        return createFactorySupplier(name, new AimdSupplyRateController(this.conveyorBelt,
+                this.throughputMetrics::getNoOfTakenComponents, minRatePerSecond, maxRatePerSecond, targetFill,
+                controlIntervalNanos));
+    }
+
+    private FactorySupplier createFactorySupplier(String name, SupplyRateController supplyRateController) {
+        FactorySupplier factorySupplier = new FactorySupplier(this.nextSupplierId.getAndIncrement(), name,
+                this.conveyorBelt, this.componentGenerator, this.supplierWaitStrategy, this.eventListener,
+                this.spareComponentPool, this.recycleBuffer, this.timing, supplyRateController);
+
+        this.factorySuppliers.add(factorySupplier);
+        return factorySupplier;
+    }
+
+    /**
+     * Keep the components the suppliers retrieved from now on remove from the head of the full conveyor belt, and put
+     * them back on it once a worker needs them, instead of destroying them.
+     *
+     * @param capacity     the number of components kept, the oldest is destroyed to make room for a new one.
+     * @param maxAgeMillis the time a component is kept before it is destroyed.
+     * @return the recycle buffer shared by the suppliers of this factory.
+     */
+    public RecycleBuffer enableRecycleBuffer(int capacity, long maxAgeMillis) {
+        this.recycleBuffer = new RecycleBuffer(capacity, maxAgeMillis, this::isComponentInDemand);
+        return this.recycleBuffer;
+    }
+
+    /**
+     * Retrieve the recycle buffer of the suppliers of this factory, or null if they destroy the components they
+     * remove.
+     */
+    public RecycleBuffer getRecycleBuffer() {
+        return recycleBuffer;
+    }
+
+    /**
+     * Check if the running workers still need more components of the given type than there are on the conveyor belt.
+     * Called by the suppliers while holding the monitor of the conveyor belt.
+     */
+    private boolean isComponentInDemand(Component component) {
+        if (this.robotTypesNeeding[component.ordinal()].length == 0) {
+            // no recipe needs the component, so no worker has to be looked at
+            return false;
+        }
+
+        int noOfComponentsNeeded = 0;
+
+        // by index, since iterating over the workers would create an iterator
+        for (int index = 0; index < this.workers.size(); index++) {
+            Worker worker = this.workers.get(index);
+            RobotComponentsPair robotComponentsPair = worker.getRobotComponentsPair(component);
+
+            if (worker.isRunning() && robotComponentsPair != null) {
+                noOfComponentsNeeded += robotComponentsPair.getNumberOfComponentsNeeded() -
+                        robotComponentsPair.getNumberOfComponentsCurrentlyPossessed();
+            }
+        }
+
+        if (noOfComponentsNeeded == 0) {
+            return false;
+        }
+
+        if (this.conveyorBeltComponents == null) {
+            this.conveyorBeltComponents = new Component[this.conveyorBelt.getCapacity()];
+        }
+
+        int noOfComponentsOnConveyorBelt = this.conveyorBelt.copyComponents(this.conveyorBeltComponents);
+        for (int index = 0; index < noOfComponentsOnConveyorBelt; index++) {
+            if (this.conveyorBeltComponents[index] == component) {
+                noOfComponentsNeeded--;
+            }
+        }
+
+        return noOfComponentsNeeded > 0;
+    }
+
+    /**
+     * Retrieve worker based on the robot it will construct. The worker takes the components it needs directly from
+     * the head of the conveyor belt.
      *
      * @param robotType  the type of robot the worker can construct.
      * @param workerName the name of the worker
      * @return worker which can construct the robot specified as parameter.
      */
     public Worker getWorker(RobotType robotType, String workerName) {
+        Map<Component, RobotComponentsPair> robotComponentsMap = getRobotComponentsMap(robotType);
+        ComponentSource componentSource = new ConveyorBeltComponentSource(this.conveyorBelt,
+                this.workerWaitStrategy);
+
+        return registerWorker(new Worker(this.nextWorkerId.getAndIncrement(),
+                getWorkerName(robotType, workerName), robotType, componentSource,
+                robotComponentsMap, this.eventListener, this.spareComponentPool, this.timing));
+    }
+
+    /**
+     * Retrieve worker based on the robot it will construct. The worker receives the components it needs from the
+     * {@link Dispatcher} of the factory, which has to be started for the worker to make any progress.
+     *
+     * @param robotType  the type of robot the worker can construct.
+     * @param workerName the name of the worker
+     * @return worker which can construct the robot specified as parameter.
+     */
+    public Worker getDispatchedWorker(RobotType robotType, String workerName) {
+        Map<Component, RobotComponentsPair> robotComponentsMap = getRobotComponentsMap(robotType);
+        ComponentSource componentSource = getDispatcher()
+                .createComponentSource(RobotComponentsPair.getNumberOfComponentsNeeded(robotComponentsMap.values()));
+
+        return registerWorker(new Worker(this.nextWorkerId.getAndIncrement(),
+                getWorkerName(robotType, workerName), robotType, componentSource,
+                robotComponentsMap, this.eventListener, this.spareComponentPool, this.timing));
+    }
+
+    /**
+     * Retrieve the dispatcher which owns the head of the conveyor belt for the workers retrieved with
+     * {@link #getDispatchedWorker(RobotType, String)}. The same dispatcher is returned on every call.
+     *
+     * @return the dispatcher of this factory.
+     */
+    public synchronized Dispatcher getDispatcher() {
+        if (this.dispatcher == null) {
+            this.dispatcher = new Dispatcher("Dispatcher", this.conveyorBelt);
+        }
+
+        return this.dispatcher;
+    }
+
+    /**
+     * Retrieve worker based on the robot it will construct. The worker takes the components it needs from the lanes
+     * of the {@link SortingStation} of the factory, which has to be started for the worker to make any progress.
+     *
+     * @param robotType  the type of robot the worker can construct.
+     * @param workerName the name of the worker
+     * @return worker which can construct the robot specified as parameter.
+     */
+    public Worker getSortedWorker(RobotType robotType, String workerName) {
+        Map<Component, RobotComponentsPair> robotComponentsMap = getRobotComponentsMap(robotType);
+        ComponentSource componentSource = getSortingStation().createComponentSource(this.workerWaitStrategy);
+
+        return registerWorker(new Worker(this.nextWorkerId.getAndIncrement(),
+                getWorkerName(robotType, workerName), robotType, componentSource,
+                robotComponentsMap, this.eventListener, this.spareComponentPool, this.timing));
+    }
+
+    /**
+     * Retrieve the sorting station which splits the conveyor belt into lanes for the workers retrieved with
+     * {@link #getSortedWorker(RobotType, String)}. Every lane holds at most {@link ACMEConstants#LANE_CAPACITY_LIMIT}
+     * components and destroys its oldest component when full. The same sorting station is returned on every call.
+     *
+     * @return the sorting station of this factory.
+     */
+    public synchronized SortingStation getSortingStation() {
+        if (this.sortingStation == null) {
+            List<ComponentLane> lanes = new ArrayList<>();
+
+            for (Component component : Component.values()) {
+                lanes.add(new ComponentLane(component, ACMEConstants.LANE_CAPACITY_LIMIT,
+                        LaneOverflowPolicy.DISCARD_OLDEST, this.conveyorBelt.getEnvelopePool()));
+            }
+
+            this.sortingStation = new SortingStation("SortingStation", this.conveyorBelt, lanes, this.eventListener);
+        }
+
+        return this.sortingStation;
+    }
+
+    /**
+     * Retrieve the components needed to construct a robot.
+     *
+     * @param robotType the type of robot.
+     * @return the types of the components a worker collects for one robot.
+     */
+    public Set<Component> getNeededComponents(RobotType robotType) {
+        Set<Component> neededComponents = EnumSet.noneOf(Component.class);
+
+        for (Component component : Component.values()) {
+            if (getNoOfComponentsNeeded(robotType, component) > 0) {
+                neededComponents.add(component);
+            }
+        }
+
+        return neededComponents;
+    }
+
+    /**
+     * Retrieve the number of robot types whose recipes need the component.
+     */
+    public int getNoOfRobotTypesNeeding(Component component) {
+        return robotTypesNeeding[component.ordinal()].length;
+    }
+
+    /**
+     * Retrieve the i-th robot type whose recipe needs the component, in the order of the recipe catalog.
+     */
+    public RobotType getRobotTypeNeeding(Component component, int i) {
+        return robotTypesNeeding[component.ordinal()][i];
+    }
+
+    /**
+     * Retrieve how many components of a type are needed to construct a robot.
+     *
+     * @param robotType the type of robot.
+     * @param component the type of component.
+     * @return the number of components of the type in the kit of one robot, 0 if the robot does not need it.
+     */
+    public int getNoOfComponentsNeeded(RobotType robotType, Component component) {
         if (robotType == null) {
             throw new InvalidRobotTypeException("RobotType cannot be null.");
         }
 
-        Queue<Component> conveyorBelt = QueueStorage.getConveyorBelt();
+        return noOfComponentsNeeded[robotType.ordinal()][component.ordinal()];
+    }
 
-        Map<Component, RobotComponentsPair> robotComponentsMap = null;
+    /**
+     * Retrieve the recipes of the robots built by this factory.
+     */
+    public RecipeCatalog getRecipeCatalog() {
+        return recipeCatalog;
+    }
+
+    /**
+     * Add a worker to the registry and remove the workers which stopped.
+     */
+    private synchronized Worker registerWorker(Worker worker) {
+        removeStoppedWorkers();
+
+        this.workers.add(worker);
+        return worker;
+    }
 
-        if (robotType.equals(RobotType.DRY2000)) {
-            robotComponentsMap = getDry200ComponentsMap();
+    /**
+     * Remove the workers which stopped from the registry, keeping the number of robots they assembled for the
+     * snapshots, so that a factory adding and retiring workers for a long time does not go through every worker it
+     * ever built. Called when a worker is built and by the autoscaler and the planner after retiring workers.
+     */
+    public synchronized void removeStoppedWorkers() {
+        for (Worker registeredWorker : this.workers) {
+            // a stopped worker no longer changes its number of assembled robots
+            if (registeredWorker.getState() == WorkerState.STOPPED) {
+                this.workers.remove(registeredWorker);
+                this.noOfRobotsAssembledByRemovedWorkers.addAndGet(registeredWorker.getRobotType().ordinal(),
+                        registeredWorker.getNoOfAssembledRobots());
+            }
         }
+    }
+
+    /**
+     * Retrieve a new map which holds the components a worker would need to fully construct a robot of the given type.
+     */
+    private Map<Component, RobotComponentsPair> getRobotComponentsMap(RobotType robotType) {
+        Map<Component, RobotComponentsPair> robotComponentsMap = new EnumMap<>(Component.class);
 
-        if (robotType.equals(RobotType.WET2000)) {
-            robotComponentsMap = getWet200ComponentsMap();
+        for (Component component : Component.values()) {
+            int noOfComponentsNeeded = getNoOfComponentsNeeded(robotType, component);
+            if (noOfComponentsNeeded > 0) {
+                robotComponentsMap.put(component, new RobotComponentsPair(noOfComponentsNeeded));
+            }
         }
 
+        return robotComponentsMap;
+    }
+
+    private String getWorkerName(RobotType robotType, String workerName) {
         if (workerName == null) {
             workerName = "";
         }
 
-        workerName = robotType + "-" + workerName;
+        return robotType + "-" + workerName;
+    }
 
-        return new Worker(workerName, conveyorBelt, robotComponentsMap);
+    public ComponentGeneratorService getComponentGenerator() {
+        return componentGenerator;
     }
 
+    /**
+     * Retrieve the belt dwell, kit wait and supply to robot latencies of the components used by the workers built by
+     * this factory.
+     */
+    public DwellTimeMetrics getDwellTimeMetrics() {
+        return dwellTimeMetrics;
+    }
 
     /**
-     * Retrieve a map which holds the components a worker would need to fully construct a DRY2000 robot.
+     * Retrieve the number of components supplied, destroyed and taken and of robots assembled by the suppliers and
+     * workers built by this factory.
      */
-    private Map<Component, RobotComponentsPair> getDry200ComponentsMap() {
-        Map<Component, RobotComponentsPair> robotComponentsPairMap = new HashMap<>();
+    public ThroughputMetrics getThroughputMetrics() {
+        return throughputMetrics;
+    }
 
-        RobotComponentsPair mainUnitPairs = new RobotComponentsPair(NUMBER_OF_MAIN_UNITS_FOR_ROBOTS);
-        RobotComponentsPair broomPair = new RobotComponentsPair(NUMBER_OF_BROOMS_FOR_DRY2000_ROBOT);
+    /**
+     * Retrieve the listener notified of the actions of the suppliers and workers built by this factory. More listeners
+     * can be added to it.
+     */
+    public CompositeFactoryEventListener getEventListener() {
+        return eventListener;
+    }
 
-        robotComponentsPairMap.put(Component.MAIN_UNIT, mainUnitPairs);
-        robotComponentsPairMap.put(Component.BROOM, broomPair);
+    /**
+     * Retrieve the conveyor belt used by the suppliers and workers built by this factory.
+     */
+    public ConveyorBelt getConveyorBelt() {
+        return conveyorBelt;
+    }
 
-        return robotComponentsPairMap;
+    /**
+     * Retrieve the signal of the changes of the conveyor belt, shared by the workers and suppliers of this factory
+     * which run on event loops.
+     */
+    public ConveyorBeltSignal getConveyorBeltSignal() {
+        return conveyorBeltSignal;
     }
 
     /**
-     * Retrieve a map which holds the components a worker would need to fully construct a WET2000 robot.
+     * Retrieve the durations of the actions of the suppliers and workers built by this factory.
      */
-    private Map<Component, RobotComponentsPair> getWet200ComponentsMap() {
-        Map<Component, RobotComponentsPair> robotComponentsPairMap = new HashMap<>();
+    public FactoryTiming getTiming() {
+        return timing;
+    }
 
-        RobotComponentsPair mainUnitPairs = new RobotComponentsPair(NUMBER_OF_MAIN_UNITS_FOR_ROBOTS);
-        RobotComponentsPair mopPairs = new RobotComponentsPair(NUMBER_OF_MOPS_FOR_WET2000_ROBOT);
+    /**
+     * Retrieve the components handed back by the stopped workers, which the suppliers put back on the conveyor belt.
+     */
+    public SpareComponentPool getSpareComponentPool() {
+        return spareComponentPool;
+    }
 
-        robotComponentsPairMap.put(Component.MAIN_UNIT, mainUnitPairs);
-        robotComponentsPairMap.put(Component.MOP, mopPairs);
+    /**
+     * Retrieve the running workers built by this factory and the ones which stopped since they were last
+     * {@link #removeStoppedWorkers() removed}.
+     */
+    public List<Worker> getWorkers() {
+        return Collections.unmodifiableList(workers);
+    }
 
-        return robotComponentsPairMap;
+    /**
+     * Retrieve all the suppliers built by this factory, including the stopped ones.
+     */
+    public List<FactorySupplier> getFactorySuppliers() {
+        return Collections.unmodifiableList(factorySuppliers);
     }
 
-    public ComponentGeneratorService getComponentGenerator() {
-        return componentGenerator;
+    /**
+     * Read the conveyor belt and the state of every worker and supplier built by this factory without taking the locks
+     * of the conveyor belt, the workers or the suppliers, so it can be called often without slowing down the factory.
+     * Only the monitor of the factory is held, so that a worker being removed is counted once.
+     */
+    public synchronized FactorySnapshot snapshot() {
+        long snapshotNanos = System.nanoTime();
+
+        ConveyorBelt conveyorBelt = getConveyorBelt();
+        Component[] components = new Component[conveyorBelt.getCapacity()];
+        int noOfComponents = conveyorBelt.copyComponents(components);
+
+        List<WorkerSnapshot> workerSnapshots = new ArrayList<>(this.workers.size());
+        for (Worker worker : this.workers) {
+            workerSnapshots.add(worker.snapshot());
+        }
+
+        List<SupplierSnapshot> supplierSnapshots = new ArrayList<>(this.factorySuppliers.size());
+        for (FactorySupplier factorySupplier : this.factorySuppliers) {
+            supplierSnapshots.add(factorySupplier.snapshot());
+        }
+
+        long[] noOfRobotsAssembledByRemovedWorkers = new long[this.noOfRobotsAssembledByRemovedWorkers.length()];
+        for (int index = 0; index < noOfRobotsAssembledByRemovedWorkers.length; index++) {
+            noOfRobotsAssembledByRemovedWorkers[index] = this.noOfRobotsAssembledByRemovedWorkers.get(index);
+        }
+
+        return new FactorySnapshot(snapshotNanos, Arrays.copyOf(components, noOfComponents),
+                conveyorBelt.getCapacity(), workerSnapshots, supplierSnapshots, noOfRobotsAssembledByRemovedWorkers);
     }
 }
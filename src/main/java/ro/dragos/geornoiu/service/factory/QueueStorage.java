@@ -1,18 +1,31 @@
 package ro.dragos.geornoiu.service.factory;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import ro.dragos.geornoiu.constants.ACMEConstants;
+import ro.dragos.geornoiu.conveyor.ArrayConveyorBelt;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelopePool;
+import ro.dragos.geornoiu.conveyor.ConveyorBelt;
+import ro.dragos.geornoiu.conveyor.MappedConveyorBelt;
+import ro.dragos.geornoiu.conveyor.PackedConveyorBelt;
 import ro.dragos.geornoiu.enums.Component;
 
-import java.util.Queue;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
 
 /**
  * Acts as a storage class for the conveyor belt, a queue of {@link Component} elements.
  * The retrieval of conveyor belt implements the singleton pattern for the purpose of allowing a single
- * conveyor belt in the entire application.
+ * conveyor belt in the entire application. When the {@link ACMEConstants#SHARED_CONVEYOR_BELT_PROPERTY} system
+ * property is set and the runtime supports it, the conveyor belt is kept in that file and shared with the other
+ * processes using it. Otherwise, when the {@link ACMEConstants#PACKED_CONVEYOR_BELT_PROPERTY} system property is true
+ * and the capacity fits, the whole conveyor belt is kept in a single word.
  */
 public class QueueStorage {
-    private static volatile Queue<Component> conveyorBelt;
+    private static final Logger LOG = LoggerFactory.getLogger(QueueStorage.class);
+
+    private static volatile ConveyorBelt conveyorBelt;
 
     private QueueStorage() {
     }
@@ -21,10 +34,11 @@ public class QueueStorage {
      * Retrieve the conveyor belt instance, the queue of {@link Component} elements.
      *
      * @return the conveyor belt instance.
+     * @throws UncheckedIOException if the shared conveyor belt cannot be mapped.
      */
-    public static Queue<Component> getConveyorBelt() {
+    public static ConveyorBelt getConveyorBelt() {
         // minimize access to volatile member
-        Queue<Component> result = conveyorBelt;
+        ConveyorBelt result = conveyorBelt;
 
         if (result != null) {
             return result;
@@ -32,10 +46,38 @@ public class QueueStorage {
 
         synchronized (QueueStorage.class) {
             if (conveyorBelt == null) {
-                conveyorBelt = new LinkedBlockingDeque<>(ACMEConstants.QUEUE_CAPACITY_LIMIT);
+                conveyorBelt = createConveyorBelt();
             }
 
             return conveyorBelt;
         }
     }
+
+    private static ConveyorBelt createConveyorBelt() {
+        ComponentEnvelopePool envelopePool = new ComponentEnvelopePool(ACMEConstants.ENVELOPE_POOL_CAPACITY);
+        String sharedConveyorBeltFile = System.getProperty(ACMEConstants.SHARED_CONVEYOR_BELT_PROPERTY);
+
+        if (sharedConveyorBeltFile != null && !MappedConveyorBelt.isSupported()) {
+            LOG.warn("The conveyor belt {} cannot be shared on this runtime, the conveyor belt of this process is used " +
+                    "instead.", sharedConveyorBeltFile);
+            sharedConveyorBeltFile = null;
+        }
+
+        if (sharedConveyorBeltFile == null) {
+            // the packed conveyor belt only holds as many components as fit in a single word
+            if (Boolean.getBoolean(ACMEConstants.PACKED_CONVEYOR_BELT_PROPERTY) &&
+                    PackedConveyorBelt.fits(ACMEConstants.QUEUE_CAPACITY_LIMIT)) {
+                return new PackedConveyorBelt(ACMEConstants.QUEUE_CAPACITY_LIMIT, envelopePool);
+            }
+
+            return new ArrayConveyorBelt(ACMEConstants.QUEUE_CAPACITY_LIMIT, envelopePool);
+        }
+
+        try {
+            return new MappedConveyorBelt(Paths.get(sharedConveyorBeltFile), ACMEConstants.QUEUE_CAPACITY_LIMIT,
+                    envelopePool);
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Could not map the conveyor belt " + sharedConveyorBeltFile + ".", ioe);
+        }
+    }
 }
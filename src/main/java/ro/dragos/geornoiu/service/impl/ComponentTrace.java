@@ -0,0 +1,77 @@
+package ro.dragos.geornoiu.service.impl;
+
+import ro.dragos.geornoiu.enums.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Binary format of a recorded stream of components: a 4 byte magic number, a 1 byte version, followed by one byte per
+ * component holding its ordinal, in the order the components were supplied.
+ */
+final class ComponentTrace {
+    private static final int MAGIC = 0x41434D54; // "ACMT"
+    private static final int VERSION = 1;
+
+    private ComponentTrace() {
+    }
+
+    static void writeHeader(DataOutputStream output) throws IOException {
+        output.writeInt(MAGIC);
+        output.writeByte(VERSION);
+    }
+
+    static void writeComponent(OutputStream output, Component component) throws IOException {
+        output.write(component.ordinal());
+    }
+
+    /**
+     * Read a whole trace.
+     *
+     * @throws IOException if the stream cannot be read or is not a trace.
+     */
+    static List<Component> read(InputStream input) throws IOException {
+        DataInputStream dataInput = new DataInputStream(input);
+
+        try {
+            if (dataInput.readInt() != MAGIC) {
+                throw new IOException("Not a component trace.");
+            }
+
+            int version = dataInput.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported component trace version " + version + ".");
+            }
+        } catch (EOFException eofe) {
+            throw new IOException("Not a component trace.", eofe);
+        }
+
+        ByteArrayOutputStream ordinals = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int noOfBytes;
+        while ((noOfBytes = dataInput.read(buffer)) != -1) {
+            ordinals.write(buffer, 0, noOfBytes);
+        }
+
+        Component[] components = Component.values();
+        List<Component> trace = new ArrayList<>(ordinals.size());
+
+        for (byte ordinal : ordinals.toByteArray()) {
+            if (ordinal < 0 || ordinal >= components.length) {
+                throw new IOException("Invalid component " + ordinal + " in component trace.");
+            }
+
+            trace.add(components[ordinal]);
+        }
+
+        return Collections.unmodifiableList(trace);
+    }
+}
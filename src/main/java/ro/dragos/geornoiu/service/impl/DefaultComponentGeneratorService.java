@@ -17,12 +17,22 @@ public class DefaultComponentGeneratorService implements ComponentGeneratorServi
     private final Random randomGenerator;
 
     public DefaultComponentGeneratorService() {
+        this(new Random());
+    }
+
+    /**
+     * Generator which always returns the same sequence of components for the same seed.
+     */
+    public DefaultComponentGeneratorService(long seed) {
+        this(new Random(seed));
+    }
+
+    private DefaultComponentGeneratorService(Random randomGenerator) {
         this.componentList = Collections.unmodifiableList(Arrays.asList(Component.values()));
         this.noOfPossibleComponents = this.componentList.size();
-        this.randomGenerator = new Random();
+        this.randomGenerator = randomGenerator;
     }
 
-
     @Override
     public Component retrieveComponent() {
         return this.componentList.get(this.randomGenerator.nextInt(this.noOfPossibleComponents));
@@ -0,0 +1,61 @@
+package ro.dragos.geornoiu.service.impl;
+
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.planning.OrderBook;
+import ro.dragos.geornoiu.service.ComponentGeneratorService;
+
+import java.util.Random;
+
+/**
+ * Implementation of {@link ComponentGeneratorService} which generates each component with a probability proportional
+ * to the number of components of its type the open orders of an {@link OrderBook} still need, so components nobody
+ * needs are not generated. Falls back to generating every component with the same probability while the order book
+ * needs no component, for example before it is started.
+ */
+public class DemandWeightedComponentGeneratorService implements ComponentGeneratorService {
+    private static final Component[] COMPONENTS = Component.values();
+
+    private final OrderBook orderBook;
+    private final Random randomGenerator;
+
+    public DemandWeightedComponentGeneratorService(OrderBook orderBook) {
+        this(orderBook, new Random());
+    }
+
+    /**
+     * Generator which always returns the same sequence of components for the same seed and demand.
+     */
+    public DemandWeightedComponentGeneratorService(OrderBook orderBook, long seed) {
+        this(orderBook, new Random(seed));
+    }
+
+    private DemandWeightedComponentGeneratorService(OrderBook orderBook, Random randomGenerator) {
+        this.orderBook = orderBook;
+        this.randomGenerator = randomGenerator;
+    }
+
+    @Override
+    public Component retrieveComponent() {
+        long[] demand = new long[COMPONENTS.length];
+        long totalDemand = 0;
+
+        for (Component component : COMPONENTS) {
+            demand[component.ordinal()] = this.orderBook.getNoOfRemainingComponents(component);
+            totalDemand += demand[component.ordinal()];
+        }
+
+        if (totalDemand == 0) {
+            return COMPONENTS[this.randomGenerator.nextInt(COMPONENTS.length)];
+        }
+
+        long pick = (long) (this.randomGenerator.nextDouble() * totalDemand);
+        for (Component component : COMPONENTS) {
+            pick -= demand[component.ordinal()];
+            if (pick < 0) {
+                return component;
+            }
+        }
+
+        return COMPONENTS[COMPONENTS.length - 1];
+    }
+}
@@ -0,0 +1,59 @@
+package ro.dragos.geornoiu.service.impl;
+
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.service.ComponentGeneratorService;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * {@link ComponentGeneratorService} which returns the components of another generator and records them, in order,
+ * in a component trace which can be replayed with {@link ReplayComponentGeneratorService}. The trace is complete once
+ * the recorder is closed.
+ */
+public class RecordingComponentGeneratorService implements ComponentGeneratorService, Closeable {
+    private final ComponentGeneratorService componentGenerator;
+    private final DataOutputStream output;
+
+    public RecordingComponentGeneratorService(ComponentGeneratorService componentGenerator, Path traceFile)
+            throws IOException {
+        this(componentGenerator, Files.newOutputStream(traceFile));
+    }
+
+    public RecordingComponentGeneratorService(ComponentGeneratorService componentGenerator, OutputStream output)
+            throws IOException {
+        this.componentGenerator = componentGenerator;
+        this.output = new DataOutputStream(new BufferedOutputStream(output));
+
+        ComponentTrace.writeHeader(this.output);
+    }
+
+    /**
+     * Retrieve a component of the recorded generator and record it.
+     *
+     * @throws UncheckedIOException if the component cannot be written to the trace.
+     */
+    @Override
+    public synchronized Component retrieveComponent() {
+        Component component = this.componentGenerator.retrieveComponent();
+
+        try {
+            ComponentTrace.writeComponent(this.output, component);
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Could not record component " + component + ".", ioe);
+        }
+
+        return component;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        this.output.close();
+    }
+}
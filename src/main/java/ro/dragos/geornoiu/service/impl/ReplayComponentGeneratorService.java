@@ -0,0 +1,60 @@
+package ro.dragos.geornoiu.service.impl;
+
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.service.ComponentGeneratorService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ComponentGeneratorService} which returns the components of a trace recorded by
+ * {@link RecordingComponentGeneratorService}, in the recorded order, so that runs can be reproduced. When all the
+ * components were returned, the trace starts over.
+ */
+public class ReplayComponentGeneratorService implements ComponentGeneratorService {
+    private final List<Component> trace;
+    private final AtomicLong noOfRetrievedComponents = new AtomicLong();
+
+    public ReplayComponentGeneratorService(Path traceFile) throws IOException {
+        try (InputStream input = Files.newInputStream(traceFile)) {
+            this.trace = ComponentTrace.read(input);
+        }
+
+        validate();
+    }
+
+    public ReplayComponentGeneratorService(InputStream input) throws IOException {
+        this.trace = ComponentTrace.read(input);
+
+        validate();
+    }
+
+    @Override
+    public Component retrieveComponent() {
+        return this.trace.get((int) (this.noOfRetrievedComponents.getAndIncrement() % this.trace.size()));
+    }
+
+    /**
+     * Retrieve the number of components in the trace.
+     */
+    public int getTraceLength() {
+        return this.trace.size();
+    }
+
+    /**
+     * Retrieve the number of components returned so far, including the ones of previous passes through the trace.
+     */
+    public long getNoOfRetrievedComponents() {
+        return this.noOfRetrievedComponents.get();
+    }
+
+    private void validate() throws IOException {
+        if (this.trace.isEmpty()) {
+            throw new IOException("The component trace is empty.");
+        }
+    }
+}
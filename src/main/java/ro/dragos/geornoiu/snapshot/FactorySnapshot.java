@@ -0,0 +1,95 @@
+package ro.dragos.geornoiu.snapshot;
+
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.enums.WorkerState;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A view of the whole factory: the components on the conveyor belt, head first, and the state of every worker and
+ * supplier. The conveyor belt and each worker and supplier are read through their own version counter, so every one
+ * of them is seen in a consistent state without blocking the thread changing it, but they are not all read at the same
+ * instant.
+ */
+public final class FactorySnapshot {
+    private final long snapshotNanos;
+    private final List<Component> conveyorBelt;
+    private final int conveyorBeltCapacity;
+    private final List<WorkerSnapshot> workers;
+    private final List<SupplierSnapshot> suppliers;
+    private final long[] noOfRobotsAssembledByRemovedWorkers;
+
+    /**
+     * @param noOfRobotsAssembledByRemovedWorkers the number of robots of each type, by ordinal, assembled by the
+     *                                            stopped workers which are no longer part of the factory.
+     */
+    public FactorySnapshot(long snapshotNanos, Component[] conveyorBelt, int conveyorBeltCapacity,
+                           List<WorkerSnapshot> workers, List<SupplierSnapshot> suppliers,
+                           long[] noOfRobotsAssembledByRemovedWorkers) {
+        this.snapshotNanos = snapshotNanos;
+        this.conveyorBelt = Collections.unmodifiableList(Arrays.asList(conveyorBelt));
+        this.conveyorBeltCapacity = conveyorBeltCapacity;
+        this.workers = Collections.unmodifiableList(workers);
+        this.suppliers = Collections.unmodifiableList(suppliers);
+        this.noOfRobotsAssembledByRemovedWorkers = noOfRobotsAssembledByRemovedWorkers;
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} at which the snapshot was started.
+     */
+    public long getSnapshotNanos() {
+        return snapshotNanos;
+    }
+
+    /**
+     * Retrieve the components on the conveyor belt, head first.
+     */
+    public List<Component> getConveyorBelt() {
+        return conveyorBelt;
+    }
+
+    public int getConveyorBeltCapacity() {
+        return conveyorBeltCapacity;
+    }
+
+    public List<WorkerSnapshot> getWorkers() {
+        return workers;
+    }
+
+    public List<SupplierSnapshot> getSuppliers() {
+        return suppliers;
+    }
+
+    /**
+     * Retrieve the number of robots of the given type assembled by all the workers, including the removed ones.
+     */
+    public long getNoOfAssembledRobots(RobotType robotType) {
+        long noOfAssembledRobots = this.noOfRobotsAssembledByRemovedWorkers[robotType.ordinal()];
+
+        for (WorkerSnapshot worker : this.workers) {
+            if (worker.getRobotType() == robotType) {
+                noOfAssembledRobots += worker.getNoOfAssembledRobots();
+            }
+        }
+
+        return noOfAssembledRobots;
+    }
+
+    /**
+     * Retrieve the number of workers of the given type which are in the given state.
+     */
+    public int getNoOfWorkers(RobotType robotType, WorkerState state) {
+        int noOfWorkers = 0;
+
+        for (WorkerSnapshot worker : this.workers) {
+            if (worker.getRobotType() == robotType && worker.getState() == state) {
+                noOfWorkers++;
+            }
+        }
+
+        return noOfWorkers;
+    }
+}
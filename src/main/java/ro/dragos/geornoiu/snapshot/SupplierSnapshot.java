@@ -0,0 +1,49 @@
+package ro.dragos.geornoiu.snapshot;
+
+import ro.dragos.geornoiu.enums.SupplierState;
+
+/**
+ * The state of a supplier at one point in time: what it was doing and how many components it had supplied and
+ * destroyed.
+ */
+public final class SupplierSnapshot {
+    private final int id;
+    private final String name;
+    private final SupplierState state;
+    private final long noOfSuppliedComponents;
+    private final long noOfDiscardedComponents;
+
+    public SupplierSnapshot(int id, String name, SupplierState state, long noOfSuppliedComponents,
+                            long noOfDiscardedComponents) {
+        this.id = id;
+        this.name = name;
+        this.state = state;
+        this.noOfSuppliedComponents = noOfSuppliedComponents;
+        this.noOfDiscardedComponents = noOfDiscardedComponents;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public SupplierState getState() {
+        return state;
+    }
+
+    public long getNoOfSuppliedComponents() {
+        return noOfSuppliedComponents;
+    }
+
+    public long getNoOfDiscardedComponents() {
+        return noOfDiscardedComponents;
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + state + " supplied " + noOfSuppliedComponents + " discarded " + noOfDiscardedComponents;
+    }
+}
@@ -0,0 +1,91 @@
+package ro.dragos.geornoiu.snapshot;
+
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.enums.WorkerState;
+
+/**
+ * The state of a worker at one point in time: what it was doing, how many robots it had assembled and, for every
+ * {@link Component}, how many it had collected for the current robot and how many the robot needs.
+ */
+public final class WorkerSnapshot {
+    private final int id;
+    private final String name;
+    private final RobotType robotType;
+    private final WorkerState state;
+    private final int noOfAssembledRobots;
+    private final int[] noOfCollectedComponents;
+    private final int[] noOfNeededComponents;
+
+    /**
+     * @param noOfCollectedComponents the number of collected components, indexed by the ordinal of the component.
+     * @param noOfNeededComponents    the number of needed components, indexed by the ordinal of the component.
+     */
+    public WorkerSnapshot(int id, String name, RobotType robotType, WorkerState state, int noOfAssembledRobots,
+                          int[] noOfCollectedComponents, int[] noOfNeededComponents) {
+        this.id = id;
+        this.name = name;
+        this.robotType = robotType;
+        this.state = state;
+        this.noOfAssembledRobots = noOfAssembledRobots;
+        this.noOfCollectedComponents = noOfCollectedComponents;
+        this.noOfNeededComponents = noOfNeededComponents;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RobotType getRobotType() {
+        return robotType;
+    }
+
+    public WorkerState getState() {
+        return state;
+    }
+
+    public int getNoOfAssembledRobots() {
+        return noOfAssembledRobots;
+    }
+
+    public int getNoOfCollectedComponents(Component component) {
+        return noOfCollectedComponents[component.ordinal()];
+    }
+
+    public int getNoOfNeededComponents(Component component) {
+        return noOfNeededComponents[component.ordinal()];
+    }
+
+    /**
+     * Retrieve the number of components collected for the current robot, of all types.
+     */
+    public int getKitSize() {
+        return sum(noOfCollectedComponents);
+    }
+
+    /**
+     * Retrieve the number of components needed for a robot, of all types.
+     */
+    public int getKitCapacity() {
+        return sum(noOfNeededComponents);
+    }
+
+    private static int sum(int[] values) {
+        int sum = 0;
+
+        for (int value : values) {
+            sum += value;
+        }
+
+        return sum;
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + state + " " + getKitSize() + "/" + getKitCapacity() + " robots " + noOfAssembledRobots;
+    }
+}
@@ -0,0 +1,66 @@
+package ro.dragos.geornoiu.sorting;
+
+import ro.dragos.geornoiu.conveyor.ArrayConveyorBelt;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelope;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelopePool;
+import ro.dragos.geornoiu.conveyor.ConveyorBelt;
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.LaneOverflowPolicy;
+
+/**
+ * Bounded lane of the {@link SortingStation} holding only components of one type, first in first out. The lane is
+ * modified only while holding the monitor of its sorting station.
+ */
+public class ComponentLane {
+    private final Component component;
+    private final LaneOverflowPolicy overflowPolicy;
+    private final ConveyorBelt components;
+
+    /**
+     * @param component      the type of the components of the lane.
+     * @param capacity       the maximum number of components on the lane.
+     * @param overflowPolicy what to do with a new component when the lane is full.
+     * @param envelopePool   the pool of the envelopes of the main conveyor belt.
+     */
+    public ComponentLane(Component component, int capacity, LaneOverflowPolicy overflowPolicy,
+                         ComponentEnvelopePool envelopePool) {
+        this.component = component;
+        this.overflowPolicy = overflowPolicy;
+        this.components = new ArrayConveyorBelt(capacity, envelopePool);
+    }
+
+    public Component getComponent() {
+        return component;
+    }
+
+    public LaneOverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public int getCapacity() {
+        return this.components.getCapacity();
+    }
+
+    /**
+     * Retrieve the number of components on the lane. Can be called without holding the sorting station monitor.
+     */
+    public int size() {
+        return this.components.size();
+    }
+
+    boolean isEmpty() {
+        return this.components.peek() == null;
+    }
+
+    boolean isFull() {
+        return this.components.size() == this.components.getCapacity();
+    }
+
+    void offer(ComponentEnvelope envelope) {
+        this.components.offer(envelope);
+    }
+
+    ComponentEnvelope poll() {
+        return this.components.pollEnvelope();
+    }
+}
@@ -0,0 +1,125 @@
+package ro.dragos.geornoiu.sorting;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ro.dragos.geornoiu.consumer.ComponentSource;
+import ro.dragos.geornoiu.consumer.RobotComponentsPair;
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelope;
+import ro.dragos.geornoiu.conveyor.SpareComponentPool;
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.wait.WaitStrategy;
+
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * {@link ComponentSource} of a worker served by a {@link SortingStation}: the worker waits, using its
+ * {@link WaitStrategy}, until the lane of one of the components it still needs is not empty and takes the oldest
+ * component of that lane.
+ */
+public class LaneComponentSource implements ComponentSource {
+    private static final Logger LOG = LoggerFactory.getLogger(LaneComponentSource.class);
+
+    private final SortingStation sortingStation;
+    private final WaitStrategy waitStrategy;
+
+    //created once per worker, so waiting does not allocate
+    private BooleanSupplier laneReadyCondition;
+
+    LaneComponentSource(SortingStation sortingStation, WaitStrategy waitStrategy) {
+        this.sortingStation = sortingStation;
+        this.waitStrategy = waitStrategy;
+    }
+
+    @Override
+    public ComponentEnvelope take(Worker worker) throws InterruptedException {
+        if (this.laneReadyCondition == null) {
+            this.laneReadyCondition = () -> !worker.isRunning() || findLane(worker) != null;
+        }
+
+        while (true) {
+            if (worker.isRunning() && findLane(worker) == null) {
+                this.waitStrategy.await(this.sortingStation, this.laneReadyCondition, Long.MAX_VALUE);
+            }
+
+            synchronized (this.sortingStation) {
+                //do not remove component from the lane if current thread is stopped
+                if (!worker.isRunning()) {
+                    return null;
+                }
+
+                // another worker might have emptied the lane in the meantime
+                ComponentLane lane = findLane(worker);
+                if (lane == null) {
+                    continue;
+                }
+
+                ComponentEnvelope envelope = lane.poll();
+                envelope.markTaken(System.nanoTime());
+
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Worker {} has taken component {} from its lane. Lane size is now {}.",
+                            worker.getName(), envelope.getComponent().name(), lane.size());
+                }
+
+                // Notify that the lock on the lanes will be released in order to awaken the sorting station if it
+                // waits for room on the lane.
+                this.sortingStation.notifyAll();
+
+                return envelope;
+            }
+        }
+    }
+
+    @Override
+    public ComponentEnvelope poll(Worker worker) {
+        synchronized (this.sortingStation) {
+            ComponentLane lane = findLane(worker);
+            if (!worker.isRunning() || lane == null) {
+                return null;
+            }
+
+            ComponentEnvelope envelope = lane.poll();
+            envelope.markTaken(System.nanoTime());
+
+            this.sortingStation.notifyAll();
+
+            return envelope;
+        }
+    }
+
+    @Override
+    public void kitStarted(Worker worker) {
+        // nothing to prepare, the worker checks the lanes itself
+    }
+
+    @Override
+    public void wakeUp(Worker worker) {
+        synchronized (this.sortingStation) {
+            this.sortingStation.notifyAll();
+        }
+    }
+
+    @Override
+    public void returnUntakenComponents(Worker worker, SpareComponentPool spareComponentPool) {
+        // components stay on their lane until a worker takes them
+    }
+
+    /**
+     * Find a non empty lane of a component the worker still needs.
+     */
+    private ComponentLane findLane(Worker worker) {
+        for (Map.Entry<Component, RobotComponentsPair> entry : worker.getRobotComponentsMap().entrySet()) {
+            if (entry.getValue().isComponentNeeded()) {
+                ComponentLane lane = this.sortingStation.getLane(entry.getKey());
+
+                if (!lane.isEmpty()) {
+                    return lane;
+                }
+            }
+        }
+
+        return null;
+    }
+}
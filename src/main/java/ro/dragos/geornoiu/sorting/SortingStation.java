@@ -0,0 +1,173 @@
+package ro.dragos.geornoiu.sorting;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelope;
+import ro.dragos.geornoiu.conveyor.ConveyorBelt;
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.LaneOverflowPolicy;
+import ro.dragos.geornoiu.event.FactoryEventListener;
+import ro.dragos.geornoiu.wait.WaitStrategy;
+
+import java.util.Collection;
+
+/**
+ * Optional stage between the suppliers and the workers. The sorting station takes every component from the head of
+ * the main conveyor belt and routes it to the {@link ComponentLane} of its type, so a component no worker currently
+ * needs never blocks the components behind it. Workers served by the sorting station only look at the lanes of the
+ * components they need.
+ * <p>
+ * The lanes are guarded by the monitor of the sorting station. The main conveyor belt is used like by any other
+ * consumer, so the {@link ro.dragos.geornoiu.producer.FactorySupplier} is unchanged.
+ */
+public class SortingStation implements Runnable {
+    private static final Logger LOG = LoggerFactory.getLogger(SortingStation.class);
+
+    //volatile in order to not be cached and any modification from an external thread to be seen in current thread.
+    private volatile boolean isRunning;
+
+    private final String name;
+    private final ConveyorBelt conveyorBelt;
+    private final FactoryEventListener eventListener;
+
+    //lanes by component ordinal
+    private final ComponentLane[] lanes = new ComponentLane[Component.values().length];
+
+    /**
+     * @param name          the name of the sorting station.
+     * @param conveyorBelt  the main conveyor belt the suppliers put components on.
+     * @param lanes         one lane for every {@link Component}.
+     * @param eventListener the listener notified of the components destroyed because their lane was full.
+     */
+    public SortingStation(String name, ConveyorBelt conveyorBelt, Collection<ComponentLane> lanes,
+                          FactoryEventListener eventListener) {
+        this.isRunning = true;
+        this.name = name;
+        this.conveyorBelt = conveyorBelt;
+        this.eventListener = eventListener;
+
+        for (ComponentLane lane : lanes) {
+            this.lanes[lane.getComponent().ordinal()] = lane;
+        }
+
+        for (Component component : Component.values()) {
+            if (this.lanes[component.ordinal()] == null) {
+                throw new IllegalArgumentException("No lane was given for component " + component + ".");
+            }
+        }
+    }
+
+    /**
+     * Create the source of components for a worker served by this sorting station.
+     *
+     * @param waitStrategy how the worker waits for a component on the lanes it needs.
+     */
+    public LaneComponentSource createComponentSource(WaitStrategy waitStrategy) {
+        return new LaneComponentSource(this, waitStrategy);
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (this.isRunning) {
+                ComponentEnvelope envelope;
+
+                synchronized (this.conveyorBelt) {
+                    while (this.conveyorBelt.peek() == null && this.isRunning) {
+                        this.conveyorBelt.wait();
+                    }
+
+                    //do not remove component from queue if current thread is stopped
+                    if (!this.isRunning) {
+                        break;
+                    }
+
+                    envelope = this.conveyorBelt.pollEnvelope();
+
+                    // Notify that the lock on the conveyor belt will be released in order to awaken the suppliers
+                    // waiting for room on the conveyor belt.
+                    this.conveyorBelt.notifyAll();
+                }
+
+                // the conveyor belt lock is not held while waiting for room on a lane
+                route(envelope);
+            }
+        } catch (InterruptedException ie) {
+            LOG.error("{} was interrupted and is being shut down", this.name);
+            stop();
+        }
+    }
+
+    /**
+     * Stop execution of thread by setting isRunningFlag to false and wake it up if it is waiting for a component or for
+     * room on a lane.
+     */
+    public void stop() {
+        this.isRunning = false;
+
+        synchronized (this.conveyorBelt) {
+            // wake up the station if it is waiting for a component on the conveyor belt
+            this.conveyorBelt.notifyAll();
+        }
+
+        synchronized (this) {
+            // wake up the station if it is waiting for room on a lane
+            notifyAll();
+        }
+    }
+
+    /**
+     * Retrieve the lane of a type of component.
+     */
+    public ComponentLane getLane(Component component) {
+        return this.lanes[component.ordinal()];
+    }
+
+    private synchronized void route(ComponentEnvelope envelope) throws InterruptedException {
+        ComponentLane lane = this.lanes[envelope.getComponent().ordinal()];
+
+        if (lane.isFull()) {
+            LaneOverflowPolicy overflowPolicy = lane.getOverflowPolicy();
+
+            if (overflowPolicy == LaneOverflowPolicy.DISCARD_NEWEST) {
+                discard(lane, envelope);
+                return;
+            }
+
+            if (overflowPolicy == LaneOverflowPolicy.DISCARD_OLDEST) {
+                discard(lane, lane.poll());
+            }
+
+            while (lane.isFull() && this.isRunning) {
+                wait();
+            }
+
+            if (lane.isFull()) {
+                // stopped while waiting for room on the lane
+                envelope.release();
+                return;
+            }
+        }
+
+        lane.offer(envelope);
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("{} put component {} on its lane. Lane size is now {}.", this.name,
+                    envelope.getComponent().name(), lane.size());
+        }
+
+        // Notify that the lock on the lanes will be released in order to awaken the workers which are in waiting
+        // state.
+        notifyAll();
+    }
+
+    private void discard(ComponentLane lane, ComponentEnvelope envelope) {
+        LOG.debug("{} destroyed component {} since its lane is full.", this.name, envelope.getComponent());
+        this.eventListener.laneOverflowed(this, lane, envelope);
+        envelope.release();
+    }
+
+    String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,134 @@
+package ro.dragos.geornoiu.supply;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ro.dragos.geornoiu.conveyor.ConveyorBelt;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link SupplyRateController} which adapts the supply rate to what the workers take, with additive increase and
+ * multiplicative decrease. At every control interval it samples how full the conveyor belt is and how many components
+ * per second the workers took since the previous sample:
+ * <ul>
+ * <li>below the target fill, the workers could take more, so the rate grows by a fixed step;</li>
+ * <li>above the target fill while the workers take less than is supplied, the conveyor belt is filling up, so the
+ * rate is halved;</li>
+ * <li>above the target fill while the workers take more than is supplied, the conveyor belt is already draining and
+ * the rate is kept.</li>
+ * </ul>
+ * A supplier which had to wait for room on a full conveyor belt halves the rate right away, but the rate is halved at
+ * most once per control interval. The rate always stays between the configured minimum and maximum, so the conveyor
+ * belt hovers around the target fill: the workers rarely find it empty and the supplier rarely has to destroy a
+ * component.
+ */
+public class AimdSupplyRateController implements SupplyRateController {
+    private static final Logger LOG = LoggerFactory.getLogger(AimdSupplyRateController.class);
+
+    private static final double DECREASE_FACTOR = 0.5;
+    private static final int NO_OF_INCREASE_STEPS = 20;
+
+    private final ConveyorBelt conveyorBelt;
+    private final LongSupplier noOfTakenComponents;
+    private final double minRatePerSecond;
+    private final double maxRatePerSecond;
+    private final double increasePerSecond;
+    private final double targetFill;
+    private final long controlIntervalNanos;
+
+    private volatile double ratePerSecond;
+    private long lastControlNanos;
+    private long lastNoOfTakenComponents;
+    private long lastDecreaseNanos;
+
+    /**
+     * @param conveyorBelt         the conveyor belt the supplier puts components on.
+     * @param noOfTakenComponents  the number of components taken by all the workers so far.
+     * @param minRatePerSecond     the lowest supply rate, also the starting one.
+     * @param maxRatePerSecond     the highest supply rate.
+     * @param targetFill           the share of the conveyor belt capacity to keep filled, between 0 and 1.
+     * @param controlIntervalNanos how often the rate is adjusted.
+     */
+    public AimdSupplyRateController(ConveyorBelt conveyorBelt, LongSupplier noOfTakenComponents,
+                                    double minRatePerSecond, double maxRatePerSecond, double targetFill,
+                                    long controlIntervalNanos) {
+        if (minRatePerSecond <= 0 || maxRatePerSecond < minRatePerSecond) {
+            throw new IllegalArgumentException("Invalid supply rates " + minRatePerSecond + " - " +
+                    maxRatePerSecond + ".");
+        }
+
+        this.conveyorBelt = conveyorBelt;
+        this.noOfTakenComponents = noOfTakenComponents;
+        this.minRatePerSecond = minRatePerSecond;
+        this.maxRatePerSecond = maxRatePerSecond;
+        this.increasePerSecond = Math.max((maxRatePerSecond - minRatePerSecond) / NO_OF_INCREASE_STEPS,
+                Double.MIN_NORMAL);
+        this.targetFill = targetFill;
+        this.controlIntervalNanos = controlIntervalNanos;
+
+        this.ratePerSecond = minRatePerSecond;
+        this.lastControlNanos = System.nanoTime();
+        this.lastDecreaseNanos = this.lastControlNanos - controlIntervalNanos;
+        this.lastNoOfTakenComponents = noOfTakenComponents.getAsLong();
+    }
+
+    @Override
+    public long supplied(boolean conveyorBeltWasFull) {
+        long nowNanos = System.nanoTime();
+
+        if (conveyorBeltWasFull) {
+            decrease(nowNanos);
+        } else if (nowNanos - this.lastControlNanos >= this.controlIntervalNanos) {
+            control(nowNanos);
+        }
+
+        return (long) (TimeUnit.SECONDS.toNanos(1) / this.ratePerSecond);
+    }
+
+    /**
+     * Sample the conveyor belt and the workers and adjust the rate. Called by {@link #supplied(boolean)} once per
+     * control interval.
+     *
+     * @param nowNanos the current {@link System#nanoTime()}.
+     * @return the new supply rate, in components per second.
+     */
+    public double control(long nowNanos) {
+        long elapsedNanos = Math.max(1, nowNanos - this.lastControlNanos);
+        long currentNoOfTakenComponents = this.noOfTakenComponents.getAsLong();
+        double takeRatePerSecond = (currentNoOfTakenComponents - this.lastNoOfTakenComponents) *
+                (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+
+        this.lastControlNanos = nowNanos;
+        this.lastNoOfTakenComponents = currentNoOfTakenComponents;
+
+        double fill = (double) this.conveyorBelt.size() / this.conveyorBelt.getCapacity();
+
+        if (fill <= this.targetFill) {
+            this.ratePerSecond = Math.min(this.maxRatePerSecond, this.ratePerSecond + this.increasePerSecond);
+        } else if (takeRatePerSecond < this.ratePerSecond) {
+            decrease(nowNanos);
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Conveyor belt fill {}, workers take {}/s, supplying {}/s.", fill, takeRatePerSecond,
+                    this.ratePerSecond);
+        }
+
+        return this.ratePerSecond;
+    }
+
+    private void decrease(long nowNanos) {
+        if (nowNanos - this.lastDecreaseNanos < this.controlIntervalNanos) {
+            return;
+        }
+
+        this.lastDecreaseNanos = nowNanos;
+        this.ratePerSecond = Math.max(this.minRatePerSecond, this.ratePerSecond * DECREASE_FACTOR);
+    }
+
+    @Override
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+}
@@ -0,0 +1,28 @@
+package ro.dragos.geornoiu.supply;
+
+import ro.dragos.geornoiu.constants.FactoryTiming;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SupplyRateController} which always waits the supply interval of the {@link FactoryTiming}, one second in the
+ * ACME factory.
+ */
+public class FixedSupplyRateController implements SupplyRateController {
+    private final long supplyIntervalInNanos;
+
+    public FixedSupplyRateController(FactoryTiming timing) {
+        this.supplyIntervalInNanos = TimeUnit.MILLISECONDS.toNanos(timing.getSupplyIntervalInMillis());
+    }
+
+    @Override
+    public long supplied(boolean conveyorBeltWasFull) {
+        return supplyIntervalInNanos;
+    }
+
+    @Override
+    public double getRatePerSecond() {
+        return supplyIntervalInNanos == 0 ? Double.POSITIVE_INFINITY :
+                (double) TimeUnit.SECONDS.toNanos(1) / supplyIntervalInNanos;
+    }
+}
@@ -0,0 +1,20 @@
+package ro.dragos.geornoiu.supply;
+
+/**
+ * Decides how long a supplier waits between two components. It is only called by the thread of its supplier.
+ */
+public interface SupplyRateController {
+
+    /**
+     * Called after every supplied component.
+     *
+     * @param conveyorBeltWasFull true if the supplier had to wait for room on the conveyor belt before supplying.
+     * @return the time to wait, in nanoseconds, before supplying the next component.
+     */
+    long supplied(boolean conveyorBeltWasFull);
+
+    /**
+     * Retrieve the current supply rate, in components per second.
+     */
+    double getRatePerSecond();
+}
@@ -0,0 +1,31 @@
+package ro.dragos.geornoiu.wait;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * {@link WaitStrategy} which waits on the monitor with {@link Object#wait()}. It uses no CPU while waiting, but every
+ * handoff pays the cost of parking and waking up a thread.
+ */
+public class BlockingWaitStrategy implements WaitStrategy {
+
+    @Override
+    public long await(Object monitor, BooleanSupplier condition, long timeoutNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        long remainingNanos = timeoutNanos;
+
+        synchronized (monitor) {
+            while (!condition.getAsBoolean() && remainingNanos > 0) {
+                if (timeoutNanos == Long.MAX_VALUE) {
+                    monitor.wait();
+                } else {
+                    // wait(0) would wait forever, so wait at least one millisecond
+                    monitor.wait(Math.max(1, TimeUnit.NANOSECONDS.toMillis(remainingNanos)));
+                    remainingNanos = deadline - System.nanoTime();
+                }
+            }
+        }
+
+        return remainingNanos;
+    }
+}
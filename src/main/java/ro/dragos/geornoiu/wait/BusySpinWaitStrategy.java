@@ -0,0 +1,26 @@
+package ro.dragos.geornoiu.wait;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * {@link WaitStrategy} which polls the condition in a tight loop. It gives the lowest handoff latency, but only makes
+ * sense when each waiting thread has a dedicated core.
+ */
+public class BusySpinWaitStrategy implements WaitStrategy {
+
+    @Override
+    public long await(Object monitor, BooleanSupplier condition, long timeoutNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+
+        while (!condition.getAsBoolean()) {
+            long remainingNanos = WaitStrategies.remainingNanos(deadline, timeoutNanos);
+            if (remainingNanos <= 0) {
+                return remainingNanos;
+            }
+
+            WaitStrategies.checkInterrupted();
+        }
+
+        return WaitStrategies.remainingNanos(deadline, timeoutNanos);
+    }
+}
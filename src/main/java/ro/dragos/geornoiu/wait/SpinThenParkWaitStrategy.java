@@ -0,0 +1,42 @@
+package ro.dragos.geornoiu.wait;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * {@link WaitStrategy} which polls the condition in a tight loop for a bounded number of iterations, then falls back
+ * to polling it every {@code parkNanos} with {@link LockSupport#parkNanos(long)}. Short waits are served with the
+ * latency of a spin, long waits cost little CPU.
+ */
+public class SpinThenParkWaitStrategy implements WaitStrategy {
+    private final int noOfSpins;
+    private final long parkNanos;
+
+    public SpinThenParkWaitStrategy(int noOfSpins, long parkNanos) {
+        this.noOfSpins = noOfSpins;
+        this.parkNanos = parkNanos;
+    }
+
+    @Override
+    public long await(Object monitor, BooleanSupplier condition, long timeoutNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+
+        for (int spin = 0; spin < this.noOfSpins; spin++) {
+            if (condition.getAsBoolean()) {
+                return WaitStrategies.remainingNanos(deadline, timeoutNanos);
+            }
+        }
+
+        while (!condition.getAsBoolean()) {
+            long remainingNanos = WaitStrategies.remainingNanos(deadline, timeoutNanos);
+            if (remainingNanos <= 0) {
+                return remainingNanos;
+            }
+
+            LockSupport.parkNanos(this, Math.min(this.parkNanos, remainingNanos));
+            WaitStrategies.checkInterrupted();
+        }
+
+        return WaitStrategies.remainingNanos(deadline, timeoutNanos);
+    }
+}
@@ -0,0 +1,20 @@
+package ro.dragos.geornoiu.wait;
+
+/**
+ * Helpers shared by the polling {@link WaitStrategy} implementations.
+ */
+final class WaitStrategies {
+
+    private WaitStrategies() {
+    }
+
+    static long remainingNanos(long deadline, long timeoutNanos) {
+        return timeoutNanos == Long.MAX_VALUE ? Long.MAX_VALUE : deadline - System.nanoTime();
+    }
+
+    static void checkInterrupted() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+}
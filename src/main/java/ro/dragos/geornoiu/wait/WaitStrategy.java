@@ -0,0 +1,26 @@
+package ro.dragos.geornoiu.wait;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Strategy used by suppliers and workers to wait for the conveyor belt to reach a state they can act on.
+ * <p>
+ * The strategy is called without holding the monitor of the conveyor belt. Blocking strategies wait on the monitor
+ * and rely on the other threads calling {@link Object#notifyAll()} after changing the conveyor belt, the other
+ * strategies poll the condition, so the condition must be safe to evaluate without holding the monitor. Since the
+ * condition may stop holding as soon as the strategy returns, callers re-check it while holding the monitor before
+ * acting.
+ */
+public interface WaitStrategy {
+
+    /**
+     * Wait until the condition holds or the timeout elapses.
+     *
+     * @param monitor      the monitor notified when the condition might have changed.
+     * @param condition    the condition to wait for.
+     * @param timeoutNanos the maximum time to wait, {@link Long#MAX_VALUE} to wait without a timeout.
+     * @return the remaining time to wait, zero or negative if the timeout elapsed.
+     * @throws InterruptedException if the current thread was interrupted while waiting.
+     */
+    long await(Object monitor, BooleanSupplier condition, long timeoutNanos) throws InterruptedException;
+}
@@ -0,0 +1,27 @@
+package ro.dragos.geornoiu.wait;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * {@link WaitStrategy} which polls the condition and gives up the CPU with {@link Thread#yield()} between polls.
+ * Handoffs are fast and other runnable threads still get to run, but the waiting thread keeps its core busy.
+ */
+public class YieldingWaitStrategy implements WaitStrategy {
+
+    @Override
+    public long await(Object monitor, BooleanSupplier condition, long timeoutNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+
+        while (!condition.getAsBoolean()) {
+            long remainingNanos = WaitStrategies.remainingNanos(deadline, timeoutNanos);
+            if (remainingNanos <= 0) {
+                return remainingNanos;
+            }
+
+            Thread.yield();
+            WaitStrategies.checkInterrupted();
+        }
+
+        return WaitStrategies.remainingNanos(deadline, timeoutNanos);
+    }
+}
@@ -0,0 +1,75 @@
+package ro.dragos.geornoiu.warehouse;
+
+import ro.dragos.geornoiu.enums.RobotType;
+
+import java.util.Objects;
+
+/**
+ * A robot stored in the warehouse: its type, the id of the worker which assembled it, the time it was completed and
+ * how long the worker spent collecting its components.
+ */
+public final class RobotRecord {
+    private final RobotType robotType;
+    private final int workerId;
+    private final long completionTimeMillis;
+    private final long kitCollectionNanos;
+
+    public RobotRecord(RobotType robotType, int workerId, long completionTimeMillis, long kitCollectionNanos) {
+        this.robotType = robotType;
+        this.workerId = workerId;
+        this.completionTimeMillis = completionTimeMillis;
+        this.kitCollectionNanos = kitCollectionNanos;
+    }
+
+    public RobotType getRobotType() {
+        return robotType;
+    }
+
+    public int getWorkerId() {
+        return workerId;
+    }
+
+    /**
+     * @return the time, in milliseconds since the epoch, at which the robot was assembled.
+     */
+    public long getCompletionTimeMillis() {
+        return completionTimeMillis;
+    }
+
+    /**
+     * @return the time, in nanoseconds, from the start of the kit until the worker had all the components.
+     */
+    public long getKitCollectionNanos() {
+        return kitCollectionNanos;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof RobotRecord)) {
+            return false;
+        }
+
+        RobotRecord that = (RobotRecord) o;
+        return workerId == that.workerId && completionTimeMillis == that.completionTimeMillis &&
+                kitCollectionNanos == that.kitCollectionNanos && robotType == that.robotType;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(robotType, workerId, completionTimeMillis, kitCollectionNanos);
+    }
+
+    @Override
+    public String toString() {
+        return "RobotRecord{" +
+                "robotType=" + robotType +
+                ", workerId=" + workerId +
+                ", completionTimeMillis=" + completionTimeMillis +
+                ", kitCollectionNanos=" + kitCollectionNanos +
+                '}';
+    }
+}
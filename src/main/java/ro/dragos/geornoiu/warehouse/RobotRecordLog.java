@@ -0,0 +1,144 @@
+package ro.dragos.geornoiu.warehouse;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append only log of {@link RobotRecord}s in a memory mapped file. The file starts with a 16 byte header: a 4 byte
+ * magic number, a 1 byte version, 3 bytes of padding and the 8 byte number of committed records. It is followed by
+ * fixed size records of 24 bytes: the completion time in milliseconds (8 bytes), the kit collection time in
+ * nanoseconds (8 bytes), the worker id (4 bytes), the ordinal of the robot type (1 byte) and 3 bytes of padding.
+ * <p>
+ * Appended records are only visible to readers once {@link #commit()} writes the number of records to the header, so
+ * a batch of records costs a single update of the header and two flushes of the mapping. The records are flushed
+ * before the header is written, since a single flush does not persist the pages of the mapping in any given order
+ * and a crash could otherwise leave a header counting records which never reached the storage device. The file is
+ * grown by doubling the mapped region, so it can be larger than the committed records.
+ * <p>
+ * The log has a single writer and is not thread safe.
+ */
+public class RobotRecordLog implements Closeable {
+    static final int MAGIC = 0x41434D52; // "ACMR"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int NO_OF_RECORDS_OFFSET = 8;
+    static final int RECORD_SIZE = 24;
+    static final ByteOrder BYTE_ORDER = ByteOrder.BIG_ENDIAN;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final FileChannel channel;
+    private MappedByteBuffer mapping;
+    private long capacity;
+    private long noOfCommittedRecords;
+    private long noOfRecords;
+
+    /**
+     * Open the log in the given file, creating it if it does not exist. The records of an existing log are kept and
+     * new records are appended after them.
+     *
+     * @throws IOException if the file cannot be mapped or is not a robot log.
+     */
+    public RobotRecordLog(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+
+        try {
+            if (this.channel.size() == 0) {
+                map(INITIAL_CAPACITY);
+                this.mapping.putInt(0, MAGIC);
+                this.mapping.put(4, (byte) VERSION);
+                this.mapping.putLong(NO_OF_RECORDS_OFFSET, 0);
+            } else {
+                if (this.channel.size() < HEADER_SIZE) {
+                    throw new IOException("Not a robot log.");
+                }
+
+                map((this.channel.size() - HEADER_SIZE) / RECORD_SIZE);
+                readHeader(this.mapping);
+                this.noOfCommittedRecords = this.mapping.getLong(NO_OF_RECORDS_OFFSET);
+                this.noOfRecords = this.noOfCommittedRecords;
+
+                if (this.noOfRecords < 0 || this.noOfRecords > this.capacity) {
+                    throw new IOException("Corrupt robot log header: " + this.noOfRecords + " records.");
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Append a record after the last one. It is visible to readers after the next {@link #commit()}.
+     *
+     * @throws IOException if the file cannot be grown.
+     */
+    public void append(RobotRecord robotRecord) throws IOException {
+        if (this.noOfRecords == this.capacity) {
+            map(Math.max(this.capacity * 2, INITIAL_CAPACITY));
+        }
+
+        int offset = (int) (HEADER_SIZE + this.noOfRecords * RECORD_SIZE);
+        this.mapping.putLong(offset, robotRecord.getCompletionTimeMillis());
+        this.mapping.putLong(offset + 8, robotRecord.getKitCollectionNanos());
+        this.mapping.putInt(offset + 16, robotRecord.getWorkerId());
+        this.mapping.put(offset + 20, (byte) robotRecord.getRobotType().ordinal());
+        this.noOfRecords++;
+    }
+
+    /**
+     * Publish the records appended since the previous commit and flush them to the storage device.
+     */
+    public void commit() {
+        if (this.noOfRecords == this.noOfCommittedRecords) {
+            return;
+        }
+
+        // Java 8 cannot flush a region of the mapping, but until the header is written only the records are dirty
+        this.mapping.force();
+        this.mapping.putLong(NO_OF_RECORDS_OFFSET, this.noOfRecords);
+        this.mapping.force();
+        this.noOfCommittedRecords = this.noOfRecords;
+    }
+
+    public long getNoOfRecords() {
+        return noOfCommittedRecords;
+    }
+
+    /**
+     * Commit the appended records and close the file.
+     */
+    @Override
+    public void close() throws IOException {
+        commit();
+        this.channel.close();
+    }
+
+    static void readHeader(MappedByteBuffer mapping) throws IOException {
+        if (mapping.getInt(0) != MAGIC) {
+            throw new IOException("Not a robot log.");
+        }
+
+        int version = mapping.get(4) & 0xFF;
+        if (version != VERSION) {
+            throw new IOException("Unsupported robot log version " + version + ".");
+        }
+    }
+
+    private void map(long capacity) throws IOException {
+        long size = HEADER_SIZE + capacity * RECORD_SIZE;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Robot log cannot hold more than " + this.capacity + " records.");
+        }
+
+        this.mapping = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        this.mapping.order(BYTE_ORDER);
+        this.capacity = capacity;
+    }
+}
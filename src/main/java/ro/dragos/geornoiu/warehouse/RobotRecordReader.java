@@ -0,0 +1,137 @@
+package ro.dragos.geornoiu.warehouse;
+
+import ro.dragos.geornoiu.enums.RobotType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the records committed to a {@link RobotRecordLog} when the reader was opened. The file is mapped read only
+ * and the records are read in place, so a {@link Cursor} scans the whole log without creating any object, while the
+ * {@link #iterator()} creates one {@link RobotRecord} for each record.
+ */
+public class RobotRecordReader implements Iterable<RobotRecord>, Closeable {
+    private final FileChannel channel;
+    private final MappedByteBuffer mapping;
+    private final long noOfRecords;
+
+    /**
+     * @throws IOException if the file cannot be mapped or is not a robot log.
+     */
+    public RobotRecordReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+
+        try {
+            if (this.channel.size() < RobotRecordLog.HEADER_SIZE) {
+                throw new IOException("Not a robot log.");
+            }
+
+            this.mapping = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, this.channel.size());
+            this.mapping.order(RobotRecordLog.BYTE_ORDER);
+            RobotRecordLog.readHeader(this.mapping);
+
+            this.noOfRecords = this.mapping.getLong(RobotRecordLog.NO_OF_RECORDS_OFFSET);
+            if (this.noOfRecords < 0 ||
+                    RobotRecordLog.HEADER_SIZE + this.noOfRecords * RobotRecordLog.RECORD_SIZE > this.channel.size()) {
+                throw new IOException("Corrupt robot log header: " + this.noOfRecords + " records.");
+            }
+        } catch (IOException | RuntimeException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    public long getNoOfRecords() {
+        return noOfRecords;
+    }
+
+    /**
+     * @return a cursor positioned before the first record.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    @Override
+    public Iterator<RobotRecord> iterator() {
+        Cursor cursor = cursor();
+
+        return new Iterator<RobotRecord>() {
+            private boolean hasNext = cursor.next();
+
+            @Override
+            public boolean hasNext() {
+                return hasNext;
+            }
+
+            @Override
+            public RobotRecord next() {
+                if (!hasNext) {
+                    throw new NoSuchElementException();
+                }
+
+                RobotRecord robotRecord = cursor.toRecord();
+                hasNext = cursor.next();
+                return robotRecord;
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    /**
+     * Flyweight view of the record the cursor is positioned on. The getters read the mapped file directly.
+     */
+    public final class Cursor {
+        private final RobotType[] robotTypes = RobotType.values();
+        private long index = -1;
+        private int offset;
+
+        private Cursor() {
+        }
+
+        /**
+         * Move to the next record.
+         *
+         * @return false if there are no more records.
+         */
+        public boolean next() {
+            if (this.index + 1 >= noOfRecords) {
+                return false;
+            }
+
+            this.index++;
+            this.offset = (int) (RobotRecordLog.HEADER_SIZE + this.index * RobotRecordLog.RECORD_SIZE);
+            return true;
+        }
+
+        public long getCompletionTimeMillis() {
+            return mapping.getLong(this.offset);
+        }
+
+        public long getKitCollectionNanos() {
+            return mapping.getLong(this.offset + 8);
+        }
+
+        public int getWorkerId() {
+            return mapping.getInt(this.offset + 16);
+        }
+
+        public RobotType getRobotType() {
+            return this.robotTypes[mapping.get(this.offset + 20)];
+        }
+
+        public RobotRecord toRecord() {
+            return new RobotRecord(getRobotType(), getWorkerId(), getCompletionTimeMillis(), getKitCollectionNanos());
+        }
+    }
+}
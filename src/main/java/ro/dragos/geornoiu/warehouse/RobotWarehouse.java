@@ -0,0 +1,115 @@
+package ro.dragos.geornoiu.warehouse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelope;
+import ro.dragos.geornoiu.event.FactoryEventListener;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Receives every assembled robot and stores it in a {@link RobotRecordLog}. The workers only put a {@link RobotRecord}
+ * on a bounded queue, and a single warehouse thread takes the waiting records in batches, appends them to the log and
+ * commits each batch at once, so the workers never wait for the storage device. When the queue is full, a worker waits
+ * for room before going back to the conveyor belt.
+ */
+public class RobotWarehouse implements FactoryEventListener, Runnable {
+    private static final Logger LOG = LoggerFactory.getLogger(RobotWarehouse.class);
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    //volatile in order to not be cached and any modification from an external thread to be seen in current thread.
+    private volatile boolean isRunning;
+
+    private final RobotRecordLog robotRecordLog;
+    private final BlockingQueue<RobotRecord> queue;
+    private final List<RobotRecord> batch;
+    private final int batchSize;
+    private volatile long noOfStoredRobots;
+
+    public RobotWarehouse(RobotRecordLog robotRecordLog, int capacity, int batchSize) {
+        this.isRunning = true;
+        this.robotRecordLog = robotRecordLog;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batch = new ArrayList<>(batchSize);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void robotAssembled(Worker worker, ComponentEnvelope[] kit, int kitSize, long kitStartedNanos,
+                               long kitCompletedNanos, long robotAssembledNanos) {
+        RobotRecord robotRecord = new RobotRecord(worker.getRobotType(), worker.getId(), System.currentTimeMillis(),
+                kitCompletedNanos - kitStartedNanos);
+
+        try {
+            while (this.isRunning) {
+                if (this.queue.offer(robotRecord, POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+
+            LOG.error("Warehouse is closed, robot assembled by {} is not stored", worker.getName());
+        } catch (InterruptedException ie) {
+            LOG.error("{} was interrupted while storing a robot", worker.getName());
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Store the robots waiting on the queue in batches until the warehouse is stopped. The robots received before it
+     * was stopped are still stored.
+     */
+    @Override
+    public void run() {
+        try {
+            while (this.isRunning || !this.queue.isEmpty()) {
+                RobotRecord robotRecord = this.queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (robotRecord == null) {
+                    continue;
+                }
+
+                this.batch.add(robotRecord);
+                this.queue.drainTo(this.batch, this.batchSize - 1);
+                storeBatch();
+            }
+        } catch (InterruptedException ie) {
+            LOG.error("Warehouse was interrupted and is being shut down");
+            stop();
+        } catch (IOException ioe) {
+            LOG.error("Warehouse could not store robots and is being shut down", ioe);
+            stop();
+        }
+    }
+
+    /**
+     * Stop execution of thread by setting isRunningFlag to false.
+     */
+    public void stop() {
+        this.isRunning = false;
+    }
+
+    public long getNoOfStoredRobots() {
+        return noOfStoredRobots;
+    }
+
+    private void storeBatch() throws IOException {
+        for (RobotRecord robotRecord : this.batch) {
+            this.robotRecordLog.append(robotRecord);
+        }
+
+        this.robotRecordLog.commit();
+        this.noOfStoredRobots = this.robotRecordLog.getNoOfRecords();
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Warehouse stored {} robots, {} in total", this.batch.size(), this.noOfStoredRobots);
+        }
+
+        this.batch.clear();
+    }
+}
@@ -0,0 +1,96 @@
+package ro.dragos.geornoiu;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import ro.dragos.geornoiu.constants.ACMEConstants;
+import ro.dragos.geornoiu.constants.FactoryTiming;
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.conveyor.ArrayConveyorBelt;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelopePool;
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.enums.WaitStrategyType;
+import ro.dragos.geornoiu.producer.FactorySupplier;
+import ro.dragos.geornoiu.service.factory.ACMEFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AllocationBudgetTest {
+    // no pause between two components and no assembly time, so the cycles only measure the hot path
+    private static final FactoryTiming NO_WAIT_TIMING = new FactoryTiming(0, 10000, 0);
+
+    private static final int NO_OF_WARM_UP_ROBOTS = 20_000;
+    private static final int NO_OF_MEASURED_ROBOTS = 20_000;
+
+    // a robot is three components supplied, taken and assembled; the budget leaves room for the rare allocation
+    // outside the steady state, such as a lock being inflated, but not for one object per component
+    private static final long MAX_BYTES_PER_ROBOT = 8;
+
+    private com.sun.management.ThreadMXBean threadMXBean;
+
+    @Before
+    public void initThreadMXBean() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /**
+     * Tests that, in the steady state, a worker collecting components and assembling robots and a supplier putting
+     * components on the conveyor belt stay within the allocation budget of each robot.
+     */
+    @Test
+    public void testSteadyStateCycleStaysWithinBudget() throws InterruptedException {
+        Component[] components = {Component.MAIN_UNIT, Component.BROOM, Component.BROOM};
+        AtomicInteger next = new AtomicInteger();
+        ACMEFactory acmeFactory = new ACMEFactory(() -> components[next.getAndIncrement() % components.length],
+                WaitStrategyType.BLOCKING, WaitStrategyType.BLOCKING, NO_WAIT_TIMING,
+                new ArrayConveyorBelt(ACMEConstants.QUEUE_CAPACITY_LIMIT,
+                        new ComponentEnvelopePool(ACMEConstants.ENVELOPE_POOL_CAPACITY)));
+
+        Worker worker = acmeFactory.getWorker(RobotType.DRY2000, "dry");
+        FactorySupplier factorySupplier = acmeFactory.getFactorySupplier("supplier");
+        Thread workerThread = new Thread(worker);
+        Thread supplierThread = new Thread(factorySupplier);
+        workerThread.start();
+        supplierThread.start();
+
+        try {
+            awaitRobots(worker, NO_OF_WARM_UP_ROBOTS);
+
+            int startNoOfRobots = worker.getNoOfAssembledRobots();
+            long startWorkerBytes = threadMXBean.getThreadAllocatedBytes(workerThread.getId());
+            long startSupplierBytes = threadMXBean.getThreadAllocatedBytes(supplierThread.getId());
+
+            awaitRobots(worker, startNoOfRobots + NO_OF_MEASURED_ROBOTS);
+
+            long workerBytes = threadMXBean.getThreadAllocatedBytes(workerThread.getId()) - startWorkerBytes;
+            long supplierBytes = threadMXBean.getThreadAllocatedBytes(supplierThread.getId()) - startSupplierBytes;
+            long noOfRobots = worker.getNoOfAssembledRobots() - startNoOfRobots;
+
+            Assert.assertTrue("Worker allocated " + workerBytes / noOfRobots + " bytes per robot",
+                    workerBytes / noOfRobots <= MAX_BYTES_PER_ROBOT);
+            Assert.assertTrue("Supplier allocated " + supplierBytes / noOfRobots + " bytes per robot",
+                    supplierBytes / noOfRobots <= MAX_BYTES_PER_ROBOT);
+        } finally {
+            worker.stop();
+            factorySupplier.stop();
+            workerThread.join();
+            supplierThread.join();
+        }
+    }
+
+    private void awaitRobots(Worker worker, int noOfRobots) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 60_000;
+
+        while (worker.getNoOfAssembledRobots() < noOfRobots) {
+            Assert.assertTrue("Only " + worker.getNoOfAssembledRobots() + " robots were assembled",
+                    System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+}
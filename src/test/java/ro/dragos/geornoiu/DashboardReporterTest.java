@@ -0,0 +1,79 @@
+package ro.dragos.geornoiu;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.conveyor.ConveyorBelt;
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.metrics.ThroughputMetrics;
+import ro.dragos.geornoiu.reporting.DashboardReporter;
+import ro.dragos.geornoiu.service.factory.ACMEFactory;
+import ro.dragos.geornoiu.service.factory.QueueStorage;
+import ro.dragos.geornoiu.service.impl.DefaultComponentGeneratorService;
+
+import java.util.Arrays;
+
+public class DashboardReporterTest {
+    private ACMEFactory acmeFactory;
+
+    @Before
+    public void initAcmeFactory() {
+        QueueStorage.getConveyorBelt().clear();
+        acmeFactory = new ACMEFactory(new DefaultComponentGeneratorService());
+    }
+
+    /**
+     * Tests that the components on the conveyor belt are copied head first and that components which do not fit in the
+     * destination are left out.
+     */
+    @Test
+    public void testConveyorBeltIsCopiedHeadFirst() {
+        ConveyorBelt conveyorBelt = QueueStorage.getConveyorBelt();
+        conveyorBelt.add(Component.MOP);
+        conveyorBelt.add(Component.BROOM);
+        conveyorBelt.add(Component.MAIN_UNIT);
+        conveyorBelt.poll();
+        conveyorBelt.add(Component.MOP);
+
+        Component[] components = new Component[conveyorBelt.getCapacity()];
+        Assert.assertEquals(3, conveyorBelt.copyComponents(components));
+        Assert.assertArrayEquals(new Component[]{Component.BROOM, Component.MAIN_UNIT, Component.MOP},
+                Arrays.copyOf(components, 3));
+
+        Component[] head = new Component[1];
+        Assert.assertEquals(1, conveyorBelt.copyComponents(head));
+        Assert.assertEquals(Component.BROOM, head[0]);
+    }
+
+    /**
+     * Tests that the dashboard shows the conveyor belt, the collecting workers and the rates since the previous sample.
+     */
+    @Test
+    public void testDashboardReportsRates() throws InterruptedException {
+        ConveyorBelt conveyorBelt = QueueStorage.getConveyorBelt();
+        conveyorBelt.add(Component.MAIN_UNIT);
+        conveyorBelt.add(Component.MOP);
+
+        Worker dryRobotWorker = acmeFactory.getWorker(RobotType.DRY2000, "dry");
+        acmeFactory.getWorker(RobotType.WET2000, "wet");
+
+        DashboardReporter dashboardReporter = new DashboardReporter(acmeFactory, 1000);
+        String firstView = dashboardReporter.render();
+        Assert.assertTrue(firstView, firstView.startsWith("Belt 2/10 [MAIN_UNIT-MOP]"));
+        Assert.assertTrue(firstView, firstView.contains("collecting DRY2000 1/1 WET2000 1/1"));
+        Assert.assertTrue(firstView, firstView.endsWith("discards/s 0.00"));
+
+        ThroughputMetrics throughputMetrics = acmeFactory.getThroughputMetrics();
+        throughputMetrics.robotAssembled(dryRobotWorker, null, 0, 0, 0, 0);
+        throughputMetrics.componentDiscarded(null, null);
+
+        Thread.sleep(100);
+
+        String secondView = dashboardReporter.render();
+        Assert.assertFalse(secondView, secondView.contains("DRY2000 0.00"));
+        Assert.assertTrue(secondView, secondView.contains("WET2000 0.00"));
+        Assert.assertFalse(secondView, secondView.endsWith("discards/s 0.00"));
+    }
+}
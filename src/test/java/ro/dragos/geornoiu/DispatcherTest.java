@@ -0,0 +1,149 @@
+package ro.dragos.geornoiu;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.service.factory.ACMEFactory;
+import ro.dragos.geornoiu.service.factory.QueueStorage;
+import ro.dragos.geornoiu.service.impl.DefaultComponentGeneratorService;
+
+import java.util.Queue;
+
+public class DispatcherTest {
+    private ACMEFactory acmeFactory;
+
+    private static final String WORKER_NAME = "test";
+
+    @Before
+    public void initAcmeFactory() {
+        QueueStorage.getConveyorBelt().clear();
+
+        // a new factory for each test, so that each test has its own dispatcher
+        acmeFactory = new ACMEFactory(new DefaultComponentGeneratorService());
+        new Thread(acmeFactory.getDispatcher()).start();
+    }
+
+    @After
+    public void stopDispatcher() {
+        acmeFactory.getDispatcher().stop();
+    }
+
+    /**
+     * Tests that a dispatched worker that builds DRY2000 robots can complete a robot using one MainUnit component and
+     * two BROOM components.
+     */
+    @Test
+    public void testDispatchedWorkerCanCompleteRobot() {
+        Queue<Component> conveyorBelt = QueueStorage.getConveyorBelt();
+        conveyorBelt.add(Component.MAIN_UNIT);
+        conveyorBelt.add(Component.BROOM);
+        conveyorBelt.add(Component.BROOM);
+
+        Worker dryRobotWorker = acmeFactory.getDispatchedWorker(RobotType.DRY2000, WORKER_NAME);
+        new Thread(dryRobotWorker).start();
+
+        sleep(4000);
+
+        dryRobotWorker.stop();
+
+        Assert.assertEquals(1, dryRobotWorker.getNoOfAssembledRobots());
+        Assert.assertTrue(conveyorBelt.isEmpty());
+    }
+
+    /**
+     * Tests that the dispatcher does not hand out a component at the head of the conveyor belt which no worker needs.
+     */
+    @Test
+    public void testUnneededHeadStaysOnConveyorBelt() {
+        Queue<Component> conveyorBelt = QueueStorage.getConveyorBelt();
+        conveyorBelt.add(Component.MOP);
+        conveyorBelt.add(Component.MAIN_UNIT);
+
+        Worker dryRobotWorker = acmeFactory.getDispatchedWorker(RobotType.DRY2000, WORKER_NAME);
+        new Thread(dryRobotWorker).start();
+
+        sleep(1000);
+
+        dryRobotWorker.stop();
+
+        Assert.assertEquals(2, conveyorBelt.size());
+        Assert.assertEquals(Component.MOP, conveyorBelt.peek());
+        Assert.assertEquals(0, dryRobotWorker.getRobotComponentsMap().get(Component.MAIN_UNIT)
+                .getNumberOfComponentsCurrentlyPossessed());
+    }
+
+    /**
+     * Tests that workers of the same type are served in the order they asked for components: the first worker
+     * receives a full kit before the second one receives anything.
+     */
+    @Test
+    public void testWorkersAreServedInRequestOrder() {
+        Worker firstWorker = acmeFactory.getDispatchedWorker(RobotType.DRY2000, WORKER_NAME + "-1");
+        new Thread(firstWorker).start();
+        sleep(200);
+
+        Worker secondWorker = acmeFactory.getDispatchedWorker(RobotType.DRY2000, WORKER_NAME + "-2");
+        new Thread(secondWorker).start();
+        sleep(200);
+
+        Queue<Component> conveyorBelt = QueueStorage.getConveyorBelt();
+        conveyorBelt.add(Component.BROOM);
+        conveyorBelt.add(Component.BROOM);
+        conveyorBelt.add(Component.MAIN_UNIT);
+        signalConveyorBelt();
+
+        sleep(1000);
+
+        // the first worker is now assembling its robot
+        Assert.assertEquals(2, firstWorker.getRobotComponentsMap().get(Component.BROOM)
+                .getNumberOfComponentsCurrentlyPossessed());
+        Assert.assertEquals(0, secondWorker.getRobotComponentsMap().get(Component.BROOM)
+                .getNumberOfComponentsCurrentlyPossessed());
+
+        sleep(3000);
+
+        firstWorker.stop();
+        secondWorker.stop();
+
+        Assert.assertEquals(1, firstWorker.getNoOfAssembledRobots());
+        Assert.assertEquals(0, secondWorker.getNoOfAssembledRobots());
+    }
+
+    /**
+     * Tests that stopping a dispatcher which waits for a component a worker needs ends its thread.
+     */
+    @Test
+    public void testStopEndsIdleDispatcher() throws InterruptedException {
+        ACMEFactory idleFactory = new ACMEFactory(new DefaultComponentGeneratorService());
+        Thread dispatcherThread = new Thread(idleFactory.getDispatcher());
+        dispatcherThread.start();
+        sleep(200);
+
+        idleFactory.getDispatcher().stop();
+        dispatcherThread.join(1000);
+
+        Assert.assertFalse(dispatcherThread.isAlive());
+    }
+
+    /**
+     * Components added directly to the conveyor belt do not wake up the dispatcher.
+     */
+    private void signalConveyorBelt() {
+        synchronized (QueueStorage.getConveyorBelt()) {
+            QueueStorage.getConveyorBelt().notifyAll();
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ie) {
+            ie.printStackTrace();
+            Assert.fail("Current thread was interrupted");
+        }
+    }
+}
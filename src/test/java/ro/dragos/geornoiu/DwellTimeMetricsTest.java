@@ -0,0 +1,123 @@
+package ro.dragos.geornoiu;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelope;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelopePool;
+import ro.dragos.geornoiu.conveyor.ConveyorBelt;
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.metrics.DwellTimeMetrics;
+import ro.dragos.geornoiu.metrics.LatencyHistogram;
+import ro.dragos.geornoiu.service.ComponentGeneratorService;
+import ro.dragos.geornoiu.service.factory.ACMEFactory;
+import ro.dragos.geornoiu.service.factory.QueueStorage;
+import ro.dragos.geornoiu.service.impl.DefaultComponentGeneratorService;
+
+import java.util.concurrent.TimeUnit;
+
+public class DwellTimeMetricsTest {
+    private static ACMEFactory acmeFactory;
+
+    private static final String WORKER_NAME = "test";
+    private static final int SUPPLIER_ID = 7;
+
+    @BeforeClass
+    public static void initAcmeFactory() {
+        ComponentGeneratorService componentGeneratorService = new DefaultComponentGeneratorService();
+        acmeFactory = new ACMEFactory(componentGeneratorService);
+    }
+
+    @Before
+    public void clearQueue() {
+        QueueStorage.getConveyorBelt().clear();
+    }
+
+    /**
+     * Verifies that the percentiles reported by the histogram are within its precision of the recorded values.
+     */
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram(TimeUnit.HOURS.toNanos(1), 7);
+
+        for (long value = 1; value <= 10000; value++) {
+            histogram.recordValue(value * 1000);
+        }
+
+        Assert.assertEquals(10000, histogram.getTotalCount());
+        Assert.assertEquals(10000000, histogram.getMaxValue());
+        Assert.assertEquals(5000000, histogram.getValueAtPercentile(50), 5000000 / 64);
+        Assert.assertEquals(9900000, histogram.getValueAtPercentile(99), 9900000 / 64);
+        Assert.assertEquals(10000000, histogram.getValueAtPercentile(100));
+        Assert.assertEquals(5000500, histogram.getMean(), 1);
+    }
+
+    /**
+     * Verifies that values above the highest trackable value are counted as the highest trackable value.
+     */
+    @Test
+    public void testHistogramClampsLargeValues() {
+        LatencyHistogram histogram = new LatencyHistogram(1000, 4);
+
+        histogram.recordValue(Long.MAX_VALUE);
+
+        Assert.assertEquals(1000, histogram.getMaxValue());
+        Assert.assertEquals(1000, histogram.getValueAtPercentile(50));
+    }
+
+    /**
+     * Verifies that released envelopes are reused instead of allocating new ones.
+     */
+    @Test
+    public void testEnvelopesAreReused() {
+        ComponentEnvelopePool pool = new ComponentEnvelopePool(1);
+
+        ComponentEnvelope envelope = pool.acquire(Component.MOP, SUPPLIER_ID, 1);
+        envelope.release();
+
+        ComponentEnvelope reusedEnvelope = pool.acquire(Component.BROOM, SUPPLIER_ID, 2);
+
+        Assert.assertSame(envelope, reusedEnvelope);
+        Assert.assertEquals(Component.BROOM, reusedEnvelope.getComponent());
+        Assert.assertEquals(2, reusedEnvelope.getSupplyTimeNanos());
+    }
+
+    /**
+     * Verifies that assembling a robot records the belt dwell, kit wait and supply to robot latency of every
+     * component of the kit.
+     */
+    @Test
+    public void testWorkerRecordsLatencies() {
+        ConveyorBelt conveyorBelt = QueueStorage.getConveyorBelt();
+        long supplyTime = System.nanoTime();
+        conveyorBelt.offer(conveyorBelt.getEnvelopePool().acquire(Component.MAIN_UNIT, SUPPLIER_ID, supplyTime));
+        conveyorBelt.offer(conveyorBelt.getEnvelopePool().acquire(Component.BROOM, SUPPLIER_ID, supplyTime));
+        conveyorBelt.offer(conveyorBelt.getEnvelopePool().acquire(Component.BROOM, SUPPLIER_ID, supplyTime));
+
+        Worker dryRobotWorker = acmeFactory.getWorker(RobotType.DRY2000, WORKER_NAME);
+        new Thread(dryRobotWorker).start();
+
+        try {
+            Thread.sleep(4000);
+        } catch (InterruptedException ie) {
+            ie.printStackTrace();
+            Assert.fail("Current thread was interrupted");
+        }
+
+        dryRobotWorker.stop();
+
+        DwellTimeMetrics metrics = acmeFactory.getDwellTimeMetrics();
+        Assert.assertEquals(1, dryRobotWorker.getNoOfAssembledRobots());
+        Assert.assertEquals(1, metrics.getBeltDwellHistogram(Component.MAIN_UNIT).getTotalCount());
+        Assert.assertEquals(2, metrics.getBeltDwellHistogram(Component.BROOM).getTotalCount());
+        Assert.assertEquals(2, metrics.getKitWaitHistogram(Component.BROOM).getTotalCount());
+        Assert.assertEquals(0, metrics.getKitWaitHistogram(Component.MOP).getTotalCount());
+
+        // assembling takes 3 seconds, so the whole trip of a component cannot be shorter
+        Assert.assertTrue(metrics.getSupplyToRobotHistogram(Component.MAIN_UNIT).getMaxValue() >=
+                TimeUnit.SECONDS.toNanos(3));
+    }
+}
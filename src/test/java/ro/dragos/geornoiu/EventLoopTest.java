@@ -0,0 +1,249 @@
+package ro.dragos.geornoiu;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import ro.dragos.geornoiu.constants.ACMEConstants;
+import ro.dragos.geornoiu.constants.FactoryTiming;
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.conveyor.ArrayConveyorBelt;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelopePool;
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.enums.SupplierState;
+import ro.dragos.geornoiu.enums.WaitStrategyType;
+import ro.dragos.geornoiu.enums.WorkerState;
+import ro.dragos.geornoiu.eventloop.ConveyorBeltSignal;
+import ro.dragos.geornoiu.eventloop.EventLoop;
+import ro.dragos.geornoiu.eventloop.EventLoopGroup;
+import ro.dragos.geornoiu.producer.FactorySupplier;
+import ro.dragos.geornoiu.service.factory.ACMEFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EventLoopTest {
+    private EventLoopGroup eventLoopGroup;
+
+    @After
+    public void stopEventLoops() throws InterruptedException {
+        if (eventLoopGroup != null) {
+            eventLoopGroup.stop();
+        }
+    }
+
+    /**
+     * Tests that steps submitted from other threads run on the event loop, and timers run in the order of their
+     * deadlines.
+     */
+    @Test
+    public void testTimersRunInDeadlineOrder() throws InterruptedException {
+        eventLoopGroup = new EventLoopGroup(1, "test-loop");
+        eventLoopGroup.start();
+        EventLoop eventLoop = eventLoopGroup.next();
+
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch latch = new CountDownLatch(4);
+
+        eventLoop.schedule(() -> step(order, 3, latch), TimeUnit.MILLISECONDS.toNanos(300));
+        eventLoop.schedule(() -> step(order, 1, latch), TimeUnit.MILLISECONDS.toNanos(100));
+        eventLoop.schedule(() -> step(order, 2, latch), TimeUnit.MILLISECONDS.toNanos(200));
+        eventLoop.execute(() -> step(order, 0, latch));
+
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3), order);
+    }
+
+    /**
+     * Tests that the lanes carried by an event loop take turns: a lane with many steps queued only runs
+     * {@link EventLoop#LANE_QUOTA} of them before the step of another lane.
+     */
+    @Test
+    public void testLanesTakeTurns() throws InterruptedException {
+        eventLoopGroup = new EventLoopGroup(1, "test-loop");
+        eventLoopGroup.start();
+        EventLoop eventLoop = eventLoopGroup.next();
+        EventLoop busyLane = eventLoop.newLane("busy");
+        EventLoop quietLane = eventLoop.newLane("quiet");
+
+        // hold the event loop until the steps of both lanes are queued
+        CountDownLatch queued = new CountDownLatch(1);
+        eventLoop.execute(() -> {
+            try {
+                queued.await();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        AtomicInteger noOfBusySteps = new AtomicInteger();
+        AtomicInteger noOfBusyStepsBeforeQuietStep = new AtomicInteger(-1);
+        CountDownLatch quietStepRan = new CountDownLatch(1);
+        for (int i = 0; i < 1000; i++) {
+            busyLane.execute(noOfBusySteps::incrementAndGet);
+        }
+        quietLane.execute(() -> {
+            noOfBusyStepsBeforeQuietStep.set(noOfBusySteps.get());
+            quietStepRan.countDown();
+        });
+        queued.countDown();
+
+        Assert.assertTrue(quietStepRan.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(EventLoop.LANE_QUOTA, noOfBusyStepsBeforeQuietStep.get());
+
+        drain(busyLane);
+        Assert.assertEquals(1000, noOfBusySteps.get());
+    }
+
+    /**
+     * Tests that workers and a supplier running as state machines on a single event loop thread assemble robots, and
+     * stop when asked.
+     */
+    @Test
+    public void testFactoryRunsOnEventLoop() {
+        eventLoopGroup = new EventLoopGroup(1, "test-loop");
+        eventLoopGroup.start();
+
+        ACMEFactory acmeFactory = createFactory(FactoryTiming.DEFAULT.speedUp(100));
+        Worker dryWorker = acmeFactory.getWorker(RobotType.DRY2000, "dry");
+        Worker wetWorker = acmeFactory.getWorker(RobotType.WET2000, "wet");
+        FactorySupplier factorySupplier = acmeFactory.getFactorySupplier("supplier");
+
+        dryWorker.start(eventLoopGroup.next(), acmeFactory.getConveyorBeltSignal());
+        wetWorker.start(eventLoopGroup.next(), acmeFactory.getConveyorBeltSignal());
+        factorySupplier.start(eventLoopGroup.next(), acmeFactory.getConveyorBeltSignal());
+
+        sleep(2000);
+
+        Assert.assertTrue(dryWorker.getNoOfAssembledRobots() > 0);
+        Assert.assertTrue(wetWorker.getNoOfAssembledRobots() > 0);
+
+        dryWorker.stop();
+        wetWorker.stop();
+        factorySupplier.stop();
+        sleep(500);
+
+        Assert.assertEquals(WorkerState.STOPPED, dryWorker.getState());
+        Assert.assertEquals(WorkerState.STOPPED, wetWorker.getState());
+        Assert.assertEquals(SupplierState.STOPPED, factorySupplier.snapshot().getState());
+    }
+
+    /**
+     * Tests that a thousand workers cost no thread of their own, and still assemble robots.
+     */
+    @Test
+    public void testThousandWorkersOnTwoThreads() {
+        eventLoopGroup = new EventLoopGroup(2, "test-loop");
+        eventLoopGroup.start();
+
+        ACMEFactory acmeFactory = createFactory(FactoryTiming.DEFAULT.speedUp(1000));
+        int noOfThreads = Thread.activeCount();
+
+        for (int i = 0; i < 1000; i++) {
+            acmeFactory.getWorker(i % 2 == 0 ? RobotType.DRY2000 : RobotType.WET2000, String.valueOf(i))
+                    .start(eventLoopGroup.next(), acmeFactory.getConveyorBeltSignal());
+        }
+        acmeFactory.getFactorySupplier("supplier").start(eventLoopGroup.next(), acmeFactory.getConveyorBeltSignal());
+
+        sleep(3000);
+
+        Assert.assertTrue(Thread.activeCount() <= noOfThreads);
+        Assert.assertTrue(acmeFactory.snapshot().getNoOfAssembledRobots(RobotType.DRY2000) > 0);
+        Assert.assertTrue(acmeFactory.snapshot().getNoOfAssembledRobots(RobotType.WET2000) > 0);
+
+        for (Worker worker : acmeFactory.getWorkers()) {
+            worker.stop();
+        }
+        for (FactorySupplier factorySupplier : acmeFactory.getFactorySuppliers()) {
+            factorySupplier.stop();
+        }
+    }
+
+    /**
+     * Tests that a taken component only wakes up the suppliers waiting for room, that a new head only wakes up the
+     * workers needing it, and that registering after the conveyor belt changed only resumes the late waiter.
+     */
+    @Test
+    public void testSignalWakesOnlyConcernedWaiters() throws InterruptedException {
+        eventLoopGroup = new EventLoopGroup(1, "test-loop");
+        eventLoopGroup.start();
+        EventLoop eventLoop = eventLoopGroup.next();
+
+        ArrayConveyorBelt conveyorBelt = new ArrayConveyorBelt(ACMEConstants.QUEUE_CAPACITY_LIMIT,
+                new ComponentEnvelopePool(16));
+        ConveyorBeltSignal signal = new ConveyorBeltSignal(conveyorBelt);
+        AtomicInteger noOfSupplierSteps = new AtomicInteger();
+        AtomicInteger noOfMopWorkerSteps = new AtomicInteger();
+        Component[] mop = {Component.MOP};
+
+        ConveyorBeltSignal.Waiter supplier = new ConveyorBeltSignal.Waiter(eventLoop,
+                noOfSupplierSteps::incrementAndGet);
+        List<ConveyorBeltSignal.Waiter> mopWorkers = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            mopWorkers.add(new ConveyorBeltSignal.Waiter(eventLoop, noOfMopWorkerSteps::incrementAndGet));
+        }
+
+        signal.awaitRoom(signal.sequence(), supplier);
+        for (ConveyorBeltSignal.Waiter mopWorker : mopWorkers) {
+            signal.awaitComponents(signal.sequence(), mopWorker, mop, 1);
+        }
+
+        conveyorBelt.add(Component.BROOM);
+        signal.signalSupplied();
+        drain(eventLoop);
+        Assert.assertEquals(0, noOfSupplierSteps.get());
+        Assert.assertEquals(0, noOfMopWorkerSteps.get());
+
+        conveyorBelt.poll();
+        conveyorBelt.add(Component.MOP);
+        signal.signalTaken();
+        drain(eventLoop);
+        Assert.assertEquals(1, noOfSupplierSteps.get());
+        Assert.assertEquals(100, noOfMopWorkerSteps.get());
+
+        long staleSequence = signal.sequence();
+        conveyorBelt.poll();
+        signal.signalTaken();
+        signal.awaitComponents(staleSequence, mopWorkers.get(0), mop, 1);
+        drain(eventLoop);
+        Assert.assertEquals(1, noOfSupplierSteps.get());
+        Assert.assertEquals(101, noOfMopWorkerSteps.get());
+    }
+
+    /**
+     * Wait until the steps submitted so far ran on the event loop.
+     */
+    private void drain(EventLoop eventLoop) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        eventLoop.execute(latch::countDown);
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    private ACMEFactory createFactory(FactoryTiming timing) {
+        Component[] components = {Component.MAIN_UNIT, Component.BROOM, Component.BROOM, Component.MAIN_UNIT,
+                Component.MOP, Component.MOP};
+        AtomicInteger next = new AtomicInteger();
+
+        return new ACMEFactory(() -> components[next.getAndIncrement() % components.length],
+                WaitStrategyType.BLOCKING, WaitStrategyType.BLOCKING, timing,
+                new ArrayConveyorBelt(ACMEConstants.QUEUE_CAPACITY_LIMIT, new ComponentEnvelopePool(16)));
+    }
+
+    private void step(List<Integer> order, int step, CountDownLatch latch) {
+        order.add(step);
+        latch.countDown();
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ie) {
+            Assert.fail("Current thread was interrupted");
+        }
+    }
+}
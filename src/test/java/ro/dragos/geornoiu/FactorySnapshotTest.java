@@ -0,0 +1,235 @@
+package ro.dragos.geornoiu;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import ro.dragos.geornoiu.constants.FactoryTiming;
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.enums.SupplierState;
+import ro.dragos.geornoiu.enums.WaitStrategyType;
+import ro.dragos.geornoiu.enums.WorkerState;
+import ro.dragos.geornoiu.producer.FactorySupplier;
+import ro.dragos.geornoiu.service.factory.ACMEFactory;
+import ro.dragos.geornoiu.service.factory.QueueStorage;
+import ro.dragos.geornoiu.service.impl.DefaultComponentGeneratorService;
+import ro.dragos.geornoiu.snapshot.FactorySnapshot;
+import ro.dragos.geornoiu.snapshot.SupplierSnapshot;
+import ro.dragos.geornoiu.snapshot.WorkerSnapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class FactorySnapshotTest {
+    private ACMEFactory acmeFactory;
+
+    @After
+    public void stopFactory() {
+        for (Worker worker : acmeFactory.getWorkers()) {
+            worker.stop();
+        }
+
+        for (FactorySupplier factorySupplier : acmeFactory.getFactorySuppliers()) {
+            factorySupplier.stop();
+        }
+    }
+
+    /**
+     * Tests that the snapshot shows the conveyor belt head first, the components collected by a worker and the
+     * components supplied by a supplier.
+     */
+    @Test
+    public void testSnapshotShowsFactoryState() {
+        QueueStorage.getConveyorBelt().clear();
+        // the supplier only delivers components the DRY2000 worker does not need
+        acmeFactory = new ACMEFactory(() -> Component.MOP);
+
+        Queue<Component> conveyorBelt = QueueStorage.getConveyorBelt();
+        conveyorBelt.add(Component.MAIN_UNIT);
+        conveyorBelt.add(Component.BROOM);
+
+        Worker dryRobotWorker = acmeFactory.getWorker(RobotType.DRY2000, "dry");
+        new Thread(dryRobotWorker).start();
+        sleep(500);
+
+        FactorySupplier factorySupplier = acmeFactory.getFactorySupplier("supplier");
+        new Thread(factorySupplier).start();
+        sleep(500);
+
+        FactorySnapshot snapshot = acmeFactory.snapshot();
+
+        Assert.assertEquals(Arrays.asList(Component.MOP), snapshot.getConveyorBelt());
+        Assert.assertEquals(10, snapshot.getConveyorBeltCapacity());
+
+        WorkerSnapshot workerSnapshot = snapshot.getWorkers().get(0);
+        Assert.assertEquals(dryRobotWorker.getName(), workerSnapshot.getName());
+        Assert.assertEquals(WorkerState.COLLECTING, workerSnapshot.getState());
+        Assert.assertEquals(1, workerSnapshot.getNoOfCollectedComponents(Component.MAIN_UNIT));
+        Assert.assertEquals(1, workerSnapshot.getNoOfCollectedComponents(Component.BROOM));
+        Assert.assertEquals(2, workerSnapshot.getNoOfNeededComponents(Component.BROOM));
+        Assert.assertEquals(0, workerSnapshot.getNoOfNeededComponents(Component.MOP));
+        Assert.assertEquals(2, workerSnapshot.getKitSize());
+        Assert.assertEquals(3, workerSnapshot.getKitCapacity());
+
+        SupplierSnapshot supplierSnapshot = snapshot.getSuppliers().get(0);
+        Assert.assertEquals(SupplierState.IDLE, supplierSnapshot.getState());
+        Assert.assertEquals(1, supplierSnapshot.getNoOfSuppliedComponents());
+        Assert.assertEquals(0, supplierSnapshot.getNoOfDiscardedComponents());
+
+        dryRobotWorker.stop();
+        factorySupplier.stop();
+        sleep(200);
+
+        Assert.assertEquals(WorkerState.STOPPED, dryRobotWorker.snapshot().getState());
+    }
+
+    /**
+     * Tests that snapshots taken continuously while the factory runs fast never show a worker in the middle of
+     * changing its state.
+     */
+    @Test
+    public void testSnapshotsAreConsistent() {
+        QueueStorage.getConveyorBelt().clear();
+        acmeFactory = new ACMEFactory(new DefaultComponentGeneratorService(), WaitStrategyType.BLOCKING,
+                WaitStrategyType.BLOCKING, FactoryTiming.DEFAULT.speedUp(1000));
+
+        for (int i = 0; i < 2; i++) {
+            new Thread(acmeFactory.getWorker(RobotType.DRY2000, String.valueOf(i))).start();
+            new Thread(acmeFactory.getWorker(RobotType.WET2000, String.valueOf(i))).start();
+        }
+        new Thread(acmeFactory.getFactorySupplier("supplier")).start();
+
+        Map<String, Integer> lastNoOfAssembledRobots = new HashMap<>();
+        long lastNoOfSuppliedComponents = 0;
+        long deadline = System.currentTimeMillis() + 1000;
+        int noOfSnapshots = 0;
+
+        while (System.currentTimeMillis() < deadline) {
+            FactorySnapshot snapshot = acmeFactory.snapshot();
+            noOfSnapshots++;
+
+            Assert.assertTrue(snapshot.getConveyorBelt().size() <= snapshot.getConveyorBeltCapacity());
+
+            for (WorkerSnapshot worker : snapshot.getWorkers()) {
+                for (Component component : Component.values()) {
+                    Assert.assertTrue(worker.toString(), worker.getNoOfCollectedComponents(component) <=
+                            worker.getNoOfNeededComponents(component));
+                }
+
+                if (worker.getState() == WorkerState.COLLECTING) {
+                    Assert.assertTrue(worker.toString(), worker.getKitSize() < worker.getKitCapacity());
+                } else if (worker.getState() == WorkerState.ASSEMBLING) {
+                    Assert.assertEquals(worker.toString(), worker.getKitCapacity(), worker.getKitSize());
+                }
+
+                Integer previous = lastNoOfAssembledRobots.put(worker.getName(), worker.getNoOfAssembledRobots());
+                Assert.assertTrue(previous == null || previous <= worker.getNoOfAssembledRobots());
+            }
+
+            SupplierSnapshot supplier = snapshot.getSuppliers().get(0);
+            Assert.assertTrue(supplier.getNoOfSuppliedComponents() >= lastNoOfSuppliedComponents);
+            lastNoOfSuppliedComponents = supplier.getNoOfSuppliedComponents();
+        }
+
+        FactorySnapshot snapshot = acmeFactory.snapshot();
+        Assert.assertTrue(noOfSnapshots > 1000);
+        Assert.assertTrue(snapshot.getNoOfAssembledRobots(RobotType.DRY2000) +
+                snapshot.getNoOfAssembledRobots(RobotType.WET2000) > 0);
+    }
+
+    /**
+     * Tests that the workers which stopped are removed when a new worker is built, and that the snapshot still counts
+     * the robots they assembled.
+     */
+    @Test
+    public void testStoppedWorkersAreRemoved() throws InterruptedException {
+        QueueStorage.getConveyorBelt().clear();
+        acmeFactory = new ACMEFactory(new DefaultComponentGeneratorService(), WaitStrategyType.BLOCKING,
+                WaitStrategyType.BLOCKING, FactoryTiming.DEFAULT.speedUp(1000));
+
+        Worker retiredWorker = acmeFactory.getWorker(RobotType.DRY2000, "retired");
+        Thread retiredWorkerThread = new Thread(retiredWorker);
+        retiredWorkerThread.start();
+        new Thread(acmeFactory.getFactorySupplier("supplier")).start();
+        sleep(1000);
+
+        retiredWorker.stop();
+        retiredWorkerThread.join();
+        Assert.assertTrue(retiredWorker.getNoOfAssembledRobots() > 0);
+
+        Worker newWorker = acmeFactory.getWorker(RobotType.DRY2000, "new");
+
+        Assert.assertEquals(Arrays.asList(newWorker), acmeFactory.getWorkers());
+        Assert.assertTrue(acmeFactory.snapshot().getNoOfAssembledRobots(RobotType.DRY2000) >=
+                retiredWorker.getNoOfAssembledRobots());
+    }
+
+    /**
+     * Tests that snapshots taken while stopped workers are removed count the robots of every worker exactly once, and
+     * that the stopped workers are removed without building a new worker.
+     */
+    @Test
+    public void testSnapshotWhileWorkersAreRemoved() throws InterruptedException {
+        QueueStorage.getConveyorBelt().clear();
+        acmeFactory = new ACMEFactory(new DefaultComponentGeneratorService(), WaitStrategyType.BLOCKING,
+                WaitStrategyType.BLOCKING, FactoryTiming.DEFAULT.speedUp(1000));
+
+        Thread[] workerThreads = new Thread[8];
+        for (int index = 0; index < workerThreads.length; index++) {
+            workerThreads[index] = new Thread(acmeFactory.getWorker(RobotType.DRY2000, "retired-" + index));
+            workerThreads[index].start();
+        }
+        FactorySupplier factorySupplier = acmeFactory.getFactorySupplier("supplier");
+        new Thread(factorySupplier).start();
+        sleep(1000);
+        factorySupplier.stop();
+
+        long noOfAssembledRobots = 0;
+        for (Worker worker : acmeFactory.getWorkers()) {
+            worker.stop();
+        }
+        for (Thread workerThread : workerThreads) {
+            workerThread.join();
+        }
+        for (Worker worker : acmeFactory.getWorkers()) {
+            noOfAssembledRobots += worker.getNoOfAssembledRobots();
+        }
+        Assert.assertTrue(noOfAssembledRobots > 0);
+
+        AtomicBoolean removed = new AtomicBoolean();
+        List<Long> snapshotCounts = new ArrayList<>();
+        Thread snapshotThread = new Thread(() -> {
+            while (!removed.get()) {
+                snapshotCounts.add(acmeFactory.snapshot().getNoOfAssembledRobots(RobotType.DRY2000));
+            }
+        });
+        snapshotThread.start();
+        sleep(50);
+
+        acmeFactory.removeStoppedWorkers();
+        removed.set(true);
+        snapshotThread.join();
+
+        Assert.assertTrue(acmeFactory.getWorkers().isEmpty());
+        Assert.assertFalse(snapshotCounts.isEmpty());
+        for (long snapshotCount : snapshotCounts) {
+            Assert.assertEquals(noOfAssembledRobots, snapshotCount);
+        }
+        Assert.assertEquals(noOfAssembledRobots, acmeFactory.snapshot().getNoOfAssembledRobots(RobotType.DRY2000));
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ie) {
+            ie.printStackTrace();
+            Assert.fail("Current thread was interrupted");
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package ro.dragos.geornoiu;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.jfr.ComponentSuppliedEvent;
+import ro.dragos.geornoiu.jfr.ComponentTakenEvent;
+import ro.dragos.geornoiu.jfr.RobotAssembledEvent;
+import ro.dragos.geornoiu.jfr.WorkerWaitEvent;
+import ro.dragos.geornoiu.producer.FactorySupplier;
+import ro.dragos.geornoiu.service.factory.ACMEFactory;
+import ro.dragos.geornoiu.service.factory.QueueStorage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+public class FlightRecorderEventsTest {
+    private ACMEFactory acmeFactory;
+
+    @Before
+    public void initAcmeFactory() {
+        QueueStorage.getConveyorBelt().clear();
+        // the supplier only delivers components the DRY2000 worker does not need
+        acmeFactory = new ACMEFactory(() -> Component.MOP);
+    }
+
+    /**
+     * Tests that supplying a component, taking components, waiting for them and assembling a robot are recorded by the
+     * flight recorder.
+     */
+    @Test
+    public void testFactoryOperationsAreRecorded() throws IOException {
+        Queue<Component> conveyorBelt = QueueStorage.getConveyorBelt();
+        conveyorBelt.add(Component.MAIN_UNIT);
+        conveyorBelt.add(Component.BROOM);
+        conveyorBelt.add(Component.BROOM);
+
+        Worker dryRobotWorker = acmeFactory.getWorker(RobotType.DRY2000, "dry");
+        FactorySupplier factorySupplier = acmeFactory.getFactorySupplier("supplier");
+
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(ComponentSuppliedEvent.class);
+            recording.enable(ComponentTakenEvent.class);
+            recording.enable(WorkerWaitEvent.class).withThreshold(Duration.ZERO);
+            recording.enable(RobotAssembledEvent.class);
+            recording.start();
+
+            new Thread(dryRobotWorker).start();
+            new Thread(factorySupplier).start();
+            sleep(200);
+            factorySupplier.stop();
+
+            sleep(3500);
+            dryRobotWorker.stop();
+            recording.stop();
+
+            Path recordingFile = Files.createTempFile("acme", ".jfr");
+            try {
+                recording.dump(recordingFile);
+                events = RecordingFile.readAllEvents(recordingFile);
+            } finally {
+                Files.delete(recordingFile);
+            }
+        }
+
+        Assert.assertEquals(1, getEvents(events, "ro.dragos.geornoiu.ComponentSupplied").size());
+
+        List<RecordedEvent> takenEvents = getEvents(events, "ro.dragos.geornoiu.ComponentTaken");
+        Assert.assertEquals(3, takenEvents.size());
+        Assert.assertEquals(Component.MAIN_UNIT.name(), takenEvents.get(0).getString("component"));
+
+        List<RecordedEvent> waitEvents = getEvents(events, "ro.dragos.geornoiu.WorkerWait");
+        Assert.assertEquals(3, waitEvents.size());
+        Assert.assertEquals(dryRobotWorker.getName(), waitEvents.get(0).getString("worker"));
+
+        List<RecordedEvent> assembledEvents = getEvents(events, "ro.dragos.geornoiu.RobotAssembled");
+        Assert.assertEquals(1, assembledEvents.size());
+        Assert.assertEquals(RobotType.DRY2000.name(), assembledEvents.get(0).getString("robotType"));
+        Assert.assertTrue(assembledEvents.get(0).getDuration().toMillis() >= 3000);
+    }
+
+    private List<RecordedEvent> getEvents(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> namedEvents = new ArrayList<>();
+
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals(name)) {
+                namedEvents.add(event);
+            }
+        }
+
+        namedEvents.sort((first, second) -> first.getStartTime().compareTo(second.getStartTime()));
+        return namedEvents;
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ie) {
+            ie.printStackTrace();
+            Assert.fail("Current thread was interrupted");
+        }
+    }
+}
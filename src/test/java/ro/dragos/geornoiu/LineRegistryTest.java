@@ -0,0 +1,128 @@
+package ro.dragos.geornoiu;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import ro.dragos.geornoiu.constants.FactoryTiming;
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.enums.WorkerState;
+import ro.dragos.geornoiu.line.FactoryLine;
+import ro.dragos.geornoiu.line.LineRegistry;
+import ro.dragos.geornoiu.service.ComponentGeneratorService;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LineRegistryTest {
+    private LineRegistry lineRegistry;
+
+    @After
+    public void closeLineRegistry() throws InterruptedException {
+        lineRegistry.close();
+    }
+
+    /**
+     * Tests that every line has its own conveyor belt and metrics: each line only assembles the robots its components
+     * are for.
+     */
+    @Test
+    public void testLinesAreIndependent() {
+        lineRegistry = new LineRegistry(4, FactoryTiming.DEFAULT.speedUp(100));
+
+        FactoryLine dryLine = lineRegistry.addLine("dry", 1, 0,
+                cycle(Component.MAIN_UNIT, Component.BROOM, Component.BROOM));
+        FactoryLine wetLine = lineRegistry.addLine("wet", 0, 1, cycle(Component.MAIN_UNIT, Component.MOP, Component.MOP));
+        Assert.assertNotSame(dryLine.getAcmeFactory().getConveyorBelt(), wetLine.getAcmeFactory().getConveyorBelt());
+
+        sleep(2000);
+
+        Assert.assertTrue(dryLine.getThroughputMetrics().getNoOfAssembledRobots(RobotType.DRY2000) > 0);
+        Assert.assertEquals(0, dryLine.getThroughputMetrics().getNoOfAssembledRobots(RobotType.WET2000));
+        Assert.assertTrue(wetLine.getThroughputMetrics().getNoOfAssembledRobots(RobotType.WET2000) > 0);
+        Assert.assertEquals(0, wetLine.getThroughputMetrics().getNoOfAssembledRobots(RobotType.DRY2000));
+        Assert.assertEquals(2, lineRegistry.getLines().size());
+    }
+
+    /**
+     * Tests that many lines share the bounded event loops without a thread of their own, that every one of them
+     * assembles robots, and that a removed line stops while the others keep running.
+     */
+    @Test
+    public void testLinesShareEventLoops() {
+        int noOfThreads = Thread.activeCount();
+        lineRegistry = new LineRegistry(2, FactoryTiming.DEFAULT.speedUp(100));
+
+        for (int i = 0; i < 50; i++) {
+            lineRegistry.addLine("line-" + i, 2, 2, cycle(Component.MAIN_UNIT, Component.BROOM, Component.BROOM,
+                    Component.MAIN_UNIT, Component.MOP, Component.MOP));
+        }
+        Assert.assertTrue(Thread.activeCount() <= noOfThreads + lineRegistry.getNoOfEventLoops());
+
+        try {
+            lineRegistry.addLine("line-0", 0, 0, cycle(Component.MAIN_UNIT));
+            Assert.fail("Two lines with the same name were added");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!allLinesAssembled() && System.nanoTime() < deadline) {
+            sleep(50);
+        }
+        Assert.assertTrue(allLinesAssembled());
+
+        FactoryLine removedLine = lineRegistry.getLine("line-0");
+        Assert.assertEquals(5, removedLine.getNoOfActors());
+        Assert.assertTrue(lineRegistry.removeLine("line-0"));
+        Assert.assertFalse(lineRegistry.removeLine("line-0"));
+        Assert.assertNull(lineRegistry.getLine("line-0"));
+
+        deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!allStopped(removedLine) && System.nanoTime() < deadline) {
+            sleep(10);
+        }
+        Assert.assertTrue(allStopped(removedLine));
+
+        long noOfAssembledRobots = lineRegistry.getLine("line-1").getThroughputMetrics()
+                .getNoOfAssembledRobots(RobotType.DRY2000);
+        sleep(500);
+        Assert.assertTrue(lineRegistry.getLine("line-1").getThroughputMetrics()
+                .getNoOfAssembledRobots(RobotType.DRY2000) > noOfAssembledRobots);
+    }
+
+    private boolean allLinesAssembled() {
+        for (FactoryLine line : lineRegistry.getLines()) {
+            if (line.getThroughputMetrics().getNoOfAssembledRobots(RobotType.DRY2000) == 0 ||
+                    line.getThroughputMetrics().getNoOfAssembledRobots(RobotType.WET2000) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean allStopped(FactoryLine line) {
+        for (Worker worker : line.getWorkers()) {
+            if (worker.getState() != WorkerState.STOPPED) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private ComponentGeneratorService cycle(Component... components) {
+        AtomicInteger next = new AtomicInteger();
+        return () -> components[next.getAndIncrement() % components.length];
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ie) {
+            Assert.fail("Current thread was interrupted");
+        }
+    }
+}
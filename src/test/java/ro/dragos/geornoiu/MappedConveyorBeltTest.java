@@ -0,0 +1,272 @@
+package ro.dragos.geornoiu;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelope;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelopePool;
+import ro.dragos.geornoiu.conveyor.MappedConveyorBelt;
+import ro.dragos.geornoiu.enums.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MappedConveyorBeltTest {
+    private static final int CAPACITY = 10;
+
+    private Path conveyorBeltFile;
+    private final List<MappedConveyorBelt> conveyorBelts = new ArrayList<>();
+
+    @Before
+    public void createConveyorBeltFile() throws IOException {
+        conveyorBeltFile = Files.createTempFile("acme", ".belt");
+        Files.delete(conveyorBeltFile);
+    }
+
+    @After
+    public void deleteConveyorBeltFile() throws IOException {
+        for (MappedConveyorBelt conveyorBelt : conveyorBelts) {
+            conveyorBelt.close();
+        }
+
+        Files.deleteIfExists(conveyorBeltFile);
+        Files.deleteIfExists(Paths.get(conveyorBeltFile + ".single"));
+    }
+
+    /**
+     * Tests that the shared conveyor belt keeps its capacity and returns the components head first.
+     */
+    @Test
+    public void testQueueOperations() throws IOException {
+        MappedConveyorBelt conveyorBelt = mapConveyorBelt(CAPACITY);
+
+        Assert.assertNull(conveyorBelt.peek());
+        Assert.assertNull(conveyorBelt.poll());
+
+        for (int i = 0; i < CAPACITY; i++) {
+            Assert.assertTrue(conveyorBelt.offer(i % 2 == 0 ? Component.MOP : Component.BROOM));
+        }
+
+        Assert.assertFalse(conveyorBelt.offer(Component.MAIN_UNIT));
+        Assert.assertEquals(CAPACITY, conveyorBelt.size());
+        Assert.assertEquals(Component.MOP, conveyorBelt.peek());
+
+        Assert.assertNull(conveyorBelt.pollEnvelope(Component.BROOM));
+        ComponentEnvelope envelope = conveyorBelt.pollEnvelope(Component.MOP);
+        Assert.assertEquals(Component.MOP, envelope.getComponent());
+        Assert.assertEquals(ComponentEnvelope.UNKNOWN_SUPPLIER, envelope.getSupplierId());
+
+        Assert.assertTrue(conveyorBelt.offer(Component.MAIN_UNIT));
+        Component[] components = new Component[CAPACITY];
+        Assert.assertEquals(CAPACITY, conveyorBelt.copyComponents(components));
+        Assert.assertEquals(Component.BROOM, components[0]);
+        Assert.assertEquals(Component.MAIN_UNIT, components[CAPACITY - 1]);
+
+        conveyorBelt.clear();
+        Assert.assertEquals(0, conveyorBelt.size());
+
+        // many laps around a ring of a single slot
+        MappedConveyorBelt singleSlotConveyorBelt = mapConveyorBelt(Paths.get(conveyorBeltFile + ".single"), 1);
+        for (Component component : Component.values()) {
+            Assert.assertTrue(singleSlotConveyorBelt.offer(component));
+            Assert.assertFalse(singleSlotConveyorBelt.offer(component));
+            Assert.assertEquals(component, singleSlotConveyorBelt.poll());
+            Assert.assertNull(singleSlotConveyorBelt.poll());
+        }
+    }
+
+    /**
+     * Tests that two mappings of the same file see the same conveyor belt, and that a conveyor belt of another capacity
+     * is rejected.
+     */
+    @Test
+    public void testConveyorBeltIsShared() throws IOException {
+        MappedConveyorBelt supplierSide = mapConveyorBelt(CAPACITY);
+        MappedConveyorBelt workerSide = mapConveyorBelt(CAPACITY);
+
+        supplierSide.offer(Component.MAIN_UNIT);
+        supplierSide.offer(Component.BROOM);
+
+        Assert.assertEquals(2, workerSide.size());
+        Assert.assertEquals(Component.MAIN_UNIT, workerSide.poll());
+
+        supplierSide.close();
+        conveyorBelts.remove(supplierSide);
+
+        MappedConveyorBelt reopened = mapConveyorBelt(CAPACITY);
+        Assert.assertEquals(Arrays.asList(Component.BROOM), new ArrayList<>(reopened));
+
+        try {
+            mapConveyorBelt(CAPACITY + 1);
+            Assert.fail("A conveyor belt of another capacity was mapped");
+        } catch (IOException ioe) {
+            // expected
+        }
+    }
+
+    /**
+     * Tests that suppliers and workers using different mappings of the same file hand over every component exactly
+     * once.
+     */
+    @Test
+    public void testConcurrentHandoffLosesNoComponent() throws Exception {
+        int noOfComponentsPerSupplier = 20_000;
+        AtomicLong noOfTakenComponents = new AtomicLong();
+        AtomicLong takenOrdinalSum = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < 2; i++) {
+            MappedConveyorBelt supplierSide = mapConveyorBelt(CAPACITY);
+            MappedConveyorBelt workerSide = mapConveyorBelt(CAPACITY);
+            Component component = Component.values()[i];
+
+            threads.add(new Thread(() -> {
+                for (int n = 0; n < noOfComponentsPerSupplier; n++) {
+                    while (!supplierSide.offer(component)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+
+            threads.add(new Thread(() -> {
+                while (noOfTakenComponents.get() < 2L * noOfComponentsPerSupplier) {
+                    Component taken = workerSide.poll();
+                    if (taken == null) {
+                        Thread.yield();
+                    } else {
+                        takenOrdinalSum.addAndGet(taken.ordinal());
+                        noOfTakenComponents.incrementAndGet();
+                    }
+                }
+            }));
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+
+        Assert.assertEquals(2L * noOfComponentsPerSupplier, noOfTakenComponents.get());
+        Assert.assertEquals((long) noOfComponentsPerSupplier * (Component.values()[0].ordinal() +
+                Component.values()[1].ordinal()), takenOrdinalSum.get());
+        Assert.assertEquals(0, mapConveyorBelt(CAPACITY).size());
+    }
+
+    /**
+     * Tests that components supplied by another process are taken by this one, and that the conveyor belt is still
+     * usable after the supplier process is killed while it is supplying.
+     */
+    @Test
+    public void testSupplierProcessDeath() throws Exception {
+        MappedConveyorBelt conveyorBelt = mapConveyorBelt(CAPACITY);
+
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process supplierProcess = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                MappedConveyorBeltTest.class.getName(), conveyorBeltFile.toString(), String.valueOf(CAPACITY))
+                .inheritIO().start();
+
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+            int noOfTakenComponents = 0;
+
+            while (noOfTakenComponents < 10_000 && System.nanoTime() < deadline) {
+                Component component = conveyorBelt.poll();
+
+                if (component == null) {
+                    Thread.yield();
+                } else {
+                    Assert.assertEquals(Component.values()[noOfTakenComponents % Component.values().length],
+                            component);
+                    noOfTakenComponents++;
+                }
+            }
+
+            Assert.assertEquals(10_000, noOfTakenComponents);
+        } finally {
+            supplierProcess.destroyForcibly().waitFor();
+        }
+
+        conveyorBelt.clear();
+        Assert.assertEquals(0, conveyorBelt.size());
+
+        for (int lap = 0; lap < 3; lap++) {
+            for (int i = 0; i < CAPACITY; i++) {
+                Assert.assertTrue(conveyorBelt.offer(Component.MOP));
+            }
+
+            Assert.assertFalse(conveyorBelt.offer(Component.MOP));
+
+            for (int i = 0; i < CAPACITY; i++) {
+                Assert.assertEquals(Component.MOP, conveyorBelt.poll());
+            }
+
+            Assert.assertNull(conveyorBelt.poll());
+        }
+    }
+
+    /**
+     * Tests that a supplier which died after filling the tail slot, but before moving the tail, does not stop the
+     * others from supplying once a worker took that component.
+     */
+    @Test(timeout = 5000)
+    public void testTailLeftBehindByDeadSupplier() throws IOException {
+        MappedConveyorBelt conveyorBelt = mapConveyorBelt(CAPACITY);
+
+        // fill the first slot like a supplier does, without moving the tail: the slot starts at byte 192 and holds its
+        // position shifted left by 9 bits, a full flag in bit 8 and the ordinal of its component
+        try (FileChannel channel = FileChannel.open(conveyorBeltFile, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            mapping.order(ByteOrder.nativeOrder()).putLong(192, 1L << 8 | Component.MOP.ordinal());
+        }
+
+        Assert.assertEquals(Component.MOP, conveyorBelt.peek());
+        Assert.assertEquals(Component.MOP, conveyorBelt.poll());
+
+        Assert.assertTrue(conveyorBelt.offer(Component.BROOM));
+        Assert.assertEquals(1, conveyorBelt.size());
+        Assert.assertEquals(Component.BROOM, conveyorBelt.poll());
+        Assert.assertNull(conveyorBelt.poll());
+    }
+
+    /**
+     * Supplier process of {@link #testSupplierProcessDeath()}: supplies the components in order until it is killed.
+     */
+    public static void main(String[] args) throws IOException {
+        MappedConveyorBelt conveyorBelt = new MappedConveyorBelt(Paths.get(args[0]), Integer.parseInt(args[1]),
+                new ComponentEnvelopePool(0));
+        Component[] components = Component.values();
+
+        for (long n = 0; ; n++) {
+            while (!conveyorBelt.offer(components[(int) (n % components.length)])) {
+                Thread.yield();
+            }
+        }
+    }
+
+    private MappedConveyorBelt mapConveyorBelt(int capacity) throws IOException {
+        return mapConveyorBelt(conveyorBeltFile, capacity);
+    }
+
+    private MappedConveyorBelt mapConveyorBelt(Path file, int capacity) throws IOException {
+        MappedConveyorBelt conveyorBelt = new MappedConveyorBelt(file, capacity, new ComponentEnvelopePool(16));
+        conveyorBelts.add(conveyorBelt);
+        return conveyorBelt;
+    }
+}
@@ -0,0 +1,131 @@
+package ro.dragos.geornoiu;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import ro.dragos.geornoiu.constants.FactoryTiming;
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.model.FactoryModel;
+import ro.dragos.geornoiu.model.MarkovThroughputSolver;
+import ro.dragos.geornoiu.model.ThroughputEstimate;
+import ro.dragos.geornoiu.regression.RegressionResult;
+import ro.dragos.geornoiu.regression.RegressionScenario;
+import ro.dragos.geornoiu.regression.ThroughputRegressionHarness;
+import ro.dragos.geornoiu.regression.TimingSensitive;
+import ro.dragos.geornoiu.service.impl.DefaultComponentGeneratorService;
+import ro.dragos.geornoiu.service.factory.ACMEFactory;
+
+public class MarkovThroughputSolverTest {
+    private static final double DELTA = 1e-6;
+
+    // the threaded factory depends on the scheduling of its threads, so it only has to be close to the model
+    private static final double THREADED_FACTORY_TOLERANCE = 0.25;
+
+    private final MarkovThroughputSolver solver = new MarkovThroughputSolver();
+
+    /**
+     * Tests that a worker needing a single main unit, supplied every second, assembles a robot every time its
+     * assembly ends and the supplier, waiting less than the maximum for room, puts a component in its place.
+     */
+    @Test
+    public void testAssemblyLimitedFactory() {
+        ThroughputEstimate estimate = solver.solve(mainUnitOnlyFactory(1));
+
+        Assert.assertTrue(estimate.isConverged());
+        Assert.assertEquals(1.0 / 3, estimate.getRobotsPerSecond(RobotType.DRY2000), DELTA);
+        Assert.assertEquals(1.0, estimate.getWorkerUtilization(RobotType.DRY2000), DELTA);
+        Assert.assertEquals(0, estimate.getRobotsPerSecond(RobotType.WET2000), DELTA);
+        Assert.assertEquals(1.0 / 3, estimate.getSuppliedComponentsPerSecond(), DELTA);
+        Assert.assertEquals(0, estimate.getDiscardedComponentsPerSecond(), DELTA);
+        Assert.assertEquals(10, estimate.getMeanConveyorBeltSize(), DELTA);
+    }
+
+    /**
+     * Tests that workers needing a single main unit, enough of them to take every component supplied, assemble a
+     * robot every second and nothing is discarded.
+     */
+    @Test
+    public void testSupplyLimitedFactory() {
+        ThroughputEstimate estimate = solver.solve(mainUnitOnlyFactory(4));
+
+        Assert.assertTrue(estimate.isConverged());
+        Assert.assertEquals(1.0, estimate.getRobotsPerSecond(RobotType.DRY2000), DELTA);
+        Assert.assertEquals(0.75, estimate.getWorkerUtilization(RobotType.DRY2000), DELTA);
+        Assert.assertEquals(0, estimate.getDiscardedComponentsPerSecond(), DELTA);
+        Assert.assertEquals(0, estimate.getMeanConveyorBeltSize(), DELTA);
+    }
+
+    /**
+     * Tests that, in the steady state of the default factory, every component supplied is either used in a robot or
+     * discarded.
+     */
+    @Test
+    public void testComponentsAreConserved() {
+        ACMEFactory acmeFactory = new ACMEFactory(new DefaultComponentGeneratorService());
+        ThroughputEstimate estimate = solver.solve(FactoryModel.of(acmeFactory, 2, 2));
+
+        Assert.assertTrue(estimate.isConverged());
+
+        double usedComponentsPerSecond = 0;
+        for (RobotType robotType : RobotType.values()) {
+            int noOfComponents = 0;
+            for (Component component : Component.values()) {
+                noOfComponents += acmeFactory.getNoOfComponentsNeeded(robotType, component);
+            }
+
+            usedComponentsPerSecond += estimate.getRobotsPerSecond(robotType) * noOfComponents;
+            Assert.assertTrue(estimate.getRobotsPerSecond(robotType) > 0);
+        }
+
+        Assert.assertEquals(estimate.getSuppliedComponentsPerSecond() - estimate.getDiscardedComponentsPerSecond(),
+                usedComponentsPerSecond, DELTA);
+        Assert.assertTrue(estimate.getSuppliedComponentsPerSecond() <= 1.0 + DELTA);
+    }
+
+    /**
+     * Tests that a conveyor belt too large to be encoded is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManyStatesAreRejected() {
+        new MarkovThroughputSolver(1000, MarkovThroughputSolver.DEFAULT_TOLERANCE,
+                MarkovThroughputSolver.DEFAULT_MAX_NO_OF_ITERATIONS)
+                .solve(FactoryModel.of(new ACMEFactory(new DefaultComponentGeneratorService()), 2, 2));
+    }
+
+    /**
+     * Tests that the threaded factory, with the default timing sped up, assembles as many robots per second of the
+     * factory as the model predicts.
+     */
+    @Test
+    @Category(TimingSensitive.class)
+    public void testThreadedFactoryMatchesModel() throws InterruptedException {
+        ACMEFactory acmeFactory = new ACMEFactory(new DefaultComponentGeneratorService());
+        ThroughputEstimate estimate = solver.solve(FactoryModel.of(acmeFactory, 2, 2));
+
+        // every run is 200 times faster than the factory, so 5 seconds are 1000 seconds of the factory
+        RegressionResult result = new ThroughputRegressionHarness(0, 0, 0)
+                .run(new RegressionScenario("model", 2, 2, 5000, 200, 3), DefaultComponentGeneratorService::new);
+
+        // a run assembles about a hundred robots, too few to compare the robot types one by one
+        double expected = 0;
+        double actual = 0;
+        for (RobotType robotType : RobotType.values()) {
+            expected += estimate.getRobotsPerSecond(robotType);
+            actual += result.getRobotsPerSecond(robotType);
+        }
+
+        Assert.assertEquals(expected, actual, expected * THREADED_FACTORY_TOLERANCE);
+    }
+
+    private static FactoryModel mainUnitOnlyFactory(int noOfWorkers) {
+        int[][] noOfComponentsNeeded = new int[RobotType.values().length][Component.values().length];
+        noOfComponentsNeeded[RobotType.DRY2000.ordinal()][Component.MAIN_UNIT.ordinal()] = 1;
+
+        double[] componentProbabilities = new double[Component.values().length];
+        componentProbabilities[Component.MAIN_UNIT.ordinal()] = 1;
+
+        return new FactoryModel(10, new int[]{noOfWorkers, 0}, noOfComponentsNeeded, componentProbabilities,
+                FactoryTiming.DEFAULT);
+    }
+}
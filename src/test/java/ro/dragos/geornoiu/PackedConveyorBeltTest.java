@@ -0,0 +1,233 @@
+package ro.dragos.geornoiu;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Assert;
+import org.junit.Test;
+import ro.dragos.geornoiu.constants.ACMEConstants;
+import ro.dragos.geornoiu.constants.FactoryTiming;
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelope;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelopePool;
+import ro.dragos.geornoiu.conveyor.PackedConveyorBelt;
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.enums.WaitStrategyType;
+import ro.dragos.geornoiu.jfr.ComponentSuppliedEvent;
+import ro.dragos.geornoiu.producer.FactorySupplier;
+import ro.dragos.geornoiu.service.factory.ACMEFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class PackedConveyorBeltTest {
+
+    /**
+     * Tests that the packed conveyor belt keeps its capacity, returns the components head first and only takes the
+     * head on a conditional take if it is the expected component.
+     */
+    @Test
+    public void testQueueOperations() {
+        PackedConveyorBelt conveyorBelt = new PackedConveyorBelt(ACMEConstants.QUEUE_CAPACITY_LIMIT,
+                new ComponentEnvelopePool(16));
+
+        Assert.assertNull(conveyorBelt.peek());
+        Assert.assertNull(conveyorBelt.poll());
+
+        for (int i = 0; i < ACMEConstants.QUEUE_CAPACITY_LIMIT; i++) {
+            Assert.assertTrue(conveyorBelt.offer(Component.values()[i % Component.values().length]));
+        }
+
+        Assert.assertFalse(conveyorBelt.offer(Component.MAIN_UNIT));
+        Assert.assertEquals(ACMEConstants.QUEUE_CAPACITY_LIMIT, conveyorBelt.size());
+        Assert.assertEquals(Component.values()[0], conveyorBelt.peek());
+
+        Assert.assertNull(conveyorBelt.pollEnvelope(Component.values()[1]));
+        ComponentEnvelope envelope = conveyorBelt.pollEnvelope(Component.values()[0]);
+        Assert.assertEquals(Component.values()[0], envelope.getComponent());
+        Assert.assertEquals(ComponentEnvelope.UNKNOWN_SUPPLIER, envelope.getSupplierId());
+
+        ComponentEnvelope offered = conveyorBelt.getEnvelopePool().acquire(Component.MOP, 1, System.nanoTime());
+        Assert.assertTrue(conveyorBelt.offer(offered));
+
+        Component[] components = new Component[ACMEConstants.QUEUE_CAPACITY_LIMIT];
+        Assert.assertEquals(ACMEConstants.QUEUE_CAPACITY_LIMIT, conveyorBelt.copyComponents(components));
+        Assert.assertEquals(Component.values()[1], components[0]);
+        Assert.assertEquals(Component.MOP, components[ACMEConstants.QUEUE_CAPACITY_LIMIT - 1]);
+        Assert.assertEquals(Arrays.asList(components), new ArrayList<>(conveyorBelt));
+
+        conveyorBelt.clear();
+        Assert.assertEquals(0, conveyorBelt.size());
+    }
+
+    /**
+     * Tests that the largest capacity fitting in a word is usable to the last component, and that larger ones are
+     * rejected.
+     */
+    @Test
+    public void testCapacityFitsInWord() {
+        Assert.assertTrue(PackedConveyorBelt.fits(ACMEConstants.QUEUE_CAPACITY_LIMIT));
+        Assert.assertFalse(PackedConveyorBelt.fits(PackedConveyorBelt.MAX_CAPACITY + 1));
+
+        PackedConveyorBelt conveyorBelt = new PackedConveyorBelt(PackedConveyorBelt.MAX_CAPACITY,
+                new ComponentEnvelopePool(0));
+        Component[] components = Component.values();
+
+        for (int i = 0; i < PackedConveyorBelt.MAX_CAPACITY; i++) {
+            Assert.assertTrue(conveyorBelt.offer(components[components.length - 1 - i % components.length]));
+        }
+        Assert.assertFalse(conveyorBelt.offer(Component.MAIN_UNIT));
+
+        for (int i = 0; i < PackedConveyorBelt.MAX_CAPACITY; i++) {
+            Assert.assertEquals(components[components.length - 1 - i % components.length], conveyorBelt.poll());
+        }
+        Assert.assertNull(conveyorBelt.poll());
+
+        try {
+            new PackedConveyorBelt(PackedConveyorBelt.MAX_CAPACITY + 1, new ComponentEnvelopePool(0));
+            Assert.fail("A conveyor belt larger than a word was created");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+    }
+
+    /**
+     * Tests that concurrent suppliers and workers hand over every component exactly once.
+     */
+    @Test
+    public void testConcurrentHandoffLosesNoComponent() throws InterruptedException {
+        PackedConveyorBelt conveyorBelt = new PackedConveyorBelt(ACMEConstants.QUEUE_CAPACITY_LIMIT,
+                new ComponentEnvelopePool(0));
+        int noOfComponentsPerSupplier = 50_000;
+        AtomicLong noOfTakenComponents = new AtomicLong();
+        AtomicLong takenOrdinalSum = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < 2; i++) {
+            Component component = Component.values()[i + 1];
+
+            threads.add(new Thread(() -> {
+                for (int n = 0; n < noOfComponentsPerSupplier; n++) {
+                    while (!conveyorBelt.offer(component)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+
+            threads.add(new Thread(() -> {
+                while (noOfTakenComponents.get() < 2L * noOfComponentsPerSupplier) {
+                    Component taken = conveyorBelt.poll();
+                    if (taken == null) {
+                        Thread.yield();
+                    } else {
+                        takenOrdinalSum.addAndGet(taken.ordinal());
+                        noOfTakenComponents.incrementAndGet();
+                    }
+                }
+            }));
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+
+        Assert.assertEquals(2L * noOfComponentsPerSupplier, noOfTakenComponents.get());
+        Assert.assertEquals((long) noOfComponentsPerSupplier * (1 + 2), takenOrdinalSum.get());
+        Assert.assertEquals(0, conveyorBelt.size());
+    }
+
+    /**
+     * Tests that workers and a supplier using the packed conveyor belt assemble robots.
+     */
+    @Test
+    public void testFactoryUsesPackedConveyorBelt() {
+        Component[] components = {Component.MAIN_UNIT, Component.BROOM, Component.BROOM};
+        AtomicInteger next = new AtomicInteger();
+        ACMEFactory acmeFactory = new ACMEFactory(() -> components[next.getAndIncrement() % components.length],
+                WaitStrategyType.BLOCKING, WaitStrategyType.BLOCKING, FactoryTiming.DEFAULT.speedUp(100),
+                new PackedConveyorBelt(ACMEConstants.QUEUE_CAPACITY_LIMIT, new ComponentEnvelopePool(16)));
+
+        Worker worker = acmeFactory.getWorker(RobotType.DRY2000, "dry");
+        FactorySupplier factorySupplier = acmeFactory.getFactorySupplier("supplier");
+        new Thread(worker).start();
+        new Thread(factorySupplier).start();
+
+        try {
+            Thread.sleep(1000);
+        } catch (InterruptedException ie) {
+            Assert.fail("Current thread was interrupted");
+        } finally {
+            worker.stop();
+            factorySupplier.stop();
+        }
+
+        Assert.assertTrue(worker.getNoOfAssembledRobots() > 0);
+    }
+
+    /**
+     * Tests that a supplier on the packed conveyor belt keeps supplying while its supplied components are recorded by
+     * the flight recorder, which reads the component of the envelope after it was offered.
+     */
+    @Test
+    public void testSupplierRecordsSuppliedComponents() throws IOException, InterruptedException {
+        PackedConveyorBelt conveyorBelt = new PackedConveyorBelt(ACMEConstants.QUEUE_CAPACITY_LIMIT,
+                new ComponentEnvelopePool(16));
+        ACMEFactory acmeFactory = new ACMEFactory(() -> Component.MOP, WaitStrategyType.BLOCKING,
+                WaitStrategyType.BLOCKING, FactoryTiming.DEFAULT.speedUp(100), conveyorBelt);
+        FactorySupplier factorySupplier = acmeFactory.getFactorySupplier("supplier");
+
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(ComponentSuppliedEvent.class);
+            recording.start();
+
+            Thread supplierThread = new Thread(factorySupplier);
+            supplierThread.start();
+
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+            while (conveyorBelt.size() < conveyorBelt.getCapacity() && supplierThread.isAlive()
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            Assert.assertTrue("The supplier stopped supplying", supplierThread.isAlive());
+            factorySupplier.stop();
+            supplierThread.join(TimeUnit.SECONDS.toMillis(5));
+            recording.stop();
+
+            Path recordingFile = Files.createTempFile("acme", ".jfr");
+            try {
+                recording.dump(recordingFile);
+                events = RecordingFile.readAllEvents(recordingFile);
+            } finally {
+                Files.delete(recordingFile);
+            }
+        }
+
+        Assert.assertEquals(conveyorBelt.getCapacity(), conveyorBelt.size());
+
+        List<RecordedEvent> suppliedEvents = new ArrayList<>();
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals("ro.dragos.geornoiu.ComponentSupplied")) {
+                suppliedEvents.add(event);
+            }
+        }
+
+        Assert.assertTrue(suppliedEvents.size() >= conveyorBelt.getCapacity());
+        for (RecordedEvent suppliedEvent : suppliedEvents) {
+            Assert.assertEquals(Component.MOP.name(), suppliedEvent.getString("component"));
+        }
+    }
+}
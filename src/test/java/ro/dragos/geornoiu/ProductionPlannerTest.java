@@ -0,0 +1,213 @@
+package ro.dragos.geornoiu;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ro.dragos.geornoiu.constants.ACMEConstants;
+import ro.dragos.geornoiu.constants.FactoryTiming;
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.conveyor.ArrayConveyorBelt;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelopePool;
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.enums.WaitStrategyType;
+import ro.dragos.geornoiu.enums.WorkerState;
+import ro.dragos.geornoiu.exception.InvalidRobotTypeException;
+import ro.dragos.geornoiu.planning.OrderBook;
+import ro.dragos.geornoiu.planning.OrderReport;
+import ro.dragos.geornoiu.planning.ProductionOrder;
+import ro.dragos.geornoiu.planning.ProductionPlanner;
+import ro.dragos.geornoiu.producer.FactorySupplier;
+import ro.dragos.geornoiu.service.factory.ACMEFactory;
+import ro.dragos.geornoiu.service.impl.DemandWeightedComponentGeneratorService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class ProductionPlannerTest {
+
+    /**
+     * Tests that orders are parsed into quantities for each robot type and that malformed orders are rejected.
+     */
+    @Test
+    public void testOrdersAreParsed() {
+        ProductionOrder order = ProductionOrder.parse("shift", "WET2000:300, DRY2000:500");
+        Assert.assertEquals(300, order.getQuantity(RobotType.WET2000));
+        Assert.assertEquals(500, order.getQuantity(RobotType.DRY2000));
+        Assert.assertEquals(800, order.getTotalQuantity());
+
+        OrderBook orderBook = OrderBook.parse("WET2000:3;DRY2000:1,DRY2000:1");
+        List<OrderReport> orderReports = orderBook.getOrderReports();
+        Assert.assertEquals(2, orderReports.size());
+        Assert.assertEquals("order-2", orderReports.get(1).getOrder().getName());
+        Assert.assertEquals(2, orderReports.get(1).getOrder().getQuantity(RobotType.DRY2000));
+
+        try {
+            ProductionOrder.parse("shift", "WET3000:1");
+            Assert.fail("An order for an unknown robot type was parsed");
+        } catch (InvalidRobotTypeException irte) {
+            // expected
+        }
+
+        try {
+            ProductionOrder.parse("shift", "WET2000");
+            Assert.fail("An order without a quantity was parsed");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+    }
+
+    /**
+     * Tests that the order book fills the oldest open order first, counts the destroyed components against it and
+     * completes once every order is filled, only generating the components still needed meanwhile.
+     */
+    @Test
+    public void testOrderBookFillsOrdersInOrder() throws InterruptedException {
+        OrderBook orderBook = OrderBook.parse("DRY2000:1;DRY2000:1,WET2000:1");
+        DemandWeightedComponentGeneratorService generator = new DemandWeightedComponentGeneratorService(orderBook, 42);
+        ACMEFactory acmeFactory = newAcmeFactory(generator);
+        Worker dryWorker = acmeFactory.getWorker(RobotType.DRY2000, "dry");
+        Worker wetWorker = acmeFactory.getWorker(RobotType.WET2000, "wet");
+
+        orderBook.start(acmeFactory, 2, 1);
+        Assert.assertEquals(2, orderBook.getNoOfRemainingRobots(RobotType.DRY2000));
+        Assert.assertEquals(2 * acmeFactory.getNoOfComponentsNeeded(RobotType.DRY2000, Component.BROOM),
+                orderBook.getNoOfRemainingComponents(Component.BROOM));
+
+        orderBook.componentDiscarded(null, null);
+        orderBook.robotAssembled(dryWorker, null, 0, 0, 0, System.nanoTime());
+        orderBook.componentDiscarded(null, null);
+
+        // only the second order is open and it needs a robot of each type
+        Assert.assertEquals(1, orderBook.getNoOfRemainingRobots(RobotType.DRY2000));
+        Assert.assertEquals(1, orderBook.getNoOfRemainingRobots(RobotType.WET2000));
+
+        orderBook.robotAssembled(dryWorker, null, 0, 0, 0, System.nanoTime());
+
+        // the WET2000 robot needs no broom, so no broom is generated anymore
+        Assert.assertEquals(0, orderBook.getNoOfRemainingComponents(Component.BROOM));
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertNotEquals(Component.BROOM, generator.retrieveComponent());
+        }
+
+        Assert.assertFalse(orderBook.isComplete());
+        orderBook.robotAssembled(wetWorker, null, 0, 0, 0, System.nanoTime());
+        orderBook.robotAssembled(wetWorker, null, 0, 0, 0, System.nanoTime());
+
+        Assert.assertTrue(orderBook.awaitCompletion(0, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(1, orderBook.getNoOfSurplusRobots());
+
+        List<OrderReport> orderReports = orderBook.getOrderReports();
+        Assert.assertEquals(1, orderReports.get(0).getNoOfWastedComponents());
+        Assert.assertEquals(1, orderReports.get(1).getNoOfWastedComponents());
+        Assert.assertTrue(orderReports.get(0).isComplete());
+        Assert.assertTrue(orderReports.get(1).getProjectedMakespanMillis() >
+                orderReports.get(0).getProjectedMakespanMillis());
+        Assert.assertTrue(orderBook.report().contains("order-2: DRY2000 1/1; WET2000 1/1;"));
+    }
+
+    /**
+     * Tests that the planner switches the workers whose quota is met to the robot type still needed, and stops the
+     * factory once every order is complete.
+     */
+    @Test
+    public void testPlannerSwitchesWorkersAndStopsFactory() throws InterruptedException {
+        OrderBook orderBook = OrderBook.parse("DRY2000:2,WET2000:1");
+        ACMEFactory acmeFactory = newAcmeFactory(new DemandWeightedComponentGeneratorService(orderBook));
+        acmeFactory.getEventListener().addListener(orderBook);
+
+        FactorySupplier factorySupplier = acmeFactory.getFactorySupplier("supplier");
+        orderBook.start(acmeFactory, 2, 1);
+        new Thread(acmeFactory.getWorker(RobotType.DRY2000, "dry-0")).start();
+        new Thread(acmeFactory.getWorker(RobotType.DRY2000, "dry-1")).start();
+        new Thread(factorySupplier).start();
+
+        ProductionPlanner productionPlanner = new ProductionPlanner(acmeFactory, orderBook, 20);
+        Thread plannerThread = new Thread(productionPlanner);
+        plannerThread.start();
+
+        try {
+            Assert.assertTrue("Orders were not completed", orderBook.awaitCompletion(30, TimeUnit.SECONDS));
+            plannerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } finally {
+            productionPlanner.stop();
+            factorySupplier.stop();
+            for (Worker worker : acmeFactory.getWorkers()) {
+                worker.stop();
+            }
+        }
+
+        Assert.assertFalse(productionPlanner.isRunning());
+
+        boolean switchedToWet = false;
+        for (Worker worker : acmeFactory.getWorkers()) {
+            Assert.assertFalse(worker.isRunning());
+            switchedToWet |= worker.getRobotType() == RobotType.WET2000;
+        }
+        Assert.assertTrue("No worker was switched to WET2000", switchedToWet);
+
+        OrderReport orderReport = orderBook.getOrderReports().get(0);
+        Assert.assertEquals(2, orderReport.getNoOfAssembledRobots(RobotType.DRY2000));
+        Assert.assertEquals(1, orderReport.getNoOfAssembledRobots(RobotType.WET2000));
+        Assert.assertTrue(orderReport.getProjectedMakespanMillis() > 0);
+        Assert.assertTrue(orderReport.getActualMakespanMillis() > 0);
+    }
+
+    /**
+     * Tests that the planner only retires the workers collecting components once their quota is met, so the idle
+     * workers build no surplus robot and a worker assembling is left to finish.
+     */
+    @Test
+    public void testPlannerRetiresOnlyCollectingWorkers() throws InterruptedException {
+        OrderBook orderBook = OrderBook.parse("DRY2000:1,WET2000:1");
+        // the supplier is never started, the only components are the kit of the assembling worker
+        ACMEFactory acmeFactory = new ACMEFactory(() -> Component.MOP, WaitStrategyType.BLOCKING,
+                WaitStrategyType.BLOCKING, FactoryTiming.DEFAULT, new ArrayConveyorBelt(
+                ACMEConstants.QUEUE_CAPACITY_LIMIT, new ComponentEnvelopePool(ACMEConstants.ENVELOPE_POOL_CAPACITY)));
+        acmeFactory.getEventListener().addListener(orderBook);
+        acmeFactory.getConveyorBelt().add(Component.MAIN_UNIT);
+        acmeFactory.getConveyorBelt().add(Component.BROOM);
+        acmeFactory.getConveyorBelt().add(Component.BROOM);
+
+        Worker assemblingWorker = acmeFactory.getWorker(RobotType.DRY2000, "assembling");
+        new Thread(assemblingWorker).start();
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (assemblingWorker.getState() != WorkerState.ASSEMBLING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(WorkerState.ASSEMBLING, assemblingWorker.getState());
+
+        Worker idleWorker = acmeFactory.getWorker(RobotType.DRY2000, "idle");
+        Thread idleWorkerThread = new Thread(idleWorker);
+        idleWorkerThread.start();
+
+        orderBook.start(acmeFactory, 2, 1);
+        // the DRY2000 quota is met while one worker assembles and the other waits for components
+        orderBook.robotAssembled(idleWorker, null, 0, 0, 0, System.nanoTime());
+
+        ProductionPlanner productionPlanner = new ProductionPlanner(acmeFactory, orderBook, 20);
+        try {
+            productionPlanner.plan();
+
+            idleWorkerThread.join(TimeUnit.SECONDS.toMillis(5));
+            Assert.assertEquals(WorkerState.STOPPED, idleWorker.getState());
+            Assert.assertTrue(assemblingWorker.isRunning());
+            Assert.assertEquals(0, orderBook.getNoOfSurplusRobots());
+
+            boolean startedWet = false;
+            for (Worker worker : acmeFactory.getWorkers()) {
+                startedWet |= worker.getRobotType() == RobotType.WET2000 && worker.isRunning();
+            }
+            Assert.assertTrue("No WET2000 worker was started", startedWet);
+        } finally {
+            for (Worker worker : acmeFactory.getWorkers()) {
+                worker.stop();
+            }
+        }
+    }
+
+    private ACMEFactory newAcmeFactory(DemandWeightedComponentGeneratorService generator) {
+        return new ACMEFactory(generator, WaitStrategyType.BLOCKING, WaitStrategyType.BLOCKING,
+                FactoryTiming.DEFAULT.speedUp(100), new ArrayConveyorBelt(ACMEConstants.QUEUE_CAPACITY_LIMIT,
+                new ComponentEnvelopePool(ACMEConstants.ENVELOPE_POOL_CAPACITY)));
+    }
+}
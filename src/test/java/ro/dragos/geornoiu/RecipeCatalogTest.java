@@ -0,0 +1,186 @@
+package ro.dragos.geornoiu;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ro.dragos.geornoiu.constants.ACMEConstants;
+import ro.dragos.geornoiu.constants.FactoryTiming;
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.conveyor.ArrayConveyorBelt;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelopePool;
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.enums.WaitStrategyType;
+import ro.dragos.geornoiu.exception.InvalidRobotTypeException;
+import ro.dragos.geornoiu.planning.OrderBook;
+import ro.dragos.geornoiu.recipe.Recipe;
+import ro.dragos.geornoiu.recipe.RecipeCatalog;
+import ro.dragos.geornoiu.service.factory.ACMEFactory;
+import ro.dragos.geornoiu.service.impl.DefaultComponentGeneratorService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+
+public class RecipeCatalogTest {
+    private static final int NO_OF_COMPONENT_TYPES = 400;
+    private static final int NO_OF_ROBOT_MODELS = 300;
+    private static final int MAX_COMPONENT_TYPES_PER_RECIPE = 12;
+
+    /**
+     * Tests that the default catalog holds the recipes of the ACME robots and the factory builds workers from them.
+     */
+    @Test
+    public void testDefaultCatalogHoldsAcmeRecipes() {
+        RecipeCatalog recipeCatalog = RecipeCatalog.getDefault();
+        Recipe dry2000Recipe = recipeCatalog.getRecipe(RobotType.DRY2000);
+        Recipe wet2000Recipe = recipeCatalog.getRecipe(RobotType.WET2000);
+
+        Assert.assertEquals(1, dry2000Recipe.getNoOfComponentsNeeded(recipeCatalog.getComponentIndex("MAIN_UNIT")));
+        Assert.assertEquals(2, dry2000Recipe.getNoOfComponentsNeeded(recipeCatalog.getComponentIndex("BROOM")));
+        Assert.assertEquals(0, dry2000Recipe.getNoOfComponentsNeeded(recipeCatalog.getComponentIndex("MOP")));
+        Assert.assertEquals(3, wet2000Recipe.getTotalQuantity());
+        Assert.assertEquals(2, recipeCatalog.getNoOfRobotModelsNeeding(recipeCatalog.getComponentIndex("MAIN_UNIT")));
+
+        ACMEFactory acmeFactory = new ACMEFactory(new DefaultComponentGeneratorService());
+        Worker worker = acmeFactory.getWorker(RobotType.WET2000, "wet");
+        Assert.assertEquals(2, worker.getRobotComponentsPair(Component.MOP).getNumberOfComponentsNeeded());
+        Assert.assertNull(worker.getRobotComponentsPair(Component.BROOM));
+    }
+
+    /**
+     * Tests that a catalog with hundreds of component types and robot models is compiled to sorted recipes and that
+     * the inverted index lists exactly the robot models needing each component.
+     */
+    @Test
+    public void testLargeCatalogIsCompiled() throws IOException {
+        Random random = new Random(42);
+        int[][] quantities = new int[NO_OF_ROBOT_MODELS][NO_OF_COMPONENT_TYPES];
+        StringBuilder recipes = new StringBuilder("# generated recipes\n");
+
+        for (int robotModel = 0; robotModel < NO_OF_ROBOT_MODELS; robotModel++) {
+            recipes.append("MODEL_").append(robotModel).append('=');
+
+            int noOfComponentTypes = 1 + random.nextInt(MAX_COMPONENT_TYPES_PER_RECIPE);
+            for (int i = 0; i < noOfComponentTypes; i++) {
+                int component = random.nextInt(NO_OF_COMPONENT_TYPES);
+                int quantity = 1 + random.nextInt(3);
+                quantities[robotModel][component] += quantity;
+
+                recipes.append(i == 0 ? "" : ",").append("PART_").append(component).append(':').append(quantity);
+            }
+            recipes.append('\n');
+        }
+
+        RecipeCatalog recipeCatalog = RecipeCatalog.read(new BufferedReader(new StringReader(recipes.toString())));
+        Assert.assertEquals(NO_OF_ROBOT_MODELS, recipeCatalog.getNoOfRobotModels());
+
+        for (int robotModel = 0; robotModel < NO_OF_ROBOT_MODELS; robotModel++) {
+            Recipe recipe = recipeCatalog.getRecipe("MODEL_" + robotModel);
+            Assert.assertEquals(robotModel, recipe.getRobotModelIndex());
+
+            for (int i = 1; i < recipe.getNoOfComponentTypes(); i++) {
+                Assert.assertTrue(recipe.getComponentIndex(i - 1) < recipe.getComponentIndex(i));
+            }
+
+            for (int component = 0; component < NO_OF_COMPONENT_TYPES; component++) {
+                int componentIndex = recipeCatalog.getComponentIndex("PART_" + component);
+                int expected = quantities[robotModel][component];
+                Assert.assertEquals(expected, componentIndex < 0 ? 0 : recipe.getNoOfComponentsNeeded(componentIndex));
+            }
+        }
+
+        for (int componentIndex = 0; componentIndex < recipeCatalog.getNoOfComponentTypes(); componentIndex++) {
+            int component = Integer.parseInt(recipeCatalog.getComponentName(componentIndex).substring(5));
+            int noOfRobotModels = 0;
+
+            for (int robotModel = 0; robotModel < NO_OF_ROBOT_MODELS; robotModel++) {
+                if (quantities[robotModel][component] > 0) {
+                    Assert.assertEquals(robotModel, recipeCatalog.getRobotModelNeeding(componentIndex,
+                            noOfRobotModels++));
+                }
+            }
+
+            Assert.assertEquals(noOfRobotModels, recipeCatalog.getNoOfRobotModelsNeeding(componentIndex));
+        }
+    }
+
+    /**
+     * Tests that malformed recipes, duplicate robot models and quantities which are not positive are rejected.
+     */
+    @Test
+    public void testMalformedRecipesAreRejected() throws IOException {
+        String[] malformedRecipes = {"DRY2000", "=MAIN_UNIT:1", "DRY2000=MAIN_UNIT", "DRY2000=MAIN_UNIT:one",
+                "DRY2000=MAIN_UNIT:0", "DRY2000=MAIN_UNIT:1\nDRY2000=BROOM:2"};
+
+        for (String malformedRecipe : malformedRecipes) {
+            try {
+                RecipeCatalog.read(new BufferedReader(new StringReader(malformedRecipe)));
+                Assert.fail("Accepted " + malformedRecipe);
+            } catch (IllegalArgumentException iae) {
+                // expected
+            }
+        }
+    }
+
+    /**
+     * Tests that the factory builds its workers from the recipes of the given catalog and rejects a catalog missing a
+     * robot type or needing an unknown component.
+     */
+    @Test
+    public void testFactoryUsesCatalogRecipes() throws IOException {
+        ACMEFactory acmeFactory = createFactory("DRY2000=MAIN_UNIT:1,BROOM:3\nWET2000=MOP:1");
+
+        Assert.assertEquals(3, acmeFactory.getNoOfComponentsNeeded(RobotType.DRY2000, Component.BROOM));
+        Assert.assertEquals(0, acmeFactory.getNoOfComponentsNeeded(RobotType.WET2000, Component.MAIN_UNIT));
+        Assert.assertEquals(1, acmeFactory.getNeededComponents(RobotType.WET2000).size());
+        Assert.assertEquals(3, acmeFactory.getWorker(RobotType.DRY2000, "dry").getRobotComponentsMap()
+                .get(Component.BROOM).getNumberOfComponentsNeeded());
+
+        try {
+            createFactory("DRY2000=MAIN_UNIT:1,BROOM:2");
+            Assert.fail("Accepted a catalog without WET2000");
+        } catch (InvalidRobotTypeException irte) {
+            // expected
+        }
+
+        try {
+            createFactory("DRY2000=MAIN_UNIT:1,BROOM:2\nWET2000=MAIN_UNIT:1,SPONGE:2");
+            Assert.fail("Accepted an unknown component");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+    }
+
+    /**
+     * Tests that the factory and the order book find the robot types needing a component through the inverted index
+     * of the catalog, leaving out the robot models the factory does not build.
+     */
+    @Test
+    public void testDemandUsesInvertedIndex() throws IOException {
+        ACMEFactory acmeFactory = createFactory("DRY2000=MAIN_UNIT:1,BROOM:2\nWET2000=MAIN_UNIT:1,BROOM:1\n" +
+                "VAC3000=MAIN_UNIT:1,MOP:1");
+
+        Assert.assertEquals(2, acmeFactory.getNoOfRobotTypesNeeding(Component.MAIN_UNIT));
+        Assert.assertEquals(RobotType.DRY2000, acmeFactory.getRobotTypeNeeding(Component.MAIN_UNIT, 0));
+        Assert.assertEquals(RobotType.WET2000, acmeFactory.getRobotTypeNeeding(Component.MAIN_UNIT, 1));
+        Assert.assertEquals(2, acmeFactory.getNoOfRobotTypesNeeding(Component.BROOM));
+        Assert.assertEquals(0, acmeFactory.getNoOfRobotTypesNeeding(Component.MOP));
+
+        OrderBook orderBook = OrderBook.parse("DRY2000:2,WET2000:3");
+        Assert.assertEquals(0, orderBook.getNoOfRemainingComponents(Component.BROOM));
+
+        orderBook.start(acmeFactory, 2, 1);
+        Assert.assertEquals(5, orderBook.getNoOfRemainingComponents(Component.MAIN_UNIT));
+        Assert.assertEquals(2 * 2 + 3, orderBook.getNoOfRemainingComponents(Component.BROOM));
+        Assert.assertEquals(0, orderBook.getNoOfRemainingComponents(Component.MOP));
+    }
+
+    private static ACMEFactory createFactory(String recipes) throws IOException {
+        return new ACMEFactory(new DefaultComponentGeneratorService(), WaitStrategyType.BLOCKING,
+                WaitStrategyType.BLOCKING, FactoryTiming.DEFAULT,
+                new ArrayConveyorBelt(ACMEConstants.QUEUE_CAPACITY_LIMIT,
+                        new ComponentEnvelopePool(ACMEConstants.ENVELOPE_POOL_CAPACITY)),
+                RecipeCatalog.read(new BufferedReader(new StringReader(recipes))));
+    }
+}
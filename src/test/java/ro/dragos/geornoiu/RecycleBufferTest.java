@@ -0,0 +1,108 @@
+package ro.dragos.geornoiu;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ro.dragos.geornoiu.constants.ACMEConstants;
+import ro.dragos.geornoiu.constants.FactoryTiming;
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.conveyor.ArrayConveyorBelt;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelope;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelopePool;
+import ro.dragos.geornoiu.conveyor.RecycleBuffer;
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.enums.WaitStrategyType;
+import ro.dragos.geornoiu.metrics.ThroughputMetrics;
+import ro.dragos.geornoiu.producer.FactorySupplier;
+import ro.dragos.geornoiu.service.factory.ACMEFactory;
+import ro.dragos.geornoiu.service.impl.DefaultComponentGeneratorService;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+public class RecycleBufferTest {
+    private static final long MAX_AGE_MILLIS = 100;
+
+    // every action is 100 times faster than in the factory, so 5 seconds are more than 8 minutes of the factory
+    private static final int SPEED_UP_FACTOR = 100;
+    private static final long DURATION_IN_MILLIS = 5000;
+
+    /**
+     * Tests that the buffer puts back the oldest component a worker needs and destroys the components pushed out of
+     * the full buffer or kept longer than the age limit.
+     */
+    @Test
+    public void testBufferKeepsComponentsUntilNeeded() {
+        ComponentEnvelopePool envelopePool = new ComponentEnvelopePool(8);
+        Set<Component> componentsInDemand = EnumSet.noneOf(Component.class);
+        RecycleBuffer recycleBuffer = new RecycleBuffer(2, MAX_AGE_MILLIS, componentsInDemand::contains);
+
+        ComponentEnvelope mop = envelopePool.acquire(Component.MOP, 0, 0);
+        ComponentEnvelope broom = envelopePool.acquire(Component.BROOM, 0, 0);
+        ComponentEnvelope mainUnit = envelopePool.acquire(Component.MAIN_UNIT, 0, 0);
+
+        Assert.assertNull(recycleBuffer.add(mop, 0));
+        Assert.assertNull(recycleBuffer.add(broom, 1));
+        Assert.assertSame(mop, recycleBuffer.add(mainUnit, 2));
+
+        Assert.assertNull(recycleBuffer.pollInDemand(7, 3));
+        componentsInDemand.add(Component.MAIN_UNIT);
+        Assert.assertSame(mainUnit, recycleBuffer.pollInDemand(7, 3));
+        Assert.assertEquals(7, mainUnit.getSupplierId());
+        Assert.assertEquals(3, mainUnit.getSupplyTimeNanos());
+
+        Assert.assertNull(recycleBuffer.pollExpired(TimeUnit.MILLISECONDS.toNanos(MAX_AGE_MILLIS)));
+        Assert.assertSame(broom, recycleBuffer.pollExpired(TimeUnit.MILLISECONDS.toNanos(MAX_AGE_MILLIS) + 2));
+        Assert.assertEquals(0, recycleBuffer.size());
+
+        Assert.assertEquals(3, recycleBuffer.getNoOfRecycledComponents());
+        Assert.assertEquals(1, recycleBuffer.getNoOfReinjectedComponents());
+        Assert.assertEquals(2, recycleBuffer.getNoOfExpiredComponents());
+        Assert.assertEquals(1.0 / 3, recycleBuffer.getRecycledFraction(), 1e-9);
+    }
+
+    /**
+     * Tests that the suppliers of a factory keep the components they remove from the full conveyor belt, put some of
+     * them back once the workers need them, and only destroy the ones which expired.
+     */
+    @Test
+    public void testFactoryPutsRecycledComponentsBack() throws InterruptedException {
+        FactoryTiming timing = FactoryTiming.DEFAULT.speedUp(SPEED_UP_FACTOR);
+        ACMEFactory acmeFactory = new ACMEFactory(new DefaultComponentGeneratorService(42), WaitStrategyType.BLOCKING,
+                WaitStrategyType.BLOCKING, timing, new ArrayConveyorBelt(ACMEConstants.QUEUE_CAPACITY_LIMIT,
+                new ComponentEnvelopePool(ACMEConstants.ENVELOPE_POOL_CAPACITY)));
+        RecycleBuffer recycleBuffer = acmeFactory.enableRecycleBuffer(ACMEConstants.QUEUE_CAPACITY_LIMIT,
+                ACMEConstants.DEFAULT_RECYCLE_MAX_AGE_MILLIS / SPEED_UP_FACTOR);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            threads.add(new Thread(acmeFactory.getWorker(RobotType.DRY2000, String.valueOf(i))));
+            threads.add(new Thread(acmeFactory.getWorker(RobotType.WET2000, String.valueOf(i))));
+        }
+        FactorySupplier factorySupplier = acmeFactory.getFactorySupplier("supplier");
+        threads.add(new Thread(factorySupplier));
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+
+        Thread.sleep(DURATION_IN_MILLIS);
+
+        factorySupplier.stop();
+        for (Worker worker : acmeFactory.getWorkers()) {
+            worker.stop();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        ThroughputMetrics throughputMetrics = acmeFactory.getThroughputMetrics();
+        Assert.assertTrue(recycleBuffer.report(), recycleBuffer.getNoOfReinjectedComponents() > 0);
+        Assert.assertEquals(recycleBuffer.getNoOfExpiredComponents(), throughputMetrics.getNoOfDiscardedComponents());
+        Assert.assertEquals(recycleBuffer.getNoOfRecycledComponents(), recycleBuffer.getNoOfReinjectedComponents() +
+                recycleBuffer.getNoOfExpiredComponents() + recycleBuffer.size());
+    }
+}
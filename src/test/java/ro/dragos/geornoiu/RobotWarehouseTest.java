@@ -0,0 +1,148 @@
+package ro.dragos.geornoiu;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.service.factory.ACMEFactory;
+import ro.dragos.geornoiu.service.factory.QueueStorage;
+import ro.dragos.geornoiu.warehouse.RobotRecord;
+import ro.dragos.geornoiu.warehouse.RobotRecordLog;
+import ro.dragos.geornoiu.warehouse.RobotRecordReader;
+import ro.dragos.geornoiu.warehouse.RobotWarehouse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+public class RobotWarehouseTest {
+    private Path robotLogFile;
+
+    @Before
+    public void createRobotLogFile() throws IOException {
+        robotLogFile = Files.createTempFile("acme", ".robots");
+        Files.delete(robotLogFile);
+    }
+
+    @After
+    public void deleteRobotLogFile() throws IOException {
+        Files.deleteIfExists(robotLogFile);
+    }
+
+    /**
+     * Tests that appended records are only visible once committed, that they are kept when the log is reopened and
+     * grown, and that they are read back in order.
+     */
+    @Test
+    public void testRobotLogRoundTrip() throws IOException {
+        List<RobotRecord> robotRecords = new ArrayList<>();
+
+        try (RobotRecordLog robotRecordLog = new RobotRecordLog(robotLogFile)) {
+            for (int i = 0; i < 10; i++) {
+                RobotRecord robotRecord = new RobotRecord(i % 2 == 0 ? RobotType.DRY2000 : RobotType.WET2000, i,
+                        1_500_000_000_000L + i, 3_000_000_000L * i);
+                robotRecordLog.append(robotRecord);
+                robotRecords.add(robotRecord);
+            }
+
+            try (RobotRecordReader robotRecordReader = new RobotRecordReader(robotLogFile)) {
+                Assert.assertEquals(0, robotRecordReader.getNoOfRecords());
+            }
+
+            robotRecordLog.commit();
+            Assert.assertEquals(10, robotRecordLog.getNoOfRecords());
+        }
+
+        // more records than the initial capacity of the file
+        try (RobotRecordLog robotRecordLog = new RobotRecordLog(robotLogFile)) {
+            Assert.assertEquals(10, robotRecordLog.getNoOfRecords());
+
+            for (int i = 10; i < 3000; i++) {
+                RobotRecord robotRecord = new RobotRecord(RobotType.WET2000, i, i, i);
+                robotRecordLog.append(robotRecord);
+                robotRecords.add(robotRecord);
+            }
+        }
+
+        try (RobotRecordReader robotRecordReader = new RobotRecordReader(robotLogFile)) {
+            Assert.assertEquals(robotRecords.size(), robotRecordReader.getNoOfRecords());
+
+            List<RobotRecord> readRecords = new ArrayList<>();
+            for (RobotRecord robotRecord : robotRecordReader) {
+                readRecords.add(robotRecord);
+            }
+            Assert.assertEquals(robotRecords, readRecords);
+
+            RobotRecordReader.Cursor cursor = robotRecordReader.cursor();
+            long totalWorkerIds = 0;
+            while (cursor.next()) {
+                totalWorkerIds += cursor.getWorkerId();
+            }
+            Assert.assertEquals(2999L * 3000 / 2, totalWorkerIds);
+        }
+    }
+
+    /**
+     * Tests that a file which is not a robot log is rejected.
+     */
+    @Test(expected = IOException.class)
+    public void testInvalidRobotLogIsRejected() throws IOException {
+        Files.write(robotLogFile, new byte[64]);
+        new RobotRecordReader(robotLogFile);
+    }
+
+    /**
+     * Tests that a robot assembled by a worker is stored by the warehouse.
+     */
+    @Test
+    public void testWarehouseStoresAssembledRobots() throws IOException {
+        QueueStorage.getConveyorBelt().clear();
+        ACMEFactory acmeFactory = new ACMEFactory(() -> Component.MOP);
+
+        Queue<Component> conveyorBelt = QueueStorage.getConveyorBelt();
+        conveyorBelt.add(Component.MAIN_UNIT);
+        conveyorBelt.add(Component.BROOM);
+        conveyorBelt.add(Component.BROOM);
+
+        RobotRecordLog robotRecordLog = new RobotRecordLog(robotLogFile);
+        RobotWarehouse robotWarehouse = new RobotWarehouse(robotRecordLog, 4, 2);
+        acmeFactory.getEventListener().addListener(robotWarehouse);
+        new Thread(robotWarehouse).start();
+
+        Worker dryRobotWorker = acmeFactory.getWorker(RobotType.DRY2000, "test");
+        long startTimeMillis = System.currentTimeMillis();
+        new Thread(dryRobotWorker).start();
+
+        sleep(3500);
+
+        dryRobotWorker.stop();
+        robotWarehouse.stop();
+        sleep(200);
+        robotRecordLog.close();
+
+        Assert.assertEquals(1, robotWarehouse.getNoOfStoredRobots());
+
+        try (RobotRecordReader robotRecordReader = new RobotRecordReader(robotLogFile)) {
+            RobotRecord robotRecord = robotRecordReader.iterator().next();
+            Assert.assertEquals(RobotType.DRY2000, robotRecord.getRobotType());
+            Assert.assertEquals(dryRobotWorker.getId(), robotRecord.getWorkerId());
+            Assert.assertTrue(robotRecord.getCompletionTimeMillis() >= startTimeMillis + 3000);
+            Assert.assertTrue(robotRecord.getKitCollectionNanos() > 0);
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ie) {
+            ie.printStackTrace();
+            Assert.fail("Current thread was interrupted");
+        }
+    }
+}
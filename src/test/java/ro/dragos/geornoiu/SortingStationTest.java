@@ -0,0 +1,156 @@
+package ro.dragos.geornoiu;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.conveyor.ArrayConveyorBelt;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelopePool;
+import ro.dragos.geornoiu.conveyor.ConveyorBelt;
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.LaneOverflowPolicy;
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.metrics.ThroughputMetrics;
+import ro.dragos.geornoiu.service.factory.ACMEFactory;
+import ro.dragos.geornoiu.service.factory.QueueStorage;
+import ro.dragos.geornoiu.service.impl.DefaultComponentGeneratorService;
+import ro.dragos.geornoiu.sorting.ComponentLane;
+import ro.dragos.geornoiu.sorting.SortingStation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+public class SortingStationTest {
+    private ACMEFactory acmeFactory;
+    private SortingStation sortingStation;
+
+    private static final int LANE_CAPACITY = 2;
+
+    @Before
+    public void initAcmeFactory() {
+        QueueStorage.getConveyorBelt().clear();
+        acmeFactory = new ACMEFactory(new DefaultComponentGeneratorService());
+    }
+
+    @After
+    public void stopSortingStation() {
+        if (sortingStation != null) {
+            sortingStation.stop();
+        }
+    }
+
+    /**
+     * Tests that a component no worker needs at the head of the conveyor belt does not stop a sorted worker from
+     * completing a robot.
+     */
+    @Test
+    public void testUnneededHeadDoesNotBlockSortedWorker() {
+        Queue<Component> conveyorBelt = QueueStorage.getConveyorBelt();
+        conveyorBelt.add(Component.MOP);
+        conveyorBelt.add(Component.MAIN_UNIT);
+        conveyorBelt.add(Component.BROOM);
+        conveyorBelt.add(Component.BROOM);
+
+        sortingStation = acmeFactory.getSortingStation();
+        new Thread(sortingStation).start();
+
+        Worker dryRobotWorker = acmeFactory.getSortedWorker(RobotType.DRY2000, "test");
+        new Thread(dryRobotWorker).start();
+
+        sleep(4000);
+
+        dryRobotWorker.stop();
+
+        Assert.assertEquals(1, dryRobotWorker.getNoOfAssembledRobots());
+        Assert.assertTrue(conveyorBelt.isEmpty());
+        Assert.assertEquals(1, sortingStation.getLane(Component.MOP).size());
+    }
+
+    /**
+     * Tests that a full lane destroys its oldest or newest component depending on its overflow policy, and that the
+     * destroyed components are counted.
+     */
+    @Test
+    public void testFullLanesDiscardComponents() {
+        ConveyorBelt conveyorBelt = new ArrayConveyorBelt(10, new ComponentEnvelopePool(10));
+        sortingStation = createSortingStation(conveyorBelt, LaneOverflowPolicy.DISCARD_OLDEST,
+                LaneOverflowPolicy.DISCARD_NEWEST);
+
+        for (int i = 0; i < 3; i++) {
+            conveyorBelt.add(Component.BROOM);
+            conveyorBelt.add(Component.MOP);
+        }
+
+        new Thread(sortingStation).start();
+        sleep(500);
+
+        Assert.assertTrue(conveyorBelt.isEmpty());
+        Assert.assertEquals(LANE_CAPACITY, sortingStation.getLane(Component.BROOM).size());
+        Assert.assertEquals(LANE_CAPACITY, sortingStation.getLane(Component.MOP).size());
+        Assert.assertEquals(2, acmeFactory.getThroughputMetrics().getNoOfDiscardedComponents());
+    }
+
+    /**
+     * Tests that a full lane with the blocking policy leaves the remaining components on the conveyor belt.
+     */
+    @Test
+    public void testFullBlockingLaneKeepsComponentsOnConveyorBelt() {
+        ConveyorBelt conveyorBelt = new ArrayConveyorBelt(10, new ComponentEnvelopePool(10));
+        sortingStation = createSortingStation(conveyorBelt, LaneOverflowPolicy.BLOCK, LaneOverflowPolicy.BLOCK);
+
+        for (int i = 0; i < 4; i++) {
+            conveyorBelt.add(Component.BROOM);
+        }
+
+        new Thread(sortingStation).start();
+        sleep(500);
+
+        // one more broom is held by the sorting station while it waits for room on the lane
+        Assert.assertEquals(1, conveyorBelt.size());
+        Assert.assertEquals(LANE_CAPACITY, sortingStation.getLane(Component.BROOM).size());
+        Assert.assertEquals(0, acmeFactory.getThroughputMetrics().getNoOfDiscardedComponents());
+    }
+
+    /**
+     * Tests that stopping a sorting station which waits for a component on the empty conveyor belt ends its thread.
+     */
+    @Test
+    public void testStopEndsIdleSortingStation() throws InterruptedException {
+        ConveyorBelt conveyorBelt = new ArrayConveyorBelt(10, new ComponentEnvelopePool(10));
+        sortingStation = createSortingStation(conveyorBelt, LaneOverflowPolicy.BLOCK, LaneOverflowPolicy.BLOCK);
+
+        Thread sortingStationThread = new Thread(sortingStation);
+        sortingStationThread.start();
+        sleep(200);
+
+        sortingStation.stop();
+        sortingStationThread.join(1000);
+
+        Assert.assertFalse(sortingStationThread.isAlive());
+    }
+
+    private SortingStation createSortingStation(ConveyorBelt conveyorBelt, LaneOverflowPolicy broomOverflowPolicy,
+                                                LaneOverflowPolicy otherOverflowPolicy) {
+        List<ComponentLane> lanes = new ArrayList<>();
+
+        for (Component component : Component.values()) {
+            LaneOverflowPolicy overflowPolicy = component == Component.BROOM ? broomOverflowPolicy :
+                    otherOverflowPolicy;
+            lanes.add(new ComponentLane(component, LANE_CAPACITY, overflowPolicy, conveyorBelt.getEnvelopePool()));
+        }
+
+        ThroughputMetrics throughputMetrics = acmeFactory.getThroughputMetrics();
+        return new SortingStation("test", conveyorBelt, lanes, throughputMetrics);
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ie) {
+            ie.printStackTrace();
+            Assert.fail("Current thread was interrupted");
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package ro.dragos.geornoiu;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ro.dragos.geornoiu.constants.FactoryTiming;
+import ro.dragos.geornoiu.conveyor.ArrayConveyorBelt;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelopePool;
+import ro.dragos.geornoiu.conveyor.ConveyorBelt;
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.WaitStrategyType;
+import ro.dragos.geornoiu.producer.FactorySupplier;
+import ro.dragos.geornoiu.service.factory.ACMEFactory;
+import ro.dragos.geornoiu.service.factory.QueueStorage;
+import ro.dragos.geornoiu.supply.AimdSupplyRateController;
+import ro.dragos.geornoiu.supply.FixedSupplyRateController;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SupplyRateControllerTest {
+    private static final double MIN_RATE = 1;
+    private static final double MAX_RATE = 21;
+    private static final long CONTROL_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Tests that the rate grows by a fixed step while the conveyor belt is below the target fill, is halved when the
+     * conveyor belt fills up faster than the workers take, and is kept while the conveyor belt drains.
+     */
+    @Test
+    public void testAdditiveIncreaseMultiplicativeDecrease() {
+        ConveyorBelt conveyorBelt = new ArrayConveyorBelt(10, new ComponentEnvelopePool(10));
+        AtomicLong noOfTakenComponents = new AtomicLong();
+        AimdSupplyRateController controller = new AimdSupplyRateController(conveyorBelt, noOfTakenComponents::get,
+                MIN_RATE, MAX_RATE, 0.5, CONTROL_INTERVAL_NANOS);
+        long now = System.nanoTime();
+
+        Assert.assertEquals(MIN_RATE, controller.getRatePerSecond(), 0.001);
+
+        // empty conveyor belt, one component per second more at every interval
+        for (int i = 1; i <= 5; i++) {
+            now += CONTROL_INTERVAL_NANOS;
+            Assert.assertEquals(MIN_RATE + i, controller.control(now), 0.001);
+        }
+
+        // above the target fill and the workers take less than is supplied
+        fill(conveyorBelt, 8);
+        now += CONTROL_INTERVAL_NANOS;
+        noOfTakenComponents.addAndGet(2);
+        Assert.assertEquals(3, controller.control(now), 0.001);
+
+        // above the target fill but the workers take more than is supplied
+        now += CONTROL_INTERVAL_NANOS;
+        noOfTakenComponents.addAndGet(5);
+        Assert.assertEquals(3, controller.control(now), 0.001);
+
+        // halved again, but never below the minimum
+        now += CONTROL_INTERVAL_NANOS;
+        Assert.assertEquals(1.5, controller.control(now), 0.001);
+        now += CONTROL_INTERVAL_NANOS;
+        Assert.assertEquals(MIN_RATE, controller.control(now), 0.001);
+
+        // never above the maximum
+        conveyorBelt.clear();
+        for (int i = 0; i < 30; i++) {
+            now += CONTROL_INTERVAL_NANOS;
+            controller.control(now);
+        }
+        Assert.assertEquals(MAX_RATE, controller.getRatePerSecond(), 0.001);
+        Assert.assertEquals(TimeUnit.SECONDS.toNanos(1) / MAX_RATE, controller.supplied(false), 1);
+    }
+
+    /**
+     * Tests that a supplier which had to wait for room halves the rate right away, at most once per control interval.
+     */
+    @Test
+    public void testFullConveyorBeltHalvesRate() {
+        ConveyorBelt conveyorBelt = new ArrayConveyorBelt(10, new ComponentEnvelopePool(10));
+        AimdSupplyRateController controller = new AimdSupplyRateController(conveyorBelt, () -> 0, MIN_RATE, MAX_RATE,
+                0.5, TimeUnit.HOURS.toNanos(1));
+        long now = System.nanoTime();
+
+        for (int i = 1; i <= 8; i++) {
+            controller.control(now + i);
+        }
+        Assert.assertEquals(9, controller.getRatePerSecond(), 0.001);
+
+        controller.supplied(true);
+        Assert.assertEquals(4.5, controller.getRatePerSecond(), 0.001);
+
+        // same control interval, same congestion
+        controller.supplied(true);
+        Assert.assertEquals(4.5, controller.getRatePerSecond(), 0.001);
+    }
+
+    /**
+     * Tests that the default supplier keeps the interval of the factory timing, and that an adaptive supplier with no
+     * worker to take its components falls back to the minimum rate.
+     */
+    @Test
+    public void testAdaptiveSupplierWithoutWorkers() {
+        FactoryTiming timing = FactoryTiming.DEFAULT.speedUp(100);
+        Assert.assertEquals(100, new FixedSupplyRateController(timing).getRatePerSecond(), 0.001);
+
+        QueueStorage.getConveyorBelt().clear();
+        ACMEFactory acmeFactory = new ACMEFactory(() -> Component.MOP, WaitStrategyType.BLOCKING,
+                WaitStrategyType.BLOCKING, timing);
+        FactorySupplier factorySupplier = acmeFactory.getAdaptiveFactorySupplier("adaptive", 20, 400, 0.5);
+        new Thread(factorySupplier).start();
+
+        try {
+            sleep(3000);
+
+            Assert.assertEquals(QueueStorage.getConveyorBelt().getCapacity(), QueueStorage.getConveyorBelt().size());
+            Assert.assertEquals(20, factorySupplier.getSupplyRateController().getRatePerSecond(), 0.001);
+        } finally {
+            factorySupplier.stop();
+            sleep(500);
+            QueueStorage.getConveyorBelt().clear();
+        }
+    }
+
+    private void fill(ConveyorBelt conveyorBelt, int noOfComponents) {
+        for (int i = 0; i < noOfComponents; i++) {
+            conveyorBelt.offer(Component.MOP);
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ie) {
+            Assert.fail("Current thread was interrupted");
+        }
+    }
+}
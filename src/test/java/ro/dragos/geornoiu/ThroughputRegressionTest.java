@@ -0,0 +1,187 @@
+package ro.dragos.geornoiu;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import ro.dragos.geornoiu.constants.FactoryTiming;
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelope;
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.enums.WaitStrategyType;
+import ro.dragos.geornoiu.event.FactoryEventListener;
+import ro.dragos.geornoiu.metrics.ThroughputMetrics;
+import ro.dragos.geornoiu.producer.FactorySupplier;
+import ro.dragos.geornoiu.regression.RegressionResult;
+import ro.dragos.geornoiu.regression.RegressionScenario;
+import ro.dragos.geornoiu.regression.ThroughputRegressionHarness;
+import ro.dragos.geornoiu.regression.TimingSensitive;
+import ro.dragos.geornoiu.service.ComponentGeneratorService;
+import ro.dragos.geornoiu.service.factory.ACMEFactory;
+import ro.dragos.geornoiu.service.factory.QueueStorage;
+import ro.dragos.geornoiu.service.impl.DefaultComponentGeneratorService;
+import ro.dragos.geornoiu.service.impl.RecordingComponentGeneratorService;
+import ro.dragos.geornoiu.service.impl.ReplayComponentGeneratorService;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+public class ThroughputRegressionTest {
+    private static final Properties BASELINE = new Properties();
+
+    // every run is 100 times faster than the factory, so 3 seconds replay 5 minutes of the factory
+    private static final int SPEED_UP_FACTOR = 100;
+    private static final long DURATION_IN_MILLIS = 3000;
+    private static final int NO_OF_RUNS = 5;
+
+    private final ThroughputRegressionHarness harness = new ThroughputRegressionHarness(0.3, 0.5, 5);
+
+    @BeforeClass
+    public static void loadBaseline() throws IOException {
+        try (InputStream input = ThroughputRegressionTest.class.getResourceAsStream("/traces/baseline.properties")) {
+            BASELINE.load(input);
+        }
+    }
+
+    /**
+     * Tests that a recorded stream of components is replayed in the same order, starting over at its end.
+     */
+    @Test
+    public void testRecordedComponentsAreReplayed() throws IOException {
+        ByteArrayOutputStream trace = new ByteArrayOutputStream();
+        Component[] recordedComponents = new Component[50];
+
+        try (RecordingComponentGeneratorService recorder = new RecordingComponentGeneratorService(
+                new DefaultComponentGeneratorService(42), trace)) {
+            for (int index = 0; index < recordedComponents.length; index++) {
+                recordedComponents[index] = recorder.retrieveComponent();
+            }
+        }
+
+        // header and one byte per component
+        Assert.assertEquals(5 + recordedComponents.length, trace.size());
+
+        ReplayComponentGeneratorService replayer = new ReplayComponentGeneratorService(
+                new ByteArrayInputStream(trace.toByteArray()));
+        Assert.assertEquals(recordedComponents.length, replayer.getTraceLength());
+
+        for (int index = 0; index < 2 * recordedComponents.length; index++) {
+            Assert.assertEquals(recordedComponents[index % recordedComponents.length], replayer.retrieveComponent());
+        }
+
+        DefaultComponentGeneratorService seededGenerator = new DefaultComponentGeneratorService(42);
+        for (Component recordedComponent : recordedComponents) {
+            Assert.assertEquals(recordedComponent, seededGenerator.retrieveComponent());
+        }
+    }
+
+    /**
+     * Tests that a file which is not a component trace is rejected.
+     */
+    @Test(expected = IOException.class)
+    public void testInvalidTraceIsRejected() throws IOException {
+        new ReplayComponentGeneratorService(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6}));
+    }
+
+    /**
+     * Tests that the threaded factory supplies the components of a replayed trace in the order of the trace, and that
+     * every supplied component is either taken by a worker, destroyed or still on the conveyor belt.
+     */
+    @Test
+    public void testReplayedTraceIsSuppliedInOrder() throws InterruptedException {
+        QueueStorage.getConveyorBelt().clear();
+
+        ACMEFactory acmeFactory = new ACMEFactory(replay("/traces/standard-mix-a.trace"), WaitStrategyType.BLOCKING,
+                WaitStrategyType.BLOCKING, FactoryTiming.DEFAULT.speedUp(SPEED_UP_FACTOR));
+        List<Component> suppliedComponents = new ArrayList<>();
+        acmeFactory.getEventListener().addListener(new FactoryEventListener() {
+            @Override
+            public void componentSupplied(FactorySupplier supplier, ComponentEnvelope envelope) {
+                suppliedComponents.add(envelope.getComponent());
+            }
+        });
+
+        List<Thread> workerThreads = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            workerThreads.add(new Thread(acmeFactory.getWorker(RobotType.DRY2000, String.valueOf(i))));
+            workerThreads.add(new Thread(acmeFactory.getWorker(RobotType.WET2000, String.valueOf(i))));
+        }
+        FactorySupplier factorySupplier = acmeFactory.getFactorySupplier("supplier");
+        Thread supplierThread = new Thread(factorySupplier);
+
+        for (Thread workerThread : workerThreads) {
+            workerThread.start();
+        }
+        supplierThread.start();
+
+        Thread.sleep(1000);
+
+        // the supplier is stopped first, so the components handed back by the stopped workers are not supplied again
+        factorySupplier.stop();
+        supplierThread.join();
+        for (Worker worker : acmeFactory.getWorkers()) {
+            worker.stop();
+        }
+        for (Thread workerThread : workerThreads) {
+            workerThread.join();
+        }
+
+        ComponentGeneratorService trace = replay("/traces/standard-mix-a.trace");
+        Assert.assertFalse(suppliedComponents.isEmpty());
+        for (Component suppliedComponent : suppliedComponents) {
+            Assert.assertEquals(trace.retrieveComponent(), suppliedComponent);
+        }
+
+        ThroughputMetrics throughputMetrics = acmeFactory.getThroughputMetrics();
+        Assert.assertEquals(suppliedComponents.size(), throughputMetrics.getNoOfSuppliedComponents());
+        Assert.assertEquals(throughputMetrics.getNoOfSuppliedComponents(), throughputMetrics.getNoOfTakenComponents() +
+                throughputMetrics.getNoOfDiscardedComponents() + QueueStorage.getConveyorBelt().size());
+
+        QueueStorage.getConveyorBelt().clear();
+    }
+
+    /**
+     * Tests the throughput of two DRY2000 and two WET2000 workers against the baseline.
+     */
+    @Test
+    @Category(TimingSensitive.class)
+    public void testBalancedWorkersThroughput() throws InterruptedException {
+        assertThroughput(new RegressionScenario("balanced", 2, 2, DURATION_IN_MILLIS, SPEED_UP_FACTOR, NO_OF_RUNS),
+                "/traces/standard-mix-a.trace");
+    }
+
+    /**
+     * Tests the throughput of three DRY2000 workers and one WET2000 worker against the baseline.
+     */
+    @Test
+    @Category(TimingSensitive.class)
+    public void testDryHeavyWorkersThroughput() throws InterruptedException {
+        assertThroughput(new RegressionScenario("dry-heavy", 3, 1, DURATION_IN_MILLIS, SPEED_UP_FACTOR, NO_OF_RUNS),
+                "/traces/standard-mix-b.trace");
+    }
+
+    private void assertThroughput(RegressionScenario scenario, String trace) throws InterruptedException {
+        RegressionResult baseline = RegressionResult.fromProperties(BASELINE, scenario.getName());
+        Assert.assertNotNull("No baseline for " + scenario.getName(), baseline);
+
+        RegressionResult result = harness.run(scenario, () -> replay(trace));
+        List<String> violations = harness.compare(result, baseline);
+
+        Assert.assertTrue(String.join(System.lineSeparator(), violations), violations.isEmpty());
+    }
+
+    private ComponentGeneratorService replay(String trace) {
+        try (InputStream input = ThroughputRegressionTest.class.getResourceAsStream(trace)) {
+            return new ReplayComponentGeneratorService(input);
+        } catch (IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package ro.dragos.geornoiu;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ro.dragos.geornoiu.conveyor.ArrayConveyorBelt;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelope;
+import ro.dragos.geornoiu.conveyor.ComponentEnvelopePool;
+import ro.dragos.geornoiu.conveyor.ConveyorBelt;
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.WaitStrategyType;
+import ro.dragos.geornoiu.metrics.LatencyHistogram;
+import ro.dragos.geornoiu.regression.TimingSensitive;
+import ro.dragos.geornoiu.wait.WaitStrategy;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Handoff benchmark of the wait strategies: a supplier thread and a worker thread pass components through a conveyor
+ * belt of capacity one, both waiting with the same strategy. For every strategy the handoff latency and the CPU time
+ * used by the waiting worker thread are logged, which shows the latency / CPU tradeoff on the current machine. The
+ * benchmarks depend on the load of the machine, so they only run with the throughput-regression profile, while the
+ * checks that every strategy wakes up, times out and stops run with every build.
+ */
+public class WaitStrategyBenchmarkTest {
+    private static final Logger LOG = LoggerFactory.getLogger(WaitStrategyBenchmarkTest.class);
+
+    private static final long BENCHMARK_DURATION_MILLIS = 500;
+    private static final long WAIT_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    @Category(TimingSensitive.class)
+    public void testBlockingHandoff() throws InterruptedException {
+        benchmark(WaitStrategyType.BLOCKING);
+    }
+
+    @Test
+    @Category(TimingSensitive.class)
+    public void testSpinThenParkHandoff() throws InterruptedException {
+        benchmark(WaitStrategyType.SPIN_THEN_PARK);
+    }
+
+    @Test
+    @Category(TimingSensitive.class)
+    public void testYieldHandoff() throws InterruptedException {
+        benchmark(WaitStrategyType.YIELD);
+    }
+
+    @Test
+    @Category(TimingSensitive.class)
+    public void testBusySpinHandoff() throws InterruptedException {
+        benchmark(WaitStrategyType.BUSY_SPIN);
+    }
+
+    /**
+     * Verifies that a timed wait returns once the timeout elapsed when the condition never holds.
+     */
+    @Test
+    public void testWaitStrategiesTimeOut() throws InterruptedException {
+        for (WaitStrategyType waitStrategyType : WaitStrategyType.values()) {
+            long remainingNanos = waitStrategyType.createWaitStrategy()
+                    .await(new Object(), () -> false, WAIT_TIMEOUT_NANOS);
+
+            Assert.assertTrue(waitStrategyType.name(), remainingNanos <= 0);
+        }
+    }
+
+    /**
+     * Verifies that a wait returns before its timeout once another thread makes the condition hold and notifies the
+     * monitor.
+     */
+    @Test
+    public void testWaitStrategiesWakeUpOnSignal() throws InterruptedException {
+        for (WaitStrategyType waitStrategyType : WaitStrategyType.values()) {
+            Object monitor = new Object();
+            AtomicBoolean signaled = new AtomicBoolean();
+
+            Thread signaler = new Thread(() -> {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+
+                synchronized (monitor) {
+                    signaled.set(true);
+                    monitor.notifyAll();
+                }
+            });
+            signaler.start();
+
+            long remainingNanos = waitStrategyType.createWaitStrategy()
+                    .await(monitor, signaled::get, TimeUnit.SECONDS.toNanos(5));
+            signaler.join();
+
+            Assert.assertTrue(waitStrategyType.name(), remainingNanos > 0);
+        }
+    }
+
+    /**
+     * Verifies that a wait without a timeout for a condition which never holds ends once the waiting thread is
+     * interrupted, which is how a waiting supplier or worker is stopped.
+     */
+    @Test
+    public void testWaitStrategiesReturnOnStop() throws InterruptedException {
+        for (WaitStrategyType waitStrategyType : WaitStrategyType.values()) {
+            WaitStrategy waitStrategy = waitStrategyType.createWaitStrategy();
+            AtomicReference<InterruptedException> stopped = new AtomicReference<>();
+
+            Thread waiter = new Thread(() -> {
+                try {
+                    waitStrategy.await(new Object(), () -> false, Long.MAX_VALUE);
+                } catch (InterruptedException ie) {
+                    stopped.set(ie);
+                }
+            });
+            waiter.start();
+
+            Thread.sleep(20);
+            waiter.interrupt();
+            waiter.join(TimeUnit.SECONDS.toMillis(5));
+
+            Assert.assertFalse(waitStrategyType.name(), waiter.isAlive());
+            Assert.assertNotNull(waitStrategyType.name(), stopped.get());
+        }
+    }
+
+    private void benchmark(WaitStrategyType waitStrategyType) throws InterruptedException {
+        ConveyorBelt conveyorBelt = new ArrayConveyorBelt(1, new ComponentEnvelopePool(1));
+        WaitStrategy waitStrategy = waitStrategyType.createWaitStrategy();
+        LatencyHistogram handoffLatencies = new LatencyHistogram(TimeUnit.SECONDS.toNanos(10), 7);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(BENCHMARK_DURATION_MILLIS);
+
+        Thread supplier = new Thread(() -> {
+            try {
+                while (System.nanoTime() < deadline) {
+                    waitStrategy.await(conveyorBelt, conveyorBelt::isEmpty, WAIT_TIMEOUT_NANOS);
+
+                    synchronized (conveyorBelt) {
+                        if (conveyorBelt.isEmpty()) {
+                            conveyorBelt.offer(conveyorBelt.getEnvelopePool()
+                                    .acquire(Component.MOP, 0, System.nanoTime()));
+                            conveyorBelt.notifyAll();
+                        }
+                    }
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        Thread worker = new Thread(() -> {
+            try {
+                while (System.nanoTime() < deadline) {
+                    waitStrategy.await(conveyorBelt, () -> !conveyorBelt.isEmpty(), WAIT_TIMEOUT_NANOS);
+
+                    synchronized (conveyorBelt) {
+                        ComponentEnvelope envelope = conveyorBelt.pollEnvelope();
+
+                        if (envelope != null) {
+                            handoffLatencies.recordValue(System.nanoTime() - envelope.getSupplyTimeNanos());
+                            envelope.release();
+                            conveyorBelt.notifyAll();
+                        }
+                    }
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        long startNanos = System.nanoTime();
+        supplier.start();
+        worker.start();
+
+        // sample the cpu time before the thread ends, afterwards it is no longer available
+        Thread.sleep(BENCHMARK_DURATION_MILLIS - 50);
+        long workerCpuNanos = threadMXBean.isThreadCpuTimeSupported() ?
+                threadMXBean.getThreadCpuTime(worker.getId()) : -1;
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        supplier.join();
+        worker.join();
+
+        LOG.info("{}: {} handoffs, latency p50 {} ns, p99 {} ns, max {} ns, worker cpu {}%", waitStrategyType,
+                handoffLatencies.getTotalCount(), handoffLatencies.getValueAtPercentile(50),
+                handoffLatencies.getValueAtPercentile(99), handoffLatencies.getMaxValue(),
+                workerCpuNanos < 0 ? "n/a" : String.valueOf(100 * workerCpuNanos / elapsedNanos));
+
+        Assert.assertTrue(handoffLatencies.getTotalCount() > 0);
+    }
+}
@@ -0,0 +1,123 @@
+package ro.dragos.geornoiu;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.conveyor.SpareComponentPool;
+import ro.dragos.geornoiu.enums.Component;
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.enums.WorkerState;
+import ro.dragos.geornoiu.producer.FactorySupplier;
+import ro.dragos.geornoiu.scaling.WorkerAutoscaler;
+import ro.dragos.geornoiu.service.factory.ACMEFactory;
+import ro.dragos.geornoiu.service.factory.QueueStorage;
+
+import java.util.Queue;
+
+public class WorkerAutoscalerTest {
+    private ACMEFactory acmeFactory;
+
+    @Before
+    public void initAcmeFactory() {
+        QueueStorage.getConveyorBelt().clear();
+        // the supplier only delivers components no worker needs
+        acmeFactory = new ACMEFactory(() -> Component.MOP);
+    }
+
+    @After
+    public void stopWorkers() {
+        for (Worker worker : acmeFactory.getWorkers()) {
+            worker.stop();
+        }
+    }
+
+    /**
+     * Tests that the autoscaler starts the minimum number of workers of each type and adds a worker when the workers
+     * of a type are busy assembling while many components they need wait on the conveyor belt.
+     */
+    @Test
+    public void testAutoscalerAddsWorkersWhenComponentsAreWaiting() {
+        Queue<Component> conveyorBelt = QueueStorage.getConveyorBelt();
+        conveyorBelt.add(Component.MAIN_UNIT);
+        for (int i = 0; i < 7; i++) {
+            conveyorBelt.add(Component.BROOM);
+        }
+
+        WorkerAutoscaler workerAutoscaler = new WorkerAutoscaler(acmeFactory, 1, 2, 0);
+        workerAutoscaler.scale();
+
+        Assert.assertEquals(1, countRunningWorkers(RobotType.DRY2000));
+        Assert.assertEquals(1, countRunningWorkers(RobotType.WET2000));
+
+        // the DRY2000 worker takes a MainUnit and two brooms and starts assembling
+        sleep(500);
+
+        for (int i = 0; i < 3; i++) {
+            workerAutoscaler.scale();
+        }
+
+        Assert.assertEquals(2, countRunningWorkers(RobotType.DRY2000));
+        Assert.assertEquals(1, countRunningWorkers(RobotType.WET2000));
+    }
+
+    /**
+     * Tests that an idle worker is retired and that the components it collected are put back on the conveyor belt by
+     * the supplier before any new component.
+     */
+    @Test
+    public void testRetiredWorkerHandsBackItsComponents() {
+        Queue<Component> conveyorBelt = QueueStorage.getConveyorBelt();
+        conveyorBelt.add(Component.MAIN_UNIT);
+        conveyorBelt.add(Component.BROOM);
+
+        Worker dryRobotWorker = acmeFactory.getWorker(RobotType.DRY2000, "test");
+        new Thread(dryRobotWorker).start();
+
+        sleep(500);
+        Assert.assertTrue(conveyorBelt.isEmpty());
+
+        WorkerAutoscaler workerAutoscaler = new WorkerAutoscaler(acmeFactory, 0, 2, 0);
+        for (int i = 0; i < 3; i++) {
+            workerAutoscaler.scale();
+        }
+
+        sleep(500);
+
+        Assert.assertEquals(WorkerState.STOPPED, dryRobotWorker.getState());
+        SpareComponentPool spareComponentPool = acmeFactory.getSpareComponentPool();
+        Assert.assertEquals(2, spareComponentPool.size());
+
+        FactorySupplier factorySupplier = acmeFactory.getFactorySupplier("test");
+        new Thread(factorySupplier).start();
+
+        sleep(1500);
+        factorySupplier.stop();
+
+        Assert.assertEquals(0, spareComponentPool.size());
+        Assert.assertEquals(Component.MAIN_UNIT, conveyorBelt.poll());
+        Assert.assertEquals(Component.BROOM, conveyorBelt.poll());
+    }
+
+    private int countRunningWorkers(RobotType robotType) {
+        int noOfRunningWorkers = 0;
+
+        for (Worker worker : acmeFactory.getWorkers()) {
+            if (worker.getRobotType() == robotType && worker.isRunning()) {
+                noOfRunningWorkers++;
+            }
+        }
+
+        return noOfRunningWorkers;
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ie) {
+            ie.printStackTrace();
+            Assert.fail("Current thread was interrupted");
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ro.dragos.geornoiu.regression;
+
+import ro.dragos.geornoiu.enums.RobotType;
+
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * The throughput of one run of a {@link RegressionScenario}. Robots per second are expressed in factory time, so
+ * they do not depend on the speed up factor of the scenario. Results are stored as baselines in a properties file,
+ * with the keys prefixed by the name of the scenario.
+ */
+public class RegressionResult {
+    private final String scenarioName;
+    private final double[] robotsPerSecond;
+    private final long noOfDiscardedComponents;
+
+    private static final String ROBOTS_PER_SECOND_KEY = ".robotsPerSecond.";
+    private static final String DISCARDED_COMPONENTS_KEY = ".discardedComponents";
+
+    public RegressionResult(String scenarioName, double[] robotsPerSecond, long noOfDiscardedComponents) {
+        this.scenarioName = scenarioName;
+        this.robotsPerSecond = robotsPerSecond.clone();
+        this.noOfDiscardedComponents = noOfDiscardedComponents;
+    }
+
+    /**
+     * Read the baseline of a scenario.
+     *
+     * @return the baseline or null if the properties have no baseline for the scenario.
+     */
+    public static RegressionResult fromProperties(Properties properties, String scenarioName) {
+        String noOfDiscardedComponents = properties.getProperty(scenarioName + DISCARDED_COMPONENTS_KEY);
+
+        if (noOfDiscardedComponents == null) {
+            return null;
+        }
+
+        double[] robotsPerSecond = new double[RobotType.values().length];
+        for (RobotType robotType : RobotType.values()) {
+            robotsPerSecond[robotType.ordinal()] = Double.parseDouble(
+                    properties.getProperty(scenarioName + ROBOTS_PER_SECOND_KEY + robotType.name(), "0"));
+        }
+
+        return new RegressionResult(scenarioName, robotsPerSecond, Long.parseLong(noOfDiscardedComponents));
+    }
+
+    /**
+     * Write this result as the baseline of its scenario.
+     */
+    public void toProperties(Properties properties) {
+        for (RobotType robotType : RobotType.values()) {
+            properties.setProperty(this.scenarioName + ROBOTS_PER_SECOND_KEY + robotType.name(),
+                    String.format(Locale.ROOT, "%.4f", getRobotsPerSecond(robotType)));
+        }
+
+        properties.setProperty(this.scenarioName + DISCARDED_COMPONENTS_KEY,
+                String.valueOf(this.noOfDiscardedComponents));
+    }
+
+    public String getScenarioName() {
+        return scenarioName;
+    }
+
+    public double getRobotsPerSecond(RobotType robotType) {
+        return robotsPerSecond[robotType.ordinal()];
+    }
+
+    public long getNoOfDiscardedComponents() {
+        return noOfDiscardedComponents;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder(this.scenarioName).append(':');
+
+        for (RobotType robotType : RobotType.values()) {
+            result.append(' ').append(robotType.name()).append(' ')
+                    .append(String.format(Locale.ROOT, "%.4f", getRobotsPerSecond(robotType))).append(" robots/s,");
+        }
+
+        return result.append(' ').append(this.noOfDiscardedComponents).append(" discarded components").toString();
+    }
+}
@@ -0,0 +1,50 @@
+package ro.dragos.geornoiu.regression;
+
+/**
+ * A run of the factory replayed by the {@link ThroughputRegressionHarness}: how many workers of each type are started
+ * and for how long the factory runs, in real time, with every action sped up by the given factor. Since the
+ * scheduling of the threads changes from one run to the other, the scenario is run several times and the median of
+ * the runs is kept.
+ */
+public class RegressionScenario {
+    private final String name;
+    private final int noOfDry2000Workers;
+    private final int noOfWet2000Workers;
+    private final long durationInMillis;
+    private final int speedUpFactor;
+    private final int noOfRuns;
+
+    public RegressionScenario(String name, int noOfDry2000Workers, int noOfWet2000Workers, long durationInMillis,
+                              int speedUpFactor, int noOfRuns) {
+        this.name = name;
+        this.noOfDry2000Workers = noOfDry2000Workers;
+        this.noOfWet2000Workers = noOfWet2000Workers;
+        this.durationInMillis = durationInMillis;
+        this.speedUpFactor = speedUpFactor;
+        this.noOfRuns = noOfRuns;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getNoOfDry2000Workers() {
+        return noOfDry2000Workers;
+    }
+
+    public int getNoOfWet2000Workers() {
+        return noOfWet2000Workers;
+    }
+
+    public long getDurationInMillis() {
+        return durationInMillis;
+    }
+
+    public int getSpeedUpFactor() {
+        return speedUpFactor;
+    }
+
+    public int getNoOfRuns() {
+        return noOfRuns;
+    }
+}
@@ -0,0 +1,235 @@
+package ro.dragos.geornoiu.regression;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ro.dragos.geornoiu.constants.FactoryTiming;
+import ro.dragos.geornoiu.consumer.Worker;
+import ro.dragos.geornoiu.enums.RobotType;
+import ro.dragos.geornoiu.enums.WaitStrategyType;
+import ro.dragos.geornoiu.metrics.ThroughputMetrics;
+import ro.dragos.geornoiu.producer.FactorySupplier;
+import ro.dragos.geornoiu.service.ComponentGeneratorService;
+import ro.dragos.geornoiu.service.factory.ACMEFactory;
+import ro.dragos.geornoiu.service.factory.QueueStorage;
+import ro.dragos.geornoiu.service.impl.DefaultComponentGeneratorService;
+import ro.dragos.geornoiu.service.impl.RecordingComponentGeneratorService;
+import ro.dragos.geornoiu.service.impl.ReplayComponentGeneratorService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Replays a recorded stream of components through the threaded factory and compares the throughput with a baseline.
+ * The order of the components is fixed by the trace, while the scheduling of the threads is not, so every scenario is
+ * run several times and the median of the runs is compared with the baseline within a tolerance band.
+ * <p>
+ * Run with {@code record <trace file> <seed> <number of components>} to record a new trace, and with
+ * {@code baseline <trace file> <scenario name> <DRY2000 workers> <WET2000 workers> <duration millis> <speed up> <runs>}
+ * to print the baseline of a scenario.
+ */
+public class ThroughputRegressionHarness {
+    private static final Logger LOG = LoggerFactory.getLogger(ThroughputRegressionHarness.class);
+
+    private final double robotsPerSecondTolerance;
+    private final double discardedComponentsTolerance;
+    private final long minDiscardedComponentsTolerance;
+
+    /**
+     * @param robotsPerSecondTolerance        the relative deviation of the robots per second allowed, 0.2 for 20%.
+     * @param discardedComponentsTolerance    the relative deviation of the number of discarded components allowed.
+     * @param minDiscardedComponentsTolerance the absolute deviation of the number of discarded components always
+     *                                        allowed, since small counts vary a lot between runs.
+     */
+    public ThroughputRegressionHarness(double robotsPerSecondTolerance, double discardedComponentsTolerance,
+                                       long minDiscardedComponentsTolerance) {
+        this.robotsPerSecondTolerance = robotsPerSecondTolerance;
+        this.discardedComponentsTolerance = discardedComponentsTolerance;
+        this.minDiscardedComponentsTolerance = minDiscardedComponentsTolerance;
+    }
+
+    /**
+     * Run a scenario as many times as it asks for and keep the median of every value.
+     *
+     * @param scenario                   the scenario to run.
+     * @param componentGeneratorProvider creates the generator of the supplied components for every run, usually a
+     *                                   {@link ReplayComponentGeneratorService} starting from the beginning of a
+     *                                   trace.
+     * @return the median throughput of the runs.
+     */
+    public RegressionResult run(RegressionScenario scenario,
+                                Supplier<ComponentGeneratorService> componentGeneratorProvider)
+            throws InterruptedException {
+        int noOfRuns = scenario.getNoOfRuns();
+        double[][] robotsPerSecond = new double[RobotType.values().length][noOfRuns];
+        double[] noOfDiscardedComponents = new double[noOfRuns];
+
+        for (int run = 0; run < noOfRuns; run++) {
+            RegressionResult result = runOnce(scenario, componentGeneratorProvider.get());
+
+            for (RobotType robotType : RobotType.values()) {
+                robotsPerSecond[robotType.ordinal()][run] = result.getRobotsPerSecond(robotType);
+            }
+            noOfDiscardedComponents[run] = result.getNoOfDiscardedComponents();
+        }
+
+        double[] medianRobotsPerSecond = new double[RobotType.values().length];
+        for (RobotType robotType : RobotType.values()) {
+            medianRobotsPerSecond[robotType.ordinal()] = median(robotsPerSecond[robotType.ordinal()]);
+        }
+
+        RegressionResult result = new RegressionResult(scenario.getName(), medianRobotsPerSecond,
+                Math.round(median(noOfDiscardedComponents)));
+        LOG.info("Median of {} runs of {}", noOfRuns, result);
+
+        return result;
+    }
+
+    /**
+     * Run a scenario once on the shared conveyor belt, which is emptied before and after the run.
+     *
+     * @param scenario           the scenario to run.
+     * @param componentGenerator the generator of the supplied components.
+     * @return the throughput of the run.
+     */
+    public RegressionResult runOnce(RegressionScenario scenario, ComponentGeneratorService componentGenerator)
+            throws InterruptedException {
+        QueueStorage.getConveyorBelt().clear();
+
+        FactoryTiming timing = FactoryTiming.DEFAULT.speedUp(scenario.getSpeedUpFactor());
+        ACMEFactory acmeFactory = new ACMEFactory(componentGenerator, WaitStrategyType.BLOCKING,
+                WaitStrategyType.BLOCKING, timing);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < scenario.getNoOfDry2000Workers(); i++) {
+            threads.add(new Thread(acmeFactory.getWorker(RobotType.DRY2000, String.valueOf(i))));
+        }
+        for (int i = 0; i < scenario.getNoOfWet2000Workers(); i++) {
+            threads.add(new Thread(acmeFactory.getWorker(RobotType.WET2000, String.valueOf(i))));
+        }
+        FactorySupplier factorySupplier = acmeFactory.getFactorySupplier("Producer");
+        threads.add(new Thread(factorySupplier));
+
+        long startNanos = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+
+        Thread.sleep(scenario.getDurationInMillis());
+
+        ThroughputMetrics throughputMetrics = acmeFactory.getThroughputMetrics();
+        double factorySeconds = (System.nanoTime() - startNanos) * scenario.getSpeedUpFactor() /
+                (double) TimeUnit.SECONDS.toNanos(1);
+
+        double[] robotsPerSecond = new double[RobotType.values().length];
+        for (RobotType robotType : RobotType.values()) {
+            robotsPerSecond[robotType.ordinal()] = throughputMetrics.getNoOfAssembledRobots(robotType) /
+                    factorySeconds;
+        }
+        long noOfDiscardedComponents = throughputMetrics.getNoOfDiscardedComponents();
+
+        factorySupplier.stop();
+        for (Worker worker : acmeFactory.getWorkers()) {
+            worker.stop();
+        }
+        for (Thread thread : threads) {
+            thread.join(timing.getRobotAssemblyInMillis() + timing.getSupplyIntervalInMillis());
+        }
+
+        QueueStorage.getConveyorBelt().clear();
+
+        RegressionResult result = new RegressionResult(scenario.getName(), robotsPerSecond, noOfDiscardedComponents);
+        LOG.debug("{}", result);
+
+        return result;
+    }
+
+    /**
+     * Compare the result of a run with the baseline of its scenario.
+     *
+     * @return a description of every value outside its tolerance band, empty if there is none.
+     */
+    public List<String> compare(RegressionResult result, RegressionResult baseline) {
+        List<String> violations = new ArrayList<>();
+
+        for (RobotType robotType : RobotType.values()) {
+            double expected = baseline.getRobotsPerSecond(robotType);
+            double actual = result.getRobotsPerSecond(robotType);
+
+            if (Math.abs(actual - expected) > expected * this.robotsPerSecondTolerance) {
+                violations.add(String.format(Locale.ROOT, "%s: %s robots/s is %.4f, expected %.4f +/- %.0f%%",
+                        result.getScenarioName(), robotType.name(), actual, expected,
+                        this.robotsPerSecondTolerance * 100));
+            }
+        }
+
+        long expectedDiscards = baseline.getNoOfDiscardedComponents();
+        long actualDiscards = result.getNoOfDiscardedComponents();
+        long discardsTolerance = Math.max(this.minDiscardedComponentsTolerance,
+                Math.round(expectedDiscards * this.discardedComponentsTolerance));
+
+        if (Math.abs(actualDiscards - expectedDiscards) > discardsTolerance) {
+            violations.add(String.format(Locale.ROOT, "%s: %d discarded components, expected %d +/- %d",
+                    result.getScenarioName(), actualDiscards, expectedDiscards, discardsTolerance));
+        }
+
+        return violations;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 4 && "record".equals(args[0])) {
+            record(Paths.get(args[1]), Long.parseLong(args[2]), Integer.parseInt(args[3]));
+        } else if (args.length == 8 && "baseline".equals(args[0])) {
+            RegressionScenario scenario = new RegressionScenario(args[2], Integer.parseInt(args[3]),
+                    Integer.parseInt(args[4]), Long.parseLong(args[5]), Integer.parseInt(args[6]),
+                    Integer.parseInt(args[7]));
+            Path traceFile = Paths.get(args[1]);
+            RegressionResult result = new ThroughputRegressionHarness(0, 0, 0)
+                    .run(scenario, () -> replay(traceFile));
+
+            Properties baseline = new Properties();
+            result.toProperties(baseline);
+            baseline.store(System.out, null);
+        } else {
+            LOG.error("Usage: record <trace file> <seed> <number of components> | baseline <trace file> " +
+                    "<scenario name> <DRY2000 workers> <WET2000 workers> <duration millis> <speed up> <runs>");
+        }
+    }
+
+    private static ReplayComponentGeneratorService replay(Path traceFile) {
+        try {
+            return new ReplayComponentGeneratorService(traceFile);
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Could not read component trace " + traceFile + ".", ioe);
+        }
+    }
+
+    private static double median(double[] values) {
+        double[] sortedValues = values.clone();
+        Arrays.sort(sortedValues);
+
+        int middle = sortedValues.length / 2;
+        return sortedValues.length % 2 == 1 ? sortedValues[middle] :
+                (sortedValues[middle - 1] + sortedValues[middle]) / 2;
+    }
+
+    /**
+     * Record a trace of components generated randomly from a seed.
+     */
+    private static void record(Path traceFile, long seed, int noOfComponents) throws IOException {
+        try (RecordingComponentGeneratorService recorder = new RecordingComponentGeneratorService(
+                new DefaultComponentGeneratorService(seed), traceFile)) {
+            for (int i = 0; i < noOfComponents; i++) {
+                recorder.retrieveComponent();
+            }
+        }
+    }
+}
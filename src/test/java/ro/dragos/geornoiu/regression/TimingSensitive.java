@@ -0,0 +1,8 @@
+package ro.dragos.geornoiu.regression;
+
+/**
+ * JUnit category of the tests comparing wall clock throughput with a baseline. Their result depends on the load of the
+ * machine, so they are excluded from the default build and only run with {@code mvn test -Pthroughput-regression}.
+ */
+public interface TimingSensitive {
+}